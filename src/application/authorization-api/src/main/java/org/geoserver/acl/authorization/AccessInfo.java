@@ -9,6 +9,7 @@ package org.geoserver.acl.authorization;
 
 import lombok.Builder;
 import lombok.Builder.Default;
+import lombok.EqualsAndHashCode;
 import lombok.NonNull;
 import lombok.Value;
 import lombok.With;
@@ -17,6 +18,7 @@ import org.geolatte.geom.Geometry;
 import org.geoserver.acl.domain.rules.CatalogMode;
 import org.geoserver.acl.domain.rules.GrantType;
 import org.geoserver.acl.domain.rules.LayerAttribute;
+import org.geoserver.acl.domain.rules.LazyGeometry;
 
 import java.util.List;
 import java.util.Set;
@@ -26,6 +28,7 @@ import java.util.Set;
  */
 @Value
 @With
+@EqualsAndHashCode(doNotUseGetters = true)
 @Builder(toBuilder = true, builderClassName = "Builder")
 public class AccessInfo {
 
@@ -38,9 +41,9 @@ public class AccessInfo {
     /** The resulting grant: allow or deny. */
     @Default private GrantType grant = GrantType.DENY;
 
-    private Geometry<?> area;
+    private LazyGeometry<Geometry<?>> area;
 
-    private Geometry<?> clipArea;
+    private LazyGeometry<Geometry<?>> clipArea;
 
     private CatalogMode catalogMode;
 
@@ -56,10 +59,84 @@ public class AccessInfo {
 
     @Default @NonNull private List<String> matchingRules = List.of();
 
+    public Geometry<?> getArea() {
+        return LazyGeometry.geometry(area);
+    }
+
+    /**
+     * @return the (E)WKB encoding of the area, shared, so it must not be modified
+     */
+    public byte[] getAreaWkb() {
+        return area == null ? null : area.getWkb();
+    }
+
+    public Geometry<?> getClipArea() {
+        return LazyGeometry.geometry(clipArea);
+    }
+
+    /**
+     * @return the (E)WKB encoding of the clip area, shared, so it must not be modified
+     */
+    public byte[] getClipAreaWkb() {
+        return clipArea == null ? null : clipArea.getWkb();
+    }
+
+    public AccessInfo withArea(Geometry<?> area) {
+        return toBuilder().area(area).build();
+    }
+
+    public AccessInfo withAreaWkb(byte[] areaWkb) {
+        return toBuilder().areaWkb(areaWkb).build();
+    }
+
+    public AccessInfo withClipArea(Geometry<?> clipArea) {
+        return toBuilder().clipArea(clipArea).build();
+    }
+
+    public AccessInfo withClipAreaWkb(byte[] clipAreaWkb) {
+        return toBuilder().clipAreaWkb(clipAreaWkb).build();
+    }
+
     public static class Builder {
         // explicitly implement only mutators that need to ensure immutability
         private Set<LayerAttribute> attributes = Set.of();
         private Set<String> allowedStyles = Set.of();
+        // and the ones that take the area as a geolatte geometry or its WKB
+        private LazyGeometry<Geometry<?>> area;
+        private LazyGeometry<Geometry<?>> clipArea;
+
+        public Builder area(Geometry<?> area) {
+            this.area = LazyGeometry.of(area);
+            return this;
+        }
+
+        /** Sets the area from its (E)WKB encoding, which is neither copied nor decoded */
+        public Builder areaWkb(byte[] areaWkb) {
+            this.area = LazyGeometry.fromWkb(areaWkb);
+            return this;
+        }
+
+        public Builder clipArea(Geometry<?> clipArea) {
+            this.clipArea = LazyGeometry.of(clipArea);
+            return this;
+        }
+
+        /** Sets the clip area from its (E)WKB encoding, which is neither copied nor decoded */
+        public Builder clipAreaWkb(byte[] clipAreaWkb) {
+            this.clipArea = LazyGeometry.fromWkb(clipAreaWkb);
+            return this;
+        }
+
+        // used by toBuilder(), private so they're not builder properties for MapStruct
+        private Builder area(LazyGeometry<Geometry<?>> area) {
+            this.area = area;
+            return this;
+        }
+
+        private Builder clipArea(LazyGeometry<Geometry<?>> clipArea) {
+            this.clipArea = clipArea;
+            return this;
+        }
 
         public Builder attributes(Set<LayerAttribute> value) {
             this.attributes = value == null ? null : Set.copyOf(value);
@@ -10,6 +10,10 @@ package org.geoserver.acl.authorization;
 import org.geoserver.acl.domain.rules.Rule;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 /**
  * Operations on
@@ -43,4 +47,61 @@ public interface AuthorizationService {
      * @throws IllegalArgumentException if {@link AccessRequest#validate() request} is invalid
      */
     List<Rule> getMatchingRules(AccessRequest request);
+
+    /**
+     * Asynchronous variant of {@link #getAccessInfo(AccessRequest)}, for callers needing several
+     * decisions to issue their requests concurrently.
+     *
+     * <p>The default implementation computes the result on the calling thread, implementations with
+     * a significant latency, like remote ones, shall override it.
+     *
+     * @return the future result, failed with the exception {@link #getAccessInfo(AccessRequest)}
+     *     would throw
+     */
+    default CompletableFuture<AccessInfo> getAccessInfoAsync(AccessRequest request) {
+        return completed(() -> getAccessInfo(request));
+    }
+
+    /** Asynchronous variant of {@link #getAdminAuthorization(AdminAccessRequest)} */
+    default CompletableFuture<AdminAccessInfo> getAdminAuthorizationAsync(
+            AdminAccessRequest request) {
+        return completed(() -> getAdminAuthorization(request));
+    }
+
+    /** Asynchronous variant of {@link #getMatchingRules(AccessRequest)} */
+    default CompletableFuture<List<Rule>> getMatchingRulesAsync(AccessRequest request) {
+        return completed(() -> getMatchingRules(request));
+    }
+
+    /**
+     * Resolves several access requests concurrently through {@link
+     * #getAccessInfoAsync(AccessRequest)}.
+     *
+     * @return the access info for each request, in the same order
+     * @throws RuntimeException the first exception thrown by any of the requests
+     */
+    default List<AccessInfo> getAccessInfos(List<AccessRequest> requests) {
+        List<CompletableFuture<AccessInfo>> calls =
+                requests.stream().map(this::getAccessInfoAsync).collect(Collectors.toList());
+        return calls.stream().map(AuthorizationService::join).collect(Collectors.toList());
+    }
+
+    private static <T> CompletableFuture<T> completed(Supplier<T> call) {
+        try {
+            return CompletableFuture.completedFuture(call.get());
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private static <T> T join(CompletableFuture<T> call) {
+        try {
+            return call.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw e;
+        }
+    }
 }
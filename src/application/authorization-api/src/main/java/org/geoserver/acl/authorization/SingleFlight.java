@@ -0,0 +1,103 @@
+/* (c) 2023  Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.acl.authorization;
+
+import lombok.NonNull;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent calls for the same key into a single computation: the first caller computes
+ * the value, and callers arriving while it's in flight wait for and share its result, or its
+ * exception.
+ *
+ * <p>Callers wait for the computation in flight for at most their {@link #SingleFlight(Supplier)
+ * max wait}, and compute the value themselves after that, so that a hung computation doesn't hold
+ * every caller for the same key.
+ *
+ * <p>Nothing is cached, once the computation completes the next call for the same key computes it
+ * again.
+ *
+ * @param <K> the key type, must implement {@code equals()} and {@code hashCode()}
+ * @param <V> the value type
+ * @since 1.0
+ */
+public class SingleFlight<K, V> {
+
+    /** How long callers wait for the computation in flight by default */
+    public static final Duration DEFAULT_MAX_WAIT = Duration.ofSeconds(10);
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    private final Supplier<Duration> maxWait;
+
+    /** Creates a {@code SingleFlight} whose callers wait up to {@link #DEFAULT_MAX_WAIT} */
+    public SingleFlight() {
+        this(() -> DEFAULT_MAX_WAIT);
+    }
+
+    /**
+     * @param maxWait how long the calling thread can wait for the computation in flight, e.g. the
+     *     time left until its request's deadline, evaluated on each call
+     */
+    public SingleFlight(@NonNull Supplier<Duration> maxWait) {
+        this.maxWait = maxWait;
+    }
+
+    /**
+     * @return the result of {@code loader} for {@code key}, computed by the calling thread unless a
+     *     computation for an equal key is already in flight and completes within the caller's max
+     *     wait
+     */
+    public V get(@NonNull K key, @NonNull Function<K, V> loader) {
+        final CompletableFuture<V> call = new CompletableFuture<>();
+        final CompletableFuture<V> running = inFlight.putIfAbsent(key, call);
+        if (null != running) {
+            return await(running, key, loader);
+        }
+        try {
+            V value = loader.apply(key);
+            call.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, call);
+        }
+    }
+
+    /**
+     * @return the number of computations in flight
+     */
+    public int size() {
+        return inFlight.size();
+    }
+
+    private V await(CompletableFuture<V> running, K key, Function<K, V> loader) {
+        try {
+            return running.get(maxWait.get().toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            // not registered as in flight, the followers keep waiting for the original call
+            return loader.apply(key);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new IllegalStateException(cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for " + key, e);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/* (c) 2023  Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.acl.authorization;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.geoserver.acl.domain.rules.Rule;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+class AuthorizationServiceTest {
+
+    /** Answers with the request's layer name as default style */
+    private static class SyncService implements AuthorizationService {
+
+        @Override
+        public AccessInfo getAccessInfo(AccessRequest request) {
+            if ("fail".equals(request.getLayer())) {
+                throw new IllegalArgumentException("invalid request");
+            }
+            return AccessInfo.builder().defaultStyle(request.getLayer()).build();
+        }
+
+        @Override
+        public AdminAccessInfo getAdminAuthorization(AdminAccessRequest request) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<Rule> getMatchingRules(AccessRequest request) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /** Completes the requests in reverse order once all of them were issued */
+    private static class AsyncService extends SyncService {
+
+        private final int expected;
+        private final List<AccessRequest> requests = new ArrayList<>();
+        private final List<CompletableFuture<AccessInfo>> pending = new ArrayList<>();
+
+        AsyncService(int expected) {
+            this.expected = expected;
+        }
+
+        @Override
+        public CompletableFuture<AccessInfo> getAccessInfoAsync(AccessRequest request) {
+            CompletableFuture<AccessInfo> result = new CompletableFuture<>();
+            requests.add(request);
+            pending.add(result);
+            if (pending.size() == expected) {
+                for (int i = expected - 1; i >= 0; i--) {
+                    try {
+                        pending.get(i).complete(getAccessInfo(requests.get(i)));
+                    } catch (RuntimeException e) {
+                        pending.get(i).completeExceptionally(e);
+                    }
+                }
+            }
+            return result;
+        }
+    }
+
+    @Test
+    void testDefaultAsyncMethodsRunOnCallingThread() {
+        AuthorizationService service = new SyncService();
+
+        CompletableFuture<AccessInfo> result = service.getAccessInfoAsync(request("l1"));
+        assertThat(result).isCompletedWithValueMatching(i -> "l1".equals(i.getDefaultStyle()));
+
+        CompletableFuture<AccessInfo> failed = service.getAccessInfoAsync(request("fail"));
+        assertThat(failed)
+                .isCompletedExceptionally()
+                .failsWithin(Duration.ZERO)
+                .withThrowableOfType(ExecutionException.class)
+                .withCauseInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testGetAccessInfosIssuesAllRequestsBeforeWaiting() {
+        List<AccessRequest> requests =
+                Stream.of("l1", "l2", "l3").map(this::request).collect(Collectors.toList());
+        AuthorizationService service = new AsyncService(requests.size());
+
+        List<AccessInfo> result = service.getAccessInfos(requests);
+
+        assertThat(result)
+                .extracting(AccessInfo::getDefaultStyle)
+                .containsExactly("l1", "l2", "l3");
+    }
+
+    @Test
+    void testGetAccessInfosThrowsTheCause() {
+        List<AccessRequest> requests = List.of(request("l1"), request("fail"));
+        AuthorizationService service = new AsyncService(requests.size());
+
+        assertThrows(IllegalArgumentException.class, () -> service.getAccessInfos(requests));
+    }
+
+    private AccessRequest request(String layer) {
+        return AccessRequest.builder().layer(layer).build();
+    }
+}
@@ -0,0 +1,155 @@
+/* (c) 2023  Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.acl.authorization;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class SingleFlightTest {
+
+    private final SingleFlight<String, Object> singleFlight = new SingleFlight<>();
+    private final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testConcurrentCallsShareOneComputation() throws Exception {
+        final AtomicInteger calls = new AtomicInteger();
+        final CountDownLatch release = new CountDownLatch(1);
+        final Object value = new Object();
+
+        List<Future<Object>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(
+                    executor.submit(
+                            () ->
+                                    singleFlight.get(
+                                            "key",
+                                            k -> {
+                                                calls.incrementAndGet();
+                                                await(release);
+                                                return value;
+                                            })));
+        }
+        while (calls.get() == 0) Thread.sleep(1);
+        // let the followers arrive while the first call is in flight
+        Thread.sleep(100);
+        release.countDown();
+
+        for (Future<Object> result : results) {
+            assertSame(value, result.get(5, TimeUnit.SECONDS));
+        }
+        assertThat(calls.get()).isOne();
+        assertThat(singleFlight.size()).isZero();
+    }
+
+    @Test
+    void testNotCached() {
+        AtomicInteger calls = new AtomicInteger();
+        singleFlight.get("key", k -> calls.incrementAndGet());
+        singleFlight.get("key", k -> calls.incrementAndGet());
+        assertThat(calls.get()).isEqualTo(2);
+    }
+
+    @Test
+    void testDifferentKeysDontWait() {
+        Object value =
+                singleFlight.get(
+                        "outer", outer -> singleFlight.get("inner", inner -> inner + outer));
+        assertThat(value).isEqualTo("innerouter");
+    }
+
+    @Test
+    void testExceptionIsShared() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger calls = new AtomicInteger();
+
+        Future<Object> leader =
+                executor.submit(
+                        () ->
+                                singleFlight.get(
+                                        "key",
+                                        k -> {
+                                            calls.incrementAndGet();
+                                            await(release);
+                                            throw new IllegalStateException("failed");
+                                        }));
+        while (calls.get() == 0) Thread.sleep(1);
+        Future<Object> follower = executor.submit(() -> singleFlight.get("key", k -> "unused"));
+        Thread.sleep(100);
+        release.countDown();
+
+        Exception e = assertThrows(Exception.class, () -> leader.get(5, TimeUnit.SECONDS));
+        assertThat(e).hasCauseInstanceOf(IllegalStateException.class);
+        e = assertThrows(Exception.class, () -> follower.get(5, TimeUnit.SECONDS));
+        assertThat(e).hasCauseInstanceOf(IllegalStateException.class);
+        assertThat(singleFlight.size()).isZero();
+    }
+
+    @Test
+    void testFollowersDontWaitForAHungCall() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger calls = new AtomicInteger();
+        final SingleFlight<String, Object> bounded =
+                new SingleFlight<>(() -> Duration.ofMillis(100));
+
+        Future<Object> leader =
+                executor.submit(
+                        () ->
+                                bounded.get(
+                                        "key",
+                                        k -> {
+                                            calls.incrementAndGet();
+                                            await(release);
+                                            return "leader";
+                                        }));
+        while (calls.get() == 0) Thread.sleep(1);
+
+        // gives up waiting and calls the loader itself
+        long start = System.nanoTime();
+        Object value =
+                bounded.get(
+                        "key",
+                        k -> {
+                            calls.incrementAndGet();
+                            return "follower";
+                        });
+        assertThat(value).isEqualTo("follower");
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(5));
+        assertThat(calls.get()).isEqualTo(2);
+        // the hung call is still in flight
+        assertThat(bounded.size()).isOne();
+
+        release.countDown();
+        assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("leader");
+        assertThat(bounded.size()).isZero();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
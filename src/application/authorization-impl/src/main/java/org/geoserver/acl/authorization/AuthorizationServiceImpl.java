@@ -44,6 +44,7 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
@@ -345,18 +346,43 @@ public class AuthorizationServiceImpl implements AuthorizationService {
         accessInfo.catalogMode(cmode);
 
         if (area != null) {
+            // a single allowed area is returned as is, keeping its encoded form
+            final byte[] single = singleAreaWkb(limits, details);
             // if we have a clip area we apply clip type
             // since is more restrictive, otherwise we keep
             // the intersect
             if (atLeastOneClip) {
-                accessInfo.clipArea(org.geolatte.geom.jts.JTS.from(area));
+                if (single != null) accessInfo.clipAreaWkb(single);
+                else accessInfo.clipArea(org.geolatte.geom.jts.JTS.from(area));
             } else {
-                accessInfo.area(org.geolatte.geom.jts.JTS.from(area));
+                if (single != null) accessInfo.areaWkb(single);
+                else accessInfo.area(org.geolatte.geom.jts.JTS.from(area));
             }
         }
         return accessInfo.build();
     }
 
+    /**
+     * @return the WKB of the only allowed area among {@code limits} and {@code details}, {@code
+     *     null} if there are none or more than one
+     */
+    private byte[] singleAreaWkb(List<RuleLimits> limits, LayerDetails details) {
+        // the areas are already decoded to intersect them, only the single one gets encoded
+        Supplier<byte[]> single = null;
+        int count = 0;
+        for (RuleLimits limit : limits) {
+            if (null != limit.getAllowedArea()) {
+                single = limit::getAllowedAreaWkb;
+                count++;
+            }
+        }
+        if (null != details && null != details.getArea()) {
+            single = details::getAreaWkb;
+            count++;
+        }
+        return count == 1 ? single.get() : null;
+    }
+
     private LayerDetails getLayerDetails(Rule rule) {
         final boolean hasLayer = null != rule.getIdentifier().getLayer();
         if (hasLayer) {
@@ -0,0 +1,30 @@
+/* (c) 2023  Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.acl.autoconfigure.api;
+
+import org.geoserver.acl.api.server.config.BulkheadConfiguration;
+import org.geoserver.acl.api.server.config.BulkheadProperties;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+
+@AutoConfiguration
+@ConditionalOnProperty(
+        name = "geoserver.acl.bulkhead.enabled",
+        havingValue = "true",
+        matchIfMissing = true)
+@EnableConfigurationProperties
+@Import({BulkheadConfiguration.class})
+public class BulkheadAutoConfiguration {
+
+    @Bean
+    @ConfigurationProperties(prefix = "geoserver.acl.bulkhead")
+    BulkheadProperties aclBulkheadProperties() {
+        return new BulkheadProperties();
+    }
+}
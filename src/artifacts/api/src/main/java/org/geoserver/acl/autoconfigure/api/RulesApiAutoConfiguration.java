@@ -4,11 +4,23 @@
  */
 package org.geoserver.acl.autoconfigure.api;
 
+import org.geoserver.acl.api.server.config.AsyncAuthorizationProperties;
 import org.geoserver.acl.api.server.config.AuthorizationApiConfiguration;
 import org.geoserver.acl.api.server.config.RulesApiConfiguration;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Import;
 
 @AutoConfiguration
+@EnableConfigurationProperties
 @Import({RulesApiConfiguration.class, AuthorizationApiConfiguration.class})
-public class RulesApiAutoConfiguration {}
+public class RulesApiAutoConfiguration {
+
+    @Bean
+    @ConfigurationProperties(prefix = "geoserver.acl.authorization.async")
+    AsyncAuthorizationProperties aclAsyncAuthorizationProperties() {
+        return new AsyncAuthorizationProperties();
+    }
+}
@@ -4,15 +4,30 @@
  */
 package org.geoserver.acl.autoconfigure.persistence;
 
+import org.geoserver.acl.api.server.support.AsyncAuthorizationExecutor;
+import org.geoserver.acl.api.server.support.BulkheadFilter;
 import org.geoserver.acl.integration.jpa.config.JPAIntegrationConfiguration;
 import org.geoserver.acl.jpa.config.AclJpaProperties;
+import org.geoserver.acl.jpa.config.AuthorizationConnectionPool;
+import org.geoserver.acl.jpa.config.QueryDeadline;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Import;
 
+import java.time.Duration;
+
+import javax.servlet.Filter;
+import javax.servlet.http.HttpServletRequest;
+
 @AutoConfiguration
+@ConditionalOnProperty(
+        name = "geoserver.acl.persistence",
+        havingValue = "jpa",
+        matchIfMissing = true)
 @EnableConfigurationProperties
 @Import({JPAIntegrationConfiguration.class})
 public class JPAIntegrationAutoConfiguration {
@@ -22,4 +37,40 @@ public class JPAIntegrationAutoConfiguration {
     AclJpaProperties authorizationJPAProperties() {
         return new AclJpaProperties();
     }
+
+    /**
+     * Serves the authorization requests with the connection pool configured through {@code
+     * geoserver.acl.datasource.authorization-pool}, if any
+     */
+    @Bean
+    @ConditionalOnWebApplication
+    Filter authorizationConnectionPoolFilter() {
+        return (request, response, chain) -> {
+            if (BulkheadFilter.isAuthorizationRequest((HttpServletRequest) request)) {
+                try (var scope = AuthorizationConnectionPool.enter()) {
+                    chain.doFilter(request, response);
+                }
+            } else {
+                chain.doFilter(request, response);
+            }
+        };
+    }
+
+    /**
+     * Same as {@link #authorizationConnectionPoolFilter()} for the authorization requests run by
+     * the asynchronous authorization executor threads, whose queries are also bound by the time
+     * left until the request's deadline
+     */
+    @Bean
+    @ConditionalOnWebApplication
+    AsyncAuthorizationExecutor.Decorator authorizationConnectionPoolDecorator() {
+        return task ->
+                () -> {
+                    Duration timeout = AsyncAuthorizationExecutor.remainingTime().orElse(null);
+                    try (var scope = AuthorizationConnectionPool.enter();
+                            var deadline = QueryDeadline.enter(timeout)) {
+                        task.run();
+                    }
+                };
+    }
 }
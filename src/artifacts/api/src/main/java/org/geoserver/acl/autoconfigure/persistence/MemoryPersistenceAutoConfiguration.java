@@ -0,0 +1,27 @@
+/* (c) 2023  Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.acl.autoconfigure.persistence;
+
+import org.geoserver.acl.integration.memory.config.AclMemoryProperties;
+import org.geoserver.acl.integration.memory.config.MemoryPersistenceConfiguration;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+
+@AutoConfiguration
+@ConditionalOnProperty(name = "geoserver.acl.persistence", havingValue = "memory")
+@EnableConfigurationProperties
+@Import({MemoryPersistenceConfiguration.class})
+public class MemoryPersistenceAutoConfiguration {
+
+    @Bean
+    @ConfigurationProperties(prefix = "geoserver.acl.memory")
+    AclMemoryProperties aclMemoryProperties() {
+        return new AclMemoryProperties();
+    }
+}
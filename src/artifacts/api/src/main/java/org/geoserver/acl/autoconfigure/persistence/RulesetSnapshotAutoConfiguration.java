@@ -0,0 +1,28 @@
+/* (c) 2023  Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.acl.autoconfigure.persistence;
+
+import org.geoserver.acl.integration.memory.config.RulesetSnapshotConfiguration;
+import org.geoserver.acl.integration.memory.config.RulesetSnapshotProperties;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+
+@AutoConfiguration(
+        after = {JPAIntegrationAutoConfiguration.class, MemoryPersistenceAutoConfiguration.class})
+@ConditionalOnProperty(name = "geoserver.acl.snapshot.file")
+@EnableConfigurationProperties
+@Import({RulesetSnapshotConfiguration.class})
+public class RulesetSnapshotAutoConfiguration {
+
+    @Bean
+    @ConfigurationProperties(prefix = "geoserver.acl.snapshot")
+    RulesetSnapshotProperties aclRulesetSnapshotProperties() {
+        return new RulesetSnapshotProperties();
+    }
+}
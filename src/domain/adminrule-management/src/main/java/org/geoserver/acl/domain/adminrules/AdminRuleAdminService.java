@@ -8,7 +8,9 @@ package org.geoserver.acl.domain.adminrules;
 
 import org.geoserver.acl.domain.filter.RuleQuery;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.function.Consumer;
 import java.util.stream.Stream;
 
@@ -31,6 +33,36 @@ public interface AdminRuleAdminService {
      */
     AdminRule update(AdminRule rule);
 
+    /**
+     * Inserts all the rules in a single operation, publishing a single {@link AdminRuleEvent} for
+     * all of them. See {@link AdminRuleRepository#createAll(List, InsertPosition)} for how
+     * priorities are resolved.
+     *
+     * @throws AdminRuleIdentifierConflictException
+     */
+    List<AdminRule> insertAll(List<AdminRule> rules, InsertPosition position);
+
+    /**
+     * Inserts the rules keeping their own priorities, to restore the rules streamed by {@link
+     * #exportAll}. Publishes a single {@link AdminRuleEvent} for all of them. See {@link
+     * AdminRuleRepository#importAll(List)}.
+     *
+     * @throws IllegalArgumentException if any rule has an id, or a priority already taken
+     * @throws AdminRuleIdentifierConflictException
+     */
+    List<AdminRule> importAll(List<AdminRule> rules);
+
+    /**
+     * Updates all the rules in a single operation, publishing a single {@link AdminRuleEvent} for
+     * all of them.
+     *
+     * <p>Priority changes are applied in list order, as consecutive calls to {@link
+     * #update(AdminRule)} would do.
+     *
+     * @throws AdminRuleIdentifierConflictException
+     */
+    List<AdminRule> updateAll(List<AdminRule> rules);
+
     /**
      * Shifts the priority of the rules having <TT>priority &gt;= priorityStart</TT> down by
      * <TT>offset</TT>.
@@ -49,12 +81,23 @@ public interface AdminRuleAdminService {
      */
     Optional<AdminRule> get(String id);
 
+    /**
+     * @return the admin rules with the given ids, in no particular order, fetched in bulk. Ids of
+     *     rules that don't exist are skipped.
+     */
+    List<AdminRule> getAllById(Set<String> ids);
+
     Optional<AdminRule> getFirstMatch(AdminRuleFilter filter);
 
     boolean delete(String id);
 
     Stream<AdminRule> getAll();
 
+    /**
+     * Streams all the admin rules in priority order, without holding them all in memory at once.
+     */
+    void exportAll(Consumer<AdminRule> consumer);
+
     /**
      * Return the Rules according to the filter.
      *
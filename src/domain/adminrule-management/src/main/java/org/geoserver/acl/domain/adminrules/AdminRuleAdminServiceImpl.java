@@ -13,7 +13,9 @@ import lombok.Setter;
 
 import org.geoserver.acl.domain.filter.RuleQuery;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.function.Consumer;
 import java.util.stream.Stream;
 
@@ -69,6 +71,46 @@ public class AdminRuleAdminServiceImpl implements AdminRuleAdminService {
         return updated;
     }
 
+    /**
+     * @throws AdminRuleIdentifierConflictException
+     */
+    @Override
+    public List<AdminRule> insertAll(
+            @NonNull List<AdminRule> rules, @NonNull InsertPosition position) {
+        if (rules.isEmpty()) return List.of();
+        List<AdminRule> created = repository.createAll(rules, position);
+        eventPublisher.accept(AdminRuleEvent.created(created.toArray(AdminRule[]::new)));
+        return created;
+    }
+
+    /**
+     * @throws AdminRuleIdentifierConflictException
+     */
+    @Override
+    public List<AdminRule> importAll(@NonNull List<AdminRule> rules) {
+        if (rules.isEmpty()) return List.of();
+        if (rules.stream().anyMatch(r -> null != r.getId())) {
+            throw new IllegalArgumentException("a new AdminRule must not have id");
+        }
+        List<AdminRule> created = repository.importAll(rules);
+        eventPublisher.accept(AdminRuleEvent.created(created.toArray(AdminRule[]::new)));
+        return created;
+    }
+
+    /**
+     * @throws AdminRuleIdentifierConflictException
+     */
+    @Override
+    public List<AdminRule> updateAll(@NonNull List<AdminRule> rules) {
+        if (rules.isEmpty()) return List.of();
+        if (rules.stream().anyMatch(r -> null == r.getId())) {
+            throw new IllegalArgumentException("AdminRule has no id");
+        }
+        List<AdminRule> updated = repository.saveAll(rules);
+        eventPublisher.accept(AdminRuleEvent.updated(updated.toArray(AdminRule[]::new)));
+        return updated;
+    }
+
     /**
      * Shifts the priority of the rules having <TT>priority &gt;= priorityStart</TT> down by
      * <TT>offset</TT>.
@@ -97,6 +139,11 @@ public class AdminRuleAdminServiceImpl implements AdminRuleAdminService {
         return repository.findById(id);
     }
 
+    @Override
+    public List<AdminRule> getAllById(@NonNull Set<String> ids) {
+        return repository.findAllById(ids);
+    }
+
     @Override
     public Optional<AdminRule> getFirstMatch(AdminRuleFilter filter) {
         return repository.findFirst(filter);
@@ -114,6 +161,11 @@ public class AdminRuleAdminServiceImpl implements AdminRuleAdminService {
         return repository.findAll();
     }
 
+    @Override
+    public void exportAll(@NonNull Consumer<AdminRule> consumer) {
+        repository.exportAll(consumer);
+    }
+
     /**
      * Return the Rules according to the filter.
      *
@@ -8,6 +8,8 @@ import lombok.NonNull;
 import lombok.Value;
 
 import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Value
 public class AdminRuleEvent {
@@ -21,12 +23,12 @@ public class AdminRuleEvent {
     private EventType eventType;
     private Set<String> ruleIds;
 
-    public static AdminRuleEvent created(@NonNull AdminRule rule) {
-        return new AdminRuleEvent(EventType.CREATED, Set.of(rule.getId()));
+    public static AdminRuleEvent created(@NonNull AdminRule... rules) {
+        return new AdminRuleEvent(EventType.CREATED, ids(rules));
     }
 
-    public static AdminRuleEvent updated(@NonNull AdminRule rule) {
-        return new AdminRuleEvent(EventType.UPDATED, Set.of(rule.getId()));
+    public static AdminRuleEvent updated(@NonNull AdminRule... rules) {
+        return new AdminRuleEvent(EventType.UPDATED, ids(rules));
     }
 
     public static AdminRuleEvent updated(@NonNull String... ids) {
@@ -40,4 +42,8 @@ public class AdminRuleEvent {
     public static AdminRuleEvent deleted(@NonNull String... ids) {
         return new AdminRuleEvent(EventType.DELETED, Set.of(ids));
     }
+
+    private static Set<String> ids(AdminRule... rules) {
+        return Stream.of(rules).map(AdminRule::getId).collect(Collectors.toSet());
+    }
 }
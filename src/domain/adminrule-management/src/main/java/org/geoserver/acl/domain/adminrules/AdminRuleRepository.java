@@ -6,7 +6,12 @@ package org.geoserver.acl.domain.adminrules;
 
 import org.geoserver.acl.domain.filter.RuleQuery;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 public interface AdminRuleRepository {
@@ -24,10 +29,95 @@ public interface AdminRuleRepository {
      */
     AdminRule save(AdminRule rule);
 
+    /**
+     * Creates all the rules in a single operation.
+     *
+     * <p>The rules are inserted as a contiguous block, keeping the list order. The block is
+     * positioned as {@link #create(AdminRule, InsertPosition)} would do for the first rule; the
+     * priorities of the following rules are ignored.
+     *
+     * @return the rules as created, in the same order as the argument list
+     * @throws IllegalArgumentException if any rule has an id or a negative priority
+     * @throws AdminRuleIdentifierConflictException
+     */
+    List<AdminRule> createAll(List<AdminRule> rules, InsertPosition position);
+
+    /**
+     * Creates the rules with their own priorities, as {@link #exportAll} streams them.
+     *
+     * <p>Unlike {@link #createAll(List, InsertPosition)}, existing rules are never shifted to make
+     * room: a priority already taken, or repeated in the list, is rejected.
+     *
+     * <p>The default implementation creates one rule at a time at its {@link InsertPosition#FIXED
+     * FIXED} priority, and is not atomic. Implementations backed by a transactional storage shall
+     * override it.
+     *
+     * @return the rules as created, in the same order as the argument list
+     * @throws IllegalArgumentException if any rule has an id, or a priority already taken
+     * @throws AdminRuleIdentifierConflictException
+     */
+    default List<AdminRule> importAll(List<AdminRule> rules) {
+        final Set<Long> priorities = new HashSet<>();
+        for (AdminRule rule : rules) {
+            if (!priorities.add(rule.getPriority())) {
+                throw new IllegalArgumentException(
+                        "Priority " + rule.getPriority() + " is repeated");
+            }
+            findOneByPriority(rule.getPriority())
+                    .filter(taken -> taken.getPriority() == rule.getPriority())
+                    .ifPresent(
+                            taken -> {
+                                throw new IllegalArgumentException(
+                                        "Priority "
+                                                + rule.getPriority()
+                                                + " is already taken by AdminRule "
+                                                + taken.getId());
+                            });
+        }
+        List<AdminRule> created = new ArrayList<>(rules.size());
+        for (AdminRule rule : rules) {
+            created.add(create(rule, InsertPosition.FIXED));
+        }
+        return created;
+    }
+
+    /**
+     * Updates all the rules in a single operation.
+     *
+     * <p>Priority changes are applied in list order, as consecutive calls to {@link
+     * #save(AdminRule)} would do.
+     *
+     * @return the updated rules, in the same order as the argument list
+     * @throws IllegalArgumentException if any rule has no id or does not exist
+     * @throws AdminRuleIdentifierConflictException
+     */
+    List<AdminRule> saveAll(List<AdminRule> rules);
+
     Optional<AdminRule> findById(String id);
 
+    /**
+     * @return the admin rules with the given ids, in no particular order, skipping the ids of rules
+     *     that don't exist. The default implementation queries each rule, implementations shall
+     *     override it to fetch them in bulk.
+     */
+    default List<AdminRule> findAllById(Set<String> ids) {
+        List<AdminRule> found = new ArrayList<>();
+        for (String id : ids) {
+            findById(id).ifPresent(found::add);
+        }
+        return found;
+    }
+
     Stream<AdminRule> findAll();
 
+    /**
+     * Streams all the admin rules in natural order (priority), without holding them all in memory
+     * at once.
+     */
+    default void exportAll(Consumer<AdminRule> consumer) {
+        findAll().forEach(consumer);
+    }
+
     Stream<AdminRule> findAll(RuleQuery<AdminRuleFilter> query);
 
     Optional<AdminRule> findFirst(AdminRuleFilter adminRuleFilter);
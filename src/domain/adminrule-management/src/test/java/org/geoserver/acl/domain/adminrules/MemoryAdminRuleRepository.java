@@ -11,10 +11,15 @@ import org.geoserver.acl.domain.rules.MemoryPriorityRepository;
 import org.geoserver.acl.domain.rules.PriorityResolver;
 import org.geoserver.acl.domain.rules.PriorityResolver.Position;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 /**
@@ -50,6 +55,49 @@ public class MemoryAdminRuleRepository extends MemoryPriorityRepository<AdminRul
         return rule;
     }
 
+    @Override
+    public List<AdminRule> createAll(List<AdminRule> newRules, InsertPosition position) {
+        if (newRules.stream().anyMatch(r -> null != r.getId()))
+            throw new IllegalArgumentException("Rule has id");
+        newRules.forEach(this::checkNoDups);
+        checkNoDupsInBatch(newRules);
+
+        List<AdminRule> created = new ArrayList<>();
+        for (AdminRule rule : newRules) {
+            if (created.isEmpty()) {
+                created.add(create(rule, position));
+            } else {
+                long next = created.get(created.size() - 1).getPriority() + 1;
+                created.add(create(rule.withPriority(next), InsertPosition.FIXED));
+            }
+        }
+        return created;
+    }
+
+    @Override
+    public List<AdminRule> saveAll(List<AdminRule> updates) {
+        if (updates.stream().anyMatch(r -> null == r.getId()))
+            throw new IllegalArgumentException("Rule has no id");
+        updates.forEach(r -> getOrThrow(r.getId()));
+        Set<String> ids = updates.stream().map(AdminRule::getId).collect(Collectors.toSet());
+        updates.forEach(r -> checkNoDups(r, ids));
+        checkNoDupsInBatch(updates);
+        return updates.stream().map(this::doSave).collect(Collectors.toList());
+    }
+
+    private void checkNoDupsInBatch(List<AdminRule> batch) {
+        Set<Object> identifiers = new HashSet<>();
+        batch.stream()
+                .filter(r -> !identifiers.add(Arrays.asList(r.getAccess(), r.getIdentifier())))
+                .findFirst()
+                .ifPresent(
+                        duplicate -> {
+                            throw new AdminRuleIdentifierConflictException(
+                                    "An AdminRule with the same identifier is repeated: "
+                                            + duplicate.toShortString());
+                        });
+    }
+
     private Position map(InsertPosition position) {
         switch (position) {
             case FIXED:
@@ -67,6 +115,10 @@ public class MemoryAdminRuleRepository extends MemoryPriorityRepository<AdminRul
     public AdminRule save(AdminRule rule) {
         if (null == rule.getId()) throw new IllegalArgumentException("Rule has no id");
         checkNoDups(rule);
+        return doSave(rule);
+    }
+
+    private AdminRule doSave(AdminRule rule) {
         final AdminRule current = getOrThrow(rule.getId());
 
         final long finalPriority =
@@ -80,7 +132,7 @@ public class MemoryAdminRuleRepository extends MemoryPriorityRepository<AdminRul
             if (positionOccupied.isPresent()) {
                 AdminRule other = positionOccupied.get();
                 rules.remove(current);
-                save(other.withPriority(other.getPriority() + 1));
+                doSave(other.withPriority(other.getPriority() + 1));
                 rules.add(rule);
             } else {
                 replace(current, rule);
@@ -106,10 +158,15 @@ public class MemoryAdminRuleRepository extends MemoryPriorityRepository<AdminRul
      * @throws AdminRuleIdentifierConflictException
      */
     private void checkNoDups(AdminRule rule) {
+        checkNoDups(rule, Set.of());
+    }
+
+    private void checkNoDups(AdminRule rule, Set<String> ignoreIds) {
         rules.stream()
                 .filter(
                         r ->
                                 !r.getId().equals(rule.getId())
+                                        && !ignoreIds.contains(r.getId())
                                         && r.getAccess().equals(rule.getAccess())
                                         && r.getIdentifier().equals(rule.getIdentifier()))
                 .findFirst()
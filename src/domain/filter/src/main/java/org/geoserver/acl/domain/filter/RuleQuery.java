@@ -10,6 +10,7 @@ import lombok.Data;
 import lombok.experimental.Accessors;
 
 import java.util.Optional;
+import java.util.Set;
 
 @Data
 @Accessors(chain = true)
@@ -20,6 +21,12 @@ public class RuleQuery<F extends Filter<?>> {
     private Integer limit;
     private String nextId;
 
+    /**
+     * Names of the rule properties the caller needs, {@code null} for all of them. The id,
+     * priority, and identifier are always returned, repositories may skip loading the others.
+     */
+    private Set<String> fields;
+
     public static <RF extends Filter<?>> RuleQuery<RF> of() {
         return new RuleQuery<RF>();
     }
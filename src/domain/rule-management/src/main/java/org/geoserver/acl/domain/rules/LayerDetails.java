@@ -9,6 +9,7 @@ package org.geoserver.acl.domain.rules;
 
 import lombok.Builder;
 import lombok.Builder.Default;
+import lombok.EqualsAndHashCode;
 import lombok.NonNull;
 import lombok.Value;
 import lombok.With;
@@ -22,6 +23,7 @@ import java.util.Set;
  */
 @Value
 @With
+@EqualsAndHashCode(doNotUseGetters = true)
 @Builder(toBuilder = true, builderClassName = "Builder")
 public class LayerDetails {
 
@@ -39,7 +41,7 @@ public class LayerDetails {
 
     private String cqlFilterWrite;
 
-    private MultiPolygon<?> area;
+    private LazyGeometry<MultiPolygon<?>> area;
 
     @Default @NonNull private SpatialFilterType spatialFilterType = SpatialFilterType.INTERSECT;
 
@@ -49,11 +51,48 @@ public class LayerDetails {
 
     @NonNull private Set<LayerAttribute> attributes;
 
+    public MultiPolygon<?> getArea() {
+        return LazyGeometry.geometry(area);
+    }
+
+    /**
+     * @return the (E)WKB encoding of the area, shared, so it must not be modified
+     */
+    public byte[] getAreaWkb() {
+        return area == null ? null : area.getWkb();
+    }
+
+    public LayerDetails withArea(MultiPolygon<?> area) {
+        return toBuilder().area(area).build();
+    }
+
+    public LayerDetails withAreaWkb(byte[] areaWkb) {
+        return toBuilder().areaWkb(areaWkb).build();
+    }
+
     public static class Builder {
         // define (effectively overriding lombok's generated ones) only the builder methods for the
         // collection attributes we want to ensure are immutable
         private Set<String> allowedStyles = Set.of();
         private Set<LayerAttribute> attributes = Set.of();
+        private LazyGeometry<MultiPolygon<?>> area;
+
+        public Builder area(MultiPolygon<?> area) {
+            this.area = LazyGeometry.of(area);
+            return this;
+        }
+
+        /** Sets the area from its (E)WKB encoding, which is neither copied nor decoded */
+        public Builder areaWkb(byte[] areaWkb) {
+            this.area = LazyGeometry.fromWkb(areaWkb);
+            return this;
+        }
+
+        // used by toBuilder(), private so it's not a builder property for MapStruct
+        private Builder area(LazyGeometry<MultiPolygon<?>> area) {
+            this.area = area;
+            return this;
+        }
 
         public Builder allowedStyles(Set<String> allowedStyles) {
             if (allowedStyles == null) {
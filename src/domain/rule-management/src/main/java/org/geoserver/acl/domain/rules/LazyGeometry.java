@@ -0,0 +1,219 @@
+/* (c) 2023  Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.acl.domain.rules;
+
+import lombok.NonNull;
+
+import org.geolatte.geom.ByteBuffer;
+import org.geolatte.geom.ByteOrder;
+import org.geolatte.geom.Geometry;
+import org.geolatte.geom.GeometryType;
+import org.geolatte.geom.codec.Wkb;
+import org.geolatte.geom.codec.Wkt;
+import org.geolatte.geom.jts.JTS;
+import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKBReader;
+
+import java.util.Arrays;
+
+/**
+ * An immutable geometry value that keeps its (E)WKB encoding, so it can be passed along from the
+ * database to GeoServer without being decoded and encoded again at every step.
+ *
+ * <p>It's created either from a geolatte {@link Geometry} or from its WKB encoding, and the other
+ * representation is only computed, once, when asked for. The geometry type and SRID are read
+ * straight from the WKB header.
+ *
+ * @param <G> the geolatte geometry type
+ * @since 1.0
+ */
+public final class LazyGeometry<G extends Geometry<?>> {
+
+    private static final int EWKB_SRID_FLAG = 0x20000000;
+
+    private volatile byte[] wkb;
+    private volatile G geometry;
+
+    private LazyGeometry(byte[] wkb, G geometry) {
+        this.wkb = wkb;
+        this.geometry = geometry;
+    }
+
+    /**
+     * @return a lazy geometry wrapping {@code geometry}, or {@code null} if {@code geometry} is
+     *     {@code null}
+     */
+    public static <G extends Geometry<?>> LazyGeometry<G> of(G geometry) {
+        return geometry == null ? null : new LazyGeometry<>(null, geometry);
+    }
+
+    /**
+     * Creates a lazy geometry out of its WKB or EWKB encoding, which is not validated nor decoded
+     * until the geometry is requested. The array is not copied, so it must not be modified
+     * afterwards.
+     *
+     * @return the lazy geometry, or {@code null} if {@code wkb} is {@code null}
+     */
+    public static <G extends Geometry<?>> LazyGeometry<G> fromWkb(byte[] wkb) {
+        return wkb == null ? null : new LazyGeometry<>(wkb, null);
+    }
+
+    /**
+     * @return the WKB encoding of the geometry, EWKB if it has an SRID. The array is shared, so it
+     *     must not be modified.
+     */
+    public byte[] getWkb() {
+        byte[] bytes = this.wkb;
+        if (bytes == null) {
+            final Geometry<?> geom = geometry;
+            bytes = Wkb.toWkb(geom).toByteArray();
+            this.wkb = bytes;
+        }
+        return bytes;
+    }
+
+    /**
+     * @return the decoded geolatte geometry
+     * @throws ClassCastException if the WKB does not encode a geometry of type {@code G}
+     */
+    @SuppressWarnings("unchecked")
+    public G getGeometry() {
+        G geom = this.geometry;
+        if (geom == null) {
+            geom = (G) Wkb.fromWkb(ByteBuffer.from(wkb));
+            this.geometry = geom;
+        }
+        return geom;
+    }
+
+    /**
+     * Decodes the geometry straight to JTS if it was created from WKB, without going through
+     * geolatte.
+     *
+     * @return a new JTS geometry
+     */
+    public org.locationtech.jts.geom.Geometry toJTS() {
+        final byte[] bytes = this.wkb;
+        if (bytes == null) {
+            final Geometry<?> geom = geometry;
+            return JTS.to(geom);
+        }
+        try {
+            return new WKBReader().read(bytes);
+        } catch (ParseException e) {
+            throw new IllegalStateException("Invalid WKB geometry: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @return the geometry type, read from the WKB header if not yet decoded
+     */
+    public GeometryType getGeometryType() {
+        final byte[] bytes = this.wkb;
+        if (bytes == null) {
+            return geometry.getGeometryType();
+        }
+        final int type = typeCode(bytes);
+        // EWKB flags are on the high bits, ISO WKB adds 1000, 2000, or 3000 for Z/M
+        switch ((type & 0xFFFF) % 1000) {
+            case 1:
+                return GeometryType.POINT;
+            case 2:
+                return GeometryType.LINESTRING;
+            case 3:
+                return GeometryType.POLYGON;
+            case 4:
+                return GeometryType.MULTIPOINT;
+            case 5:
+                return GeometryType.MULTILINESTRING;
+            case 6:
+                return GeometryType.MULTIPOLYGON;
+            case 7:
+                return GeometryType.GEOMETRYCOLLECTION;
+            default:
+                throw new IllegalStateException("Unsupported WKB geometry type: " + type);
+        }
+    }
+
+    /**
+     * @return the SRID, read from the EWKB header if not yet decoded, {@code 0} if the WKB has none
+     */
+    public int getSRID() {
+        final byte[] bytes = this.wkb;
+        if (bytes == null) {
+            return geometry.getSRID();
+        }
+        if ((typeCode(bytes) & EWKB_SRID_FLAG) == 0) {
+            return 0;
+        }
+        return readInt(bytes, 5);
+    }
+
+    private static int typeCode(byte[] wkb) {
+        if (wkb.length < 5) throw new IllegalStateException("Invalid WKB geometry");
+        return readInt(wkb, 1);
+    }
+
+    private static int readInt(byte[] wkb, int offset) {
+        final boolean littleEndian = wkb[0] == 1;
+        int value = 0;
+        for (int i = 0; i < 4; i++) {
+            int b = wkb[offset + (littleEndian ? 3 - i : i)] & 0xFF;
+            value = (value << 8) | b;
+        }
+        return value;
+    }
+
+    /**
+     * Lazy geometries are equal if they have the same WKB encoding, regardless of its byte order
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof LazyGeometry)) return false;
+        LazyGeometry<?> other = (LazyGeometry<?>) o;
+        return Arrays.equals(ndrWkb(), other.ndrWkb());
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(ndrWkb());
+    }
+
+    /**
+     * @return the little endian WKB encoding, as is unless it was created from big endian WKB
+     */
+    private byte[] ndrWkb() {
+        final byte[] bytes = getWkb();
+        if (bytes[0] == 1) return bytes;
+        return Wkb.toWkb(getGeometry(), ByteOrder.NDR).toByteArray();
+    }
+
+    @Override
+    public String toString() {
+        return Wkt.toWkt(getGeometry());
+    }
+
+    /**
+     * @return the decoded geometry of {@code lazy}, or {@code null} if it's {@code null}
+     */
+    public static <G extends Geometry<?>> G geometry(LazyGeometry<G> lazy) {
+        return lazy == null ? null : lazy.getGeometry();
+    }
+
+    /**
+     * @return {@code geometry} with type {@code type}
+     * @throws IllegalArgumentException if {@code geometry} is not of type {@code type}
+     */
+    public static <G extends Geometry<?>> LazyGeometry<G> checkType(
+            @NonNull LazyGeometry<G> geometry, @NonNull GeometryType type) {
+        GeometryType actual = geometry.getGeometryType();
+        if (type != actual) {
+            throw new IllegalArgumentException(
+                    "Expected " + type + ", got " + actual.getCamelCased());
+        }
+        return geometry;
+    }
+}
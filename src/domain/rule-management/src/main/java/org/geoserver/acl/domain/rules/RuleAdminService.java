@@ -8,8 +8,10 @@ package org.geoserver.acl.domain.rules;
 
 import org.geoserver.acl.domain.filter.RuleQuery;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.stream.Stream;
 
@@ -42,6 +44,86 @@ public interface RuleAdminService {
      */
     Rule update(Rule rule);
 
+    /**
+     * Inserts all the rules in a single operation, publishing a single {@link RuleEvent} for all of
+     * them.
+     *
+     * <p>The rules are inserted as a contiguous block, keeping the list order. The block is
+     * positioned as {@link #insert(Rule, InsertPosition)} would do for the first rule; the
+     * priorities of the following rules are ignored.
+     *
+     * @throws IllegalArgumentException if any rule has an {@link Rule#getId() id} set
+     * @throws RuleIdentifierConflictException if any rule has the same {@link RuleIdentifier} than
+     *     an existing one, or than another rule in the list
+     * @return the rules as created, in the same order as the argument list
+     */
+    List<Rule> insertAll(List<Rule> rules, InsertPosition position);
+
+    /**
+     * Inserts all the rules as {@link #insertAll(List, InsertPosition)} does, along with the {@link
+     * LayerDetails} of the ones with a non {@code null} entry in {@code details}, in a single
+     * operation.
+     *
+     * @param details the layer details of each rule, in the same order as {@code rules}
+     * @throws IllegalArgumentException if any rule has an {@link Rule#getId() id} set, {@code
+     *     details} is not of the same size than {@code rules}, or any rule with details can't have
+     *     them
+     * @throws RuleIdentifierConflictException if any rule has the same {@link RuleIdentifier} than
+     *     an existing one, or than another rule in the list
+     * @return the rules as created, in the same order as the argument list
+     */
+    List<Rule> insertAll(List<Rule> rules, List<LayerDetails> details, InsertPosition position);
+
+    /**
+     * Inserts the rules keeping their own priorities, along with the {@link LayerDetails} of the
+     * ones with a non {@code null} entry in {@code details}, to restore the rules streamed by
+     * {@link #exportAll}. Publishes a single {@link RuleEvent} for all of them.
+     *
+     * <p>Existing rules are never shifted, a priority that's already taken is rejected.
+     *
+     * @param details the layer details of each rule, in the same order as {@code rules}
+     * @throws IllegalArgumentException if any rule has an {@link Rule#getId() id} set, a priority
+     *     already taken or repeated, {@code details} is not of the same size than {@code rules}, or
+     *     any rule with details can't have them
+     * @throws RuleIdentifierConflictException if any rule has the same {@link RuleIdentifier} than
+     *     an existing one, or than another rule in the list
+     * @return the rules as created, in the same order as the argument list
+     */
+    List<Rule> importAll(List<Rule> rules, List<LayerDetails> details);
+
+    /**
+     * Updates all the rules in a single operation, publishing a single {@link RuleEvent} for all of
+     * them.
+     *
+     * <p>Priority changes are applied in list order, as consecutive calls to {@link #update(Rule)}
+     * would do.
+     *
+     * @throws IllegalArgumentException if any rule has {@code null} {@link Rule#getId() id} or does
+     *     not exist
+     * @throws RuleIdentifierConflictException if any rule would end up with the same {@link
+     *     RuleIdentifier} than another one
+     * @return the updated rules, in the same order as the argument list
+     */
+    List<Rule> updateAll(List<Rule> rules);
+
+    /**
+     * Applies all the operations of the batch in order and as a whole, publishing a single {@link
+     * RuleEvent} for all the affected rules.
+     *
+     * <p>The event is of type {@code CREATED} or {@code DELETED} if all the operations are creates
+     * or deletes respectively, and {@code UPDATED} otherwise.
+     *
+     * @throws IllegalArgumentException if a created rule has an {@link Rule#getId() id} set, an
+     *     updated one has none, an operation refers to a rule that does not exist, or its layer
+     *     details can't be set
+     * @throws RuleIdentifierConflictException if a created or updated rule would have the same
+     *     {@link RuleIdentifier} than another one
+     * @return the resulting rule of each operation, in the same order as the batch operations,
+     *     {@code null} for {@code DELETE} operations
+     * @see RuleRepository#execute(RuleBatch)
+     */
+    List<Rule> execute(RuleBatch batch);
+
     /**
      * Shifts the priority of the rules having <TT>priority &gt;= priorityStart</TT> down by
      * <TT>offset</TT>.
@@ -66,6 +148,12 @@ public interface RuleAdminService {
 
     Stream<Rule> getAll();
 
+    /**
+     * Streams all the rules in priority order along with their {@link LayerDetails} ({@code null}
+     * if they have none), without holding them all in memory at once.
+     */
+    void exportAll(BiConsumer<Rule, LayerDetails> consumer);
+
     /**
      * Return the Rules according to the query.
      *
@@ -73,6 +161,21 @@ public interface RuleAdminService {
      */
     Stream<Rule> getAll(RuleQuery<RuleFilter> query);
 
+    /**
+     * Passes the rules matching the query, in priority order, to {@code consumer} along with their
+     * {@link LayerDetails} ({@code null} if they have none), fetching the layer details in bulk.
+     *
+     * @param query provides a filter predicate, paging, and priority offset
+     */
+    void getAllWithDetails(RuleQuery<RuleFilter> query, BiConsumer<Rule, LayerDetails> consumer);
+
+    /**
+     * Passes the rules with the given ids, in no particular order, to {@code consumer} along with
+     * their {@link LayerDetails} ({@code null} if they have none), fetching them in bulk. Ids of
+     * rules that don't exist are skipped.
+     */
+    void getAllByIdWithDetails(Set<String> ids, BiConsumer<Rule, LayerDetails> consumer);
+
     /**
      * Return a single Rule according to the filter.
      *
@@ -13,10 +13,13 @@ import lombok.Setter;
 
 import org.geoserver.acl.domain.filter.RuleQuery;
 
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -92,6 +95,141 @@ public class RuleAdminServiceImpl implements RuleAdminService {
         return updated;
     }
 
+    /**
+     * Inserts all the rules in a single operation, publishing a single {@link RuleEvent} for all of
+     * them.
+     *
+     * @throws IllegalArgumentException if any rule has an {@link Rule#getId() id} set
+     * @throws RuleIdentifierConflictException if any rule has the same {@link RuleIdentifier} than
+     *     an existing one, or than another rule in the list
+     * @return the rules as created, in the same order as the argument list
+     */
+    @Override
+    public List<Rule> insertAll(@NonNull List<Rule> rules, @NonNull InsertPosition position) {
+        if (rules.isEmpty()) return List.of();
+        rules.stream()
+                .filter(r -> null != r.getId())
+                .findFirst()
+                .ifPresent(
+                        r -> {
+                            throw new IllegalArgumentException(
+                                    "a new Rule must not have id, got " + r.getId());
+                        });
+
+        List<Rule> sanitized =
+                rules.stream().map(this::sanitizeFields).collect(Collectors.toList());
+        List<Rule> created = ruleRepository.createAll(sanitized, position);
+        eventPublisher.accept(RuleEvent.created(created.toArray(Rule[]::new)));
+        return created;
+    }
+
+    /**
+     * Inserts all the rules along with their layer details in a single operation, publishing a
+     * single {@link RuleEvent} for all of them.
+     */
+    @Override
+    public List<Rule> insertAll(
+            @NonNull List<Rule> rules,
+            @NonNull List<LayerDetails> details,
+            @NonNull InsertPosition position) {
+        if (rules.isEmpty()) return List.of();
+        if (rules.stream().anyMatch(r -> null != r.getId())) {
+            throw new IllegalArgumentException("a new Rule must not have id");
+        }
+
+        List<Rule> sanitized =
+                rules.stream().map(this::sanitizeFields).collect(Collectors.toList());
+        List<Rule> created = ruleRepository.createAll(sanitized, details, position);
+        eventPublisher.accept(RuleEvent.created(created.toArray(Rule[]::new)));
+        return created;
+    }
+
+    @Override
+    public List<Rule> importAll(@NonNull List<Rule> rules, @NonNull List<LayerDetails> details) {
+        if (rules.isEmpty()) return List.of();
+        if (rules.stream().anyMatch(r -> null != r.getId())) {
+            throw new IllegalArgumentException("a new Rule must not have id");
+        }
+
+        List<Rule> sanitized =
+                rules.stream().map(this::sanitizeFields).collect(Collectors.toList());
+        List<Rule> created = ruleRepository.importAll(sanitized, details);
+        eventPublisher.accept(RuleEvent.created(created.toArray(Rule[]::new)));
+        return created;
+    }
+
+    /**
+     * Updates all the rules in a single operation, publishing a single {@link RuleEvent} for all of
+     * them.
+     *
+     * @throws IllegalArgumentException if any rule has {@code null} {@link Rule#getId() id} or does
+     *     not exist
+     * @throws RuleIdentifierConflictException if any rule would end up with the same {@link
+     *     RuleIdentifier} than another one
+     * @return the updated rules, in the same order as the argument list
+     */
+    @Override
+    public List<Rule> updateAll(@NonNull List<Rule> rules) {
+        if (rules.isEmpty()) return List.of();
+        if (rules.stream().anyMatch(r -> null == r.getId())) {
+            throw new IllegalArgumentException("Rule has no id");
+        }
+
+        List<Rule> sanitized =
+                rules.stream().map(this::sanitizeFields).collect(Collectors.toList());
+        List<Rule> updated = ruleRepository.saveAll(sanitized);
+        eventPublisher.accept(RuleEvent.updated(updated.toArray(Rule[]::new)));
+        return updated;
+    }
+
+    /**
+     * Applies all the operations of the batch in a single operation, publishing a single {@link
+     * RuleEvent} for all of them.
+     */
+    @Override
+    public List<Rule> execute(@NonNull RuleBatch batch) {
+        if (batch.getOperations().isEmpty()) return List.of();
+        List<RuleBatch.Operation> sanitized =
+                batch.getOperations().stream().map(this::sanitize).collect(Collectors.toList());
+
+        List<Rule> results = ruleRepository.execute(batch.withOperations(sanitized));
+
+        Set<String> ids = new LinkedHashSet<>();
+        Set<RuleBatch.OperationType> types = EnumSet.noneOf(RuleBatch.OperationType.class);
+        for (int i = 0; i < sanitized.size(); i++) {
+            RuleBatch.Operation op = sanitized.get(i);
+            Rule result = results.get(i);
+            ids.add(result == null ? op.getId() : result.getId());
+            types.add(op.getType());
+        }
+        RuleEvent.EventType eventType = RuleEvent.EventType.UPDATED;
+        if (types.equals(EnumSet.of(RuleBatch.OperationType.CREATE))) {
+            eventType = RuleEvent.EventType.CREATED;
+        } else if (types.equals(EnumSet.of(RuleBatch.OperationType.DELETE))) {
+            eventType = RuleEvent.EventType.DELETED;
+        }
+        eventPublisher.accept(new RuleEvent(eventType, ids));
+        return results;
+    }
+
+    private RuleBatch.Operation sanitize(RuleBatch.Operation op) {
+        switch (op.getType()) {
+            case CREATE:
+                if (null != op.getRule().getId())
+                    throw new IllegalArgumentException(
+                            "a new Rule must not have id, got " + op.getRule().getId());
+                return op.withRule(sanitizeFields(op.getRule()));
+            case UPDATE:
+                if (null == op.getRule().getId())
+                    throw new IllegalArgumentException("Rule has no id");
+                return op.withRule(sanitizeFields(op.getRule()));
+            case PATCH:
+                return op.withPatch(r -> sanitizeFields(op.getPatch().apply(r)));
+            default:
+                return op;
+        }
+    }
+
     /**
      * Shifts the priority of the rules having <TT>priority &gt;= priorityStart</TT> down by
      * <TT>offset</TT>.
@@ -160,6 +298,11 @@ public class RuleAdminServiceImpl implements RuleAdminService {
         return ruleRepository.findAll();
     }
 
+    @Override
+    public void exportAll(@NonNull BiConsumer<Rule, LayerDetails> consumer) {
+        ruleRepository.exportAll(consumer);
+    }
+
     /**
      * Return the Rules according to the query.
      *
@@ -170,6 +313,19 @@ public class RuleAdminServiceImpl implements RuleAdminService {
         return ruleRepository.findAll(query);
     }
 
+    @Override
+    public void getAllWithDetails(
+            @NonNull RuleQuery<RuleFilter> query,
+            @NonNull BiConsumer<Rule, LayerDetails> consumer) {
+        ruleRepository.findAllWithDetails(query, consumer);
+    }
+
+    @Override
+    public void getAllByIdWithDetails(
+            @NonNull Set<String> ids, @NonNull BiConsumer<Rule, LayerDetails> consumer) {
+        ruleRepository.findAllByIdWithDetails(ids, consumer);
+    }
+
     /**
      * Return a single Rule according to the filter.
      *
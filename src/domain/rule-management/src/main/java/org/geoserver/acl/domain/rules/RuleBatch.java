@@ -0,0 +1,86 @@
+/* (c) 2023  Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.acl.domain.rules;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.NonNull;
+import lombok.Value;
+
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+/**
+ * An ordered list of rule operations to be applied as a whole, see {@link
+ * RuleAdminService#execute(RuleBatch)}
+ *
+ * @since 1.0
+ */
+@Value
+public class RuleBatch {
+
+    public enum OperationType {
+        CREATE,
+        UPDATE,
+        PATCH,
+        DELETE
+    }
+
+    /**
+     * A single operation of the batch, create them with the static factory methods. The {@code
+     * layerDetails} of {@code CREATE}, {@code UPDATE}, and {@code PATCH} operations are set on the
+     * resulting rule if not {@code null}, and left untouched otherwise.
+     */
+    @Value
+    @AllArgsConstructor(access = AccessLevel.PRIVATE)
+    public static class Operation {
+        private @NonNull OperationType type;
+        private String id;
+        private Rule rule;
+        private InsertPosition position;
+        private UnaryOperator<Rule> patch;
+        private LayerDetails layerDetails;
+
+        public static Operation create(
+                @NonNull Rule rule, @NonNull InsertPosition position, LayerDetails details) {
+            return new Operation(OperationType.CREATE, null, rule, position, null, details);
+        }
+
+        public static Operation update(@NonNull Rule rule, LayerDetails details) {
+            return new Operation(OperationType.UPDATE, rule.getId(), rule, null, null, details);
+        }
+
+        /**
+         * @param patch function applied to the current state of the rule to compute the updated
+         *     one, it must not change its id
+         */
+        public static Operation patch(
+                @NonNull String id, @NonNull UnaryOperator<Rule> patch, LayerDetails details) {
+            return new Operation(OperationType.PATCH, id, null, null, patch, details);
+        }
+
+        public static Operation delete(@NonNull String id) {
+            return new Operation(OperationType.DELETE, id, null, null, null, null);
+        }
+
+        public Operation withRule(@NonNull Rule rule) {
+            return new Operation(type, id, rule, position, patch, layerDetails);
+        }
+
+        public Operation withPatch(@NonNull UnaryOperator<Rule> patch) {
+            return new Operation(type, id, rule, position, patch, layerDetails);
+        }
+    }
+
+    private @NonNull List<Operation> operations;
+
+    public static RuleBatch of(@NonNull List<Operation> operations) {
+        return new RuleBatch(List.copyOf(operations));
+    }
+
+    public RuleBatch withOperations(@NonNull List<Operation> operations) {
+        return of(operations);
+    }
+}
@@ -0,0 +1,36 @@
+/* (c) 2023  Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.acl.domain.rules;
+
+import lombok.NonNull;
+import lombok.Value;
+
+import java.time.Instant;
+import java.util.Set;
+
+/**
+ * A change to the rules or admin rules, as recorded by a {@link RuleChangeLog}
+ *
+ * @since 1.0
+ */
+@Value
+public class RuleChange {
+
+    public enum RuleType {
+        RULE,
+        ADMIN_RULE
+    }
+
+    /** Monotonically increasing position of the change in the log, starting at {@code 1} */
+    private long sequence;
+
+    private @NonNull RuleType ruleType;
+
+    private @NonNull RuleEvent.EventType eventType;
+
+    private @NonNull Set<String> ruleIds;
+
+    private @NonNull Instant timestamp;
+}
@@ -0,0 +1,70 @@
+/* (c) 2023  Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.acl.domain.rules;
+
+import org.geoserver.acl.domain.rules.RuleChange.RuleType;
+import org.geoserver.acl.domain.rules.RuleEvent.EventType;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Sequential record of the changes to the rules and admin rules, for consumers to catch up with
+ * what changed since a given point instead of reloading the whole ruleset.
+ *
+ * <p>Implementations may discard old changes. Consumers asking for changes older than {@link
+ * #firstSequence()} can't follow the log and shall reload everything.
+ *
+ * <p>Transactional implementations may make changes visible out of sequence order, when concurrent
+ * transactions commit in a different order than they took their sequence numbers. They shall then
+ * hold back the changes past a sequence number whose transaction may still commit, for consumers to
+ * never skip a change.
+ *
+ * @since 1.0
+ */
+public interface RuleChangeLog {
+
+    /**
+     * Records a change, assigning it a sequence number greater than the ones of all the previously
+     * recorded changes
+     */
+    RuleChange append(RuleType ruleType, EventType eventType, Set<String> ruleIds);
+
+    /**
+     * @return up to {@code limit} changes with a sequence number greater than {@code since}, in
+     *     sequence order, stopping before a sequence number whose transaction may still commit
+     */
+    List<RuleChange> findSince(long since, int limit);
+
+    /**
+     * @return the sequence number of the oldest change held, or {@code 0} if there are none
+     */
+    long firstSequence();
+
+    /**
+     * @return the sequence number of the latest change such that no change before it may still
+     *     commit, or {@code 0} if there are none
+     */
+    long lastSequence();
+
+    /**
+     * Identifies the numbering of this log's sequence numbers, which changes if they start over, so
+     * that a sequence number from a previous numbering isn't taken for a current one.
+     *
+     * @return an empty string by default, for logs that keep their sequence numbers
+     */
+    default String epoch() {
+        return "";
+    }
+
+    /**
+     * Whether the rule repositories append their changes to this log themselves, in the same
+     * transaction as the changes. If {@code false}, changes shall be appended as the {@link
+     * RuleEvent}s are published.
+     */
+    default boolean isAppendedByRepositories() {
+        return false;
+    }
+}
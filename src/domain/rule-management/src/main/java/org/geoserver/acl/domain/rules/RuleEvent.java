@@ -23,8 +23,9 @@ public class RuleEvent {
     private EventType eventType;
     private Set<String> ruleIds;
 
-    public static RuleEvent created(@NonNull Rule rule) {
-        return new RuleEvent(EventType.CREATED, Set.of(rule.getId()));
+    public static RuleEvent created(@NonNull Rule... rules) {
+        return new RuleEvent(
+                EventType.CREATED, Stream.of(rules).map(Rule::getId).collect(Collectors.toSet()));
     }
 
     public static RuleEvent updated(@NonNull Rule... rules) {
@@ -9,6 +9,7 @@ package org.geoserver.acl.domain.rules;
 
 import lombok.Builder;
 import lombok.Builder.Default;
+import lombok.EqualsAndHashCode;
 import lombok.NonNull;
 import lombok.Value;
 import lombok.With;
@@ -20,18 +21,38 @@ import org.geolatte.geom.MultiPolygon;
  */
 @Value
 @With
+@EqualsAndHashCode(doNotUseGetters = true)
 @Builder(toBuilder = true, builderClassName = "Builder")
 public class RuleLimits {
 
     public static final SpatialFilterType DEFAULT_SPATIAL_FILTERTYPE = SpatialFilterType.INTERSECT;
     public static final CatalogMode DEFAULT_CATALOG_MODE = CatalogMode.HIDE;
 
-    private MultiPolygon<?> allowedArea;
+    private LazyGeometry<MultiPolygon<?>> allowedArea;
 
     @Default @NonNull private SpatialFilterType spatialFilterType = DEFAULT_SPATIAL_FILTERTYPE;
 
     @Default @NonNull private CatalogMode catalogMode = DEFAULT_CATALOG_MODE;
 
+    public MultiPolygon<?> getAllowedArea() {
+        return LazyGeometry.geometry(allowedArea);
+    }
+
+    /**
+     * @return the (E)WKB encoding of the allowed area, shared, so it must not be modified
+     */
+    public byte[] getAllowedAreaWkb() {
+        return allowedArea == null ? null : allowedArea.getWkb();
+    }
+
+    public RuleLimits withAllowedArea(MultiPolygon<?> allowedArea) {
+        return toBuilder().allowedArea(allowedArea).build();
+    }
+
+    public RuleLimits withAllowedAreaWkb(byte[] allowedAreaWkb) {
+        return toBuilder().allowedAreaWkb(allowedAreaWkb).build();
+    }
+
     public static RuleLimits clip() {
         return RuleLimits.builder().spatialFilterType(SpatialFilterType.CLIP).build();
     }
@@ -39,4 +60,25 @@ public class RuleLimits {
     public static RuleLimits intersect() {
         return RuleLimits.builder().spatialFilterType(SpatialFilterType.INTERSECT).build();
     }
+
+    public static class Builder {
+        private LazyGeometry<MultiPolygon<?>> allowedArea;
+
+        public Builder allowedArea(MultiPolygon<?> allowedArea) {
+            this.allowedArea = LazyGeometry.of(allowedArea);
+            return this;
+        }
+
+        /** Sets the allowed area from its (E)WKB encoding, which is neither copied nor decoded */
+        public Builder allowedAreaWkb(byte[] allowedAreaWkb) {
+            this.allowedArea = LazyGeometry.fromWkb(allowedAreaWkb);
+            return this;
+        }
+
+        // used by toBuilder(), private so it's not a builder property for MapStruct
+        private Builder allowedArea(LazyGeometry<MultiPolygon<?>> allowedArea) {
+            this.allowedArea = allowedArea;
+            return this;
+        }
+    }
 }
@@ -6,8 +6,12 @@ package org.geoserver.acl.domain.rules;
 
 import org.geoserver.acl.domain.filter.RuleQuery;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.BiConsumer;
 import java.util.stream.Stream;
 
 public interface RuleRepository {
@@ -24,6 +28,156 @@ public interface RuleRepository {
 
     Rule save(Rule rule);
 
+    /**
+     * Creates all the rules in a single operation.
+     *
+     * <p>The rules are inserted as a contiguous block, keeping the list order. The block is
+     * positioned as {@link #create(Rule, InsertPosition)} would do for the first rule; the
+     * priorities of the following rules are ignored.
+     *
+     * @throws IllegalArgumentException if any rule has an id or a negative priority
+     * @throws RuleIdentifierConflictException if any rule has the same {@link RuleIdentifier} than
+     *     an existing one, or than another rule in the list
+     * @return the rules as created, in the same order as the argument list
+     */
+    List<Rule> createAll(List<Rule> rules, InsertPosition position);
+
+    /**
+     * Creates all the rules as {@link #createAll(List, InsertPosition)} does, and sets the {@link
+     * LayerDetails} of the ones with a non {@code null} entry in {@code details}, in a single
+     * operation.
+     *
+     * <p>The default implementation is not atomic, implementations backed by a transactional
+     * storage shall override it.
+     *
+     * @param details the layer details of each rule, in the same order as {@code rules}
+     * @throws IllegalArgumentException if {@code details} is not of the same size than {@code
+     *     rules}, or any rule with details can't have them, see {@link #setLayerDetails}
+     */
+    default List<Rule> createAll(
+            List<Rule> rules, List<LayerDetails> details, InsertPosition position) {
+        if (details.size() != rules.size())
+            throw new IllegalArgumentException("Expected one LayerDetails entry per Rule");
+        List<Rule> created = createAll(rules, position);
+        for (int i = 0; i < created.size(); i++) {
+            if (details.get(i) != null) setLayerDetails(created.get(i).getId(), details.get(i));
+        }
+        return created;
+    }
+
+    /**
+     * Creates the rules with their own priorities, as {@link #exportAll} streams them, along with
+     * the {@link LayerDetails} of the ones with a non {@code null} entry in {@code details}.
+     *
+     * <p>Unlike {@link #createAll(List, List, InsertPosition)}, existing rules are never shifted to
+     * make room: a priority already taken, or repeated in the list, is rejected.
+     *
+     * <p>The default implementation creates one rule at a time at its {@link InsertPosition#FIXED
+     * FIXED} priority, and is not atomic. Implementations backed by a transactional storage shall
+     * override it.
+     *
+     * @param details the layer details of each rule, in the same order as {@code rules}
+     * @throws IllegalArgumentException if any rule has an id, a priority already taken, {@code
+     *     details} is not of the same size than {@code rules}, or any rule with details can't have
+     *     them
+     * @throws RuleIdentifierConflictException if any rule has the same {@link RuleIdentifier} than
+     *     an existing one, or than another rule in the list
+     * @return the rules as created, in the same order as the argument list
+     */
+    default List<Rule> importAll(List<Rule> rules, List<LayerDetails> details) {
+        if (details.size() != rules.size())
+            throw new IllegalArgumentException("Expected one LayerDetails entry per Rule");
+        final Set<Long> priorities = new HashSet<>();
+        for (Rule rule : rules) {
+            if (!priorities.add(rule.getPriority())) {
+                throw new IllegalArgumentException(
+                        "Priority " + rule.getPriority() + " is repeated");
+            }
+            findOneByPriority(rule.getPriority())
+                    .ifPresent(
+                            taken -> {
+                                throw new IllegalArgumentException(
+                                        "Priority "
+                                                + rule.getPriority()
+                                                + " is already taken by Rule "
+                                                + taken.getId());
+                            });
+        }
+        List<Rule> created = new ArrayList<>(rules.size());
+        for (int i = 0; i < rules.size(); i++) {
+            Rule rule = create(rules.get(i), InsertPosition.FIXED);
+            if (details.get(i) != null) setLayerDetails(rule.getId(), details.get(i));
+            created.add(rule);
+        }
+        return created;
+    }
+
+    /**
+     * Updates all the rules in a single operation.
+     *
+     * <p>Priority changes are applied in list order, as consecutive calls to {@link #save(Rule)}
+     * would do.
+     *
+     * @throws IllegalArgumentException if any rule has no id or does not exist
+     * @throws RuleIdentifierConflictException if any rule would end up with the same {@link
+     *     RuleIdentifier} than another one
+     * @return the updated rules, in the same order as the argument list
+     */
+    List<Rule> saveAll(List<Rule> rules);
+
+    /**
+     * Applies the operations of the batch in order, in a single operation.
+     *
+     * <p>{@code CREATE} operations position the rule as {@link #create(Rule, InsertPosition)} does,
+     * {@code UPDATE} and {@code PATCH} ones as {@link #save(Rule)} does. The layer details of the
+     * operations that have them are set as {@link #setLayerDetails(String, LayerDetails)} does.
+     *
+     * <p>The default implementation is not atomic, implementations backed by a transactional
+     * storage shall override it.
+     *
+     * @throws IllegalArgumentException if an operation refers to a rule that does not exist, or its
+     *     layer details can't be set
+     * @throws RuleIdentifierConflictException if a created or updated rule would have the same
+     *     {@link RuleIdentifier} than another one
+     * @return the resulting rule of each operation, in the same order as the batch operations,
+     *     {@code null} for {@code DELETE} operations
+     */
+    default List<Rule> execute(RuleBatch batch) {
+        List<Rule> results = new ArrayList<>(batch.getOperations().size());
+        for (RuleBatch.Operation op : batch.getOperations()) {
+            Rule result;
+            switch (op.getType()) {
+                case CREATE:
+                    result = create(op.getRule(), op.getPosition());
+                    break;
+                case UPDATE:
+                    result = save(op.getRule());
+                    break;
+                case PATCH:
+                    Rule current =
+                            findById(op.getId())
+                                    .orElseThrow(
+                                            () ->
+                                                    new IllegalArgumentException(
+                                                            "Rule " + op.getId() + " not found"));
+                    result = save(op.getPatch().apply(current).withId(op.getId()));
+                    break;
+                case DELETE:
+                    if (!deleteById(op.getId()))
+                        throw new IllegalArgumentException("Rule " + op.getId() + " not found");
+                    result = null;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown operation " + op.getType());
+            }
+            if (result != null && op.getLayerDetails() != null) {
+                setLayerDetails(result.getId(), op.getLayerDetails());
+            }
+            results.add(result);
+        }
+        return results;
+    }
+
     boolean deleteById(String id);
 
     int count();
@@ -33,6 +187,21 @@ public interface RuleRepository {
      */
     Stream<Rule> findAll();
 
+    /**
+     * Streams all the rules in natural order (priority) along with their {@link LayerDetails}
+     * ({@code null} if they have none), without holding them all in memory at once.
+     *
+     * <p>The default implementation queries the layer details of each rule, implementations shall
+     * override it to fetch them in a single pass.
+     */
+    default void exportAll(BiConsumer<Rule, LayerDetails> consumer) {
+        findAll()
+                .forEach(
+                        rule ->
+                                consumer.accept(
+                                        rule, findLayerDetailsByRuleId(rule.getId()).orElse(null)));
+    }
+
     int count(RuleFilter filter);
 
     /**
@@ -40,8 +209,43 @@ public interface RuleRepository {
      */
     Stream<Rule> findAll(RuleQuery<RuleFilter> query);
 
+    /**
+     * Passes the rules matching the query, as {@link #findAll(RuleQuery)} returns them, to {@code
+     * consumer} along with their {@link LayerDetails} ({@code null} if they have none).
+     *
+     * <p>The default implementation queries the layer details of each rule, implementations shall
+     * override it to fetch them in bulk.
+     */
+    default void findAllWithDetails(
+            RuleQuery<RuleFilter> query, BiConsumer<Rule, LayerDetails> consumer) {
+        try (Stream<Rule> rules = findAll(query)) {
+            rules.forEach(
+                    rule ->
+                            consumer.accept(
+                                    rule, findLayerDetailsByRuleId(rule.getId()).orElse(null)));
+        }
+    }
+
     Optional<Rule> findById(String id);
 
+    /**
+     * Passes the rules with the given ids, in no particular order, to {@code consumer} along with
+     * their {@link LayerDetails} ({@code null} if they have none). Ids of rules that don't exist
+     * are skipped.
+     *
+     * <p>The default implementation queries each rule and its layer details, implementations shall
+     * override it to fetch them in bulk.
+     */
+    default void findAllByIdWithDetails(Set<String> ids, BiConsumer<Rule, LayerDetails> consumer) {
+        for (String id : ids) {
+            findById(id)
+                    .ifPresent(
+                            rule ->
+                                    consumer.accept(
+                                            rule, findLayerDetailsByRuleId(id).orElse(null)));
+        }
+    }
+
     /**
      * @throws IllegalStateException if there are multiple rules with the requested priority
      */
@@ -7,6 +7,9 @@ package org.geoserver.acl.domain.rules;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import org.geolatte.geom.MultiPolygon;
+import org.geolatte.geom.codec.Wkb;
+import org.geolatte.geom.codec.Wkt;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -35,4 +38,25 @@ class LayerDetailsTest {
                 UnsupportedOperationException.class,
                 () -> ld.getAttributes().add(LayerAttribute.write().withName("att2")));
     }
+
+    @Test
+    void testArea_wkb() {
+        MultiPolygon<?> area =
+                (MultiPolygon<?>)
+                        Wkt.fromWkt("SRID=4326;MULTIPOLYGON (((0 0, 0 1, 1 1, 1 0, 0 0)))");
+        byte[] wkb = Wkb.toWkb(area).toByteArray();
+
+        LayerDetails fromWkb = LayerDetails.builder().areaWkb(wkb).build();
+        assertThat(fromWkb.getAreaWkb()).isSameAs(wkb);
+        assertThat(fromWkb.getArea()).isEqualTo(area);
+
+        LayerDetails fromGeometry = LayerDetails.builder().area(area).build();
+        assertThat(fromGeometry.getArea()).isSameAs(area);
+        assertThat(fromGeometry.getAreaWkb()).isEqualTo(wkb);
+        assertThat(fromGeometry).isEqualTo(fromWkb).hasSameHashCodeAs(fromWkb);
+
+        assertThat(fromWkb.withType(LayerDetails.LayerType.VECTOR).getAreaWkb()).isSameAs(wkb);
+        assertThat(fromWkb.withArea(null).getAreaWkb()).isNull();
+        assertThat(fromGeometry.withAreaWkb(wkb).getAreaWkb()).isSameAs(wkb);
+    }
 }
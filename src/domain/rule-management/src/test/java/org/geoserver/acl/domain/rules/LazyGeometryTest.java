@@ -0,0 +1,106 @@
+/* (c) 2023  Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.acl.domain.rules;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.geolatte.geom.ByteOrder;
+import org.geolatte.geom.GeometryType;
+import org.geolatte.geom.MultiPolygon;
+import org.geolatte.geom.codec.Wkb;
+import org.geolatte.geom.codec.Wkt;
+import org.junit.jupiter.api.Test;
+
+class LazyGeometryTest {
+
+    private final MultiPolygon<?> square =
+            (MultiPolygon<?>) Wkt.fromWkt("SRID=4326;MULTIPOLYGON (((0 0, 0 1, 1 1, 1 0, 0 0)))");
+
+    @Test
+    void testNull() {
+        assertThat(LazyGeometry.of(null)).isNull();
+        assertThat(LazyGeometry.fromWkb(null)).isNull();
+        assertThat((Object) LazyGeometry.geometry(null)).isNull();
+    }
+
+    @Test
+    void testFromGeometry() {
+        LazyGeometry<MultiPolygon<?>> lazy = LazyGeometry.of(square);
+        assertThat(lazy.getGeometry()).isSameAs(square);
+        assertThat(lazy.getGeometryType()).isEqualTo(GeometryType.MULTIPOLYGON);
+        assertThat(lazy.getSRID()).isEqualTo(4326);
+
+        byte[] wkb = lazy.getWkb();
+        assertThat(wkb).isEqualTo(Wkb.toWkb(square).toByteArray());
+        assertThat(lazy.getWkb()).as("encoded only once").isSameAs(wkb);
+    }
+
+    @Test
+    void testFromWkbKeepsBytes() {
+        byte[] wkb = Wkb.toWkb(square).toByteArray();
+        LazyGeometry<MultiPolygon<?>> lazy = LazyGeometry.fromWkb(wkb);
+        assertThat(lazy.getWkb()).isSameAs(wkb);
+        assertThat(lazy.getGeometryType()).isEqualTo(GeometryType.MULTIPOLYGON);
+        assertThat(lazy.getSRID()).isEqualTo(4326);
+
+        MultiPolygon<?> decoded = lazy.getGeometry();
+        assertThat(decoded).isEqualTo(square);
+        assertThat(lazy.getGeometry()).as("decoded only once").isSameAs(decoded);
+        assertThat(lazy.getWkb()).isSameAs(wkb);
+    }
+
+    @Test
+    void testHeaderBigEndian() {
+        byte[] xdr = Wkb.toWkb(square, ByteOrder.XDR).toByteArray();
+        LazyGeometry<MultiPolygon<?>> lazy = LazyGeometry.fromWkb(xdr);
+        assertThat(lazy.getGeometryType()).isEqualTo(GeometryType.MULTIPOLYGON);
+        assertThat(lazy.getSRID()).isEqualTo(4326);
+    }
+
+    @Test
+    void testToJTS() {
+        org.locationtech.jts.geom.Geometry fromWkb =
+                LazyGeometry.fromWkb(Wkb.toWkb(square).toByteArray()).toJTS();
+        org.locationtech.jts.geom.Geometry fromGeometry = LazyGeometry.of(square).toJTS();
+
+        assertThat(fromWkb).isInstanceOf(org.locationtech.jts.geom.MultiPolygon.class);
+        assertThat(fromWkb.getSRID()).isEqualTo(4326);
+        assertThat(fromWkb.equalsExact(fromGeometry)).isTrue();
+        assertThat(fromGeometry.getSRID()).isEqualTo(4326);
+    }
+
+    @Test
+    void testEquals() {
+        LazyGeometry<MultiPolygon<?>> ndr = LazyGeometry.fromWkb(Wkb.toWkb(square).toByteArray());
+        LazyGeometry<MultiPolygon<?>> xdr =
+                LazyGeometry.fromWkb(Wkb.toWkb(square, ByteOrder.XDR).toByteArray());
+        LazyGeometry<MultiPolygon<?>> geom = LazyGeometry.of(square);
+
+        assertThat(ndr).isEqualTo(xdr).isEqualTo(geom).hasSameHashCodeAs(geom);
+        assertThat(xdr).hasSameHashCodeAs(ndr).hasSameHashCodeAs(geom);
+        assertThat(geom).isEqualTo(ndr);
+
+        MultiPolygon<?> other =
+                (MultiPolygon<?>)
+                        Wkt.fromWkt("SRID=4326;MULTIPOLYGON (((0 0, 0 2, 2 2, 2 0, 0 0)))");
+        assertThat(ndr).isNotEqualTo(LazyGeometry.of(other));
+        assertThat(ndr.hashCode()).isNotEqualTo(LazyGeometry.of(other).hashCode());
+    }
+
+    @Test
+    void testCheckType() {
+        LazyGeometry<MultiPolygon<?>> lazy = LazyGeometry.fromWkb(Wkb.toWkb(square).toByteArray());
+        assertThat(LazyGeometry.checkType(lazy, GeometryType.MULTIPOLYGON)).isSameAs(lazy);
+
+        LazyGeometry<MultiPolygon<?>> point =
+                LazyGeometry.fromWkb(Wkb.toWkb(Wkt.fromWkt("SRID=4326;POINT (0 0)")).toByteArray());
+        IllegalArgumentException e =
+                assertThrows(
+                        IllegalArgumentException.class,
+                        () -> LazyGeometry.checkType(point, GeometryType.MULTIPOLYGON));
+        assertThat(e.getMessage()).contains("Point");
+    }
+}
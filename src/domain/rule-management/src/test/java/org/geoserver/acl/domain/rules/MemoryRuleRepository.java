@@ -9,6 +9,8 @@ import lombok.NonNull;
 import org.geoserver.acl.domain.filter.RuleQuery;
 import org.geoserver.acl.domain.rules.PriorityResolver.Position;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -16,6 +18,7 @@ import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 /**
@@ -62,6 +65,50 @@ public class MemoryRuleRepository extends MemoryPriorityRepository<Rule> impleme
         return rule;
     }
 
+    @Override
+    public List<Rule> createAll(List<Rule> newRules, InsertPosition position) {
+        if (newRules.stream().anyMatch(r -> null != r.getId()))
+            throw new IllegalArgumentException("Rule has id");
+        newRules.forEach(this::checkNoDups);
+        checkNoDupsInBatch(newRules);
+
+        List<Rule> created = new ArrayList<>();
+        for (Rule rule : newRules) {
+            if (created.isEmpty()) {
+                created.add(create(rule, position));
+            } else {
+                long next = created.get(created.size() - 1).getPriority() + 1;
+                created.add(create(rule.withPriority(next), InsertPosition.FIXED));
+            }
+        }
+        return created;
+    }
+
+    @Override
+    public List<Rule> saveAll(List<Rule> updates) {
+        if (updates.stream().anyMatch(r -> null == r.getId()))
+            throw new IllegalArgumentException("Rule has no id");
+        updates.forEach(r -> getOrThrow(r.getId()));
+        Set<String> ids = updates.stream().map(Rule::getId).collect(Collectors.toSet());
+        updates.forEach(r -> checkNoDups(r, ids));
+        checkNoDupsInBatch(updates);
+        return updates.stream().map(this::doSave).collect(Collectors.toList());
+    }
+
+    private void checkNoDupsInBatch(List<Rule> batch) {
+        Set<Object> identifiers = new HashSet<>();
+        batch.stream()
+                .filter(r -> r.getIdentifier().getAccess() != GrantType.LIMIT)
+                .filter(r -> !identifiers.add(r.getIdentifier()))
+                .findFirst()
+                .ifPresent(
+                        duplicate -> {
+                            throw new RuleIdentifierConflictException(
+                                    "A Rule with the same identifier is repeated: "
+                                            + duplicate.toShortString());
+                        });
+    }
+
     private Position map(InsertPosition position) {
         switch (position) {
             case FIXED:
@@ -79,6 +126,10 @@ public class MemoryRuleRepository extends MemoryPriorityRepository<Rule> impleme
     public Rule save(Rule rule) {
         if (null == rule.getId()) throw new IllegalArgumentException("Rule has no id");
         checkNoDups(rule);
+        return doSave(rule);
+    }
+
+    private Rule doSave(Rule rule) {
         final Rule current = getOrThrow(rule.getId());
 
         final long finalPriority =
@@ -92,7 +143,7 @@ public class MemoryRuleRepository extends MemoryPriorityRepository<Rule> impleme
             if (positionOccupied.isPresent()) {
                 Rule other = positionOccupied.get();
                 rules.remove(current);
-                save(other.withPriority(other.getPriority() + 1));
+                doSave(other.withPriority(other.getPriority() + 1));
                 rules.add(rule);
             } else {
                 replace(current, rule);
@@ -107,11 +158,16 @@ public class MemoryRuleRepository extends MemoryPriorityRepository<Rule> impleme
      * @throws RuleIdentifierConflictException
      */
     private void checkNoDups(Rule rule) {
+        checkNoDups(rule, Set.of());
+    }
+
+    private void checkNoDups(Rule rule, Set<String> ignoreIds) {
         rules.stream()
                 .filter(
                         r ->
                                 r.getIdentifier().getAccess() != GrantType.LIMIT
                                         && !r.getId().equals(rule.getId())
+                                        && !ignoreIds.contains(r.getId())
                                         && r.getIdentifier().equals(rule.getIdentifier()))
                 .findFirst()
                 .ifPresent(
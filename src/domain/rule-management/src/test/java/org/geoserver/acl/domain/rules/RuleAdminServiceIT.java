@@ -188,6 +188,134 @@ public class RuleAdminServiceIT {
                                 r2.withPriority(5)));
     }
 
+    @Test
+    void testInsertAll_insertPosition_Fixed() {
+        Rule r1 = ruleAdminService.insert(Rule.allow().withLayer("L1"));
+        Rule r2 = ruleAdminService.insert(Rule.allow().withLayer("L2"));
+
+        List<Rule> created =
+                ruleAdminService.insertAll(
+                        List.of(
+                                Rule.deny().withLayer("B1").withPriority(2),
+                                Rule.deny().withLayer("B2"),
+                                Rule.deny().withLayer("B3").withPriority(100)),
+                        InsertPosition.FIXED);
+        assertThat(created).hasSize(3);
+        assertThat(created).allMatch(r -> r.getId() != null);
+
+        Rule b1 = created.get(0);
+        Rule b2 = created.get(1);
+        Rule b3 = created.get(2);
+        assertThat(b1.getIdentifier().getLayer()).isEqualTo("B1");
+        assertThat(b2.getIdentifier().getLayer()).isEqualTo("B2");
+        assertThat(b3.getIdentifier().getLayer()).isEqualTo("B3");
+
+        // the block is inserted contiguously at priority 2, displacing r2
+        assertPriorities(List.of(r1, b1, b2, b3, r2), List.of(1, 2, 3, 4, 5));
+    }
+
+    @Test
+    void testInsertAll_empty_repository() {
+        List<Rule> created =
+                ruleAdminService.insertAll(
+                        List.of(Rule.allow().withLayer("L1"), Rule.allow().withLayer("L2")),
+                        FROM_END);
+        assertPriorities(created, List.of(1, 2));
+
+        assertThat(ruleAdminService.insertAll(List.of(), FROM_START)).isEmpty();
+    }
+
+    @Test
+    void testInsertAll_duplicate_identifier() {
+        Rule r1 = ruleAdminService.insert(Rule.allow().withLayer("L1"));
+
+        List<Rule> dupInBatch = List.of(Rule.allow().withLayer("L2"), Rule.allow().withLayer("L2"));
+        assertThrows(
+                RuleIdentifierConflictException.class,
+                () -> ruleAdminService.insertAll(dupInBatch, FROM_END));
+
+        List<Rule> dupExisting = List.of(Rule.allow().withLayer("L2"), r1.withId(null));
+        assertThrows(
+                RuleIdentifierConflictException.class,
+                () -> ruleAdminService.insertAll(dupExisting, FROM_END));
+
+        assertThat(ruleAdminService.getAll())
+                .as("Nothing should have changed")
+                .isEqualTo(List.of(r1));
+
+        List<Rule> withId = List.of(Rule.allow().withLayer("L3").withId("1000"));
+        assertThrows(
+                IllegalArgumentException.class, () -> ruleAdminService.insertAll(withId, FROM_END));
+    }
+
+    @Test
+    void testInsertAll_withLayerDetails() {
+        LayerDetails details = sampleDetails(1);
+        List<LayerDetails> layerDetails = new ArrayList<>();
+        layerDetails.add(details);
+        layerDetails.add(null);
+        List<Rule> created =
+                ruleAdminService.insertAll(
+                        List.of(Rule.allow().withLayer("L1"), Rule.deny().withLayer("L2")),
+                        layerDetails,
+                        FROM_END);
+        assertPriorities(created, List.of(1, 2));
+        assertThat(ruleAdminService.getLayerDetails(created.get(0))).contains(details);
+        assertThat(ruleAdminService.getLayerDetails(created.get(1))).isEmpty();
+
+        List<Rule> noLayer = List.of(Rule.allow().withLayer("L3"), Rule.allow());
+        List<LayerDetails> invalid = List.of(details, details);
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> ruleAdminService.insertAll(noLayer, invalid, FROM_END));
+    }
+
+    @Test
+    void testExportAll() {
+        LayerDetails details = sampleDetails(1);
+        Rule r1 = ruleAdminService.insert(Rule.allow().withPriority(10).withLayer("L1"));
+        Rule r2 = ruleAdminService.insert(Rule.deny().withPriority(5).withLayer("L2"));
+        ruleAdminService.setLayerDetails(r1.getId(), details);
+
+        List<Rule> rules = new ArrayList<>();
+        List<LayerDetails> layerDetails = new ArrayList<>();
+        ruleAdminService.exportAll(
+                (rule, ld) -> {
+                    rules.add(rule);
+                    layerDetails.add(ld);
+                });
+        assertThat(rules).containsExactly(r2, r1);
+        assertThat(layerDetails).containsExactly(null, details);
+    }
+
+    @Test
+    void testImportAll() {
+        LayerDetails details = sampleDetails(1);
+        Rule existing = ruleAdminService.insert(Rule.deny().withPriority(7).withLayer("L0"));
+
+        List<LayerDetails> layerDetails = new ArrayList<>();
+        layerDetails.add(null);
+        layerDetails.add(details);
+        List<Rule> imported =
+                ruleAdminService.importAll(
+                        List.of(
+                                Rule.deny().withPriority(3).withLayer("L1"),
+                                Rule.allow().withPriority(20).withLayer("L2")),
+                        layerDetails);
+        // the exported priorities are kept, and existing rules are not shifted
+        assertThat(imported.stream().map(Rule::getPriority)).containsExactly(3L, 20L);
+        assertThat(ruleAdminService.getAll())
+                .containsExactly(imported.get(0), existing, imported.get(1));
+        assertThat(ruleAdminService.getLayerDetails(imported.get(1))).contains(details);
+
+        List<Rule> taken = List.of(Rule.allow().withPriority(7).withLayer("L3"));
+        List<LayerDetails> noDetails = new ArrayList<>();
+        noDetails.add(null);
+        assertThrows(
+                IllegalArgumentException.class, () -> ruleAdminService.importAll(taken, noDetails));
+        assertThat(ruleAdminService.count()).isEqualTo(3);
+    }
+
     @Test
     void testDeleteRuleById() {
         Rule r1 = ruleAdminService.insert(Rule.allow().withPriority(10).withLayer("L1"));
@@ -562,6 +690,97 @@ public class RuleAdminServiceIT {
                 .isEqualTo(r4.withPriority(5));
     }
 
+    @Test
+    void testUpdateAll() {
+        Rule r1 = ruleAdminService.insert(Rule.allow().withWorkspace("ws1").withLayer("l1"));
+        Rule r2 = ruleAdminService.insert(Rule.allow().withWorkspace("ws1").withLayer("l2"));
+        Rule r3 = ruleAdminService.insert(Rule.allow().withWorkspace("ws1").withLayer("l3"));
+
+        // swap identifiers in the same batch, shouldn't be a conflict
+        Rule r1Updated = r1.withLayer("l2");
+        Rule r2Updated = r2.withLayer("l1");
+        List<Rule> updated = ruleAdminService.updateAll(List.of(r1Updated, r2Updated));
+        assertThat(updated).isEqualTo(List.of(r1Updated, r2Updated));
+        assertGet(r1).isEqualTo(r1Updated);
+        assertGet(r2).isEqualTo(r2Updated);
+        assertGet(r3).isEqualTo(r3);
+
+        // priority changes are applied in order, moving r3 to the top displaces r1 and r2
+        updated = ruleAdminService.updateAll(List.of(r3.withPriority(1)));
+        assertPriorities(List.of(r3, r1Updated, r2Updated), List.of(1, 2, 3));
+    }
+
+    @Test
+    void testUpdateAll_preconditions() {
+        Rule r1 = ruleAdminService.insert(Rule.allow().withLayer("l1"));
+        Rule r2 = ruleAdminService.insert(Rule.allow().withLayer("l2"));
+
+        List<Rule> noId = List.of(r1.withService("WMS"), Rule.allow().withLayer("l3"));
+        assertThrows(IllegalArgumentException.class, () -> ruleAdminService.updateAll(noId));
+
+        List<Rule> conflict = List.of(r1.withLayer("l3"), r2.withLayer("l3"));
+        assertThrows(
+                RuleIdentifierConflictException.class, () -> ruleAdminService.updateAll(conflict));
+
+        assertThat(ruleAdminService.getAll())
+                .as("Nothing should have changed")
+                .isEqualTo(List.of(r1, r2));
+    }
+
+    @Test
+    void testExecuteBatch() {
+        Rule r1 = ruleAdminService.insert(Rule.allow().withWorkspace("ws1").withLayer("l1"));
+        Rule r2 = ruleAdminService.insert(Rule.allow().withWorkspace("ws1").withLayer("l2"));
+        Rule r3 = ruleAdminService.insert(Rule.deny().withWorkspace("ws1"));
+        LayerDetails details = sampleDetails(1);
+
+        RuleBatch batch =
+                RuleBatch.of(
+                        List.of(
+                                RuleBatch.Operation.create(
+                                        Rule.allow().withWorkspace("ws2").withLayer("l1"),
+                                        FROM_END,
+                                        details),
+                                RuleBatch.Operation.update(r1.withService("wms"), null),
+                                RuleBatch.Operation.patch(
+                                        r2.getId(), r -> r.withName("patched"), details),
+                                RuleBatch.Operation.delete(r3.getId())));
+
+        List<Rule> results = ruleAdminService.execute(batch);
+        assertThat(results).hasSize(4);
+        Rule created = results.get(0);
+        assertThat(created.getId()).isNotNull();
+        assertThat(created.getPriority()).isEqualTo(4);
+        assertThat(results.get(1)).isEqualTo(r1.withService("WMS"));
+        assertThat(results.get(2)).isEqualTo(r2.withName("patched"));
+        assertThat(results.get(3)).isNull();
+
+        assertGet(r1).isEqualTo(r1.withService("WMS"));
+        assertGet(r2).isEqualTo(r2.withName("patched"));
+        assertThat(ruleAdminService.get(r3.getId())).isEmpty();
+        assertThat(ruleAdminService.getLayerDetails(created)).contains(details);
+        assertThat(ruleAdminService.getLayerDetails(r2)).contains(details);
+    }
+
+    @Test
+    void testExecuteBatch_preconditions() {
+        Rule r1 = ruleAdminService.insert(Rule.allow().withLayer("l1"));
+
+        RuleBatch withId = RuleBatch.of(List.of(RuleBatch.Operation.create(r1, FROM_END, null)));
+        assertThrows(IllegalArgumentException.class, () -> ruleAdminService.execute(withId));
+
+        RuleBatch noId =
+                RuleBatch.of(
+                        List.of(RuleBatch.Operation.update(Rule.allow().withLayer("l2"), null)));
+        assertThrows(IllegalArgumentException.class, () -> ruleAdminService.execute(noId));
+
+        RuleBatch missing = RuleBatch.of(List.of(RuleBatch.Operation.delete("1000")));
+        assertThrows(IllegalArgumentException.class, () -> ruleAdminService.execute(missing));
+
+        assertThat(ruleAdminService.execute(RuleBatch.of(List.of()))).isEmpty();
+        assertThat(ruleAdminService.getAll()).isEqualTo(List.of(r1));
+    }
+
     @Test
     void testSetLimits() {
         final RuleLimits limits = sampleLimits();
@@ -9,6 +9,7 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.ArgumentMatchers.same;
@@ -23,9 +24,12 @@ import org.geoserver.acl.domain.filter.RuleQuery;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -203,6 +207,16 @@ class RuleAdminServiceImplTest {
         assertThat(actual).isEqualTo(expected);
     }
 
+    @Test
+    void getAllWithDetails() {
+        RuleQuery<RuleFilter> query = RuleQuery.of(new RuleFilter().setRole("role1"));
+        BiConsumer<Rule, LayerDetails> consumer = (rule, details) -> {};
+
+        service.getAllWithDetails(query, consumer);
+        verify(repository, times(1)).findAllWithDetails(same(query), same(consumer));
+        verifyNoMoreInteractions(repository);
+    }
+
     @Test
     void getRule_null_filter() {
         assertThrows(NullPointerException.class, () -> service.getRule(null));
@@ -306,6 +320,32 @@ class RuleAdminServiceImplTest {
         assertThat(actual).isPresent().get().isEqualTo(ld);
     }
 
+    @Test
+    void executeBatchPublishesSingleEvent() {
+        List<RuleEvent> events = new ArrayList<>();
+        service.setEventPublisher(events::add);
+
+        Rule created = Rule.allow().withId("3");
+        RuleBatch batch =
+                RuleBatch.of(
+                        List.of(
+                                RuleBatch.Operation.create(
+                                        Rule.allow(), InsertPosition.FIXED, null),
+                                RuleBatch.Operation.delete("1")));
+        when(repository.execute(any())).thenReturn(Arrays.asList(created, null));
+
+        List<Rule> results = service.execute(batch);
+        assertThat(results).containsExactly(created, null);
+        assertThat(events)
+                .containsExactly(new RuleEvent(RuleEvent.EventType.UPDATED, Set.of("3", "1")));
+
+        events.clear();
+        batch = RuleBatch.of(List.of(RuleBatch.Operation.delete("1")));
+        when(repository.execute(any())).thenReturn(Arrays.asList((Rule) null));
+        service.execute(batch);
+        assertThat(events).containsExactly(RuleEvent.deleted("1"));
+    }
+
     @Test
     void setLayerDetails() {
         service.setLayerDetails("1", null);
@@ -4,13 +4,24 @@
  */
 package org.geoserver.acl.api.client.config;
 
+import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.geoserver.acl.api.client.AdminRulesApi;
 import org.geoserver.acl.api.client.ApiClient;
 import org.geoserver.acl.api.client.AuthorizationApi;
 import org.geoserver.acl.api.client.RulesApi;
+import org.geoserver.acl.api.client.config.ApiClientProperties.LoadBalancerProperties;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -19,11 +30,14 @@ import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.http.converter.HttpMessageConverter;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 /**
@@ -39,21 +53,28 @@ public class ApiClientConfiguration {
             ApiClientProperties config,
             @Qualifier("aclClientRestTemplate") RestTemplate restTemplate) {
 
-        String basePath = config.getBasePath();
+        List<String> basePaths = config.getBasePaths();
         String username = config.getUsername();
         String password = config.getPassword();
         boolean debugging = config.isDebug();
 
-        ApiClient apiClient = new ApiClient(restTemplate);
-        if (null == basePath) {
+        ApiClient apiClient =
+                config.isPreferSmile()
+                        ? new SmilePreferringApiClient(restTemplate)
+                        : new ApiClient(restTemplate);
+        if (basePaths.isEmpty()) {
             throw new IllegalStateException(
                     "Authorization service target URL not provided through config property geoserver.acl.client.basePath");
         }
-        apiClient.setBasePath(basePath);
+        // requests to the first one are spread over all of them by the LoadBalancingRequestFactory
+        apiClient.setBasePath(basePaths.get(0));
 
         apiClient.setDebugging(debugging);
         apiClient.setUsername(username);
         apiClient.setPassword(password);
+        // lets the server drop the authorization requests we'd have given up on
+        apiClient.addDefaultHeader(
+                "X-ACL-Request-Timeout", String.valueOf(config.getReadTimeout().toMillis()));
         return apiClient;
     }
 
@@ -74,36 +95,124 @@ public class ApiClientConfiguration {
 
     @Bean
     RestTemplate aclClientRestTemplate(
-            @Qualifier("aclClientObjectMapper") ObjectMapper objectMapper) {
+            ApiClientProperties config,
+            @Qualifier("aclClientObjectMapper") ObjectMapper objectMapper,
+            @Qualifier("aclClientHttpClient") HttpClient httpClient) {
 
         // Use Apache HttpComponents HttpClient, otherwise
         // SimpleClientHttpRequestFactory fails on
         // PATCH requests
-        ClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory();
+        HttpComponentsClientHttpRequestFactory httpComponents =
+                new HttpComponentsClientHttpRequestFactory(httpClient);
+        // stream request bodies, the rules import endpoints take arbitrarily large ones
+        httpComponents.setBufferRequestBody(false);
+        ClientHttpRequestFactory requestFactory = httpComponents;
+        List<String> basePaths = config.getBasePaths();
+        if (basePaths.size() > 1) {
+            LoadBalancerProperties loadBalancer = config.getLoadBalancer();
+            requestFactory =
+                    new LoadBalancingRequestFactory(
+                            requestFactory,
+                            basePaths,
+                            loadBalancer.getFailureThreshold(),
+                            loadBalancer.getEjectDuration());
+        }
+        if (config.isDebug() || config.isBufferResponses()) {
+            // This allows us to read the response more than once - Necessary for debugging
+            requestFactory = new BufferingClientHttpRequestFactory(requestFactory);
+        }
         RestTemplate restTemplate = new RestTemplate(requestFactory);
-        // This allows us to read the response more than once - Necessary for debugging
-        restTemplate.setRequestFactory(
-                new BufferingClientHttpRequestFactory(restTemplate.getRequestFactory()));
 
         // disable default URL encoding
         DefaultUriBuilderFactory uriBuilderFactory = new DefaultUriBuilderFactory();
         uriBuilderFactory.setEncodingMode(DefaultUriBuilderFactory.EncodingMode.VALUES_ONLY);
         restTemplate.setUriTemplateHandler(uriBuilderFactory);
+        restTemplate.setErrorHandler(new NotModifiedResponseErrorHandler());
 
         List<HttpMessageConverter<?>> messageConverters =
                 restTemplate.getMessageConverters().stream()
                         .filter(m -> !(MappingJackson2HttpMessageConverter.class.isInstance(m)))
+                        .filter(
+                                m ->
+                                        !(MappingJackson2SmileHttpMessageConverter.class.isInstance(
+                                                m)))
                         .collect(Collectors.toCollection(ArrayList::new));
 
         messageConverters.add(0, new MappingJackson2HttpMessageConverter(objectMapper));
+        // the server sends binary values, like WKB geometries, as raw bytes
+        SmileFactory smile =
+                SmileFactory.builder()
+                        .disable(SmileGenerator.Feature.ENCODE_BINARY_AS_7BIT)
+                        .build();
+        messageConverters.add(1, new MappingJackson2SmileHttpMessageConverter(newMapper(smile)));
         restTemplate.setMessageConverters(messageConverters);
 
         return restTemplate;
     }
 
+    /**
+     * The connections are shared by all the client threads, so the pool is sized for the number of
+     * concurrent requests GeoServer can make rather than HttpClient's default of two per host
+     */
+    @Bean(destroyMethod = "close")
+    PoolingHttpClientConnectionManager aclClientConnectionManager(ApiClientProperties config) {
+        PoolingHttpClientConnectionManager connectionManager =
+                new PoolingHttpClientConnectionManager(
+                        config.getKeepAlive().toMillis(), TimeUnit.MILLISECONDS);
+        connectionManager.setMaxTotal(config.getMaxConnections());
+        connectionManager.setDefaultMaxPerRoute(config.getMaxConnectionsPerRoute());
+        return connectionManager;
+    }
+
+    @Bean
+    ApiClientConnectionPool aclClientConnectionPool(
+            @Qualifier("aclClientConnectionManager")
+                    PoolingHttpClientConnectionManager connectionManager) {
+        return new ApiClientConnectionPool(connectionManager);
+    }
+
+    @Bean(destroyMethod = "close")
+    CloseableHttpClient aclClientHttpClient(
+            ApiClientProperties config,
+            @Qualifier("aclClientConnectionManager")
+                    PoolingHttpClientConnectionManager connectionManager) {
+
+        RequestConfig requestConfig =
+                RequestConfig.custom()
+                        .setConnectTimeout(millis(config.getConnectTimeout()))
+                        .setSocketTimeout(millis(config.getReadTimeout()))
+                        .setConnectionRequestTimeout(millis(config.getConnectionRequestTimeout()))
+                        .build();
+
+        final long keepAlive = config.getKeepAlive().toMillis();
+        ConnectionKeepAliveStrategy keepAliveStrategy =
+                (response, context) -> {
+                    long serverKeepAlive =
+                            DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(
+                                    response, context);
+                    return serverKeepAlive > 0 ? Math.min(serverKeepAlive, keepAlive) : keepAlive;
+                };
+
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .setKeepAliveStrategy(keepAliveStrategy)
+                .evictExpiredConnections()
+                .evictIdleConnections(keepAlive, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    private static int millis(Duration duration) {
+        return (int) Math.min(Integer.MAX_VALUE, duration.toMillis());
+    }
+
     @Bean
     ObjectMapper aclClientObjectMapper() {
-        ObjectMapper mapper = new ObjectMapper();
+        return newMapper(new JsonFactory());
+    }
+
+    private static ObjectMapper newMapper(JsonFactory factory) {
+        ObjectMapper mapper = new ObjectMapper(factory);
         mapper.registerModule(new JavaTimeModule());
         return mapper;
     }
@@ -0,0 +1,64 @@
+/* (c) 2023  Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.acl.api.client.config;
+
+import lombok.NonNull;
+
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+
+/**
+ * Usage statistics of the {@link ApiClientConfiguration API client}'s HTTP connection pool. A
+ * steadily non-zero {@link #getPending() pending} count means the client threads are waiting for
+ * connections, and {@link ApiClientProperties#getMaxConnections() maxConnections} should be
+ * increased.
+ *
+ * @since 1.0
+ */
+public class ApiClientConnectionPool {
+
+    private final PoolingHttpClientConnectionManager connectionManager;
+
+    ApiClientConnectionPool(@NonNull PoolingHttpClientConnectionManager connectionManager) {
+        this.connectionManager = connectionManager;
+    }
+
+    /**
+     * @return the number of connections in use
+     */
+    public int getLeased() {
+        return stats().getLeased();
+    }
+
+    /**
+     * @return the number of requests waiting for a connection
+     */
+    public int getPending() {
+        return stats().getPending();
+    }
+
+    /**
+     * @return the number of idle connections
+     */
+    public int getAvailable() {
+        return stats().getAvailable();
+    }
+
+    /**
+     * @return the maximum number of connections
+     */
+    public int getMax() {
+        return stats().getMax();
+    }
+
+    private PoolStats stats() {
+        return connectionManager.getTotalStats();
+    }
+
+    @Override
+    public String toString() {
+        return "ACL client connection pool " + stats();
+    }
+}
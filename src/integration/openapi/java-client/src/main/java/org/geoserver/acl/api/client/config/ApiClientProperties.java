@@ -6,11 +6,140 @@ package org.geoserver.acl.api.client.config;
 
 import lombok.Data;
 
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
 @Data
 public class ApiClientProperties {
 
+    /**
+     * Base URL of the ACL service, or comma separated base URLs of its replicas to spread the
+     * requests over them, see {@link LoadBalancerProperties}
+     */
     private String basePath;
+
     private String username;
     private String password;
     private boolean debug;
+
+    /**
+     * Whether to request Smile encoded responses, with geometries as raw WKB, instead of JSON ones
+     */
+    private boolean preferSmile = true;
+
+    /** Maximum number of pooled HTTP connections */
+    private int maxConnections = 200;
+
+    /**
+     * Maximum number of pooled HTTP connections to the same host, usually the same as {@link
+     * #maxConnections} since all requests go to the ACL service
+     */
+    private int maxConnectionsPerRoute = 200;
+
+    /** Time to establish a connection to the ACL service */
+    private Duration connectTimeout = Duration.ofSeconds(5);
+
+    /** Maximum time without data while waiting for a response */
+    private Duration readTimeout = Duration.ofSeconds(30);
+
+    /** Time to wait for a connection from the pool when all of them are in use */
+    private Duration connectionRequestTimeout = Duration.ofSeconds(5);
+
+    /**
+     * How long idle connections are kept open when the server doesn't say, and upper bound for what
+     * it says
+     */
+    private Duration keepAlive = Duration.ofSeconds(60);
+
+    /**
+     * Whether to read the responses fully in memory before parsing them, instead of parsing them as
+     * they're received. Always the case if {@link #debug} is enabled, to log them.
+     */
+    private boolean bufferResponses;
+
+    /**
+     * Number of threads running the asynchronous authorization requests, hence how many of them can
+     * be in flight at once
+     */
+    private int asyncThreads = 32;
+
+    /**
+     * Number of asynchronous authorization requests that can wait for a thread, further ones are
+     * rejected, or answered like failed ones if the circuit breaker is enabled
+     */
+    private int asyncQueueCapacity = 1000;
+
+    /** Maximum number of rules or admin rules requested at once when streaming query results */
+    private int pageSize = 1000;
+
+    /**
+     * Whether to request the next page of rules in the background while the current one is consumed
+     */
+    private boolean prefetchPages;
+
+    /**
+     * Delay after which an authorization request that got no response yet is sent again, to another
+     * replica if there are several, and the first response used. {@code null} to send a single
+     * request.
+     */
+    private Duration hedgeDelay;
+
+    /** Maximum percentage of the authorization requests that are sent again after hedgeDelay */
+    private int maxHedgePercentage = 10;
+
+    /** Spreads the requests over the ACL service replicas, if {@link #basePath} lists several */
+    private LoadBalancerProperties loadBalancer = new LoadBalancerProperties();
+
+    /** Circuit breaker around the authorization requests */
+    private CircuitBreakerProperties circuitBreaker = new CircuitBreakerProperties();
+
+    /**
+     * @return the base URLs listed in {@link #basePath}
+     */
+    public List<String> getBasePaths() {
+        if (null == basePath) return List.of();
+        return Arrays.stream(basePath.split(","))
+                .map(String::trim)
+                .filter(path -> !path.isEmpty())
+                .collect(Collectors.toList());
+    }
+
+    @Data
+    public static class LoadBalancerProperties {
+
+        /** Number of consecutive failed requests after which a replica is left out */
+        private int failureThreshold = 3;
+
+        /** How long a failing replica is left out */
+        private Duration ejectDuration = Duration.ofSeconds(30);
+    }
+
+    @Data
+    public static class CircuitBreakerProperties {
+
+        private boolean enabled = true;
+
+        /** Number of consecutive failed requests that open the circuit */
+        private int failureThreshold = 5;
+
+        /** Requests slower than this count as failed */
+        private Duration slowCallThreshold = Duration.ofSeconds(10);
+
+        /** How long the circuit stays open before a probe request is let through */
+        private Duration openDuration = Duration.ofSeconds(10);
+
+        /** How old a decision can be to be reused while the ACL service is failing */
+        private Duration maxStaleness = Duration.ofMinutes(5);
+
+        /** Maximum number of decisions kept for reuse, per kind of request */
+        private long maxCachedDecisions = 10_000;
+
+        /**
+         * Whether to deny the requests with no recent enough decision while the ACL service is
+         * failing, instead of failing them
+         */
+        private boolean failClosed = true;
+    }
 }
@@ -5,23 +5,100 @@
 package org.geoserver.acl.api.client.config;
 
 import org.geoserver.acl.api.client.AuthorizationApi;
+import org.geoserver.acl.api.client.config.ApiClientProperties.CircuitBreakerProperties;
 import org.geoserver.acl.api.client.integration.AuthorizationServiceClientAdaptor;
+import org.geoserver.acl.api.client.integration.CircuitBreaker;
+import org.geoserver.acl.api.client.integration.CircuitBreakingAuthorizationService;
+import org.geoserver.acl.api.client.integration.Hedging;
 import org.geoserver.acl.api.mapper.AuthorizationModelApiMapper;
 import org.geoserver.acl.api.mapper.RuleApiMapper;
 import org.geoserver.acl.authorization.AuthorizationService;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 @Configuration(proxyBeanMethods = false)
 @ComponentScan(basePackageClasses = RuleApiMapper.class)
 public class AuthorizationServiceClientAdaptorConfiguration {
 
+    @Bean
+    CircuitBreaker aclAuthorizationCircuitBreaker(ApiClientProperties config) {
+        CircuitBreakerProperties props = config.getCircuitBreaker();
+        return new CircuitBreaker(
+                "ACL authorization",
+                props.getFailureThreshold(),
+                props.getOpenDuration(),
+                props.getSlowCallThreshold());
+    }
+
+    /**
+     * Runs the asynchronous authorization requests, holding up to {@link
+     * ApiClientProperties#getAsyncQueueCapacity() asyncQueueCapacity} waiting ones. Not a {@code
+     * TaskExecutor}, not to be picked up as the application's default one.
+     */
+    @Bean(destroyMethod = "shutdown")
+    ExecutorService aclAuthorizationClientExecutor(ApiClientProperties config) {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("acl-client-");
+        threadFactory.setDaemon(true);
+        ThreadPoolExecutor executor =
+                new ThreadPoolExecutor(
+                        config.getAsyncThreads(),
+                        config.getAsyncThreads(),
+                        60,
+                        TimeUnit.SECONDS,
+                        new LinkedBlockingQueue<>(config.getAsyncQueueCapacity()),
+                        threadFactory);
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Runs the HTTP calls of the authorization requests if {@link
+     * ApiClientProperties#getHedgeDelay() hedgeDelay} is set, apart from {@link
+     * #aclAuthorizationClientExecutor} whose threads wait for them. Threads are created on demand.
+     */
+    @Bean(destroyMethod = "shutdown")
+    ExecutorService aclAuthorizationHedgingExecutor() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("acl-hedging-");
+        threadFactory.setDaemon(true);
+        return Executors.newCachedThreadPool(threadFactory);
+    }
+
     @Bean
     AuthorizationService aclAuthorizationServiceClientAdaptor(
             AuthorizationApi apiClient,
             AuthorizationModelApiMapper mapper,
-            RuleApiMapper rulesMapper) {
-        return new AuthorizationServiceClientAdaptor(apiClient, mapper, rulesMapper);
+            RuleApiMapper rulesMapper,
+            @Qualifier("aclAuthorizationClientExecutor") ExecutorService executor,
+            @Qualifier("aclAuthorizationHedgingExecutor") ExecutorService hedgingExecutor,
+            CircuitBreaker aclAuthorizationCircuitBreaker,
+            ApiClientProperties config) {
+
+        AuthorizationServiceClientAdaptor client =
+                new AuthorizationServiceClientAdaptor(apiClient, mapper, rulesMapper, executor);
+        if (null != config.getHedgeDelay()) {
+            client.setHedging(
+                    new Hedging(
+                            config.getHedgeDelay(),
+                            config.getMaxHedgePercentage(),
+                            hedgingExecutor));
+        }
+        CircuitBreakerProperties props = config.getCircuitBreaker();
+        if (!props.isEnabled()) return client;
+        return new CircuitBreakingAuthorizationService(
+                client,
+                executor,
+                aclAuthorizationCircuitBreaker,
+                props.getMaxStaleness(),
+                props.getMaxCachedDecisions(),
+                props.isFailClosed());
     }
 }
@@ -0,0 +1,366 @@
+/* (c) 2023  Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.acl.api.client.config;
+
+import static org.geoserver.acl.api.client.integration.NdjsonClient.APPLICATION_NDJSON;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * {@link ClientHttpRequestFactory} that spreads the requests over several replicas of the ACL
+ * service.
+ *
+ * <p>The API client is configured with the first {@link Endpoint endpoint}'s base URL, requests to
+ * it are sent to the endpoint with the lowest cost instead, that is, the number of its outstanding
+ * requests times its moving average latency, so that slow or busy replicas get less traffic.
+ *
+ * <p>Long-lived requests, that is, {@code /rules/changes} long polls and newline-delimited JSON
+ * streams, are spread the same way but left out of the latency and outstanding requests figures,
+ * since they take as long as the server holds them or there is data to transfer, not as long as the
+ * replica is slow. Their failures do count towards ejection.
+ *
+ * <p>An endpoint is ejected for {@code ejectDuration} after {@code failureThreshold} consecutive
+ * failed requests, those that couldn't be sent or got a server error. If all of them are ejected,
+ * the one that's been out the longest is used anyway.
+ *
+ * @since 1.0
+ */
+@Slf4j
+public class LoadBalancingRequestFactory implements ClientHttpRequestFactory {
+
+    /** Weight of the latest sample in the moving average latency */
+    private static final double EWMA_ALPHA = 0.2;
+
+    private static final Pattern CHANGES_PATH = Pattern.compile(".*/rules/changes/?");
+    private static final Pattern WAIT_PARAM = Pattern.compile("(^|&)wait=");
+
+    private final ClientHttpRequestFactory delegate;
+    private final @Getter List<Endpoint> endpoints;
+    private final @Getter int failureThreshold;
+    private final @Getter Duration ejectDuration;
+
+    private final String primaryBasePath;
+    private final AtomicInteger next = new AtomicInteger();
+
+    /**
+     * @param basePaths the base URLs of the ACL service replicas
+     * @param failureThreshold number of consecutive failed requests that eject an endpoint
+     * @param ejectDuration how long an endpoint is left out after it's been ejected
+     */
+    public LoadBalancingRequestFactory(
+            @NonNull ClientHttpRequestFactory delegate,
+            @NonNull List<String> basePaths,
+            int failureThreshold,
+            @NonNull Duration ejectDuration) {
+        if (basePaths.isEmpty()) throw new IllegalArgumentException("No base paths provided");
+        if (failureThreshold < 1) {
+            throw new IllegalArgumentException("failureThreshold must be > 0: " + failureThreshold);
+        }
+        this.delegate = delegate;
+        this.endpoints =
+                basePaths.stream().map(Endpoint::new).collect(Collectors.toUnmodifiableList());
+        this.primaryBasePath = endpoints.get(0).getBasePath();
+        this.failureThreshold = failureThreshold;
+        this.ejectDuration = ejectDuration;
+    }
+
+    /** One of the ACL service replicas */
+    public static class Endpoint {
+
+        private final @Getter String basePath;
+
+        private final AtomicInteger outstanding = new AtomicInteger();
+        private final AtomicInteger consecutiveFailures = new AtomicInteger();
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder ejections = new LongAdder();
+        private double latencyNanos;
+        private volatile long ejectedUntil;
+        private volatile boolean ejected;
+
+        Endpoint(String basePath) {
+            this.basePath = basePath.replaceAll("/+$", "");
+        }
+
+        /**
+         * @return the number of requests sent to this endpoint whose response hasn't been closed
+         */
+        public int getOutstanding() {
+            return outstanding.get();
+        }
+
+        /**
+         * @return the exponentially weighted moving average of the time to get a response
+         */
+        public synchronized Duration getLatency() {
+            return Duration.ofNanos((long) latencyNanos);
+        }
+
+        public boolean isEjected() {
+            return ejected && System.nanoTime() - ejectedUntil < 0;
+        }
+
+        public long getRequestCount() {
+            return requests.sum();
+        }
+
+        public long getFailureCount() {
+            return failures.sum();
+        }
+
+        public long getEjectionCount() {
+            return ejections.sum();
+        }
+
+        private synchronized double cost() {
+            // not measured yet endpoints go first, to be measured
+            return (outstanding.get() + 1) * Math.max(1, latencyNanos);
+        }
+
+        private synchronized void onResponse(long nanos) {
+            latencyNanos =
+                    0 == latencyNanos ? nanos : latencyNanos + EWMA_ALPHA * (nanos - latencyNanos);
+        }
+
+        @Override
+        public String toString() {
+            return basePath;
+        }
+    }
+
+    @Override
+    public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) throws IOException {
+        final String target = uri.toString();
+        if (!target.startsWith(primaryBasePath)) {
+            return delegate.createRequest(uri, httpMethod);
+        }
+        Endpoint endpoint = choose();
+        URI endpointUri =
+                URI.create(endpoint.basePath + target.substring(primaryBasePath.length()));
+        return new BalancedRequest(delegate.createRequest(endpointUri, httpMethod), endpoint);
+    }
+
+    /** The available endpoint with the lowest cost, starting from a rotating one to break ties */
+    Endpoint choose() {
+        final int size = endpoints.size();
+        if (1 == size) return endpoints.get(0);
+
+        final int start = Math.floorMod(next.getAndIncrement(), size);
+        Endpoint best = null;
+        double bestCost = Double.MAX_VALUE;
+        Endpoint leastRecentlyEjected = null;
+        for (int i = 0; i < size; i++) {
+            Endpoint endpoint = endpoints.get((start + i) % size);
+            if (endpoint.isEjected()) {
+                if (null == leastRecentlyEjected
+                        || endpoint.ejectedUntil - leastRecentlyEjected.ejectedUntil < 0) {
+                    leastRecentlyEjected = endpoint;
+                }
+                continue;
+            }
+            double cost = endpoint.cost();
+            if (cost < bestCost) {
+                best = endpoint;
+                bestCost = cost;
+            }
+        }
+        return null == best ? leastRecentlyEjected : best;
+    }
+
+    /**
+     * @return whether {@code request} is held by the server or streams its body, and hence its
+     *     duration says nothing about the endpoint's latency
+     */
+    static boolean isLongLived(ClientHttpRequest request) {
+        for (MediaType accepted : request.getHeaders().getAccept()) {
+            if (accepted.isCompatibleWith(APPLICATION_NDJSON) && !accepted.isWildcardSubtype()) {
+                return true;
+            }
+        }
+        URI uri = request.getURI();
+        return CHANGES_PATH.matcher(uri.getPath()).matches()
+                && null != uri.getRawQuery()
+                && WAIT_PARAM.matcher(uri.getRawQuery()).find();
+    }
+
+    void onSuccess(Endpoint endpoint, long nanos) {
+        endpoint.onResponse(nanos);
+        onSuccess(endpoint);
+    }
+
+    private void onSuccess(Endpoint endpoint) {
+        endpoint.consecutiveFailures.set(0);
+        endpoint.ejected = false;
+    }
+
+    void onFailure(Endpoint endpoint, long nanos) {
+        endpoint.onResponse(nanos);
+        onFailure(endpoint);
+    }
+
+    private void onFailure(Endpoint endpoint) {
+        endpoint.failures.increment();
+        if (endpoint.consecutiveFailures.incrementAndGet() >= failureThreshold) {
+            endpoint.consecutiveFailures.set(0);
+            endpoint.ejectedUntil = System.nanoTime() + ejectDuration.toNanos();
+            endpoint.ejected = true;
+            endpoint.ejections.increment();
+            log.warn(
+                    "ACL service endpoint {} ejected for {} after {} consecutive failures",
+                    endpoint,
+                    ejectDuration,
+                    failureThreshold);
+        }
+    }
+
+    /**
+     * Reports the outcome of a request to its endpoint, and counts it as outstanding until closed,
+     * unless it's {@link #isLongLived long-lived}
+     */
+    private class BalancedRequest implements ClientHttpRequest, StreamingHttpOutputMessage {
+
+        private final ClientHttpRequest request;
+        private final Endpoint endpoint;
+
+        BalancedRequest(ClientHttpRequest request, Endpoint endpoint) {
+            this.request = request;
+            this.endpoint = endpoint;
+        }
+
+        @Override
+        public String getMethodValue() {
+            return request.getMethodValue();
+        }
+
+        @Override
+        public URI getURI() {
+            return request.getURI();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return request.getHeaders();
+        }
+
+        @Override
+        public OutputStream getBody() throws IOException {
+            return request.getBody();
+        }
+
+        @Override
+        public void setBody(Body body) {
+            if (request instanceof StreamingHttpOutputMessage) {
+                ((StreamingHttpOutputMessage) request).setBody(body);
+                return;
+            }
+            try {
+                body.writeTo(request.getBody());
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public ClientHttpResponse execute() throws IOException {
+            endpoint.requests.increment();
+            final boolean sampled = !isLongLived(request);
+            if (sampled) endpoint.outstanding.incrementAndGet();
+            final long start = System.nanoTime();
+            ClientHttpResponse response;
+            try {
+                response = request.execute();
+            } catch (IOException | RuntimeException e) {
+                if (sampled) {
+                    endpoint.outstanding.decrementAndGet();
+                    onFailure(endpoint, System.nanoTime() - start);
+                } else {
+                    onFailure(endpoint);
+                }
+                throw e;
+            }
+            final long nanos = System.nanoTime() - start;
+            final boolean failed = response.getRawStatusCode() >= 500;
+            if (!sampled) {
+                if (failed) onFailure(endpoint);
+                else onSuccess(endpoint);
+                return response;
+            }
+            if (failed) {
+                onFailure(endpoint, nanos);
+            } else {
+                onSuccess(endpoint, nanos);
+            }
+            return new BalancedResponse(response, endpoint);
+        }
+    }
+
+    private static class BalancedResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse response;
+        private final Endpoint endpoint;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        BalancedResponse(ClientHttpResponse response, Endpoint endpoint) {
+            this.response = response;
+            this.endpoint = endpoint;
+        }
+
+        @Override
+        public HttpStatus getStatusCode() throws IOException {
+            return response.getStatusCode();
+        }
+
+        @Override
+        public int getRawStatusCode() throws IOException {
+            return response.getRawStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return response.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return response.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            return response.getBody();
+        }
+
+        @Override
+        public void close() {
+            if (closed.compareAndSet(false, true)) {
+                endpoint.outstanding.decrementAndGet();
+            }
+            response.close();
+        }
+    }
+}
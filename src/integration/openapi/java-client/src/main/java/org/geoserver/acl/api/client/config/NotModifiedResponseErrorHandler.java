@@ -0,0 +1,41 @@
+/* (c) 2023  Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.acl.api.client.config;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.client.DefaultResponseErrorHandler;
+import org.springframework.web.client.RestClientResponseException;
+
+import java.io.IOException;
+
+/**
+ * Raises a {@link RestClientResponseException} for {@code 304 Not Modified} responses to
+ * conditional requests, which the generated API client would otherwise report as a plain {@link
+ * org.springframework.web.client.RestClientException}, without the response status and headers.
+ *
+ * @since 1.0
+ */
+class NotModifiedResponseErrorHandler extends DefaultResponseErrorHandler {
+
+    @Override
+    protected boolean hasError(HttpStatus statusCode) {
+        return HttpStatus.NOT_MODIFIED == statusCode || super.hasError(statusCode);
+    }
+
+    @Override
+    public void handleError(ClientHttpResponse response) throws IOException {
+        if (HttpStatus.NOT_MODIFIED.value() == response.getRawStatusCode()) {
+            throw new RestClientResponseException(
+                    "304 Not Modified",
+                    response.getRawStatusCode(),
+                    response.getStatusText(),
+                    response.getHeaders(),
+                    null,
+                    null);
+        }
+        super.handleError(response);
+    }
+}
@@ -4,20 +4,32 @@
  */
 package org.geoserver.acl.api.client.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+
 import org.geoserver.acl.api.client.AdminRulesApi;
+import org.geoserver.acl.api.client.ApiClient;
 import org.geoserver.acl.api.client.RulesApi;
 import org.geoserver.acl.api.client.integration.AdminRuleRepositoryClientAdaptor;
+import org.geoserver.acl.api.client.integration.NdjsonClient;
+import org.geoserver.acl.api.client.integration.RuleChangeFeedClient;
 import org.geoserver.acl.api.client.integration.RuleRepositoryClientAdaptor;
 import org.geoserver.acl.api.mapper.AdminRuleApiMapper;
 import org.geoserver.acl.api.mapper.EnumsApiMapper;
 import org.geoserver.acl.api.mapper.LayerDetailsApiMapper;
 import org.geoserver.acl.api.mapper.RuleApiMapper;
+import org.geoserver.acl.api.mapper.RuleChangeApiMapper;
 import org.geoserver.acl.api.mapper.RuleLimitsApiMapper;
 import org.geoserver.acl.domain.adminrules.AdminRuleRepository;
 import org.geoserver.acl.domain.rules.RuleRepository;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 @Configuration(proxyBeanMethods = false)
 @ComponentScan(basePackageClasses = RuleApiMapper.class)
@@ -29,15 +41,56 @@ public class RepositoryClientAdaptorsConfiguration {
             RuleApiMapper mapper,
             EnumsApiMapper enumsMapper,
             RuleLimitsApiMapper limitsMapper,
-            LayerDetailsApiMapper detailsMapper) {
+            LayerDetailsApiMapper detailsMapper,
+            NdjsonClient ndjsonClient,
+            @Qualifier("aclClientPrefetchExecutor") ExecutorService prefetchExecutor,
+            ApiClientProperties config) {
 
-        return new RuleRepositoryClientAdaptor(
-                apiClient, mapper, enumsMapper, limitsMapper, detailsMapper);
+        RuleRepositoryClientAdaptor repository =
+                new RuleRepositoryClientAdaptor(
+                        apiClient, mapper, enumsMapper, limitsMapper, detailsMapper, ndjsonClient);
+        repository.setPageSize(config.getPageSize());
+        if (config.isPrefetchPages()) repository.setPrefetchExecutor(prefetchExecutor);
+        return repository;
     }
 
     @Bean
     AdminRuleRepository aclAdminRuleRepositoryClientAdaptor(
-            AdminRulesApi apiClient, AdminRuleApiMapper mapper, EnumsApiMapper enumsMapper) {
-        return new AdminRuleRepositoryClientAdaptor(apiClient, mapper, enumsMapper);
+            AdminRulesApi apiClient,
+            AdminRuleApiMapper mapper,
+            EnumsApiMapper enumsMapper,
+            NdjsonClient ndjsonClient,
+            @Qualifier("aclClientPrefetchExecutor") ExecutorService prefetchExecutor,
+            ApiClientProperties config) {
+        AdminRuleRepositoryClientAdaptor repository =
+                new AdminRuleRepositoryClientAdaptor(apiClient, mapper, enumsMapper, ndjsonClient);
+        repository.setPageSize(config.getPageSize());
+        if (config.isPrefetchPages()) repository.setPrefetchExecutor(prefetchExecutor);
+        return repository;
+    }
+
+    /**
+     * Fetches the next page of the rule streams in the background if {@link
+     * ApiClientProperties#isPrefetchPages() prefetchPages} is enabled. Threads are created on
+     * demand. Not a {@code TaskExecutor}, not to be picked up as the application's default one.
+     */
+    @Bean(destroyMethod = "shutdown")
+    ExecutorService aclClientPrefetchExecutor() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("acl-prefetch-");
+        threadFactory.setDaemon(true);
+        return Executors.newCachedThreadPool(threadFactory);
+    }
+
+    @Bean
+    RuleChangeFeedClient aclRuleChangeFeedClient(RulesApi apiClient, RuleChangeApiMapper mapper) {
+        return new RuleChangeFeedClient(apiClient, mapper);
+    }
+
+    @Bean
+    NdjsonClient aclNdjsonClient(
+            ApiClient apiClient,
+            @Qualifier("aclClientRestTemplate") RestTemplate restTemplate,
+            @Qualifier("aclClientObjectMapper") ObjectMapper objectMapper) {
+        return new NdjsonClient(apiClient, restTemplate, objectMapper);
     }
 }
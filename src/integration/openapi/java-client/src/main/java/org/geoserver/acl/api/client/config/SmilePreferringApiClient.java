@@ -0,0 +1,43 @@
+/* (c) 2023  Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.acl.api.client.config;
+
+import org.geoserver.acl.api.client.ApiClient;
+import org.springframework.http.MediaType;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * {@link ApiClient} that asks for Smile encoded responses on the operations that offer them,
+ * falling back to JSON, instead of always choosing JSON.
+ *
+ * <p>Request bodies are still sent as JSON.
+ *
+ * @since 1.0
+ */
+class SmilePreferringApiClient extends ApiClient {
+
+    static final MediaType APPLICATION_SMILE = new MediaType("application", "x-jackson-smile");
+
+    private static final MediaType JSON_FALLBACK = new MediaType("application", "json", 0.9);
+
+    SmilePreferringApiClient(RestTemplate restTemplate) {
+        super(restTemplate);
+    }
+
+    @Override
+    public List<MediaType> selectHeaderAccept(String[] accepts) {
+        boolean offersSmile =
+                Arrays.stream(accepts)
+                        .map(MediaType::parseMediaType)
+                        .anyMatch(APPLICATION_SMILE::equalsTypeAndSubtype);
+        if (offersSmile) {
+            return List.of(APPLICATION_SMILE, JSON_FALLBACK);
+        }
+        return super.selectHeaderAccept(accepts);
+    }
+}
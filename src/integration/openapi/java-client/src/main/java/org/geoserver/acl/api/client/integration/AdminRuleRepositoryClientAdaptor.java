@@ -8,31 +8,58 @@ import static org.geoserver.acl.api.client.integration.ClientExceptionHelper.rea
 
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
+import lombok.Setter;
 
 import org.geoserver.acl.api.client.AdminRulesApi;
 import org.geoserver.acl.api.mapper.AdminRuleApiMapper;
 import org.geoserver.acl.api.mapper.EnumsApiMapper;
 import org.geoserver.acl.api.mapper.RuleFilterApiMapper;
+import org.geoserver.acl.api.model.ImportProgress;
 import org.geoserver.acl.domain.adminrules.AdminRule;
 import org.geoserver.acl.domain.adminrules.AdminRuleFilter;
 import org.geoserver.acl.domain.adminrules.AdminRuleIdentifierConflictException;
 import org.geoserver.acl.domain.adminrules.AdminRuleRepository;
 import org.geoserver.acl.domain.adminrules.InsertPosition;
 import org.geoserver.acl.domain.filter.RuleQuery;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
 import org.springframework.web.client.HttpClientErrorException;
 
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+/**
+ * {@link AdminRuleRepository} calling the ACL service's admin rules API.
+ *
+ * <p>The {@code findAll} streams fetch the admin rules in pages as they're consumed, see {@link
+ * RuleRepositoryClientAdaptor}.
+ */
 @RequiredArgsConstructor
 public class AdminRuleRepositoryClientAdaptor implements AdminRuleRepository {
 
     private final AdminRulesApi apiClient;
     private final AdminRuleApiMapper mapper;
     private final EnumsApiMapper enumsMapper;
+    private final NdjsonClient ndjsonClient;
     private final RuleFilterApiMapper filterMapper = new RuleFilterApiMapper();
 
+    /** Maximum number of admin rules requested at once */
+    private @Setter int pageSize = RuleRepositoryClientAdaptor.DEFAULT_PAGE_SIZE;
+
+    /** Fetches the next page of admin rules ahead of time, {@code null} to fetch it when needed */
+    private @Setter Executor prefetchExecutor;
+
     @Override
     public AdminRule create(AdminRule rule, InsertPosition position) {
         if (null != rule.getId()) throw new IllegalArgumentException("AdminRule must have no id");
@@ -58,6 +85,41 @@ public class AdminRuleRepositoryClientAdaptor implements AdminRuleRepository {
         }
     }
 
+    @Override
+    public List<AdminRule> createAll(List<AdminRule> rules, InsertPosition position) {
+        if (rules.stream().anyMatch(r -> null != r.getId()))
+            throw new IllegalArgumentException("AdminRule must have no id");
+        if (rules.isEmpty()) return List.of();
+        try {
+            List<org.geoserver.acl.api.model.AdminRule> result =
+                    apiClient.createAdminRules(
+                            rules.stream().map(mapper::toApi).collect(Collectors.toList()),
+                            map(position));
+            return result.stream().map(mapper::toModel).collect(Collectors.toList());
+        } catch (HttpClientErrorException.Conflict c) {
+            throw new AdminRuleIdentifierConflictException(reason(c), c);
+        } catch (HttpClientErrorException.BadRequest e) {
+            throw new IllegalArgumentException(reason(e), e);
+        }
+    }
+
+    @Override
+    public List<AdminRule> saveAll(List<AdminRule> rules) {
+        rules.forEach(rule -> Objects.requireNonNull(rule.getId(), "AdminRule has no id"));
+        if (rules.isEmpty()) return List.of();
+        try {
+            List<org.geoserver.acl.api.model.AdminRule> response;
+            response =
+                    apiClient.updateAdminRules(
+                            rules.stream().map(mapper::toApi).collect(Collectors.toList()));
+            return response.stream().map(mapper::toModel).collect(Collectors.toList());
+        } catch (HttpClientErrorException.Conflict c) {
+            throw new AdminRuleIdentifierConflictException(reason(c), c);
+        } catch (HttpClientErrorException.BadRequest e) {
+            throw new IllegalArgumentException(reason(e), e);
+        }
+    }
+
     @Override
     public Optional<AdminRule> findById(@NonNull String id) {
         org.geoserver.acl.api.model.AdminRule rule;
@@ -69,11 +131,77 @@ public class AdminRuleRepositoryClientAdaptor implements AdminRuleRepository {
         return Optional.ofNullable(rule).map(this::map);
     }
 
+    /**
+     * Requests the admin rules in batches of up to {@link #pageSize} ids (at most {@link
+     * RuleRepositoryClientAdaptor#MAX_IDS})
+     */
+    @Override
+    public List<AdminRule> findAllById(@NonNull Set<String> ids) {
+        final int batchSize = Math.min(pageSize, RuleRepositoryClientAdaptor.MAX_IDS);
+        List<String> all = new ArrayList<>(ids);
+        List<AdminRule> found = new ArrayList<>();
+        for (int from = 0; from < all.size(); from += batchSize) {
+            Set<String> batch =
+                    new LinkedHashSet<>(all.subList(from, Math.min(all.size(), from + batchSize)));
+            apiClient.findAdminRulesById(batch).stream().map(this::map).forEach(found::add);
+        }
+        return found;
+    }
+
     @Override
     public Stream<AdminRule> findAll() {
-        Integer limit = null;
-        String nextCursor = null;
-        return apiClient.findAllAdminRules(limit, nextCursor).stream().map(this::map);
+        return new CursorPagingIterator<>(
+                        apiClient::findAllAdminRulesWithHttpInfo,
+                        null,
+                        null,
+                        null,
+                        pageSize,
+                        prefetchExecutor)
+                .stream().map(this::map);
+    }
+
+    /** Streams the admin rules from the server's newline-delimited JSON export endpoint */
+    @Override
+    public void exportAll(@NonNull Consumer<AdminRule> consumer) {
+        ndjsonClient.read(
+                "/adminrules/export",
+                org.geoserver.acl.api.model.AdminRule.class,
+                rule -> consumer.accept(map(rule)));
+    }
+
+    /**
+     * Copies the server's newline-delimited JSON export of all the admin rules to {@code target}
+     */
+    public void exportAll(@NonNull OutputStream target) {
+        ndjsonClient.copy("/adminrules/export", target);
+    }
+
+    /**
+     * Streams the newline-delimited JSON admin rules read from {@code source} to the server's
+     * import endpoint, see {@link RuleRepositoryClientAdaptor#importAll}
+     */
+    public long importAll(@NonNull InputStream source, int batchSize, LongConsumer progress) {
+        MultiValueMap<String, String> params = new LinkedMultiValueMap<>();
+        params.add("batchSize", String.valueOf(batchSize));
+        ImportProgress result;
+        try {
+            result =
+                    ndjsonClient.post(
+                            "/adminrules/import",
+                            params,
+                            source,
+                            p -> {
+                                if (null != progress) progress.accept(p.getImported());
+                            });
+        } catch (HttpClientErrorException.Conflict c) {
+            throw new AdminRuleIdentifierConflictException(reason(c), c);
+        } catch (HttpClientErrorException.BadRequest e) {
+            throw new IllegalArgumentException(reason(e), e);
+        }
+        if (!Boolean.TRUE.equals(result.getDone())) {
+            throw new IllegalStateException(result.getError());
+        }
+        return result.getImported();
     }
 
     @Override
@@ -83,7 +211,16 @@ public class AdminRuleRepositoryClientAdaptor implements AdminRuleRepository {
 
         Integer limit = query.getLimit();
         String nextCursor = query.getNextId();
-        return apiClient.findAdminRules(limit, nextCursor, filter).stream().map(this::map);
+        return new CursorPagingIterator<org.geoserver.acl.api.model.AdminRule>(
+                        (pageLimit, cursor, etag) ->
+                                apiClient.findAdminRulesWithHttpInfo(
+                                        pageLimit, cursor, etag, filter),
+                        limit,
+                        nextCursor,
+                        null,
+                        pageSize,
+                        prefetchExecutor)
+                .stream().map(this::map);
     }
 
     @Override
@@ -5,33 +5,98 @@
 package org.geoserver.acl.api.client.integration;
 
 import lombok.NonNull;
-import lombok.RequiredArgsConstructor;
 
 import org.geoserver.acl.api.client.AuthorizationApi;
 import org.geoserver.acl.api.mapper.AuthorizationModelApiMapper;
 import org.geoserver.acl.api.mapper.RuleApiMapper;
+import org.geoserver.acl.api.mapper.RuleFieldsApiMapper;
 import org.geoserver.acl.authorization.AccessInfo;
 import org.geoserver.acl.authorization.AdminAccessInfo;
 import org.geoserver.acl.authorization.AuthorizationService;
+import org.geoserver.acl.authorization.SingleFlight;
 import org.geoserver.acl.domain.rules.Rule;
 
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
-@RequiredArgsConstructor
 public class AuthorizationServiceClientAdaptor implements AuthorizationService {
 
-    private final @NonNull AuthorizationApi apiClient;
-    private final @NonNull AuthorizationModelApiMapper mapper;
-    private final @NonNull RuleApiMapper ruleMapper;
+    private final AuthorizationApi apiClient;
+    private final AuthorizationModelApiMapper mapper;
+    private final RuleApiMapper ruleMapper;
+    private final RuleFieldsApiMapper fieldsMapper = new RuleFieldsApiMapper();
+
+    /** Runs the blocking HTTP calls of the asynchronous methods */
+    private final Executor executor;
+
+    /** Hedges the HTTP calls, {@code null} to make a single one */
+    private Hedging hedging;
+
+    // concurrent identical requests, like a map's tiles, share a single HTTP call
+    private final SingleFlight<org.geoserver.acl.authorization.AccessRequest, AccessInfo>
+            accessInfoCalls = new SingleFlight<>();
+    private final SingleFlight<org.geoserver.acl.authorization.AdminAccessRequest, AdminAccessInfo>
+            adminAccessInfoCalls = new SingleFlight<>();
+    private final SingleFlight<org.geoserver.acl.authorization.AccessRequest, List<Rule>>
+            matchingRulesCalls = new SingleFlight<>();
+
+    /** Creates an adaptor whose asynchronous methods run on the calling thread */
+    public AuthorizationServiceClientAdaptor(
+            @NonNull AuthorizationApi apiClient,
+            @NonNull AuthorizationModelApiMapper mapper,
+            @NonNull RuleApiMapper ruleMapper) {
+        this(apiClient, mapper, ruleMapper, Runnable::run);
+    }
+
+    /**
+     * @param executor runs the HTTP calls of the asynchronous methods, as many calls can be in
+     *     flight as it has threads, up to the connection pool size
+     */
+    public AuthorizationServiceClientAdaptor(
+            @NonNull AuthorizationApi apiClient,
+            @NonNull AuthorizationModelApiMapper mapper,
+            @NonNull RuleApiMapper ruleMapper,
+            @NonNull Executor executor) {
+        this.apiClient = apiClient;
+        this.mapper = mapper;
+        this.ruleMapper = ruleMapper;
+        this.executor = executor;
+    }
+
+    /**
+     * @param hedging hedges the HTTP calls, which are idempotent, to cut their tail latency, or
+     *     {@code null} to make a single call
+     */
+    public void setHedging(Hedging hedging) {
+        this.hedging = hedging;
+    }
+
+    private <T> T call(Supplier<T> call) {
+        final Hedging hedge = this.hedging;
+        return null == hedge ? call.get() : hedge.call(call);
+    }
 
     @Override
     public AccessInfo getAccessInfo(org.geoserver.acl.authorization.AccessRequest request) {
+        return accessInfoCalls.get(request, this::fetchAccessInfo);
+    }
+
+    @Override
+    public CompletableFuture<AccessInfo> getAccessInfoAsync(
+            org.geoserver.acl.authorization.AccessRequest request) {
+        return CompletableFuture.supplyAsync(() -> getAccessInfo(request), executor);
+    }
+
+    private AccessInfo fetchAccessInfo(org.geoserver.acl.authorization.AccessRequest request) {
         org.geoserver.acl.api.model.AccessRequest apiRequest;
         org.geoserver.acl.api.model.AccessInfo apiResponse;
 
         apiRequest = mapper.toApi(request);
-        apiResponse = apiClient.getAccessInfo(apiRequest);
+        apiResponse = call(() -> apiClient.getAccessInfo(apiRequest));
 
         return mapper.toModel(apiResponse);
     }
@@ -39,23 +104,65 @@ public class AuthorizationServiceClientAdaptor implements AuthorizationService {
     @Override
     public AdminAccessInfo getAdminAuthorization(
             org.geoserver.acl.authorization.AdminAccessRequest request) {
+        return adminAccessInfoCalls.get(request, this::fetchAdminAuthorization);
+    }
+
+    @Override
+    public CompletableFuture<AdminAccessInfo> getAdminAuthorizationAsync(
+            org.geoserver.acl.authorization.AdminAccessRequest request) {
+        return CompletableFuture.supplyAsync(() -> getAdminAuthorization(request), executor);
+    }
+
+    private AdminAccessInfo fetchAdminAuthorization(
+            org.geoserver.acl.authorization.AdminAccessRequest request) {
         org.geoserver.acl.api.model.AdminAccessRequest apiRequest;
         org.geoserver.acl.api.model.AdminAccessInfo apiResponse;
 
         apiRequest = mapper.toApi(request);
-        apiResponse = apiClient.getAdminAuthorization(apiRequest);
+        apiResponse = call(() -> apiClient.getAdminAuthorization(apiRequest));
 
         return mapper.toModel(apiResponse);
     }
 
     @Override
     public List<Rule> getMatchingRules(org.geoserver.acl.authorization.AccessRequest request) {
+        return matchingRulesCalls.get(request, this::fetchMatchingRules);
+    }
+
+    @Override
+    public CompletableFuture<List<Rule>> getMatchingRulesAsync(
+            org.geoserver.acl.authorization.AccessRequest request) {
+        return CompletableFuture.supplyAsync(() -> getMatchingRules(request), executor);
+    }
+
+    /**
+     * Like {@link #getMatchingRules(org.geoserver.acl.authorization.AccessRequest)}, but the
+     * returned rules only have their id, priority, and identifier, plus the requested {@code
+     * fields}, for example {@code Set.of()} to leave out the limits' allowed area geometries
+     *
+     * @param fields names of the additional {@link Rule} properties to return, {@code null} for all
+     *     of them
+     */
+    public List<Rule> getMatchingRules(
+            org.geoserver.acl.authorization.AccessRequest request, Set<String> fields) {
+        return fetchMatchingRules(request, fieldsMapper.toApi(fields));
+    }
+
+    private List<Rule> fetchMatchingRules(org.geoserver.acl.authorization.AccessRequest request) {
+        return fetchMatchingRules(request, null);
+    }
+
+    private List<Rule> fetchMatchingRules(
+            org.geoserver.acl.authorization.AccessRequest request, List<String> fields) {
         org.geoserver.acl.api.model.AccessRequest apiRequest;
         List<org.geoserver.acl.api.model.Rule> apiResponse;
 
         apiRequest = mapper.toApi(request);
-        apiResponse = apiClient.getMatchingRules(apiRequest);
+        apiResponse = call(() -> apiClient.getMatchingRules(apiRequest, fields));
 
-        return apiResponse.stream().map(ruleMapper::toModel).collect(Collectors.toList());
+        // shared by coalesced callers
+        return apiResponse.stream()
+                .map(ruleMapper::toModel)
+                .collect(Collectors.toUnmodifiableList());
     }
 }
@@ -0,0 +1,220 @@
+/* (c) 2023  Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.acl.api.client.integration;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Stops calling a failing service for a while, so that callers don't pile up waiting for it.
+ *
+ * <ul>
+ *   <li>{@link State#CLOSED CLOSED}: calls go through. After {@link #getFailureThreshold()
+ *       failureThreshold} consecutive failures the circuit opens. Calls slower than {@link
+ *       #getSlowCallThreshold() slowCallThreshold} count as failures.
+ *   <li>{@link State#OPEN OPEN}: calls are not permitted, until {@link #getOpenDuration()
+ *       openDuration} elapsed since the circuit opened.
+ *   <li>{@link State#HALF_OPEN HALF_OPEN}: a single probe call is permitted, the circuit closes if
+ *       it succeeds and opens again if it fails.
+ * </ul>
+ *
+ * <p>Callers ask for permission with {@link #tryAcquirePermission()} and report the outcome with
+ * {@link #onSuccess(long)} or {@link #onFailure(long)}. State transitions are counted, see {@link
+ * #getTransitionCount(State, State)}, and can be followed with a {@link Listener}.
+ *
+ * @since 1.0
+ */
+@Slf4j
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    /** Notified of the circuit state transitions */
+    @FunctionalInterface
+    public interface Listener {
+        void onStateTransition(CircuitBreaker circuitBreaker, State from, State to);
+    }
+
+    /** Thrown instead of calling the service while the circuit is open */
+    @SuppressWarnings("serial")
+    public static class CallNotPermittedException extends RuntimeException {
+        public CallNotPermittedException(String message) {
+            super(message);
+        }
+    }
+
+    private final @Getter String name;
+    private final @Getter int failureThreshold;
+    private final @Getter Duration openDuration;
+    private final @Getter Duration slowCallThreshold;
+
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicBoolean probing = new AtomicBoolean();
+    private volatile long openedAt;
+
+    private final LongAdder[][] transitions;
+    private final LongAdder notPermitted = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder successes = new LongAdder();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * @param name identifies the circuit in logs
+     * @param failureThreshold number of consecutive failures that open the circuit
+     * @param openDuration how long the circuit stays open before a probe call is let through
+     * @param slowCallThreshold successful calls taking longer than this count as failures
+     */
+    public CircuitBreaker(
+            @NonNull String name,
+            int failureThreshold,
+            @NonNull Duration openDuration,
+            @NonNull Duration slowCallThreshold) {
+        if (failureThreshold < 1) {
+            throw new IllegalArgumentException("failureThreshold must be > 0: " + failureThreshold);
+        }
+        this.name = name;
+        this.failureThreshold = failureThreshold;
+        this.openDuration = openDuration;
+        this.slowCallThreshold = slowCallThreshold;
+        final int states = State.values().length;
+        this.transitions = new LongAdder[states][states];
+        for (int from = 0; from < states; from++) {
+            for (int to = 0; to < states; to++) {
+                transitions[from][to] = new LongAdder();
+            }
+        }
+    }
+
+    public void addListener(@NonNull Listener listener) {
+        listeners.add(listener);
+    }
+
+    public State getState() {
+        return state.get();
+    }
+
+    /**
+     * @return whether a call can be made, in which case its outcome must be reported with {@link
+     *     #onSuccess(long)} or {@link #onFailure(long)}
+     */
+    public boolean tryAcquirePermission() {
+        switch (state.get()) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (System.nanoTime() - openedAt >= openDuration.toNanos()
+                        && transition(State.OPEN, State.HALF_OPEN)) {
+                    probing.set(true);
+                    return true;
+                }
+                break;
+            case HALF_OPEN:
+                if (probing.compareAndSet(false, true)) return true;
+                break;
+        }
+        notPermitted.increment();
+        return false;
+    }
+
+    /**
+     * Reports a successful call, a failure if it took longer than {@link #getSlowCallThreshold()}
+     *
+     * @param durationNanos how long the call took
+     */
+    public void onSuccess(long durationNanos) {
+        if (durationNanos > slowCallThreshold.toNanos()) {
+            log.debug("{} call took {}ms, counted as failure", name, durationNanos / 1_000_000);
+            onFailure(durationNanos);
+            return;
+        }
+        successes.increment();
+        consecutiveFailures.set(0);
+        if (transition(State.HALF_OPEN, State.CLOSED)) {
+            probing.set(false);
+        }
+    }
+
+    /**
+     * Reports a failed call
+     *
+     * @param durationNanos how long the call took
+     */
+    public void onFailure(long durationNanos) {
+        failures.increment();
+        if (state.get() == State.HALF_OPEN) {
+            open(State.HALF_OPEN);
+        } else if (consecutiveFailures.incrementAndGet() >= failureThreshold) {
+            open(State.CLOSED);
+        }
+    }
+
+    private void open(State from) {
+        openedAt = System.nanoTime();
+        if (transition(from, State.OPEN)) {
+            consecutiveFailures.set(0);
+            probing.set(false);
+        }
+    }
+
+    private boolean transition(State from, State to) {
+        if (!state.compareAndSet(from, to)) return false;
+        transitions[from.ordinal()][to.ordinal()].increment();
+        if (to == State.OPEN) {
+            log.warn("{} circuit is open, calls are suspended for {}", name, openDuration);
+        } else {
+            log.info("{} circuit is {}", name, to);
+        }
+        for (Listener listener : listeners) {
+            try {
+                listener.onStateTransition(this, from, to);
+            } catch (RuntimeException e) {
+                log.warn("Error notifying {} circuit transition to {}", name, to, e);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return how many times the circuit went from state {@code from} to state {@code to}
+     */
+    public long getTransitionCount(@NonNull State from, @NonNull State to) {
+        return transitions[from.ordinal()][to.ordinal()].sum();
+    }
+
+    /**
+     * @return the number of calls not permitted because the circuit was open
+     */
+    public long getNotPermittedCount() {
+        return notPermitted.sum();
+    }
+
+    /**
+     * @return the number of failed calls, including the slow ones
+     */
+    public long getFailureCount() {
+        return failures.sum();
+    }
+
+    /**
+     * @return the number of successful calls
+     */
+    public long getSuccessCount() {
+        return successes.sum();
+    }
+}
@@ -0,0 +1,263 @@
+/* (c) 2023  Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.acl.api.client.integration;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+import org.geoserver.acl.api.client.integration.CircuitBreaker.CallNotPermittedException;
+import org.geoserver.acl.authorization.AccessInfo;
+import org.geoserver.acl.authorization.AccessRequest;
+import org.geoserver.acl.authorization.AdminAccessInfo;
+import org.geoserver.acl.authorization.AdminAccessRequest;
+import org.geoserver.acl.authorization.AuthorizationService;
+import org.geoserver.acl.domain.rules.Rule;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * {@link AuthorizationService} decorator that guards the calls to a remote service with a {@link
+ * CircuitBreaker}, so that GeoServer request threads don't block on an unresponsive ACL service.
+ *
+ * <p>The last decision for each request is kept for up to {@link #getMaxStaleness() maxStaleness}.
+ * While the circuit is open, or when a call fails because the service can't be reached or answers
+ * with a server error, that decision is returned instead. Without one, the request is denied if
+ * {@link #isFailClosed() failClosed}, or the error is propagated otherwise.
+ *
+ * <p>Client errors ({@code 4xx}) mean the service is up, they don't count as failures and are
+ * propagated as is.
+ *
+ * <p>The asynchronous methods run the calls on the given executor, and time them from when they
+ * start there, so that the time spent queued doesn't make them count as slow calls. Calls the
+ * executor rejects are answered like failed ones, without counting against the circuit.
+ *
+ * @since 1.0
+ */
+@Slf4j
+public class CircuitBreakingAuthorizationService implements AuthorizationService {
+
+    private final AuthorizationService delegate;
+    private final Executor executor;
+    private final @Getter CircuitBreaker circuitBreaker;
+    private final @Getter Duration maxStaleness;
+    private final @Getter boolean failClosed;
+
+    private final Decisions<AccessRequest, AccessInfo> accessInfos;
+    private final Decisions<AdminAccessRequest, AdminAccessInfo> adminAccessInfos;
+    private final Decisions<AccessRequest, List<Rule>> matchingRules;
+
+    private final LongAdder staleResponses = new LongAdder();
+    private final LongAdder deniedResponses = new LongAdder();
+
+    /**
+     * @param executor runs the calls of the asynchronous methods
+     * @param maxStaleness how old a decision can be to be returned while the service is failing
+     * @param maxCachedDecisions how many decisions are kept, per kind of request
+     * @param failClosed whether to deny the requests with no recent enough decision while the
+     *     service is failing, instead of propagating the error
+     */
+    public CircuitBreakingAuthorizationService(
+            @NonNull AuthorizationService delegate,
+            @NonNull Executor executor,
+            @NonNull CircuitBreaker circuitBreaker,
+            @NonNull Duration maxStaleness,
+            long maxCachedDecisions,
+            boolean failClosed) {
+        this.delegate = delegate;
+        this.executor = executor;
+        this.circuitBreaker = circuitBreaker;
+        this.maxStaleness = maxStaleness;
+        this.failClosed = failClosed;
+        this.accessInfos = new Decisions<>(maxStaleness, maxCachedDecisions);
+        this.adminAccessInfos = new Decisions<>(maxStaleness, maxCachedDecisions);
+        this.matchingRules = new Decisions<>(maxStaleness, maxCachedDecisions);
+    }
+
+    @Override
+    public AccessInfo getAccessInfo(AccessRequest request) {
+        return call(request, delegate::getAccessInfo, accessInfos, () -> AccessInfo.DENY_ALL);
+    }
+
+    @Override
+    public CompletableFuture<AccessInfo> getAccessInfoAsync(AccessRequest request) {
+        return callAsync(request, delegate::getAccessInfo, accessInfos, () -> AccessInfo.DENY_ALL);
+    }
+
+    @Override
+    public AdminAccessInfo getAdminAuthorization(AdminAccessRequest request) {
+        return call(
+                request,
+                delegate::getAdminAuthorization,
+                adminAccessInfos,
+                () -> denyAdmin(request));
+    }
+
+    @Override
+    public CompletableFuture<AdminAccessInfo> getAdminAuthorizationAsync(
+            AdminAccessRequest request) {
+        return callAsync(
+                request,
+                delegate::getAdminAuthorization,
+                adminAccessInfos,
+                () -> denyAdmin(request));
+    }
+
+    private static AdminAccessInfo denyAdmin(AdminAccessRequest request) {
+        return AdminAccessInfo.builder().workspace(request.getWorkspace()).build();
+    }
+
+    @Override
+    public List<Rule> getMatchingRules(AccessRequest request) {
+        return call(request, delegate::getMatchingRules, matchingRules, List::of);
+    }
+
+    @Override
+    public CompletableFuture<List<Rule>> getMatchingRulesAsync(AccessRequest request) {
+        return callAsync(request, delegate::getMatchingRules, matchingRules, List::of);
+    }
+
+    private <K, V> V call(
+            K request, Function<K, V> service, Decisions<K, V> cache, Supplier<V> deny) {
+        if (!circuitBreaker.tryAcquirePermission()) {
+            return fallback(request, cache, deny, notPermitted());
+        }
+        final long start = System.nanoTime();
+        V value;
+        try {
+            value = service.apply(request);
+        } catch (RuntimeException e) {
+            return onFailure(request, cache, deny, e, start);
+        }
+        return onSuccess(request, cache, value, start);
+    }
+
+    private <K, V> CompletableFuture<V> callAsync(
+            K request, Function<K, V> service, Decisions<K, V> cache, Supplier<V> deny) {
+        try {
+            return CompletableFuture.supplyAsync(
+                    () -> call(request, service, cache, deny), executor);
+        } catch (RejectedExecutionException e) {
+            try {
+                return CompletableFuture.completedFuture(fallback(request, cache, deny, e));
+            } catch (RuntimeException error) {
+                return CompletableFuture.failedFuture(error);
+            }
+        }
+    }
+
+    private <K, V> V onSuccess(K request, Decisions<K, V> cache, V value, long start) {
+        circuitBreaker.onSuccess(System.nanoTime() - start);
+        cache.put(request, value);
+        return value;
+    }
+
+    private <K, V> V onFailure(
+            K request, Decisions<K, V> cache, Supplier<V> deny, RuntimeException e, long start) {
+        if (!isFailure(e)) {
+            circuitBreaker.onSuccess(System.nanoTime() - start);
+            throw e;
+        }
+        circuitBreaker.onFailure(System.nanoTime() - start);
+        return fallback(request, cache, deny, e);
+    }
+
+    private CallNotPermittedException notPermitted() {
+        return new CallNotPermittedException(
+                circuitBreaker.getName() + " circuit is open, call not permitted");
+    }
+
+    private <K, V> V fallback(
+            K request, Decisions<K, V> cache, Supplier<V> deny, RuntimeException e) {
+        V stale = cache.get(request);
+        if (null != stale) {
+            staleResponses.increment();
+            log.debug("Returning last known decision for {}: {}", request, e.getMessage());
+            return stale;
+        }
+        if (failClosed) {
+            deniedResponses.increment();
+            log.debug("Denying {}: {}", request, e.getMessage());
+            return deny.get();
+        }
+        throw e;
+    }
+
+    /** Whether the service is unreachable or failing, as opposed to rejecting the request */
+    static boolean isFailure(RuntimeException e) {
+        return e instanceof ResourceAccessException || e instanceof HttpServerErrorException;
+    }
+
+    /** Last known decisions, dropped once older than maxStaleness */
+    private static class Decisions<K, V> {
+
+        private static class Decision<V> {
+            final V value;
+            final long createdAt = System.nanoTime();
+
+            Decision(V value) {
+                this.value = value;
+            }
+        }
+
+        private final ConcurrentMap<K, Decision<V>> decisions = new ConcurrentHashMap<>();
+        private final long maxStalenessNanos;
+        private final long maxSize;
+
+        Decisions(Duration maxStaleness, long maxSize) {
+            this.maxStalenessNanos = maxStaleness.toNanos();
+            this.maxSize = maxSize;
+        }
+
+        V get(K key) {
+            Decision<V> decision = decisions.get(key);
+            if (null == decision) return null;
+            if (isStale(decision, System.nanoTime())) {
+                decisions.remove(key, decision);
+                return null;
+            }
+            return decision.value;
+        }
+
+        void put(K key, V value) {
+            decisions.put(key, new Decision<>(value));
+            if (decisions.size() > maxSize) {
+                final long now = System.nanoTime();
+                decisions.values().removeIf(d -> isStale(d, now));
+                // still full of recent decisions, start over rather than tracking usage
+                if (decisions.size() > maxSize) decisions.clear();
+            }
+        }
+
+        private boolean isStale(Decision<V> decision, long now) {
+            return now - decision.createdAt >= maxStalenessNanos;
+        }
+    }
+
+    /**
+     * @return the number of last known decisions returned while the service was failing
+     */
+    public long getStaleResponseCount() {
+        return staleResponses.sum();
+    }
+
+    /**
+     * @return the number of requests denied because the service was failing
+     */
+    public long getDeniedResponseCount() {
+        return deniedResponses.sum();
+    }
+}
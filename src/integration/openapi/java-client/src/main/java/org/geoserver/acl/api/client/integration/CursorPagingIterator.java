@@ -0,0 +1,159 @@
+/* (c) 2023  Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.acl.api.client.integration;
+
+import lombok.NonNull;
+
+import org.springframework.http.ResponseEntity;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Iterates over the results of a paged query, fetching pages of up to {@code pageSize} elements on
+ * demand and following the {@code X-ACL-NEXTCURSOR} response header from one page to the next.
+ *
+ * <p>The first page is fetched by the constructor, so that request errors are thrown to the caller
+ * right away. If a prefetch {@link Executor} is given, the next page is requested in the background
+ * as soon as a page is received.
+ *
+ * @since 1.0
+ */
+class CursorPagingIterator<T> implements Iterator<T> {
+
+    /** Response header holding the id to pass as {@code nextCursor} to get the next page */
+    static final String NEXT_CURSOR_HEADER = "X-ACL-NEXTCURSOR";
+
+    @FunctionalInterface
+    interface PageCall<T> {
+        ResponseEntity<List<T>> fetch(Integer limit, String nextCursor, String ifNoneMatch);
+    }
+
+    private final PageCall<T> call;
+    private final int pageSize;
+    private final Executor prefetchExecutor;
+
+    /** Elements still to be fetched, {@code null} for no limit */
+    private Integer remaining;
+
+    private Iterator<T> page;
+    private String nextCursor;
+    private CompletableFuture<ResponseEntity<List<T>>> prefetched;
+
+    private final String etag;
+
+    /**
+     * @param limit maximum number of elements to return, {@code null} for all of them
+     * @param cursor id of the first element to return, {@code null} to start from the first one
+     * @param ifNoneMatch sent with the first page request only
+     * @param prefetchExecutor runs the next page requests ahead of time, {@code null} to fetch them
+     *     when they're needed
+     */
+    CursorPagingIterator(
+            @NonNull PageCall<T> call,
+            Integer limit,
+            String cursor,
+            String ifNoneMatch,
+            int pageSize,
+            Executor prefetchExecutor) {
+        if (pageSize < 1) throw new IllegalArgumentException("pageSize must be > 0: " + pageSize);
+        this.call = call;
+        this.pageSize = pageSize;
+        this.prefetchExecutor = prefetchExecutor;
+        this.remaining = limit;
+        ResponseEntity<List<T>> first = call.fetch(nextPageSize(), cursor, ifNoneMatch);
+        this.etag = first.getHeaders().getETag();
+        onPage(first);
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!page.hasNext()) {
+            if (!hasNextPage()) return false;
+            onPage(fetchNextPage());
+        }
+        return true;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) throw new NoSuchElementException();
+        return page.next();
+    }
+
+    /**
+     * @return whether there are more pages to fetch after the current one
+     */
+    boolean hasNextPage() {
+        return null != nextCursor && (null == remaining || remaining > 0);
+    }
+
+    private Integer nextPageSize() {
+        return null == remaining ? pageSize : Math.min(pageSize, remaining);
+    }
+
+    private void onPage(ResponseEntity<List<T>> response) {
+        List<T> body = response.getBody();
+        if (null == body) body = List.of();
+        page = body.iterator();
+        nextCursor = body.isEmpty() ? null : nextCursor(response);
+        if (null != remaining) remaining -= body.size();
+        if (null != prefetchExecutor && hasNextPage()) {
+            final Integer limit = nextPageSize();
+            final String cursor = nextCursor;
+            prefetched =
+                    CompletableFuture.supplyAsync(
+                            () -> call.fetch(limit, cursor, null), prefetchExecutor);
+        }
+    }
+
+    private ResponseEntity<List<T>> fetchNextPage() {
+        final CompletableFuture<ResponseEntity<List<T>>> next = prefetched;
+        prefetched = null;
+        if (null == next) {
+            return call.fetch(nextPageSize(), nextCursor, null);
+        }
+        try {
+            return next.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            throw e;
+        }
+    }
+
+    private static String nextCursor(ResponseEntity<?> response) {
+        return response.getHeaders().getFirst(NEXT_CURSOR_HEADER);
+    }
+
+    /**
+     * @return the {@code ETag} of the first page response, if any
+     */
+    String getETag() {
+        return etag;
+    }
+
+    /** Drops the prefetched page, if any */
+    void close() {
+        CompletableFuture<?> next = prefetched;
+        prefetched = null;
+        if (null != next) next.cancel(false);
+    }
+
+    /** Closing the stream drops the prefetched page, if any */
+    Stream<T> stream() {
+        Spliterator<T> spliterator =
+                Spliterators.spliteratorUnknownSize(
+                        this, Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(spliterator, false).onClose(this::close);
+    }
+}
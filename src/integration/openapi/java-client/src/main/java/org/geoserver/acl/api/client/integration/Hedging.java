@@ -0,0 +1,167 @@
+/* (c) 2023  Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.acl.api.client.integration;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Cuts the tail latency of idempotent calls by issuing a second, hedged, call if the first one
+ * didn't complete after {@link #getDelay() delay}, and returning whichever succeeds first.
+ *
+ * <p>The calls run on their own {@link Executor}, the calling thread waits for the result. It must
+ * not be the executor of the callers, or they could take all its threads while waiting for calls
+ * queued behind them.
+ *
+ * <p>Hedged calls are capped to {@link #getMaxHedgePercentage() maxHedgePercentage} of the calls,
+ * so that a slow service doesn't get its load multiplied. Each call earns that percentage of a
+ * hedge, up to a burst of {@value #MAX_BURST} hedges, and a call is not hedged if the budget is
+ * exhausted.
+ *
+ * @since 1.0
+ */
+public class Hedging {
+
+    /** Number of hedges that can be issued in a row, if the budget is full */
+    static final int MAX_BURST = 10;
+
+    /** Budget taken by a hedge, in hundredths of a hedge, as earned per call */
+    private static final long HEDGE_COST = 100;
+
+    private final @Getter Duration delay;
+    private final @Getter int maxHedgePercentage;
+    private final Executor executor;
+    private final Executor delayedExecutor;
+
+    private final LongAdder hedgedCalls = new LongAdder();
+    private final LongAdder hedgeWins = new LongAdder();
+    private final LongAdder budgetExhausted = new LongAdder();
+    private final AtomicLong budget = new AtomicLong(MAX_BURST * HEDGE_COST);
+
+    /**
+     * @param delay how long to wait for the first call before issuing the hedged one
+     * @param maxHedgePercentage how many of the calls can be hedged, in percent
+     * @param executor runs the calls
+     */
+    public Hedging(@NonNull Duration delay, int maxHedgePercentage, @NonNull Executor executor) {
+        if (maxHedgePercentage < 0 || maxHedgePercentage > 100) {
+            throw new IllegalArgumentException(
+                    "maxHedgePercentage must be between 0 and 100: " + maxHedgePercentage);
+        }
+        this.delay = delay;
+        this.maxHedgePercentage = maxHedgePercentage;
+        this.executor = executor;
+        this.delayedExecutor =
+                CompletableFuture.delayedExecutor(delay.toNanos(), TimeUnit.NANOSECONDS, executor);
+    }
+
+    /**
+     * @return the result of the first successful call, or the error of the last one to fail if none
+     *     succeeds
+     */
+    public <T> T call(@NonNull Supplier<T> call) {
+        final CompletableFuture<Outcome<T>> result = new CompletableFuture<>();
+        // calls that didn't complete yet, the result fails when it drops to zero
+        final AtomicInteger pending = new AtomicInteger(1);
+        budget.accumulateAndGet(
+                maxHedgePercentage, (b, earned) -> Math.min(MAX_BURST * HEDGE_COST, b + earned));
+
+        CompletableFuture.supplyAsync(call, executor)
+                .whenComplete((value, error) -> complete(result, pending, value, error, false));
+
+        delayedExecutor.execute(
+                () -> {
+                    if (result.isDone()) return;
+                    if (budget.getAndUpdate(b -> b >= HEDGE_COST ? b - HEDGE_COST : b)
+                            < HEDGE_COST) {
+                        budgetExhausted.increment();
+                        return;
+                    }
+                    if (0 == pending.getAndUpdate(n -> 0 == n ? 0 : n + 1)) {
+                        budget.addAndGet(HEDGE_COST);
+                        return;
+                    }
+                    hedgedCalls.increment();
+                    T value;
+                    try {
+                        value = call.get();
+                    } catch (RuntimeException e) {
+                        complete(result, pending, null, e, true);
+                        return;
+                    }
+                    complete(result, pending, value, null, true);
+                });
+
+        final Outcome<T> outcome;
+        try {
+            outcome = result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            throw e;
+        }
+        // counted by the calling thread, so that it's up to date once the call returns
+        if (outcome.hedge) hedgeWins.increment();
+        return outcome.value;
+    }
+
+    /** The successful call's result, and whether it's the hedged one */
+    private static class Outcome<T> {
+        final T value;
+        final boolean hedge;
+
+        Outcome(T value, boolean hedge) {
+            this.value = value;
+            this.hedge = hedge;
+        }
+    }
+
+    private <T> void complete(
+            CompletableFuture<Outcome<T>> result,
+            AtomicInteger pending,
+            T value,
+            Throwable error,
+            boolean hedge) {
+        if (null == error) {
+            result.complete(new Outcome<>(value, hedge));
+            return;
+        }
+        if (0 == pending.decrementAndGet()) {
+            Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+            result.completeExceptionally(cause);
+        }
+    }
+
+    /**
+     * @return the number of hedged calls issued
+     */
+    public long getHedgedCallCount() {
+        return hedgedCalls.sum();
+    }
+
+    /**
+     * @return the number of calls not hedged because {@link #getMaxHedgePercentage()
+     *     maxHedgePercentage} of the calls were already
+     */
+    public long getBudgetExhaustedCount() {
+        return budgetExhausted.sum();
+    }
+
+    /**
+     * @return the number of hedged calls that succeeded before the first one
+     */
+    public long getHedgeWinCount() {
+        return hedgeWins.sum();
+    }
+}
@@ -0,0 +1,145 @@
+/* (c) 2023  Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.acl.api.client.integration;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+
+import org.geoserver.acl.api.client.ApiClient;
+import org.geoserver.acl.api.model.ImportProgress;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Streams newline-delimited JSON request and response bodies, for the export and import endpoints,
+ * which the generated API client would otherwise hold in memory.
+ *
+ * <p>Uses the {@link ApiClient}'s base path and authentication, and a {@link RestTemplate} that
+ * doesn't buffer request nor response bodies.
+ *
+ * @since 1.0
+ */
+@RequiredArgsConstructor
+public class NdjsonClient {
+
+    public static final MediaType APPLICATION_NDJSON = new MediaType("application", "x-ndjson");
+
+    private final @NonNull ApiClient apiClient;
+    private final @NonNull RestTemplate restTemplate;
+    private final @NonNull ObjectMapper objectMapper;
+
+    /** Reads the newline-delimited JSON response of a {@code GET} request one value at a time */
+    public <T> void read(@NonNull String path, @NonNull Class<T> type, Consumer<T> consumer) {
+        restTemplate.execute(
+                uri(path, new LinkedMultiValueMap<>()),
+                HttpMethod.GET,
+                requestCallback(null),
+                response -> readValues(response.getBody(), type, consumer));
+    }
+
+    /** Copies the newline-delimited JSON response of a {@code GET} request to {@code target} */
+    public void copy(@NonNull String path, @NonNull OutputStream target) {
+        restTemplate.execute(
+                uri(path, new LinkedMultiValueMap<>()),
+                HttpMethod.GET,
+                requestCallback(null),
+                response -> {
+                    try (InputStream in = response.getBody()) {
+                        StreamUtils.copy(in, target);
+                    }
+                    return null;
+                });
+    }
+
+    /**
+     * {@code POST}s {@code body} as a newline-delimited JSON request and reads the {@link
+     * ImportProgress} response lines as they come
+     *
+     * @return the last progress report
+     */
+    public ImportProgress post(
+            @NonNull String path,
+            @NonNull MultiValueMap<String, String> queryParams,
+            @NonNull InputStream body,
+            @NonNull Consumer<ImportProgress> progressListener) {
+        ImportProgress[] last = {null};
+        restTemplate.execute(
+                uri(path, queryParams),
+                HttpMethod.POST,
+                requestCallback(body),
+                response ->
+                        readValues(
+                                response.getBody(),
+                                ImportProgress.class,
+                                progress -> {
+                                    last[0] = progress;
+                                    progressListener.accept(progress);
+                                }));
+        if (null == last[0]) throw new IllegalStateException("Got no import progress report");
+        return last[0];
+    }
+
+    private <T> Void readValues(InputStream body, Class<T> type, Consumer<T> consumer)
+            throws IOException {
+        try (InputStream in = body;
+                MappingIterator<T> values = objectMapper.readerFor(type).readValues(in)) {
+            while (values.hasNextValue()) {
+                consumer.accept(values.nextValue());
+            }
+        }
+        return null;
+    }
+
+    private URI uri(String path, MultiValueMap<String, String> queryParams) {
+        return UriComponentsBuilder.fromHttpUrl(apiClient.getBasePath())
+                .path(path)
+                .queryParams(queryParams)
+                .build()
+                .toUri();
+    }
+
+    private RequestCallback requestCallback(InputStream body) {
+        return request -> {
+            HttpHeaders headers = new HttpHeaders();
+            apiClient
+                    .getAuthentications()
+                    .values()
+                    .forEach(auth -> auth.applyToParams(null, headers, null));
+            request.getHeaders().addAll(headers);
+            request.getHeaders().setAccept(List.of(APPLICATION_NDJSON));
+            if (body != null) {
+                request.getHeaders().setContentType(APPLICATION_NDJSON);
+                writeBody(request, body);
+            }
+        };
+    }
+
+    private void writeBody(ClientHttpRequest request, InputStream body) throws IOException {
+        if (request instanceof StreamingHttpOutputMessage) {
+            ((StreamingHttpOutputMessage) request).setBody(out -> StreamUtils.copy(body, out));
+        } else {
+            StreamUtils.copy(body, request.getBody());
+        }
+    }
+}
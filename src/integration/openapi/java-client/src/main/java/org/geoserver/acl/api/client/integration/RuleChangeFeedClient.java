@@ -0,0 +1,94 @@
+/* (c) 2023  Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.acl.api.client.integration;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+
+import org.geoserver.acl.api.client.RulesApi;
+import org.geoserver.acl.api.mapper.RuleChangeApiMapper;
+import org.geoserver.acl.domain.rules.RuleChange;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Follows the server's {@code /rules/changes} feed, for clients keeping a local copy of the rules
+ * in sync.
+ *
+ * @since 1.0
+ */
+@RequiredArgsConstructor
+public class RuleChangeFeedClient {
+
+    static final String SEQUENCE_HEADER = "X-ACL-SEQUENCE";
+
+    private final @NonNull RulesApi apiClient;
+    private final @NonNull RuleChangeApiMapper mapper;
+
+    /** A page of changes and the sequence number to resume from */
+    @Value
+    public static class Changes {
+        /** Sequence number of the last change, to pass as {@code since} on the next call */
+        private long sequence;
+
+        private List<RuleChange> changes;
+    }
+
+    /**
+     * Thrown when the changes after the requested sequence number are no longer available, and the
+     * client shall reload all the rules
+     */
+    @SuppressWarnings("serial")
+    public static class ChangesGoneException extends RuntimeException {
+        /** Sequence number of the latest change, to resume from after reloading the rules */
+        private final @Getter long sequence;
+
+        public ChangesGoneException(long sequence) {
+            super("Changes are no longer available, latest sequence is " + sequence);
+            this.sequence = sequence;
+        }
+    }
+
+    /**
+     * @param since sequence number of the last change seen, {@code 0} for all the recorded ones
+     * @param limit maximum number of changes to return
+     * @param waitSeconds how long the server shall wait for a change if there are none, must be
+     *     lower than the client's read timeout
+     * @throws ChangesGoneException if the changes after {@code since} are no longer available
+     */
+    public Changes findSince(long since, int limit, int waitSeconds) {
+        ResponseEntity<List<org.geoserver.acl.api.model.RuleChange>> response;
+        try {
+            response = apiClient.getRuleChangesWithHttpInfo(since, limit, waitSeconds);
+        } catch (HttpClientErrorException.Gone gone) {
+            throw new ChangesGoneException(sequence(gone.getResponseHeaders(), 0L));
+        }
+        List<RuleChange> changes =
+                Optional.ofNullable(response.getBody()).orElse(List.of()).stream()
+                        .map(mapper::toModel)
+                        .collect(Collectors.toList());
+        return new Changes(sequence(response.getHeaders(), since), changes);
+    }
+
+    /**
+     * @return the sequence number of the latest change recorded by the server, {@code 0} if none
+     */
+    public long lastSequence() {
+        Long sequence = apiClient.getLastRuleChangeSequence();
+        return null == sequence ? 0L : sequence;
+    }
+
+    private static long sequence(HttpHeaders headers, long defaultValue) {
+        String value = null == headers ? null : headers.getFirst(SEQUENCE_HEADER);
+        return null == value ? defaultValue : Long.parseLong(value);
+    }
+}
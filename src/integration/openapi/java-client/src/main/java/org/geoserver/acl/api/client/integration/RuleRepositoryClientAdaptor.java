@@ -10,42 +10,101 @@ import static org.springframework.http.HttpStatus.OK;
 
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import lombok.Value;
 
 import org.geoserver.acl.api.client.RulesApi;
+import org.geoserver.acl.api.client.integration.CursorPagingIterator.PageCall;
 import org.geoserver.acl.api.mapper.EnumsApiMapper;
 import org.geoserver.acl.api.mapper.LayerDetailsApiMapper;
 import org.geoserver.acl.api.mapper.RuleApiMapper;
+import org.geoserver.acl.api.mapper.RuleFieldsApiMapper;
 import org.geoserver.acl.api.mapper.RuleFilterApiMapper;
 import org.geoserver.acl.api.mapper.RuleLimitsApiMapper;
+import org.geoserver.acl.api.model.ImportProgress;
+import org.geoserver.acl.api.model.RuleBatchOperation;
+import org.geoserver.acl.api.model.RuleBatchOperation.OpEnum;
+import org.geoserver.acl.api.model.RuleRecord;
 import org.geoserver.acl.domain.filter.RuleQuery;
 import org.geoserver.acl.domain.rules.InsertPosition;
 import org.geoserver.acl.domain.rules.LayerDetails;
 import org.geoserver.acl.domain.rules.Rule;
+import org.geoserver.acl.domain.rules.RuleBatch;
+import org.geoserver.acl.domain.rules.RuleBatch.Operation;
 import org.geoserver.acl.domain.rules.RuleFilter;
 import org.geoserver.acl.domain.rules.RuleIdentifierConflictException;
 import org.geoserver.acl.domain.rules.RuleLimits;
 import org.geoserver.acl.domain.rules.RuleRepository;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestClientResponseException;
 
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.function.LongConsumer;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+/**
+ * {@link RuleRepository} calling the ACL service's rules API.
+ *
+ * <p>{@link #findAll()} and {@link #findAll(RuleQuery)} return lazy streams that fetch the rules in
+ * pages of {@link #setPageSize(int) pageSize} as they're consumed, following the {@code
+ * X-ACL-NEXTCURSOR} response header, so that reading the first rules doesn't download the whole
+ * ruleset. With a {@link #setPrefetchExecutor(Executor) prefetchExecutor}, the next page is
+ * requested in the background while the current one is consumed.
+ */
 @RequiredArgsConstructor
 public class RuleRepositoryClientAdaptor implements RuleRepository {
 
+    public static final int DEFAULT_PAGE_SIZE = 1000;
+
+    private static final List<String> INCLUDE_DETAILS = List.of("details");
+
+    /** Maximum number of ids the server accepts in a {@code findRulesById} request */
+    static final int MAX_IDS = 1000;
+
     private final RulesApi apiClient;
     private final RuleApiMapper mapper;
     private final EnumsApiMapper enumsMapper;
     private final RuleLimitsApiMapper limitsMapper;
     private final LayerDetailsApiMapper detailsMapper;
+    private final NdjsonClient ndjsonClient;
 
     private final RuleFilterApiMapper filterMapper = new RuleFilterApiMapper();
+    private final RuleFieldsApiMapper fieldsMapper = new RuleFieldsApiMapper();
+
+    /** Maximum number of rules requested at once */
+    private @Setter int pageSize = DEFAULT_PAGE_SIZE;
+
+    /** Fetches the next page of rules ahead of time, {@code null} to fetch it when needed */
+    private @Setter Executor prefetchExecutor;
+
+    /**
+     * Last fetched single page list of rules, reused while the server answers 304 Not Modified to
+     * its ETag
+     */
+    private final AtomicReference<FetchedRules> lastFetch = new AtomicReference<>();
+
+    @Value
+    private static class FetchedRules {
+        private List<Object> request;
+        private String etag;
+        private List<Rule> rules;
+    }
 
     @Override
     public boolean existsById(@NonNull String id) {
@@ -78,6 +137,92 @@ public class RuleRepositoryClientAdaptor implements RuleRepository {
         return map(response);
     }
 
+    @Override
+    public List<Rule> createAll(List<Rule> rules, InsertPosition position) {
+        if (rules.stream().anyMatch(r -> null != r.getId()))
+            throw new IllegalArgumentException("Rule must have no id");
+        if (rules.isEmpty()) return List.of();
+        List<org.geoserver.acl.api.model.Rule> response;
+        try {
+            response =
+                    apiClient.createRules(
+                            rules.stream().map(this::map).collect(Collectors.toList()),
+                            enumsMapper.map(position));
+        } catch (HttpClientErrorException.Conflict c) {
+            throw new RuleIdentifierConflictException(reason(c), c);
+        } catch (HttpClientErrorException.BadRequest e) {
+            throw new IllegalArgumentException(reason(e), e);
+        }
+        return response.stream().map(this::map).collect(Collectors.toList());
+    }
+
+    @Override
+    public List<Rule> saveAll(List<Rule> rules) {
+        rules.forEach(rule -> Objects.requireNonNull(rule.getId(), "Rule has no id"));
+        if (rules.isEmpty()) return List.of();
+        try {
+            List<org.geoserver.acl.api.model.Rule> response;
+            response =
+                    apiClient.updateRules(
+                            rules.stream().map(this::map).collect(Collectors.toList()));
+            return response.stream().map(this::map).collect(Collectors.toList());
+        } catch (HttpClientErrorException.Conflict e) {
+            throw new RuleIdentifierConflictException(reason(e), e);
+        } catch (HttpClientErrorException.BadRequest | HttpClientErrorException.NotFound e) {
+            throw new IllegalArgumentException(reason(e), e);
+        }
+    }
+
+    /**
+     * Sends all the operations in a single request. The patch functions of {@code PATCH} operations
+     * can't be sent, they're applied here to the current state of the rule and sent as {@code
+     * UPDATE} operations.
+     */
+    @Override
+    public List<Rule> execute(@NonNull RuleBatch batch) {
+        org.geoserver.acl.api.model.RuleBatch request = new org.geoserver.acl.api.model.RuleBatch();
+        batch.getOperations().forEach(op -> request.addOperationsItem(map(op)));
+        try {
+            List<org.geoserver.acl.api.model.Rule> response = apiClient.executeRuleBatch(request);
+            List<Rule> results = new ArrayList<>(response.size());
+            response.forEach(r -> results.add(null == r ? null : map(r)));
+            return results;
+        } catch (HttpClientErrorException.Conflict e) {
+            throw new RuleIdentifierConflictException(reason(e), e);
+        } catch (HttpClientErrorException.BadRequest e) {
+            throw new IllegalArgumentException(reason(e), e);
+        }
+    }
+
+    private RuleBatchOperation map(Operation op) {
+        RuleBatchOperation operation = new RuleBatchOperation().id(op.getId());
+        if (null != op.getLayerDetails()) {
+            operation.setLayerDetails(detailsMapper.map(op.getLayerDetails()));
+        }
+        switch (op.getType()) {
+            case CREATE:
+                return operation
+                        .op(OpEnum.CREATE)
+                        .rule(map(op.getRule()))
+                        .position(enumsMapper.map(op.getPosition()));
+            case UPDATE:
+                return operation.op(OpEnum.UPDATE).rule(map(op.getRule()));
+            case PATCH:
+                Rule current =
+                        findById(op.getId())
+                                .orElseThrow(
+                                        () ->
+                                                new IllegalArgumentException(
+                                                        "Rule " + op.getId() + " not found"));
+                Rule patched = op.getPatch().apply(current).withId(op.getId());
+                return operation.op(OpEnum.UPDATE).rule(map(patched));
+            case DELETE:
+                return operation.op(OpEnum.DELETE);
+            default:
+                throw new IllegalArgumentException("Unknown operation " + op.getType());
+        }
+    }
+
     @Override
     public boolean deleteById(@NonNull String id) {
         try {
@@ -100,8 +245,65 @@ public class RuleRepositoryClientAdaptor implements RuleRepository {
 
     @Override
     public Stream<Rule> findAll() {
-        List<org.geoserver.acl.api.model.Rule> rules = apiClient.getRules(null, null);
-        return rules.stream().map(this::map);
+        return fetch(
+                List.of(),
+                null,
+                null,
+                (pageLimit, cursor, etag) ->
+                        apiClient.getRulesWithHttpInfo(pageLimit, cursor, etag, null, null));
+    }
+
+    /** Streams the rules from the server's newline-delimited JSON export endpoint */
+    @Override
+    public void exportAll(@NonNull BiConsumer<Rule, LayerDetails> consumer) {
+        ndjsonClient.read(
+                "/rules/export",
+                RuleRecord.class,
+                record ->
+                        consumer.accept(
+                                map(record.getRule()),
+                                detailsMapper.map(record.getLayerDetails())));
+    }
+
+    /** Copies the server's newline-delimited JSON export of all the rules to {@code target} */
+    public void exportAll(@NonNull OutputStream target) {
+        ndjsonClient.copy("/rules/export", target);
+    }
+
+    /**
+     * Streams the newline-delimited JSON rules read from {@code source}, as written by {@link
+     * #exportAll(OutputStream)}, to the server's import endpoint, which inserts them in batches of
+     * {@code batchSize} rules.
+     *
+     * @param progress notified of the number of rules imported so far after each committed batch
+     * @return the number of imported rules
+     * @throws IllegalArgumentException if the first batch is invalid
+     * @throws RuleIdentifierConflictException if a rule in the first batch conflicts with an
+     *     existing one
+     * @throws IllegalStateException if the import stopped after some batches were committed
+     */
+    public long importAll(@NonNull InputStream source, int batchSize, LongConsumer progress) {
+        MultiValueMap<String, String> params = new LinkedMultiValueMap<>();
+        params.add("batchSize", String.valueOf(batchSize));
+        ImportProgress result;
+        try {
+            result =
+                    ndjsonClient.post(
+                            "/rules/import",
+                            params,
+                            source,
+                            p -> {
+                                if (null != progress) progress.accept(p.getImported());
+                            });
+        } catch (HttpClientErrorException.Conflict c) {
+            throw new RuleIdentifierConflictException(reason(c), c);
+        } catch (HttpClientErrorException.BadRequest e) {
+            throw new IllegalArgumentException(reason(e), e);
+        }
+        if (!Boolean.TRUE.equals(result.getDone())) {
+            throw new IllegalStateException(result.getError());
+        }
+        return result.getImported();
     }
 
     @Override
@@ -110,25 +312,115 @@ public class RuleRepositoryClientAdaptor implements RuleRepository {
         org.geoserver.acl.api.model.RuleFilter filter =
                 query.getFilter().map(filterMapper::toApi).orElse(null);
 
+        List<String> fields = fieldsMapper.toApi(query.getFields());
         Integer limit = query.getLimit();
         String nextCursor = query.getNextId();
-        List<org.geoserver.acl.api.model.Rule> rules =
-                apiClient.queryRules(limit, nextCursor, filter);
+        return fetch(
+                Arrays.asList(limit, nextCursor, filter, fields),
+                limit,
+                nextCursor,
+                (pageLimit, cursor, etag) ->
+                        apiClient.queryRulesWithHttpInfo(
+                                pageLimit, cursor, etag, null, fields, filter));
+    }
 
-        return rules.stream().map(this::map);
+    /**
+     * Requests the rules with their layer details inline ({@code include=details}), so that the
+     * server fetches them in bulk instead of this client requesting them one rule at a time
+     */
+    @Override
+    public void findAllWithDetails(
+            @NonNull RuleQuery<RuleFilter> query,
+            @NonNull BiConsumer<Rule, LayerDetails> consumer) {
+
+        org.geoserver.acl.api.model.RuleFilter filter =
+                query.getFilter().map(filterMapper::toApi).orElse(null);
+        List<String> fields = fieldsMapper.toApi(query.getFields());
+
+        CursorPagingIterator<org.geoserver.acl.api.model.Rule> pages =
+                new CursorPagingIterator<>(
+                        (pageLimit, cursor, etag) ->
+                                apiClient.queryRulesWithHttpInfo(
+                                        pageLimit, cursor, etag, INCLUDE_DETAILS, fields, filter),
+                        query.getLimit(),
+                        query.getNextId(),
+                        null,
+                        pageSize,
+                        prefetchExecutor);
+        try (Stream<org.geoserver.acl.api.model.Rule> rules = pages.stream()) {
+            rules.forEach(
+                    rule -> consumer.accept(map(rule), detailsMapper.map(rule.getLayerDetails())));
+        }
+    }
+
+    /**
+     * Returns a lazy stream of the rules, fetched in pages of up to {@link #pageSize} rules.
+     *
+     * <p>Sends {@code If-None-Match} with the {@code ETag} of the last response if it was for the
+     * same {@code request}, and reuses its rules if the server answers {@code 304 Not Modified},
+     * skipping the reload of an unchanged ruleset. Only results that fit in a single page are kept
+     * for reuse, larger ones are streamed.
+     */
+    private Stream<Rule> fetch(
+            List<Object> request,
+            Integer limit,
+            String nextCursor,
+            PageCall<org.geoserver.acl.api.model.Rule> call) {
+
+        final FetchedRules last = lastFetch.get();
+        final String ifNoneMatch =
+                null != last && last.getRequest().equals(request) ? last.getEtag() : null;
+
+        CursorPagingIterator<org.geoserver.acl.api.model.Rule> pages;
+        try {
+            pages =
+                    new CursorPagingIterator<>(
+                            call, limit, nextCursor, ifNoneMatch, pageSize, prefetchExecutor);
+        } catch (RestClientResponseException e) {
+            if (null != ifNoneMatch && HttpStatus.NOT_MODIFIED.value() == e.getRawStatusCode()) {
+                return last.getRules().stream();
+            }
+            throw e;
+        }
+        String etag = pages.getETag();
+        if (null == etag || pages.hasNextPage()) {
+            return pages.stream().map(this::map);
+        }
+        List<Rule> rules = pages.stream().map(this::map).collect(Collectors.toList());
+        lastFetch.set(new FetchedRules(request, etag, rules));
+        return rules.stream();
     }
 
     @Override
     public Optional<Rule> findById(@NonNull String id) {
         org.geoserver.acl.api.model.Rule rule;
         try {
-            rule = apiClient.getRuleById(id);
+            rule = apiClient.getRuleById(id, null);
         } catch (HttpClientErrorException.NotFound e) {
             rule = null;
         }
         return Optional.ofNullable(rule).map(this::map);
     }
 
+    /**
+     * Requests the rules and their layer details in batches of up to {@link #pageSize} ids (at most
+     * {@link #MAX_IDS})
+     */
+    @Override
+    public void findAllByIdWithDetails(
+            @NonNull Set<String> ids, @NonNull BiConsumer<Rule, LayerDetails> consumer) {
+        final int batchSize = Math.min(pageSize, MAX_IDS);
+        List<String> all = new ArrayList<>(ids);
+        for (int from = 0; from < all.size(); from += batchSize) {
+            Set<String> batch =
+                    new LinkedHashSet<>(all.subList(from, Math.min(all.size(), from + batchSize)));
+            for (org.geoserver.acl.api.model.Rule rule :
+                    apiClient.findRulesById(batch, INCLUDE_DETAILS)) {
+                consumer.accept(map(rule), detailsMapper.map(rule.getLayerDetails()));
+            }
+        }
+    }
+
     @Override
     public Optional<Rule> findOneByPriority(long priority) {
         org.geoserver.acl.api.model.Rule rule;
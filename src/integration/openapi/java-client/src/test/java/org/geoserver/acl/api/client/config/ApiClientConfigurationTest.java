@@ -0,0 +1,58 @@
+/* (c) 2023  Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.acl.api.client.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.http.client.BufferingClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+class ApiClientConfigurationTest {
+
+    private ApiClientProperties config = new ApiClientProperties();
+
+    private ApplicationContextRunner runner =
+            new ApplicationContextRunner()
+                    .withUserConfiguration(ApiClientConfiguration.class)
+                    .withBean(ApiClientProperties.class, () -> config);
+
+    @Test
+    void pooledStreamingTransportByDefault() {
+        config.setBasePath("http://localhost:8181/acl/api");
+        runner.run(
+                context -> {
+                    assertThat(context).hasNotFailed();
+                    ApiClientConnectionPool pool = context.getBean(ApiClientConnectionPool.class);
+                    assertThat(pool.getMax()).isEqualTo(200);
+                    assertThat(pool.getLeased()).isZero();
+                    assertThat(pool.getPending()).isZero();
+
+                    RestTemplate restTemplate =
+                            context.getBean("aclClientRestTemplate", RestTemplate.class);
+                    assertThat(restTemplate.getRequestFactory())
+                            .isInstanceOf(HttpComponentsClientHttpRequestFactory.class);
+                });
+    }
+
+    @Test
+    void bufferResponses() {
+        config.setBasePath("http://localhost:8181/acl/api");
+        config.setMaxConnections(10);
+        config.setBufferResponses(true);
+        runner.run(
+                context -> {
+                    assertThat(context).hasNotFailed();
+                    assertThat(context.getBean(ApiClientConnectionPool.class).getMax())
+                            .isEqualTo(10);
+                    RestTemplate restTemplate =
+                            context.getBean("aclClientRestTemplate", RestTemplate.class);
+                    assertThat(restTemplate.getRequestFactory())
+                            .isInstanceOf(BufferingClientHttpRequestFactory.class);
+                });
+    }
+}
@@ -0,0 +1,170 @@
+/* (c) 2023  Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.acl.api.client.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.geoserver.acl.api.client.config.LoadBalancingRequestFactory.Endpoint;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+class LoadBalancingRequestFactoryTest {
+
+    private static final String PRIMARY = "http://acl1:8080/api";
+
+    /** hosts whose requests fail to connect */
+    private Set<String> down = new HashSet<>();
+
+    /** hosts that take a while to respond */
+    private Set<String> slow = new HashSet<>();
+
+    private List<URI> sent = new ArrayList<>();
+
+    private LoadBalancingRequestFactory factory =
+            new LoadBalancingRequestFactory(
+                    this::createRequest,
+                    List.of(PRIMARY, "http://acl2:8080/api/"),
+                    2,
+                    Duration.ofMinutes(1));
+
+    private ClientHttpRequest createRequest(URI uri, HttpMethod method) {
+        sent.add(uri);
+        return new MockClientHttpRequest(method, uri) {
+            @Override
+            protected ClientHttpResponse executeInternal() throws IOException {
+                if (down.contains(uri.getHost())) throw new ConnectException(uri.getHost());
+                if (slow.contains(uri.getHost())) {
+                    try {
+                        Thread.sleep(200);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return new MockClientHttpResponse(new byte[0], HttpStatus.OK);
+            }
+        };
+    }
+
+    private ClientHttpResponse execute(String path) throws IOException {
+        return factory.createRequest(URI.create(PRIMARY + path), HttpMethod.GET).execute();
+    }
+
+    @Test
+    void spreadsRequestsOverEndpoints() throws IOException {
+        execute("/rules?limit=1").close();
+        execute("/rules/id/1").close();
+
+        assertThat(sent)
+                .extracting(URI::toString)
+                .containsExactlyInAnyOrder(
+                        "http://acl1:8080/api/rules?limit=1", "http://acl2:8080/api/rules/id/1");
+    }
+
+    @Test
+    void prefersFasterEndpoints() throws IOException {
+        slow.add("acl2");
+        // unmeasured endpoints go first
+        execute("/rules").close();
+        execute("/rules").close();
+        assertThat(sent).extracting(URI::getHost).containsExactlyInAnyOrder("acl1", "acl2");
+
+        sent.clear();
+        for (int i = 0; i < 4; i++) execute("/rules").close();
+        assertThat(sent).extracting(URI::getHost).containsOnly("acl1");
+    }
+
+    @Test
+    void countsOutstandingRequestsUntilClosed() throws IOException {
+        ClientHttpResponse response = execute("/rules");
+        assertThat(factory.getEndpoints().stream().mapToInt(Endpoint::getOutstanding).sum())
+                .isOne();
+        response.close();
+        response.close();
+        assertThat(factory.getEndpoints()).extracting(Endpoint::getOutstanding).containsOnly(0);
+    }
+
+    @Test
+    void ejectsFailingEndpoints() throws IOException {
+        down.add("acl1");
+        Endpoint acl1 = factory.getEndpoints().get(0);
+
+        // first in turn
+        assertThatThrownBy(() -> execute("/rules")).isInstanceOf(ConnectException.class);
+        assertThat(acl1.getFailureCount()).isOne();
+        assertThat(acl1.isEjected()).isFalse();
+
+        factory.onFailure(acl1, 1000);
+        assertThat(acl1.isEjected()).isTrue();
+        assertThat(acl1.getEjectionCount()).isOne();
+
+        sent.clear();
+        for (int i = 0; i < 4; i++) execute("/rules").close();
+        assertThat(sent).extracting(URI::getHost).containsOnly("acl2");
+    }
+
+    @Test
+    void usesEjectedEndpointsIfAllAre() throws IOException {
+        down.add("acl1");
+        down.add("acl2");
+        for (int i = 0; i < 4; i++) {
+            assertThatThrownBy(() -> execute("/rules")).isInstanceOf(ConnectException.class);
+        }
+        assertThat(factory.getEndpoints()).allMatch(Endpoint::isEjected);
+
+        down.clear();
+        execute("/rules").close();
+        assertThat(factory.getEndpoints()).filteredOn(e -> !e.isEjected()).hasSize(1);
+    }
+
+    @Test
+    void longLivedRequestsAreNotSampled() throws IOException {
+        slow.add("acl1");
+        slow.add("acl2");
+        ClientHttpResponse longPoll = execute("/rules/changes?since=1&wait=30");
+
+        ClientHttpRequest export =
+                factory.createRequest(URI.create(PRIMARY + "/rules/export"), HttpMethod.GET);
+        export.getHeaders().setAccept(List.of(MediaType.parseMediaType("application/x-ndjson")));
+        ClientHttpResponse exported = export.execute();
+
+        assertThat(factory.getEndpoints()).extracting(Endpoint::getOutstanding).containsOnly(0);
+        assertThat(factory.getEndpoints())
+                .extracting(Endpoint::getLatency)
+                .containsOnly(Duration.ZERO);
+        assertThat(factory.getEndpoints().stream().mapToLong(Endpoint::getRequestCount).sum())
+                .isEqualTo(2);
+        longPoll.close();
+        exported.close();
+
+        // changes requests that don't wait are sampled
+        execute("/rules/changes?since=1").close();
+        assertThat(factory.getEndpoints())
+                .extracting(Endpoint::getLatency)
+                .filteredOn(latency -> !latency.isZero())
+                .hasSize(1);
+    }
+
+    @Test
+    void otherUrisAreNotBalanced() throws IOException {
+        factory.createRequest(URI.create("http://other/api/rules"), HttpMethod.GET);
+        assertThat(sent).containsExactly(URI.create("http://other/api/rules"));
+    }
+}
@@ -0,0 +1,31 @@
+/* (c) 2023  Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.acl.api.client.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.web.client.RestTemplate;
+
+class SmilePreferringApiClientTest {
+
+    private SmilePreferringApiClient client = new SmilePreferringApiClient(new RestTemplate());
+
+    @Test
+    void selectHeaderAccept_prefersSmile() {
+        String[] accepts = {"application/json", "application/x-jackson-smile"};
+        assertThat(client.selectHeaderAccept(accepts))
+                .containsExactly(
+                        SmilePreferringApiClient.APPLICATION_SMILE,
+                        MediaType.parseMediaType("application/json;q=0.9"));
+    }
+
+    @Test
+    void selectHeaderAccept_jsonOnly() {
+        String[] accepts = {"application/json"};
+        assertThat(client.selectHeaderAccept(accepts)).containsExactly(MediaType.APPLICATION_JSON);
+    }
+}
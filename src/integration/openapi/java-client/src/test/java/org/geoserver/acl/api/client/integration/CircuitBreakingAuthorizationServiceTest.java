@@ -0,0 +1,248 @@
+/* (c) 2023  Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.acl.api.client.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.geoserver.acl.api.client.integration.CircuitBreaker.CallNotPermittedException;
+import org.geoserver.acl.api.client.integration.CircuitBreaker.State;
+import org.geoserver.acl.authorization.AccessInfo;
+import org.geoserver.acl.authorization.AccessRequest;
+import org.geoserver.acl.authorization.AuthorizationService;
+import org.geoserver.acl.domain.rules.GrantType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+class CircuitBreakingAuthorizationServiceTest {
+
+    private AuthorizationService remote;
+    private CircuitBreaker circuitBreaker;
+    private Executor executor = Runnable::run;
+
+    private AccessRequest request = AccessRequest.builder().layer("l1").build();
+    private AccessInfo allow = AccessInfo.ALLOW_ALL;
+
+    @BeforeEach
+    void setUp() {
+        remote = mock(AuthorizationService.class);
+        circuitBreaker =
+                new CircuitBreaker("test", 2, Duration.ofMinutes(1), Duration.ofMinutes(1));
+    }
+
+    private CircuitBreakingAuthorizationService service(Duration maxStaleness, boolean failClosed) {
+        return new CircuitBreakingAuthorizationService(
+                remote, executor, circuitBreaker, maxStaleness, 100, failClosed);
+    }
+
+    @Test
+    void opensAfterConsecutiveFailures() {
+        List<State> transitions = new ArrayList<>();
+        circuitBreaker.addListener((cb, from, to) -> transitions.add(to));
+        when(remote.getAccessInfo(any())).thenThrow(new ResourceAccessException("timeout"));
+        CircuitBreakingAuthorizationService service = service(Duration.ofMinutes(1), true);
+
+        assertThat(service.getAccessInfo(request).getGrant()).isEqualTo(GrantType.DENY);
+        assertThat(circuitBreaker.getState()).isEqualTo(State.CLOSED);
+        assertThat(service.getAccessInfo(request).getGrant()).isEqualTo(GrantType.DENY);
+        assertThat(circuitBreaker.getState()).isEqualTo(State.OPEN);
+
+        // not called while open
+        assertThat(service.getAccessInfo(request).getGrant()).isEqualTo(GrantType.DENY);
+        verify(remote, times(2)).getAccessInfo(any());
+        assertThat(circuitBreaker.getNotPermittedCount()).isOne();
+        assertThat(service.getDeniedResponseCount()).isEqualTo(3);
+        assertThat(circuitBreaker.getTransitionCount(State.CLOSED, State.OPEN)).isOne();
+        assertThat(transitions).containsExactly(State.OPEN);
+    }
+
+    @Test
+    void servesLastKnownDecisionWhileOpen() {
+        when(remote.getAccessInfo(any()))
+                .thenReturn(allow)
+                .thenThrow(new ResourceAccessException("timeout"));
+        CircuitBreakingAuthorizationService service = service(Duration.ofMinutes(1), true);
+
+        assertThat(service.getAccessInfo(request)).isEqualTo(allow);
+        assertThat(service.getAccessInfo(request)).isEqualTo(allow);
+        assertThat(service.getAccessInfo(request)).isEqualTo(allow);
+        assertThat(circuitBreaker.getState()).isEqualTo(State.OPEN);
+        assertThat(service.getAccessInfo(request)).isEqualTo(allow);
+        assertThat(service.getStaleResponseCount()).isEqualTo(3);
+        assertThat(service.getDeniedResponseCount()).isZero();
+    }
+
+    @Test
+    void lastKnownDecisionExpires() {
+        when(remote.getAccessInfo(any()))
+                .thenReturn(allow)
+                .thenThrow(new ResourceAccessException("timeout"));
+        CircuitBreakingAuthorizationService service = service(Duration.ZERO, true);
+
+        assertThat(service.getAccessInfo(request)).isEqualTo(allow);
+        assertThat(service.getAccessInfo(request).getGrant()).isEqualTo(GrantType.DENY);
+    }
+
+    @Test
+    void failOpenPropagatesErrors() {
+        when(remote.getAccessInfo(any())).thenThrow(new ResourceAccessException("timeout"));
+        CircuitBreakingAuthorizationService service = service(Duration.ofMinutes(1), false);
+
+        assertThatThrownBy(() -> service.getAccessInfo(request))
+                .isInstanceOf(ResourceAccessException.class);
+        assertThatThrownBy(() -> service.getAccessInfo(request))
+                .isInstanceOf(ResourceAccessException.class);
+        assertThatThrownBy(() -> service.getAccessInfo(request))
+                .isInstanceOf(CallNotPermittedException.class);
+    }
+
+    @Test
+    void clientErrorsAreNotFailures() {
+        when(remote.getAccessInfo(any()))
+                .thenThrow(
+                        HttpClientErrorException.create(
+                                HttpStatus.BAD_REQUEST, "", null, null, null));
+        CircuitBreakingAuthorizationService service = service(Duration.ofMinutes(1), true);
+
+        for (int i = 0; i < 3; i++) {
+            assertThatThrownBy(() -> service.getAccessInfo(request))
+                    .isInstanceOf(HttpClientErrorException.class);
+        }
+        assertThat(circuitBreaker.getState()).isEqualTo(State.CLOSED);
+    }
+
+    @Test
+    void halfOpenProbe() {
+        circuitBreaker = new CircuitBreaker("test", 1, Duration.ZERO, Duration.ofMinutes(1));
+        when(remote.getAccessInfo(any()))
+                .thenThrow(new ResourceAccessException("timeout"))
+                .thenThrow(new ResourceAccessException("timeout"))
+                .thenReturn(allow);
+        CircuitBreakingAuthorizationService service = service(Duration.ofMinutes(1), true);
+
+        service.getAccessInfo(request);
+        assertThat(circuitBreaker.getState()).isEqualTo(State.OPEN);
+        // failed probe
+        service.getAccessInfo(request);
+        assertThat(circuitBreaker.getState()).isEqualTo(State.OPEN);
+        assertThat(circuitBreaker.getTransitionCount(State.OPEN, State.HALF_OPEN)).isOne();
+        assertThat(circuitBreaker.getTransitionCount(State.HALF_OPEN, State.OPEN)).isOne();
+        // successful probe
+        assertThat(service.getAccessInfo(request)).isEqualTo(allow);
+        assertThat(circuitBreaker.getState()).isEqualTo(State.CLOSED);
+        assertThat(circuitBreaker.getTransitionCount(State.HALF_OPEN, State.CLOSED)).isOne();
+    }
+
+    @Test
+    void asyncCalls() {
+        executor = ForkJoinPool.commonPool();
+        when(remote.getAccessInfo(any()))
+                .thenReturn(allow)
+                .thenThrow(new ResourceAccessException("timeout"));
+        CircuitBreakingAuthorizationService service = service(Duration.ofMinutes(1), true);
+
+        assertThat(service.getAccessInfoAsync(request).join()).isEqualTo(allow);
+        assertThat(service.getAccessInfoAsync(request).join()).isEqualTo(allow);
+        assertThat(service.getAccessInfoAsync(request).join()).isEqualTo(allow);
+        assertThat(circuitBreaker.getState()).isEqualTo(State.OPEN);
+        assertThat(service.getStaleResponseCount()).isEqualTo(2);
+
+        AccessRequest other = request.withLayer("l2");
+        assertThat(service.getAccessInfoAsync(other).join().getGrant()).isEqualTo(GrantType.DENY);
+        verify(remote, times(3)).getAccessInfo(any());
+        verify(remote, never()).getAccessInfoAsync(any());
+    }
+
+    @Test
+    void asyncClientErrorsArePropagated() {
+        HttpClientErrorException badRequest =
+                HttpClientErrorException.create(HttpStatus.BAD_REQUEST, "", null, null, null);
+        when(remote.getAccessInfo(any())).thenThrow(badRequest);
+        CircuitBreakingAuthorizationService service = service(Duration.ofMinutes(1), true);
+
+        assertThatThrownBy(() -> service.getAccessInfoAsync(request).join())
+                .isInstanceOf(CompletionException.class)
+                .hasCause(badRequest);
+        assertThat(circuitBreaker.getFailureCount()).isZero();
+    }
+
+    @Test
+    void asyncCallsAreTimedFromTheirStart() {
+        circuitBreaker =
+                new CircuitBreaker("test", 1, Duration.ofMinutes(1), Duration.ofMillis(50));
+        // queued for longer than the slow call threshold
+        executor = CompletableFuture.delayedExecutor(200, TimeUnit.MILLISECONDS);
+        when(remote.getAccessInfo(any())).thenReturn(allow);
+        CircuitBreakingAuthorizationService service = service(Duration.ofMinutes(1), true);
+
+        assertThat(service.getAccessInfoAsync(request).join()).isEqualTo(allow);
+        assertThat(circuitBreaker.getSuccessCount()).isOne();
+        assertThat(circuitBreaker.getFailureCount()).isZero();
+        assertThat(circuitBreaker.getState()).isEqualTo(State.CLOSED);
+    }
+
+    @Test
+    void rejectedAsyncCallsFallBack() {
+        when(remote.getAccessInfo(any())).thenReturn(allow);
+        CircuitBreakingAuthorizationService service = service(Duration.ofMinutes(1), true);
+        assertThat(service.getAccessInfoAsync(request).join()).isEqualTo(allow);
+
+        executor =
+                task -> {
+                    throw new RejectedExecutionException("queue full");
+                };
+        service = service(Duration.ofMinutes(1), true);
+        assertThat(service.getAccessInfoAsync(request).join().getGrant()).isEqualTo(GrantType.DENY);
+
+        CircuitBreakingAuthorizationService failOpen = service(Duration.ofMinutes(1), false);
+        assertThatThrownBy(() -> failOpen.getAccessInfoAsync(request).join())
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(RejectedExecutionException.class);
+        assertThat(circuitBreaker.getFailureCount()).isZero();
+        assertThat(circuitBreaker.getState()).isEqualTo(State.CLOSED);
+    }
+
+    @Test
+    void halfOpenLetsASingleProbeThrough() {
+        CircuitBreaker cb = new CircuitBreaker("test", 1, Duration.ZERO, Duration.ofMinutes(1));
+        cb.onFailure(0);
+        assertThat(cb.tryAcquirePermission()).isTrue();
+        assertThat(cb.getState()).isEqualTo(State.HALF_OPEN);
+        assertThat(cb.tryAcquirePermission()).isFalse();
+        cb.onSuccess(0);
+        assertThat(cb.getState()).isEqualTo(State.CLOSED);
+        assertThat(cb.tryAcquirePermission()).isTrue();
+    }
+
+    @Test
+    void slowCallsAreFailures() {
+        CircuitBreaker cb = new CircuitBreaker("test", 2, Duration.ofMinutes(1), Duration.ZERO);
+        cb.onSuccess(1_000);
+        cb.onSuccess(1_000);
+        assertThat(cb.getState()).isEqualTo(State.OPEN);
+        assertThat(cb.getFailureCount()).isEqualTo(2);
+        assertThat(cb.tryAcquirePermission()).isFalse();
+        verify(remote, never()).getAccessInfo(any());
+    }
+}
@@ -0,0 +1,119 @@
+/* (c) 2023  Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.acl.api.client.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.geoserver.acl.api.client.integration.CursorPagingIterator.PageCall;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+class CursorPagingIteratorTest {
+
+    /** Serves ids "0" to "size - 1" the way the rules API does, recording the requests */
+    private static class FakeApi implements PageCall<String> {
+
+        private final List<String> ids;
+        private final List<String> requests = new ArrayList<>();
+        private boolean fail;
+
+        FakeApi(int size) {
+            ids = IntStream.range(0, size).mapToObj(String::valueOf).collect(Collectors.toList());
+        }
+
+        @Override
+        public ResponseEntity<List<String>> fetch(
+                Integer limit, String nextCursor, String ifNoneMatch) {
+            requests.add(limit + ":" + nextCursor);
+            if (fail) throw new ResourceAccessException("timeout");
+            int from = null == nextCursor ? 0 : ids.indexOf(nextCursor);
+            int to = null == limit ? ids.size() : Math.min(ids.size(), from + limit);
+            String next = to < ids.size() ? ids.get(to) : null;
+            return ResponseEntity.ok()
+                    .eTag("v1")
+                    .header(CursorPagingIterator.NEXT_CURSOR_HEADER, next)
+                    .body(ids.subList(from, to));
+        }
+    }
+
+    @Test
+    void fetchesPagesOnDemand() {
+        FakeApi api = new FakeApi(10);
+
+        Stream<String> stream = new CursorPagingIterator<>(api, null, null, null, 3, null).stream();
+        assertThat(api.requests).containsExactly("3:null");
+
+        assertThat(stream.limit(4)).containsExactly("0", "1", "2", "3");
+        assertThat(api.requests).containsExactly("3:null", "3:3");
+    }
+
+    @Test
+    void followsTheCursorToTheEnd() {
+        FakeApi api = new FakeApi(7);
+
+        CursorPagingIterator<String> pages =
+                new CursorPagingIterator<>(api, null, null, null, 3, null);
+        assertThat(pages.getETag()).isEqualTo("\"v1\"");
+        assertThat(pages.hasNextPage()).isTrue();
+
+        assertThat(pages.stream()).containsExactly("0", "1", "2", "3", "4", "5", "6");
+        assertThat(api.requests).containsExactly("3:null", "3:3", "3:6");
+        assertThat(pages.hasNextPage()).isFalse();
+    }
+
+    @Test
+    void limitCapsTheLastPage() {
+        FakeApi api = new FakeApi(10);
+
+        Stream<String> stream = new CursorPagingIterator<>(api, 5, "2", null, 2, null).stream();
+
+        assertThat(stream).containsExactly("2", "3", "4", "5", "6");
+        assertThat(api.requests).containsExactly("2:2", "2:4", "1:6");
+    }
+
+    @Test
+    void prefetchesTheNextPage() {
+        FakeApi api = new FakeApi(5);
+        List<Runnable> tasks = new ArrayList<>();
+        Executor executor = tasks::add;
+
+        CursorPagingIterator<String> pages =
+                new CursorPagingIterator<>(api, null, null, null, 2, executor);
+        assertThat(tasks).hasSize(1);
+        assertThat(api.requests).containsExactly("2:null");
+
+        tasks.remove(0).run();
+        assertThat(api.requests).containsExactly("2:null", "2:2");
+        assertThat(pages.next()).isEqualTo("0");
+        assertThat(pages.next()).isEqualTo("1");
+        assertThat(pages.next()).isEqualTo("2");
+        assertThat(api.requests).hasSize(2);
+        assertThat(tasks).hasSize(1);
+    }
+
+    @Test
+    void prefetchErrorsAreThrownWhenThePageIsNeeded() {
+        FakeApi api = new FakeApi(5);
+
+        CursorPagingIterator<String> pages =
+                new CursorPagingIterator<>(api, null, null, null, 2, Runnable::run);
+        api.fail = true;
+        // already prefetched
+        assertThat(pages.next()).isEqualTo("0");
+        assertThat(pages.next()).isEqualTo("1");
+        assertThat(pages.next()).isEqualTo("2");
+        assertThat(pages.next()).isEqualTo("3");
+        assertThatThrownBy(pages::next).isInstanceOf(ResourceAccessException.class);
+    }
+}
@@ -0,0 +1,129 @@
+/* (c) 2023  Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.acl.api.client.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class HedgingTest {
+
+    private ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void fastCallsAreNotHedged() {
+        Hedging hedging = new Hedging(Duration.ofSeconds(10), 100, executor);
+
+        assertThat(hedging.call(() -> "ok")).isEqualTo("ok");
+        assertThat(hedging.getHedgedCallCount()).isZero();
+    }
+
+    @Test
+    void hedgedCallWinsOverAStuckOne() {
+        Hedging hedging = new Hedging(Duration.ofMillis(10), 100, executor);
+        CountDownLatch stuck = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+
+        String result =
+                hedging.call(
+                        () -> {
+                            if (calls.incrementAndGet() == 1) {
+                                await(stuck);
+                                return "first";
+                            }
+                            return "hedge";
+                        });
+        stuck.countDown();
+
+        assertThat(result).isEqualTo("hedge");
+        assertThat(hedging.getHedgedCallCount()).isOne();
+        assertThat(hedging.getHedgeWinCount()).isOne();
+    }
+
+    @Test
+    void failsIfAllCallsFail() {
+        Hedging hedging = new Hedging(Duration.ofMillis(10), 100, executor);
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThatThrownBy(
+                        () ->
+                                hedging.call(
+                                        () -> {
+                                            if (calls.incrementAndGet() == 1) sleep(100);
+                                            throw new ResourceAccessException("timeout");
+                                        }))
+                .isInstanceOf(ResourceAccessException.class);
+        assertThat(calls).hasValue(2);
+    }
+
+    @Test
+    void fastFailuresAreNotHedged() {
+        Hedging hedging = new Hedging(Duration.ofMillis(50), 100, executor);
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThatThrownBy(
+                        () ->
+                                hedging.call(
+                                        () -> {
+                                            calls.incrementAndGet();
+                                            throw new IllegalArgumentException();
+                                        }))
+                .isInstanceOf(IllegalArgumentException.class);
+        sleep(100);
+        assertThat(calls).hasValue(1);
+        assertThat(hedging.getHedgedCallCount()).isZero();
+    }
+
+    @Test
+    void hedgesAreCappedToAPercentageOfTheCalls() {
+        Hedging hedging = new Hedging(Duration.ZERO, 10, executor);
+        AtomicInteger calls = new AtomicInteger();
+
+        for (int i = 0; i < 20; i++) {
+            hedging.call(
+                    () -> {
+                        calls.incrementAndGet();
+                        sleep(20);
+                        return "ok";
+                    });
+        }
+        // the initial burst, plus one in ten calls
+        assertThat(hedging.getHedgedCallCount())
+                .isLessThanOrEqualTo(Hedging.MAX_BURST + 2)
+                .isGreaterThanOrEqualTo(Hedging.MAX_BURST);
+        assertThat(hedging.getBudgetExhaustedCount()).isEqualTo(20 - hedging.getHedgedCallCount());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -10,6 +10,7 @@ import org.geoserver.acl.api.model.AdminAccessInfo;
 import org.geoserver.acl.api.model.AdminAccessRequest;
 import org.mapstruct.InjectionStrategy;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import org.mapstruct.ReportingPolicy;
 
 @Mapper(
@@ -23,8 +24,14 @@ public interface AuthorizationModelApiMapper {
 
     org.geoserver.acl.authorization.AccessRequest toModel(AccessRequest request);
 
+    @Mapping(target = "area", source = "areaWkb", qualifiedByName = "wkbToApi")
+    @Mapping(target = "clipArea", source = "clipAreaWkb", qualifiedByName = "wkbToApi")
     AccessInfo toApi(org.geoserver.acl.authorization.AccessInfo grant);
 
+    @Mapping(target = "area", ignore = true)
+    @Mapping(target = "areaWkb", source = "area", qualifiedByName = "apiToGeometryWkb")
+    @Mapping(target = "clipArea", ignore = true)
+    @Mapping(target = "clipAreaWkb", source = "clipArea", qualifiedByName = "apiToGeometryWkb")
     org.geoserver.acl.authorization.AccessInfo toModel(AccessInfo grant);
 
     AdminAccessRequest toApi(org.geoserver.acl.authorization.AdminAccessRequest request);
@@ -6,13 +6,16 @@ package org.geoserver.acl.api.mapper;
 
 import org.geolatte.geom.ByteBuffer;
 import org.geolatte.geom.Geometry;
+import org.geolatte.geom.GeometryType;
 import org.geolatte.geom.Position;
 import org.geolatte.geom.codec.Wkb;
 import org.geolatte.geom.codec.Wkt;
 import org.geolatte.geom.crs.CrsRegistry;
 import org.geolatte.geom.crs.Geographic2DCoordinateReferenceSystem;
 import org.geoserver.acl.api.model.Geom;
+import org.geoserver.acl.domain.rules.LazyGeometry;
 import org.mapstruct.Mapper;
+import org.mapstruct.Named;
 
 import java.util.regex.Pattern;
 
@@ -40,6 +43,46 @@ public interface GeometryApiMapper {
         return apiValue;
     }
 
+    /** Sends the WKB as is, without decoding and encoding it again */
+    @Named("wkbToApi")
+    default Geom wkbToApi(byte[] wkb) {
+        if (null == wkb) return null;
+
+        Geom apiValue = new Geom();
+        final boolean useWkb = USE_WKB.get().booleanValue();
+        if (useWkb) {
+            apiValue.setWkb(wkb);
+        } else {
+            apiValue.setWkt(geolatteToWKT(wkbToGeometry(wkb)));
+        }
+        return apiValue;
+    }
+
+    /**
+     * Keeps the received WKB without decoding it, only its header is checked to be a {@code
+     * MULTIPOLYGON}
+     */
+    @Named("apiToMultiPolygonWkb")
+    default byte[] apiToMultiPolygonWkb(Geom geom) {
+        if (geom == null) return null;
+        final byte[] wkb = geom.getWkb();
+        if (wkb != null) {
+            LazyGeometry<?> lazy = LazyGeometry.fromWkb(wkb);
+            LazyGeometry.checkType(lazy, GeometryType.MULTIPOLYGON);
+            if (0 != lazy.getSRID()) return wkb;
+        }
+        return Wkb.toWkb(apiToMultiPolygon(apiToGeometry(geom))).toByteArray();
+    }
+
+    /** Keeps the received WKB without decoding it */
+    @Named("apiToGeometryWkb")
+    default byte[] apiToGeometryWkb(Geom geom) {
+        if (geom == null) return null;
+        final byte[] wkb = geom.getWkb();
+        if (wkb != null && 0 != LazyGeometry.fromWkb(wkb).getSRID()) return wkb;
+        return Wkb.toWkb(apiToGeometry(geom)).toByteArray();
+    }
+
     default org.geolatte.geom.Geometry<? extends Position> apiToGeometry(Geom geom) {
         if (geom == null) return null;
         Geometry<?> geometry =
@@ -19,11 +19,12 @@ import org.mapstruct.ReportingPolicy;
         uses = {GeometryApiMapper.class, LayerAttributeApiMapper.class, EnumsApiMapper.class})
 public abstract class LayerDetailsApiMapper {
 
-    @Mapping(target = "allowedArea", source = "area")
+    @Mapping(target = "allowedArea", source = "areaWkb", qualifiedByName = "wkbToApi")
     @Mapping(target = "layerAttributes", source = "attributes")
     public abstract org.geoserver.acl.api.model.LayerDetails map(LayerDetails ld);
 
-    @Mapping(target = "area", source = "allowedArea")
+    @Mapping(target = "area", ignore = true)
+    @Mapping(target = "areaWkb", source = "allowedArea", qualifiedByName = "apiToMultiPolygonWkb")
     @Mapping(target = "attributes", source = "layerAttributes")
     @Mapping(target = "catalogMode", defaultValue = "HIDE")
     @Mapping(target = "spatialFilterType", defaultValue = "INTERSECT")
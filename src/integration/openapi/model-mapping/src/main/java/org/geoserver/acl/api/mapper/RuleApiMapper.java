@@ -53,6 +53,7 @@ public abstract class RuleApiMapper {
     @Mapping(target = "layer", source = "identifier.layer")
     @Mapping(target = "addressRange", source = "identifier.addressRange")
     @Mapping(target = "limits", source = "ruleLimits")
+    @Mapping(target = "layerDetails", ignore = true)
     public abstract org.geoserver.acl.api.model.Rule toApi(
             org.geoserver.acl.domain.rules.Rule rule);
 
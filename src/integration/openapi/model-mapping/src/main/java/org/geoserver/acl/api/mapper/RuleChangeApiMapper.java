@@ -0,0 +1,31 @@
+/* (c) 2023  Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.acl.api.mapper;
+
+import org.mapstruct.InjectionStrategy;
+import org.mapstruct.Mapper;
+import org.mapstruct.ReportingPolicy;
+
+import java.time.Instant;
+
+@Mapper(
+        componentModel = "spring",
+        injectionStrategy = InjectionStrategy.CONSTRUCTOR,
+        unmappedTargetPolicy = ReportingPolicy.ERROR)
+public interface RuleChangeApiMapper {
+
+    org.geoserver.acl.api.model.RuleChange toApi(org.geoserver.acl.domain.rules.RuleChange change);
+
+    org.geoserver.acl.domain.rules.RuleChange toModel(
+            org.geoserver.acl.api.model.RuleChange change);
+
+    default Long toEpochMilli(Instant timestamp) {
+        return timestamp == null ? null : timestamp.toEpochMilli();
+    }
+
+    default Instant toInstant(Long epochMilli) {
+        return epochMilli == null ? null : Instant.ofEpochMilli(epochMilli);
+    }
+}
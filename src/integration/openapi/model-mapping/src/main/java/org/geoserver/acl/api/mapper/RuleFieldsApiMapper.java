@@ -0,0 +1,137 @@
+/* (c) 2023  Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.acl.api.mapper;
+
+import org.geoserver.acl.api.model.Rule;
+import org.geoserver.acl.domain.filter.RuleQuery;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * Maps the {@code fields} parameter of the rule queries, the API {@link Rule} properties to return,
+ * to and from the {@link RuleQuery#getFields() fields} of the domain {@code Rule}.
+ */
+@Component
+public class RuleFieldsApiMapper {
+
+    /** API rule properties that make up the domain {@code RuleIdentifier} */
+    private static final List<String> IDENTIFIER =
+            List.of(
+                    "instance",
+                    "access",
+                    "user",
+                    "role",
+                    "addressRange",
+                    "service",
+                    "request",
+                    "subfield",
+                    "workspace",
+                    "layer");
+
+    /** Copies each API rule property from a rule to its projection */
+    private static final Map<String, BiConsumer<Rule, Rule>> PROPERTIES = new LinkedHashMap<>();
+
+    static {
+        PROPERTIES.put("id", (from, to) -> to.setId(from.getId()));
+        PROPERTIES.put("priority", (from, to) -> to.setPriority(from.getPriority()));
+        PROPERTIES.put("extId", (from, to) -> to.setExtId(from.getExtId()));
+        PROPERTIES.put("name", (from, to) -> to.setName(from.getName()));
+        PROPERTIES.put("description", (from, to) -> to.setDescription(from.getDescription()));
+        PROPERTIES.put("instance", (from, to) -> to.setInstance(from.getInstance()));
+        PROPERTIES.put("access", (from, to) -> to.setAccess(from.getAccess()));
+        PROPERTIES.put("user", (from, to) -> to.setUser(from.getUser()));
+        PROPERTIES.put("role", (from, to) -> to.setRole(from.getRole()));
+        PROPERTIES.put("addressRange", (from, to) -> to.setAddressRange(from.getAddressRange()));
+        PROPERTIES.put("service", (from, to) -> to.setService(from.getService()));
+        PROPERTIES.put("request", (from, to) -> to.setRequest(from.getRequest()));
+        PROPERTIES.put("subfield", (from, to) -> to.setSubfield(from.getSubfield()));
+        PROPERTIES.put("workspace", (from, to) -> to.setWorkspace(from.getWorkspace()));
+        PROPERTIES.put("layer", (from, to) -> to.setLayer(from.getLayer()));
+        PROPERTIES.put("limits", (from, to) -> to.setLimits(from.getLimits()));
+    }
+
+    /**
+     * @param fields API rule property names, {@code null} for all of them
+     * @return the domain rule property names, {@code null} for all of them
+     * @throws IllegalArgumentException if {@code fields} contains an unknown property
+     */
+    public Set<String> toModel(Collection<String> fields) {
+        if (null == fields) return null;
+        Set<String> model = new LinkedHashSet<>();
+        for (String field : fields) {
+            if (!PROPERTIES.containsKey(field)) {
+                throw new IllegalArgumentException("Unknown rule property: " + field);
+            }
+            if (IDENTIFIER.contains(field)) {
+                model.add("identifier");
+            } else if ("limits".equals(field)) {
+                model.add("ruleLimits");
+            } else {
+                model.add(field);
+            }
+        }
+        return model;
+    }
+
+    /**
+     * @param fields domain rule property names, {@code null} for all of them
+     * @return the API rule property names, {@code null} for all of them. The id, priority, and
+     *     identifier properties are always included, the domain rules can't do without them
+     * @throws IllegalArgumentException if {@code fields} contains an unknown property
+     */
+    public List<String> toApi(Collection<String> fields) {
+        if (null == fields) return null;
+        List<String> api = new ArrayList<>();
+        api.add("id");
+        api.add("priority");
+        api.addAll(IDENTIFIER);
+        for (String field : fields) {
+            switch (field) {
+                case "id":
+                case "priority":
+                case "identifier":
+                    break;
+                case "ruleLimits":
+                    api.add("limits");
+                    break;
+                case "extId":
+                case "name":
+                case "description":
+                    api.add(field);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown rule property: " + field);
+            }
+        }
+        return api;
+    }
+
+    /**
+     * @param fields API rule property names, {@code null} for all of them
+     * @return {@code rule} with only the requested properties, plus its id and {@link
+     *     Rule#getLayerDetails() layerDetails} which are requested separately
+     * @throws IllegalArgumentException if {@code fields} contains an unknown property
+     */
+    public Rule project(Rule rule, Collection<String> fields) {
+        if (null == rule || null == fields) return rule;
+        Rule projection = new Rule().id(rule.getId()).layerDetails(rule.getLayerDetails());
+        for (String field : fields) {
+            BiConsumer<Rule, Rule> property = PROPERTIES.get(field);
+            if (null == property) {
+                throw new IllegalArgumentException("Unknown rule property: " + field);
+            }
+            property.accept(rule, projection);
+        }
+        return projection;
+    }
+}
@@ -19,8 +19,14 @@ import org.mapstruct.ReportingPolicy;
         uses = {GeometryApiMapper.class, EnumsApiMapper.class})
 public interface RuleLimitsApiMapper {
 
+    @Mapping(target = "allowedArea", source = "allowedAreaWkb", qualifiedByName = "wkbToApi")
     org.geoserver.acl.api.model.RuleLimits toApi(org.geoserver.acl.domain.rules.RuleLimits limits);
 
+    @Mapping(target = "allowedArea", ignore = true)
+    @Mapping(
+            target = "allowedAreaWkb",
+            source = "allowedArea",
+            qualifiedByName = "apiToMultiPolygonWkb")
     @Mapping(target = "catalogMode", defaultValue = "HIDE")
     @Mapping(target = "spatialFilterType", defaultValue = "INTERSECT")
     org.geoserver.acl.domain.rules.RuleLimits toModel(
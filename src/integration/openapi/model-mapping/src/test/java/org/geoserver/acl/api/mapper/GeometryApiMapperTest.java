@@ -3,8 +3,16 @@ package org.geoserver.acl.api.mapper;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import org.geolatte.geom.ByteOrder;
+import org.geolatte.geom.Geometry;
+import org.geolatte.geom.codec.Wkb;
+import org.geolatte.geom.codec.Wkt;
+import org.geoserver.acl.api.model.Geom;
+import org.geoserver.acl.domain.rules.LazyGeometry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -55,4 +63,50 @@ class GeometryApiMapperTest {
         assertFalse(pattern.matcher("4326;MULTIPOLYGON((()))").matches());
         assertFalse(pattern.matcher("SRID=4326;").matches());
     }
+
+    @Test
+    void testWkbPassThrough() {
+        GeometryApiMapper mapper = new GeometryApiMapper() {};
+        Geometry<?> square = Wkt.fromWkt("SRID=4326;MULTIPOLYGON (((0 0, 0 1, 1 1, 1 0, 0 0)))");
+        byte[] wkb = Wkb.toWkb(square, ByteOrder.XDR).toByteArray();
+
+        assertSame(wkb, mapper.apiToMultiPolygonWkb(new Geom().wkb(wkb)));
+        assertSame(wkb, mapper.apiToGeometryWkb(new Geom().wkb(wkb)));
+        assertSame(wkb, mapper.wkbToApi(wkb).getWkb());
+    }
+
+    @Test
+    void testWkbToWkt() {
+        GeometryApiMapper mapper = new GeometryApiMapper() {};
+        Geometry<?> square = Wkt.fromWkt("SRID=4326;MULTIPOLYGON (((0 0, 0 1, 1 1, 1 0, 0 0)))");
+        byte[] wkb = Wkb.toWkb(square).toByteArray();
+        GeometryApiMapper.setUseWkb(false);
+        try {
+            Geom geom = mapper.wkbToApi(wkb);
+            assertNull(geom.getWkb());
+            assertEquals(square, Wkt.fromWkt(geom.getWkt()));
+        } finally {
+            GeometryApiMapper.setUseWkb(true);
+        }
+    }
+
+    @Test
+    void testWkbDefaultsToWGS84() {
+        GeometryApiMapper mapper = new GeometryApiMapper() {};
+        Geometry<?> noSrid = Wkt.fromWkt("MULTIPOLYGON (((0 0, 0 1, 1 1, 1 0, 0 0)))");
+        Geom geom = new Geom().wkb(Wkb.toWkb(noSrid).toByteArray());
+
+        assertEquals(4326, LazyGeometry.fromWkb(mapper.apiToMultiPolygonWkb(geom)).getSRID());
+        assertEquals(4326, LazyGeometry.fromWkb(mapper.apiToGeometryWkb(geom)).getSRID());
+    }
+
+    @Test
+    void testMultiPolygonWkbChecksType() {
+        GeometryApiMapper mapper = new GeometryApiMapper() {};
+        Geometry<?> point = Wkt.fromWkt("SRID=4326;POINT (0 0)");
+        Geom geom = new Geom().wkb(Wkb.toWkb(point).toByteArray());
+
+        assertThrows(IllegalArgumentException.class, () -> mapper.apiToMultiPolygonWkb(geom));
+        assertSame(geom.getWkb(), mapper.apiToGeometryWkb(geom));
+    }
 }
@@ -0,0 +1,85 @@
+/* (c) 2023  Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.acl.api.mapper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.geoserver.acl.api.model.Geom;
+import org.geoserver.acl.api.model.GrantType;
+import org.geoserver.acl.api.model.LayerDetails;
+import org.geoserver.acl.api.model.Rule;
+import org.geoserver.acl.api.model.RuleLimits;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+class RuleFieldsApiMapperTest {
+
+    private RuleFieldsApiMapper mapper = new RuleFieldsApiMapper();
+
+    @Test
+    void toModel() {
+        assertThat(mapper.toModel(null)).isNull();
+        assertThat(mapper.toModel(List.of("priority", "user", "layer", "limits")))
+                .containsExactly("priority", "identifier", "ruleLimits");
+        assertThatThrownBy(() -> mapper.toModel(List.of("area")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("area");
+    }
+
+    @Test
+    void toApi() {
+        assertThat(mapper.toApi(null)).isNull();
+        assertThat(mapper.toApi(Set.of()))
+                .containsExactly(
+                        "id",
+                        "priority",
+                        "instance",
+                        "access",
+                        "user",
+                        "role",
+                        "addressRange",
+                        "service",
+                        "request",
+                        "subfield",
+                        "workspace",
+                        "layer");
+        assertThat(mapper.toApi(List.of("identifier", "ruleLimits", "name")))
+                .endsWith("limits", "name");
+        assertThatThrownBy(() -> mapper.toApi(Set.of("limits")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void project() {
+        Geom area = new Geom().wkt("MULTIPOLYGON (((0 0, 0 1, 1 1, 0 0)))");
+        Rule rule =
+                new Rule()
+                        .id("1")
+                        .priority(10L)
+                        .name("name")
+                        .description("description")
+                        .access(GrantType.LIMIT)
+                        .layer("layer")
+                        .limits(new RuleLimits().allowedArea(area))
+                        .layerDetails(new LayerDetails().defaultStyle("style"));
+
+        assertThat(mapper.project(rule, null)).isSameAs(rule);
+
+        Rule projection = mapper.project(rule, List.of("priority", "layer"));
+        assertThat(projection)
+                .isEqualTo(
+                        new Rule()
+                                .id("1")
+                                .priority(10L)
+                                .layer("layer")
+                                .layerDetails(rule.getLayerDetails()));
+
+        assertThatThrownBy(() -> mapper.project(rule, List.of("area")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
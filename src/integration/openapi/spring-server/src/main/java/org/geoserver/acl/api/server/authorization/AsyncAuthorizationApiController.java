@@ -0,0 +1,170 @@
+/* (c) 2023  Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.acl.api.server.authorization;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+import org.geoserver.acl.api.model.AccessInfo;
+import org.geoserver.acl.api.model.AccessRequest;
+import org.geoserver.acl.api.model.AdminAccessInfo;
+import org.geoserver.acl.api.model.AdminAccessRequest;
+import org.geoserver.acl.api.model.Rule;
+import org.geoserver.acl.api.server.AuthorizationApiController;
+import org.geoserver.acl.api.server.AuthorizationApiDelegate;
+import org.geoserver.acl.api.server.support.AsyncAuthorizationExecutor;
+import org.geoserver.acl.api.server.support.AsyncAuthorizationExecutor.DeadlineExceededException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+import javax.validation.Valid;
+
+/**
+ * Asynchronous alternative to the generated {@link AuthorizationApiController}, serving the same
+ * {@code /authorization} operations of the {@code acl-api.yaml} contract with Servlet async
+ * processing: the servlet thread is released as soon as the request is handed to the {@link
+ * AsyncAuthorizationExecutor}, which runs the {@link AuthorizationApiDelegate} on its own threads.
+ *
+ * <p>Clients can tell how long they're willing to wait with the {@value #TIMEOUT_HEADER} header, in
+ * milliseconds. The request is answered with {@code 503 Service Unavailable} once that time
+ * elapses, and is not evaluated at all if it's still queued by then. The timeout is capped by
+ * {@link #getMaxTimeout() maxTimeout}, and defaults to {@link #getDefaultTimeout() defaultTimeout}.
+ * Requests already being evaluated then are not interrupted, they work on a detached copy of the
+ * request, and the persistence layer can bound their queries by the time they have left, see {@link
+ * AsyncAuthorizationExecutor#remainingTime()}.
+ *
+ * <p>Requests that don't fit in the executor's queue are answered with {@code 503 Service
+ * Unavailable} and a {@code Retry-After} header.
+ *
+ * @since 1.0
+ */
+@Slf4j
+@Controller
+@RequestMapping("${openapi.geoServerACL.base-path:/api}")
+public class AsyncAuthorizationApiController {
+
+    public static final String TIMEOUT_HEADER = "X-ACL-Request-Timeout";
+
+    private final AuthorizationApiDelegate delegate;
+    private final AsyncAuthorizationExecutor executor;
+    private final @Getter Duration defaultTimeout;
+    private final @Getter Duration maxTimeout;
+
+    public AsyncAuthorizationApiController(
+            @NonNull AuthorizationApiDelegate delegate,
+            @NonNull AsyncAuthorizationExecutor executor,
+            @NonNull Duration defaultTimeout,
+            @NonNull Duration maxTimeout) {
+        this.delegate = delegate;
+        this.executor = executor;
+        this.defaultTimeout = defaultTimeout;
+        this.maxTimeout = maxTimeout;
+    }
+
+    @PostMapping(
+            value = "/authorization/resources",
+            produces = {"application/json", "application/x-jackson-smile"},
+            consumes = {"application/json", "application/x-jackson-smile"})
+    public DeferredResult<ResponseEntity<AccessInfo>> getAccessInfo(
+            @Valid @RequestBody AccessRequest accessRequest,
+            @RequestHeader(name = TIMEOUT_HEADER, required = false) Long timeoutMillis) {
+
+        return execute(timeoutMillis, () -> delegate.getAccessInfo(accessRequest));
+    }
+
+    @PostMapping(
+            value = "/authorization/admin",
+            produces = {"application/json", "application/x-jackson-smile"},
+            consumes = {"application/json", "application/x-jackson-smile"})
+    public DeferredResult<ResponseEntity<AdminAccessInfo>> getAdminAuthorization(
+            @Valid @RequestBody AdminAccessRequest adminAccessRequest,
+            @RequestHeader(name = TIMEOUT_HEADER, required = false) Long timeoutMillis) {
+
+        return execute(timeoutMillis, () -> delegate.getAdminAuthorization(adminAccessRequest));
+    }
+
+    @PostMapping(
+            value = "/authorization/resources/matchingrules",
+            produces = {"application/json", "application/x-jackson-smile", "application/x-ndjson"},
+            consumes = {"application/json", "application/x-jackson-smile"})
+    public DeferredResult<ResponseEntity<List<Rule>>> getMatchingRules(
+            @Valid @RequestBody AccessRequest accessRequest,
+            @RequestParam(value = "fields", required = false) List<String> fields,
+            @RequestHeader(name = TIMEOUT_HEADER, required = false) Long timeoutMillis) {
+
+        return execute(timeoutMillis, () -> delegate.getMatchingRules(accessRequest, fields));
+    }
+
+    private <T> DeferredResult<ResponseEntity<T>> execute(
+            Long timeoutMillis, Supplier<ResponseEntity<T>> call) {
+
+        final Duration timeout = timeout(timeoutMillis);
+        final DeferredResult<ResponseEntity<T>> result =
+                new DeferredResult<>(
+                        timeout.toMillis(),
+                        () -> unavailable("Deadline of " + timeout.toMillis() + "ms exceeded"));
+
+        CompletableFuture<ResponseEntity<T>> future = executor.submit(timeout, call);
+        // once the client stopped waiting, there's no point in evaluating it if still queued
+        result.onTimeout(() -> future.cancel(false));
+        future.whenComplete(
+                (response, error) -> {
+                    if (null == error) result.setResult(response);
+                    else fail(result, error);
+                });
+        return result;
+    }
+
+    /**
+     * @return the client requested timeout, capped by {@link #maxTimeout}, or {@link
+     *     #defaultTimeout} if not given
+     */
+    Duration timeout(Long timeoutMillis) {
+        if (null == timeoutMillis || timeoutMillis <= 0) return defaultTimeout;
+        Duration requested = Duration.ofMillis(timeoutMillis);
+        return requested.compareTo(maxTimeout) > 0 ? maxTimeout : requested;
+    }
+
+    private <T> void fail(DeferredResult<ResponseEntity<T>> result, Throwable error) {
+        if (error instanceof CompletionException && null != error.getCause()) {
+            error = error.getCause();
+        }
+        if (error instanceof RejectedExecutionException) {
+            long retryAfter = Math.max(1, (executor.getRetryAfter().toMillis() + 999) / 1000);
+            result.setResult(
+                    ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                            .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter))
+                            .header("X-Reason", "Too many queued authorization requests")
+                            .build());
+        } else if (error instanceof DeadlineExceededException) {
+            result.setResult(unavailable(error.getMessage()));
+        } else {
+            log.debug("Authorization request failed", error);
+            result.setErrorResult(error);
+        }
+    }
+
+    private static <T> ResponseEntity<T> unavailable(String reason) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header("X-Reason", reason)
+                .build();
+    }
+}
@@ -4,6 +4,8 @@
  */
 package org.geoserver.acl.api.server.authorization;
 
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 
@@ -13,10 +15,13 @@ import org.geoserver.acl.api.model.AdminAccessInfo;
 import org.geoserver.acl.api.model.AdminAccessRequest;
 import org.geoserver.acl.api.model.Rule;
 import org.geoserver.acl.api.server.AuthorizationApiDelegate;
+import org.geoserver.acl.api.server.support.AsyncAuthorizationExecutor;
 import org.geoserver.acl.api.server.support.AuthorizationApiSupport;
 import org.geoserver.acl.authorization.AuthorizationService;
+import org.geoserver.acl.authorization.SingleFlight;
 import org.springframework.http.ResponseEntity;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -26,13 +31,36 @@ public class AuthorizationApiImpl implements AuthorizationApiDelegate {
     private final @NonNull AuthorizationService service;
     private final @NonNull AuthorizationApiSupport support;
 
+    // concurrent identical requests, like a map's tiles, share a single evaluation, waiting for it
+    // no longer than their own deadline
+    private final SingleFlight<
+                    org.geoserver.acl.authorization.AccessRequest,
+                    org.geoserver.acl.authorization.AccessInfo>
+            accessInfoCalls = new SingleFlight<>(AuthorizationApiImpl::maxWait);
+    private final SingleFlight<
+                    org.geoserver.acl.authorization.AdminAccessRequest,
+                    org.geoserver.acl.authorization.AdminAccessInfo>
+            adminAccessInfoCalls = new SingleFlight<>(AuthorizationApiImpl::maxWait);
+    private final SingleFlight<
+                    org.geoserver.acl.authorization.AccessRequest,
+                    List<org.geoserver.acl.domain.rules.Rule>>
+            matchingRulesCalls = new SingleFlight<>(AuthorizationApiImpl::maxWait);
+
+    /**
+     * @return the time left until the deadline of the asynchronous request being served, or {@link
+     *     SingleFlight#DEFAULT_MAX_WAIT} for synchronous ones
+     */
+    private static Duration maxWait() {
+        return AsyncAuthorizationExecutor.remainingTime().orElse(SingleFlight.DEFAULT_MAX_WAIT);
+    }
+
     @Override
     public ResponseEntity<AccessInfo> getAccessInfo(AccessRequest request) {
         org.geoserver.acl.authorization.AccessRequest modelRequest;
         org.geoserver.acl.authorization.AccessInfo modelResponse;
 
         modelRequest = support.toModel(request);
-        modelResponse = service.getAccessInfo(modelRequest);
+        modelResponse = accessInfoCalls.get(modelRequest, service::getAccessInfo);
 
         support.setPreferredGeometryEncoding();
         AccessInfo apiResponse = support.toApi(modelResponse);
@@ -45,7 +73,7 @@ public class AuthorizationApiImpl implements AuthorizationApiDelegate {
         org.geoserver.acl.authorization.AdminAccessInfo modelResponse;
 
         modelRequest = support.toModel(request);
-        modelResponse = service.getAdminAuthorization(modelRequest);
+        modelResponse = adminAccessInfoCalls.get(modelRequest, service::getAdminAuthorization);
 
         support.setPreferredGeometryEncoding();
         AdminAccessInfo apiResponse = support.toApi(modelResponse);
@@ -53,16 +81,25 @@ public class AuthorizationApiImpl implements AuthorizationApiDelegate {
     }
 
     @Override
-    public ResponseEntity<List<Rule>> getMatchingRules(AccessRequest accessRequest) {
+    public ResponseEntity<List<Rule>> getMatchingRules(
+            AccessRequest accessRequest, List<String> fields) {
         org.geoserver.acl.authorization.AccessRequest modelRequest;
         List<org.geoserver.acl.domain.rules.Rule> modelResponse;
 
+        try {
+            support.toRuleFields(fields);
+        } catch (IllegalArgumentException e) {
+            return support.error(BAD_REQUEST, e.getMessage());
+        }
         modelRequest = support.toModel(accessRequest);
-        modelResponse = service.getMatchingRules(modelRequest);
+        modelResponse = matchingRulesCalls.get(modelRequest, service::getMatchingRules);
 
         support.setPreferredGeometryEncoding();
         List<Rule> apiResponse =
-                modelResponse.stream().map(support::toApi).collect(Collectors.toList());
+                modelResponse.stream()
+                        .map(support::toApi)
+                        .map(rule -> support.project(rule, fields))
+                        .collect(Collectors.toList());
         return ResponseEntity.ok(apiResponse);
     }
 }
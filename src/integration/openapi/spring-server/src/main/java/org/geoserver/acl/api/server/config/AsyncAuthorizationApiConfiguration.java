@@ -0,0 +1,77 @@
+/* (c) 2023  Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.acl.api.server.config;
+
+import org.geoserver.acl.api.server.AuthorizationApiDelegate;
+import org.geoserver.acl.api.server.authorization.AsyncAuthorizationApiController;
+import org.geoserver.acl.api.server.support.AsyncAuthorizationExecutor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Condition;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Contributes the {@link AsyncAuthorizationApiController} in place of the generated synchronous one
+ * when {@link AsyncAuthorizationProperties#ENABLED_PROPERTY} is {@code true}, configured by a
+ * {@link AsyncAuthorizationProperties} bean if present. The executor's figures are published as the
+ * {@value AsyncAuthorizationExecutor#OBJECT_NAME} MBean of the platform MBean server.
+ *
+ * @see AuthorizationApiConfiguration
+ */
+@Configuration(proxyBeanMethods = false)
+@Conditional(AsyncAuthorizationApiConfiguration.Enabled.class)
+public class AsyncAuthorizationApiConfiguration {
+
+    @Bean
+    AsyncAuthorizationApiController aclAsyncAuthorizationApiController(
+            AuthorizationApiDelegate delegate,
+            AsyncAuthorizationExecutor executor,
+            ObjectProvider<AsyncAuthorizationProperties> properties) {
+
+        AsyncAuthorizationProperties props =
+                properties.getIfAvailable(AsyncAuthorizationProperties::new);
+        return new AsyncAuthorizationApiController(
+                delegate, executor, props.getDefaultTimeout(), props.getMaxTimeout());
+    }
+
+    @Bean
+    AsyncAuthorizationExecutor aclAsyncAuthorizationExecutor(
+            ObjectProvider<AsyncAuthorizationProperties> properties,
+            ObjectProvider<AsyncAuthorizationExecutor.Decorator> decorators) {
+
+        AsyncAuthorizationProperties props =
+                properties.getIfAvailable(AsyncAuthorizationProperties::new);
+        AsyncAuthorizationExecutor executor =
+                new AsyncAuthorizationExecutor(
+                        props.getThreads(), props.getQueueCapacity(), props.getRetryAfter());
+        decorators
+                .orderedStream()
+                .reduce((d1, d2) -> task -> d1.decorate(d2.decorate(task)))
+                .ifPresent(executor::setDecorator);
+        executor.registerMBean(ManagementFactory.getPlatformMBeanServer());
+        return executor;
+    }
+
+    static class Enabled implements Condition {
+        @Override
+        public boolean matches(ConditionContext context, AnnotatedTypeMetadata metadata) {
+            return context.getEnvironment()
+                    .getProperty(
+                            AsyncAuthorizationProperties.ENABLED_PROPERTY, Boolean.class, false);
+        }
+    }
+
+    static class Disabled implements Condition {
+        @Override
+        public boolean matches(ConditionContext context, AnnotatedTypeMetadata metadata) {
+            return !new Enabled().matches(context, metadata);
+        }
+    }
+}
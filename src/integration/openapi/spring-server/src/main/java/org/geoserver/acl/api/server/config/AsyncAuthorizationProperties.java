@@ -0,0 +1,38 @@
+/* (c) 2023  Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.acl.api.server.config;
+
+import lombok.Data;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the asynchronous execution of the authorization requests, see {@link
+ * org.geoserver.acl.api.server.authorization.AsyncAuthorizationApiController}.
+ */
+@Data
+public class AsyncAuthorizationProperties {
+
+    /** Property enabling the asynchronous mode, disabled by default */
+    public static final String ENABLED_PROPERTY = "geoserver.acl.authorization.async.enabled";
+
+    /** Whether to serve the authorization requests asynchronously */
+    private boolean enabled;
+
+    /** Number of worker threads, the maximum number of requests evaluated at the same time */
+    private int threads = 50;
+
+    /** Maximum number of requests waiting for a worker thread, beyond which they're rejected */
+    private int queueCapacity = 200;
+
+    /** Value of the Retry-After header of the requests rejected because the queue is full */
+    private Duration retryAfter = Duration.ofSeconds(1);
+
+    /** Deadline of the requests that don't have a X-ACL-Request-Timeout header */
+    private Duration defaultTimeout = Duration.ofSeconds(10);
+
+    /** Upper bound for the deadline requested through the X-ACL-Request-Timeout header */
+    private Duration maxTimeout = Duration.ofSeconds(30);
+}
@@ -12,15 +12,22 @@ import org.geoserver.acl.api.server.authorization.AuthorizationApiImpl;
 import org.geoserver.acl.api.server.support.AuthorizationApiSupport;
 import org.geoserver.acl.authorization.AuthorizationService;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Conditional;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
 import org.springframework.web.context.request.NativeWebRequest;
 
 @Configuration(proxyBeanMethods = false)
-@Import({ApiObjectModelMappersConfiguration.class, JacksonObjectMapperConfiguration.class})
+@Import({
+    ApiObjectModelMappersConfiguration.class,
+    JacksonObjectMapperConfiguration.class,
+    AsyncAuthorizationApiConfiguration.class
+})
 public class AuthorizationApiConfiguration {
 
+    /** Replaced by the asynchronous controller if enabled, they map the same requests */
     @Bean
+    @Conditional(AsyncAuthorizationApiConfiguration.Disabled.class)
     AuthorizationApiController aclAuthorizationApiController(AuthorizationApiDelegate delegate) {
         return new AuthorizationApiController(delegate);
     }
@@ -0,0 +1,26 @@
+/* (c) 2023  Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.acl.api.server.config;
+
+import org.geoserver.acl.api.server.support.BulkheadFilter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Contributes the {@link BulkheadFilter}, configured by a {@link BulkheadProperties} bean if
+ * present, or with the default limits otherwise.
+ */
+@Configuration(proxyBeanMethods = false)
+public class BulkheadConfiguration {
+
+    @Bean
+    BulkheadFilter bulkheadFilter(ObjectProvider<BulkheadProperties> properties) {
+        BulkheadProperties props = properties.getIfAvailable(BulkheadProperties::new);
+        return new BulkheadFilter(
+                props.getAuthorization().toBulkhead("authorization"),
+                props.getAdministration().toBulkhead("administration"));
+    }
+}
@@ -0,0 +1,58 @@
+/* (c) 2023  Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.acl.api.server.config;
+
+import lombok.Data;
+
+import org.geoserver.acl.api.server.support.BulkheadFilter.Bulkhead;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the {@link org.geoserver.acl.api.server.support.BulkheadFilter}. The
+ * sum of both {@code max-concurrent} and {@code max-waiting} values should stay below the servlet
+ * container's maximum number of threads.
+ */
+@Data
+public class BulkheadProperties {
+
+    /** Limits for the access checks, which should fail fast rather than queue up */
+    private Limits authorization =
+            new Limits(150, 50, Duration.ofMillis(100), Duration.ofSeconds(1));
+
+    /** Limits for the rules and admin rules administration requests */
+    private Limits administration = new Limits(20, 0, Duration.ZERO, Duration.ofSeconds(5));
+
+    @Data
+    public static class Limits {
+        /** Maximum number of requests running at the same time */
+        private int maxConcurrent;
+
+        /**
+         * Maximum number of requests waiting for a slot, each holding a server thread, beyond which
+         * they're rejected with a 503 right away
+         */
+        private int maxWaiting;
+
+        /** How long a request can wait for a slot before being rejected with a 503 */
+        private Duration maxWait;
+
+        /** Value of the Retry-After header of the rejected requests */
+        private Duration retryAfter;
+
+        public Limits() {}
+
+        Limits(int maxConcurrent, int maxWaiting, Duration maxWait, Duration retryAfter) {
+            this.maxConcurrent = maxConcurrent;
+            this.maxWaiting = maxWaiting;
+            this.maxWait = maxWait;
+            this.retryAfter = retryAfter;
+        }
+
+        Bulkhead toBulkhead(String name) {
+            return new Bulkhead(name, maxConcurrent, maxWaiting, maxWait, retryAfter);
+        }
+    }
+}
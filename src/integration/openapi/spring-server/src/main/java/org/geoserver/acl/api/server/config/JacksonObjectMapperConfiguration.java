@@ -4,10 +4,16 @@
  */
 package org.geoserver.acl.api.server.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
 
 @Configuration(proxyBeanMethods = false)
 class JacksonObjectMapperConfiguration {
@@ -16,4 +22,20 @@ class JacksonObjectMapperConfiguration {
     JavaTimeModule javaTimeModule() {
         return new JavaTimeModule();
     }
+
+    /**
+     * Smile converter that writes binary values, like WKB geometries, as raw bytes instead of
+     * Smile's default 7-bit encoding. Spring Boot uses it in place of the default Smile converter.
+     */
+    @Bean
+    MappingJackson2SmileHttpMessageConverter aclSmileHttpMessageConverter(
+            ObjectProvider<Jackson2ObjectMapperBuilder> builder) {
+        SmileFactory smile =
+                SmileFactory.builder()
+                        .disable(SmileGenerator.Feature.ENCODE_BINARY_AS_7BIT)
+                        .build();
+        ObjectMapper mapper =
+                builder.getIfAvailable(Jackson2ObjectMapperBuilder::smile).factory(smile).build();
+        return new MappingJackson2SmileHttpMessageConverter(mapper);
+    }
 }
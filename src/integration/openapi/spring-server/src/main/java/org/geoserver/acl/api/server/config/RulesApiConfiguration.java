@@ -4,9 +4,12 @@
  */
 package org.geoserver.acl.api.server.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+
 import org.geoserver.acl.api.mapper.AdminRuleApiMapper;
 import org.geoserver.acl.api.mapper.LayerDetailsApiMapper;
 import org.geoserver.acl.api.mapper.RuleApiMapper;
+import org.geoserver.acl.api.mapper.RuleChangeApiMapper;
 import org.geoserver.acl.api.mapper.RuleLimitsApiMapper;
 import org.geoserver.acl.api.server.AdminRulesApiController;
 import org.geoserver.acl.api.server.AdminRulesApiDelegate;
@@ -16,12 +19,16 @@ import org.geoserver.acl.api.server.rules.AdminRulesApiImpl;
 import org.geoserver.acl.api.server.rules.RulesApiImpl;
 import org.geoserver.acl.api.server.support.AdminRulesApiSupport;
 import org.geoserver.acl.api.server.support.RequestBodyBufferingServletFilter;
+import org.geoserver.acl.api.server.support.RuleChangeFeed;
 import org.geoserver.acl.api.server.support.RulesApiSupport;
+import org.geoserver.acl.api.server.support.RulesetETagFilter;
 import org.geoserver.acl.config.domain.AdminRuleAdminServiceConfiguration;
 import org.geoserver.acl.config.domain.AuthorizationServiceConfiguration;
 import org.geoserver.acl.config.domain.RuleAdminServiceConfiguration;
 import org.geoserver.acl.domain.adminrules.AdminRuleAdminService;
 import org.geoserver.acl.domain.rules.RuleAdminService;
+import org.geoserver.acl.domain.rules.RuleChangeLog;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
@@ -42,6 +49,16 @@ public class RulesApiConfiguration {
         return new RequestBodyBufferingServletFilter();
     }
 
+    @Bean
+    RulesetETagFilter rulesetETagFilter(RuleChangeFeed ruleChangeFeed) {
+        return new RulesetETagFilter(ruleChangeFeed);
+    }
+
+    @Bean
+    RuleChangeFeed ruleChangeFeed(RuleChangeLog ruleChangeLog) {
+        return new RuleChangeFeed(ruleChangeLog);
+    }
+
     @Bean
     RulesApiController rulesApiController(RulesApiDelegate delegate) {
         return new RulesApiController(delegate);
@@ -53,8 +70,9 @@ public class RulesApiConfiguration {
     }
 
     @Bean
-    RulesApiDelegate rulesApiDelegate(RuleAdminService rules, RulesApiSupport support) {
-        return new RulesApiImpl(rules, support);
+    RulesApiDelegate rulesApiDelegate(
+            RuleAdminService rules, RulesApiSupport support, RuleChangeFeed changeFeed) {
+        return new RulesApiImpl(rules, support, changeFeed);
     }
 
     @Bean
@@ -62,9 +80,15 @@ public class RulesApiConfiguration {
             NativeWebRequest nativeReq,
             RuleApiMapper mapper,
             LayerDetailsApiMapper layerDetailsMapper,
-            RuleLimitsApiMapper limitsMapper) {
+            RuleLimitsApiMapper limitsMapper,
+            RuleChangeApiMapper changeMapper,
+            ObjectProvider<ObjectMapper> objectMapper) {
 
-        return new RulesApiSupport(nativeReq, mapper, layerDetailsMapper, limitsMapper);
+        RulesApiSupport support =
+                new RulesApiSupport(
+                        nativeReq, mapper, layerDetailsMapper, limitsMapper, changeMapper);
+        support.setObjectMapper(objectMapper.getIfAvailable(ObjectMapper::new));
+        return support;
     }
 
     @Bean
@@ -75,8 +99,12 @@ public class RulesApiConfiguration {
 
     @Bean
     AdminRulesApiSupport adminRulesApiImplSupport(
-            NativeWebRequest nativeReq, AdminRuleApiMapper mapper) {
+            NativeWebRequest nativeReq,
+            AdminRuleApiMapper mapper,
+            ObjectProvider<ObjectMapper> objectMapper) {
 
-        return new AdminRulesApiSupport(nativeReq, mapper);
+        AdminRulesApiSupport support = new AdminRulesApiSupport(nativeReq, mapper);
+        support.setObjectMapper(objectMapper.getIfAvailable(ObjectMapper::new));
+        return support;
     }
 }
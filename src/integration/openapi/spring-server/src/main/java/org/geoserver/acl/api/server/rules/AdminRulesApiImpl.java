@@ -6,6 +6,7 @@ package org.geoserver.acl.api.server.rules;
 
 import static org.springframework.http.HttpStatus.BAD_REQUEST;
 import static org.springframework.http.HttpStatus.CONFLICT;
+import static org.springframework.http.HttpStatus.CREATED;
 import static org.springframework.http.HttpStatus.NOT_FOUND;
 import static org.springframework.http.HttpStatus.OK;
 
@@ -17,15 +18,21 @@ import org.geoserver.acl.api.model.AdminRuleFilter;
 import org.geoserver.acl.api.model.InsertPosition;
 import org.geoserver.acl.api.server.AdminRulesApiDelegate;
 import org.geoserver.acl.api.server.support.AdminRulesApiSupport;
+import org.geoserver.acl.api.server.support.NdjsonWriter;
+import org.geoserver.acl.api.server.support.RulesetETagFilter;
 import org.geoserver.acl.domain.adminrules.AdminRuleAdminService;
 import org.geoserver.acl.domain.adminrules.AdminRuleIdentifierConflictException;
 import org.geoserver.acl.domain.filter.RuleQuery;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @RequiredArgsConstructor
 public class AdminRulesApiImpl implements AdminRulesApiDelegate {
@@ -41,6 +48,36 @@ public class AdminRulesApiImpl implements AdminRulesApiDelegate {
         return ResponseEntity.ok(service.count(support.map(adminRuleFilter)));
     }
 
+    /**
+     * Streams the admin rules straight to the response, returns {@code null} as the request is
+     * handled
+     */
+    public @Override ResponseEntity<Resource> exportAdminRules() {
+        try (NdjsonWriter writer = support.ndjsonResponse()) {
+            service.exportAll(rule -> writer.write(support.toApi(rule)));
+        }
+        return null;
+    }
+
+    public @Override ResponseEntity<Resource> importAdminRules(
+            @NonNull InputStreamResource body, Integer batchSize) {
+        return support.importNdjson(
+                body,
+                AdminRule.class,
+                batchSize,
+                this::importBatch,
+                AdminRuleIdentifierConflictException.class);
+    }
+
+    private void importBatch(List<AdminRule> batch) {
+        List<org.geoserver.acl.domain.adminrules.AdminRule> rules =
+                batch.stream()
+                        .map(support::toModel)
+                        .map(r -> r.withId(null))
+                        .collect(Collectors.toList());
+        service.importAll(rules);
+    }
+
     public @Override ResponseEntity<AdminRule> createAdminRule(
             AdminRule adminRule, InsertPosition position) {
 
@@ -61,6 +98,45 @@ public class AdminRulesApiImpl implements AdminRulesApiDelegate {
         }
     }
 
+    public @Override ResponseEntity<List<AdminRule>> createAdminRules(
+            @NonNull List<AdminRule> adminRules, InsertPosition position) {
+
+        List<org.geoserver.acl.domain.adminrules.AdminRule> models =
+                adminRules.stream().map(support::toModel).collect(Collectors.toList());
+        try {
+            List<org.geoserver.acl.domain.adminrules.AdminRule> created;
+            if (position == null) {
+                created =
+                        service.insertAll(
+                                models, org.geoserver.acl.domain.adminrules.InsertPosition.FIXED);
+            } else {
+                created = service.insertAll(models, support.toAdminRulesModel(position));
+            }
+            return ResponseEntity.status(CREATED)
+                    .body(created.stream().map(support::toApi).collect(Collectors.toList()));
+        } catch (AdminRuleIdentifierConflictException e) {
+            return support.error(CONFLICT, e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return support.error(BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    public @Override ResponseEntity<List<AdminRule>> updateAdminRules(
+            @NonNull List<AdminRule> adminRules) {
+
+        List<org.geoserver.acl.domain.adminrules.AdminRule> models =
+                adminRules.stream().map(support::toModel).collect(Collectors.toList());
+        try {
+            List<org.geoserver.acl.domain.adminrules.AdminRule> updated = service.updateAll(models);
+            return ResponseEntity.status(OK)
+                    .body(updated.stream().map(support::toApi).collect(Collectors.toList()));
+        } catch (AdminRuleIdentifierConflictException e) {
+            return support.error(CONFLICT, e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return support.error(BAD_REQUEST, e.getMessage());
+        }
+    }
+
     public @Override ResponseEntity<Void> deleteAdminRuleById(@NonNull String id) {
         boolean deleted = service.delete(id);
         return ResponseEntity.status(deleted ? OK : NOT_FOUND).build();
@@ -70,8 +146,9 @@ public class AdminRulesApiImpl implements AdminRulesApiDelegate {
         return ResponseEntity.ok(service.exists(id));
     }
 
+    /** {@code ifNoneMatch} is evaluated by {@link RulesetETagFilter} */
     public @Override ResponseEntity<List<AdminRule>> findAllAdminRules(
-            Integer limit, String nextCursor) {
+            Integer limit, String nextCursor, String ifNoneMatch) {
         return query(RuleQuery.of(limit, nextCursor));
     }
 
@@ -91,8 +168,9 @@ public class AdminRulesApiImpl implements AdminRulesApiDelegate {
                 .body(found.map(support::toApi).orElse(null));
     }
 
+    /** {@code ifNoneMatch} is evaluated by {@link RulesetETagFilter} */
     public @Override ResponseEntity<List<AdminRule>> findAdminRules(
-            Integer limit, String nextCursor, AdminRuleFilter adminRuleFilter) {
+            Integer limit, String nextCursor, String ifNoneMatch, AdminRuleFilter adminRuleFilter) {
 
         org.geoserver.acl.domain.adminrules.AdminRuleFilter filter = support.map(adminRuleFilter);
 
@@ -102,7 +180,8 @@ public class AdminRulesApiImpl implements AdminRulesApiDelegate {
     private ResponseEntity<List<AdminRule>> query(
             RuleQuery<org.geoserver.acl.domain.adminrules.AdminRuleFilter> query) {
 
-        List<org.geoserver.acl.domain.adminrules.AdminRule> list;
+        Stream<org.geoserver.acl.domain.adminrules.AdminRule> rules;
+        String nextCursor = null;
 
         // handle cursor-based pagination.
         final Integer requestedLimit = query.getLimit();
@@ -110,20 +189,32 @@ public class AdminRulesApiImpl implements AdminRulesApiDelegate {
             query.setLimit(query.getLimit() + 1);
         }
         try {
-            list = service.getAll(query).collect(Collectors.toList());
+            rules = service.getAll(query);
             query.setLimit(requestedLimit); // avoid side effect once the method returns
         } catch (IllegalArgumentException e) {
             return support.error(BAD_REQUEST, e.getMessage());
         }
+        if (requestedLimit != null) {
+            // the next cursor header must be known before streaming the response body
+            List<org.geoserver.acl.domain.adminrules.AdminRule> page =
+                    rules.collect(Collectors.toList());
+            if (page.size() > requestedLimit) {
+                nextCursor = page.get(requestedLimit).getId();
+                page = page.subList(0, requestedLimit);
+            }
+            rules = page.stream();
+        }
+        return support.streamList(rules, nextCursor);
+    }
 
-        List<AdminRule> body = list.stream().map(support::toApi).collect(Collectors.toList());
-        String nextCursor;
-        if (requestedLimit != null && body.size() > requestedLimit) {
-            nextCursor = body.get(requestedLimit).getId();
-        } else {
-            nextCursor = null;
+    public @Override ResponseEntity<List<AdminRule>> findAdminRulesById(@NonNull Set<String> ids) {
+        if (ids.size() > RulesApiImpl.MAX_IDS) {
+            return support.error(
+                    BAD_REQUEST, "At most " + RulesApiImpl.MAX_IDS + " ids can be requested");
         }
-        return ResponseEntity.ok().header("X-ACL-NEXTCURSOR", nextCursor).body(body);
+        List<AdminRule> rules =
+                service.getAllById(ids).stream().map(support::toApi).collect(Collectors.toList());
+        return ResponseEntity.ok(rules);
     }
 
     public @Override ResponseEntity<AdminRule> getAdminRuleById(@NonNull String id) {
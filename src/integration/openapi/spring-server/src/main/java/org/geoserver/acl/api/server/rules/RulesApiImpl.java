@@ -6,9 +6,11 @@ package org.geoserver.acl.api.server.rules;
 
 import static org.springframework.http.HttpStatus.BAD_REQUEST;
 import static org.springframework.http.HttpStatus.CONFLICT;
+import static org.springframework.http.HttpStatus.GONE;
 import static org.springframework.http.HttpStatus.NOT_FOUND;
 import static org.springframework.http.HttpStatus.NO_CONTENT;
 import static org.springframework.http.HttpStatus.OK;
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
 
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
@@ -16,27 +18,55 @@ import lombok.RequiredArgsConstructor;
 import org.geoserver.acl.api.model.InsertPosition;
 import org.geoserver.acl.api.model.LayerDetails;
 import org.geoserver.acl.api.model.Rule;
+import org.geoserver.acl.api.model.RuleBatch;
+import org.geoserver.acl.api.model.RuleBatchOperation;
+import org.geoserver.acl.api.model.RuleChange;
 import org.geoserver.acl.api.model.RuleFilter;
 import org.geoserver.acl.api.model.RuleLimits;
+import org.geoserver.acl.api.model.RuleRecord;
 import org.geoserver.acl.api.server.RulesApiDelegate;
+import org.geoserver.acl.api.server.support.NdjsonWriter;
+import org.geoserver.acl.api.server.support.RuleChangeFeed;
 import org.geoserver.acl.api.server.support.RulesApiSupport;
+import org.geoserver.acl.api.server.support.RulesetETagFilter;
 import org.geoserver.acl.domain.filter.RuleQuery;
 import org.geoserver.acl.domain.rules.RuleAdminService;
+import org.geoserver.acl.domain.rules.RuleBatch.Operation;
 import org.geoserver.acl.domain.rules.RuleIdentifierConflictException;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.lang.Nullable;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @RequiredArgsConstructor
 public class RulesApiImpl implements RulesApiDelegate {
 
+    public static final String CHANGE_SEQUENCE_HEADER = "X-ACL-SEQUENCE";
+
+    /** Maximum value of the {@code limit} parameter of {@link #getRuleChanges} */
+    static final int MAX_CHANGES = 10_000;
+
+    /**
+     * Maximum number of ids requested at once by {@link #findRulesById} and {@link
+     * AdminRulesApiImpl#findAdminRulesById}
+     */
+    static final int MAX_IDS = 1000;
+
+    /** {@code include} request parameter value to return the rules' layer details inline */
+    public static final String INCLUDE_DETAILS = "details";
+
     private final @NonNull RuleAdminService service;
     private final @NonNull RulesApiSupport support;
+    private final @NonNull RuleChangeFeed changeFeed;
 
     @Override
     public ResponseEntity<Rule> createRule(@NonNull Rule rule, InsertPosition position) {
@@ -55,6 +85,140 @@ public class RulesApiImpl implements RulesApiDelegate {
         return ResponseEntity.status(HttpStatus.CREATED).body(support.toApi(created));
     }
 
+    @Override
+    public ResponseEntity<List<Rule>> createRules(
+            @NonNull List<Rule> rules, InsertPosition position) {
+        List<org.geoserver.acl.domain.rules.Rule> models =
+                rules.stream().map(support::toModel).collect(Collectors.toList());
+        List<org.geoserver.acl.domain.rules.Rule> created;
+        try {
+            if (null == position) {
+                created =
+                        service.insertAll(
+                                models, org.geoserver.acl.domain.rules.InsertPosition.FIXED);
+            } else {
+                created = service.insertAll(models, support.toRulesModel(position));
+            }
+        } catch (RuleIdentifierConflictException conflict) {
+            return support.error(CONFLICT, conflict.getMessage());
+        } catch (IllegalArgumentException e) {
+            return support.error(BAD_REQUEST, e.getMessage());
+        }
+        support.setPreferredGeometryEncoding();
+        List<Rule> body = created.stream().map(support::toApi).collect(Collectors.toList());
+        return ResponseEntity.status(HttpStatus.CREATED).body(body);
+    }
+
+    /**
+     * Streams the rules straight to the response, returns {@code null} as the request is handled
+     */
+    @Override
+    public ResponseEntity<Resource> exportRules() {
+        support.setPreferredGeometryEncoding();
+        try (NdjsonWriter writer = support.ndjsonResponse()) {
+            service.exportAll(
+                    (rule, details) ->
+                            writer.write(
+                                    new RuleRecord()
+                                            .rule(support.toApi(rule))
+                                            .layerDetails(support.toApi(details))));
+        }
+        return null;
+    }
+
+    @Override
+    public ResponseEntity<Resource> importRules(
+            @NonNull InputStreamResource body, Integer batchSize) {
+        return support.importNdjson(
+                body,
+                RuleRecord.class,
+                batchSize,
+                this::importBatch,
+                RuleIdentifierConflictException.class);
+    }
+
+    private void importBatch(List<RuleRecord> records) {
+        List<org.geoserver.acl.domain.rules.Rule> rules = new ArrayList<>(records.size());
+        List<org.geoserver.acl.domain.rules.LayerDetails> details = new ArrayList<>(records.size());
+        for (RuleRecord record : records) {
+            if (null == record.getRule()) throw new IllegalArgumentException("Record has no rule");
+            rules.add(support.toModel(record.getRule()).withId(null));
+            details.add(support.toModel(record.getLayerDetails()));
+        }
+        service.importAll(rules, details);
+    }
+
+    @Override
+    public ResponseEntity<List<Rule>> updateRules(@NonNull List<Rule> rules) {
+        List<org.geoserver.acl.domain.rules.Rule> models =
+                rules.stream().map(support::toModel).collect(Collectors.toList());
+        try {
+            List<org.geoserver.acl.domain.rules.Rule> updated = service.updateAll(models);
+            support.setPreferredGeometryEncoding();
+            List<Rule> body = updated.stream().map(support::toApi).collect(Collectors.toList());
+            return ResponseEntity.status(OK).body(body);
+        } catch (RuleIdentifierConflictException e) {
+            return support.error(CONFLICT, e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return support.error(BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    @Override
+    public ResponseEntity<List<Rule>> executeRuleBatch(@NonNull RuleBatch batch) {
+        List<org.geoserver.acl.domain.rules.Rule> results;
+        try {
+            List<Operation> operations =
+                    batch.getOperations().stream().map(this::toModel).collect(Collectors.toList());
+            results = service.execute(org.geoserver.acl.domain.rules.RuleBatch.of(operations));
+        } catch (RuleIdentifierConflictException e) {
+            return support.error(CONFLICT, e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return support.error(BAD_REQUEST, e.getMessage());
+        }
+        support.setPreferredGeometryEncoding();
+        List<Rule> body = new ArrayList<>(results.size());
+        results.forEach(r -> body.add(null == r ? null : support.toApi(r)));
+        return ResponseEntity.status(OK).body(body);
+    }
+
+    /** Patch operations set the non null properties of the operation's rule to the current one */
+    private Operation toModel(RuleBatchOperation op) {
+        if (null == op.getOp()) throw new IllegalArgumentException("Operation type not provided");
+        final org.geoserver.acl.domain.rules.LayerDetails details =
+                null == op.getLayerDetails() ? null : support.toModel(op.getLayerDetails());
+        switch (op.getOp()) {
+            case CREATE:
+                org.geoserver.acl.domain.rules.InsertPosition position =
+                        null == op.getPosition()
+                                ? org.geoserver.acl.domain.rules.InsertPosition.FIXED
+                                : support.toRulesModel(op.getPosition());
+                return Operation.create(
+                        support.toModel(required(op.getRule(), op)), position, details);
+            case UPDATE:
+                org.geoserver.acl.domain.rules.Rule rule =
+                        support.toModel(required(op.getRule(), op));
+                if (null == rule.getId()) rule = rule.withId(required(op.getId(), op));
+                return Operation.update(rule, details);
+            case PATCH:
+                final Rule patch = required(op.getRule(), op);
+                return Operation.patch(
+                        required(op.getId(), op),
+                        current -> support.mergePatch(current, patch.id(null)),
+                        details);
+            case DELETE:
+                return Operation.delete(required(op.getId(), op));
+            default:
+                throw new IllegalArgumentException("Unknown operation type " + op.getOp());
+        }
+    }
+
+    private static <V> V required(V value, RuleBatchOperation op) {
+        if (null == value)
+            throw new IllegalArgumentException("Incomplete " + op.getOp() + " operation: " + op);
+        return value;
+    }
+
     @Override
     public ResponseEntity<Void> deleteRuleById(@NonNull String id) {
 
@@ -63,55 +227,210 @@ public class RulesApiImpl implements RulesApiDelegate {
         return ResponseEntity.status(status).build();
     }
 
+    /** {@code ifNoneMatch} is evaluated by {@link RulesetETagFilter} */
     @Override
-    public ResponseEntity<List<Rule>> getRules(Integer limit, String nextCursor) {
-        return query(RuleQuery.of(limit, nextCursor));
+    public ResponseEntity<List<Rule>> getRules(
+            Integer limit,
+            String nextCursor,
+            String ifNoneMatch,
+            List<String> include,
+            List<String> fields) {
+        return query(RuleQuery.of(limit, nextCursor), include, fields);
     }
 
+    /** {@code ifNoneMatch} is evaluated by {@link RulesetETagFilter} */
     @Override
     public ResponseEntity<List<Rule>> queryRules( //
-            @Nullable Integer limit, @Nullable String nextCursor, @Nullable RuleFilter ruleFilter) {
+            @Nullable Integer limit,
+            @Nullable String nextCursor,
+            @Nullable String ifNoneMatch,
+            @Nullable List<String> include,
+            @Nullable List<String> fields,
+            @Nullable RuleFilter ruleFilter) {
 
         org.geoserver.acl.domain.rules.RuleFilter filter = support.map(ruleFilter);
 
-        return query(RuleQuery.of(filter, limit, nextCursor));
+        return query(RuleQuery.of(filter, limit, nextCursor), include, fields);
     }
 
     private ResponseEntity<List<Rule>> query(
-            RuleQuery<org.geoserver.acl.domain.rules.RuleFilter> query) {
-        List<org.geoserver.acl.domain.rules.Rule> list;
+            RuleQuery<org.geoserver.acl.domain.rules.RuleFilter> query,
+            List<String> include,
+            List<String> fields) {
+        Stream<Rule> rules;
+        String nextCursor = null;
 
-        // handle cursor-based pagination.
         final Integer requestedLimit = query.getLimit();
+        final boolean details;
+        try {
+            query.setFields(support.toRuleFields(fields));
+            details = includeDetails(include);
+            if (details && null == requestedLimit) {
+                return streamAllWithDetails(query, fields);
+            }
+        } catch (IllegalArgumentException e) {
+            return support.error(BAD_REQUEST, e.getMessage());
+        }
+
+        // handle cursor-based pagination.
         if (requestedLimit != null) {
             query.setLimit(query.getLimit() + 1);
         }
         try {
-            list = service.getAll(query).collect(Collectors.toList());
+            rules = details ? getAllWithDetails(query) : getAll(query);
             query.setLimit(requestedLimit); // avoid side effect once the method returns
         } catch (IllegalArgumentException e) {
             return support.error(BAD_REQUEST, e.getMessage());
         }
+        if (requestedLimit != null) {
+            // the next cursor header must be known before streaming the response body
+            List<Rule> page = rules.collect(Collectors.toList());
+            if (page.size() > requestedLimit) {
+                nextCursor = page.get(requestedLimit).getId();
+                page = page.subList(0, requestedLimit);
+            }
+            rules = page.stream();
+        }
+        // repositories may return more than the requested fields
+        rules = rules.map(rule -> support.project(rule, fields));
+        return support.streamApiList(rules, nextCursor);
+    }
 
+    private Stream<Rule> getAll(RuleQuery<org.geoserver.acl.domain.rules.RuleFilter> query) {
         support.setPreferredGeometryEncoding();
-        List<Rule> body = list.stream().map(support::toApi).collect(Collectors.toList());
-        String nextCursor;
-        if (requestedLimit != null && body.size() > requestedLimit) {
-            nextCursor = body.get(requestedLimit).getId();
-            body = body.subList(0, requestedLimit);
-        } else {
-            nextCursor = null;
+        return service.getAll(query).map(support::toApi);
+    }
+
+    /**
+     * Layer details are fetched in bulk, so the rules are collected instead of streamed, for paged
+     * queries only, see {@link #streamAllWithDetails}
+     */
+    private Stream<Rule> getAllWithDetails(
+            RuleQuery<org.geoserver.acl.domain.rules.RuleFilter> query) {
+        support.setPreferredGeometryEncoding();
+        List<Rule> rules = new ArrayList<>();
+        service.getAllWithDetails(
+                query,
+                (rule, details) -> rules.add(support.toApi(rule).layerDetails(toApi(details))));
+        return rules.stream();
+    }
+
+    /** Writes the rules out as the service passes them with their layer details */
+    private ResponseEntity<List<Rule>> streamAllWithDetails(
+            RuleQuery<org.geoserver.acl.domain.rules.RuleFilter> query, List<String> fields) {
+        support.setPreferredGeometryEncoding();
+        return support.streamApiList(
+                out ->
+                        service.getAllWithDetails(
+                                query,
+                                (rule, details) -> {
+                                    Rule apiRule = support.toApi(rule).layerDetails(toApi(details));
+                                    out.accept(support.project(apiRule, fields));
+                                }),
+                null);
+    }
+
+    private LayerDetails toApi(@Nullable org.geoserver.acl.domain.rules.LayerDetails details) {
+        return null == details ? null : support.toApi(details);
+    }
+
+    /**
+     * @return whether the {@code include} request parameter asks for the rules' layer details
+     * @throws IllegalArgumentException if it contains an unknown value
+     */
+    private static boolean includeDetails(@Nullable List<String> include) {
+        if (null == include) return false;
+        for (String value : include) {
+            if (!INCLUDE_DETAILS.equals(value)) {
+                throw new IllegalArgumentException("Unknown include value: " + value);
+            }
         }
-        return ResponseEntity.ok().header("X-ACL-NEXTCURSOR", nextCursor).body(body);
+        return !include.isEmpty();
     }
 
+    /**
+     * Holds the request for up to {@code wait} seconds if there are no changes after {@code since},
+     * see {@link RuleChangeFeed#findSince(long, int, Duration)}
+     */
     @Override
-    public ResponseEntity<Rule> getRuleById(@NonNull String id) {
+    public ResponseEntity<List<RuleChange>> getRuleChanges(
+            @Nullable Long since, @Nullable Integer limit, @Nullable Integer wait) {
+        final long from = null == since ? 0 : since;
+        final int maxChanges = null == limit ? 1000 : limit;
+        final int waitSeconds = null == wait ? 0 : wait;
+        if (from < 0
+                || maxChanges < 1
+                || maxChanges > MAX_CHANGES
+                || waitSeconds < 0
+                || waitSeconds > 60) {
+            return support.error(BAD_REQUEST, "Invalid since, limit, or wait parameter");
+        }
+        if (changeFeed.isGone(from)) {
+            return ResponseEntity.status(GONE)
+                    .header(CHANGE_SEQUENCE_HEADER, String.valueOf(changeFeed.lastSequence()))
+                    .build();
+        }
+        List<org.geoserver.acl.domain.rules.RuleChange> changes;
+        try {
+            changes = changeFeed.findSince(from, maxChanges, Duration.ofSeconds(waitSeconds));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return support.error(SERVICE_UNAVAILABLE, "Interrupted while waiting for changes");
+        }
+        long sequence = changes.isEmpty() ? from : changes.get(changes.size() - 1).getSequence();
+        List<RuleChange> body = changes.stream().map(support::toApi).collect(Collectors.toList());
+        return ResponseEntity.ok()
+                .header(CHANGE_SEQUENCE_HEADER, String.valueOf(sequence))
+                .body(body);
+    }
+
+    @Override
+    public ResponseEntity<Long> getLastRuleChangeSequence() {
+        final long sequence = changeFeed.lastSequence();
+        return ResponseEntity.ok()
+                .header(CHANGE_SEQUENCE_HEADER, String.valueOf(sequence))
+                .body(sequence);
+    }
+
+    @Override
+    public ResponseEntity<List<Rule>> findRulesById(
+            @NonNull Set<String> ids, @Nullable List<String> include) {
+        final boolean details;
+        try {
+            details = includeDetails(include);
+        } catch (IllegalArgumentException e) {
+            return support.error(BAD_REQUEST, e.getMessage());
+        }
+        if (ids.size() > MAX_IDS) {
+            return support.error(BAD_REQUEST, "At most " + MAX_IDS + " ids can be requested");
+        }
+        support.setPreferredGeometryEncoding();
+        List<Rule> rules = new ArrayList<>();
+        service.getAllByIdWithDetails(
+                ids,
+                (rule, layerDetails) ->
+                        rules.add(
+                                support.toApi(rule)
+                                        .layerDetails(details ? toApi(layerDetails) : null)));
+        return ResponseEntity.ok(rules);
+    }
+
+    @Override
+    public ResponseEntity<Rule> getRuleById(@NonNull String id, @Nullable List<String> include) {
+        final boolean details;
+        try {
+            details = includeDetails(include);
+        } catch (IllegalArgumentException e) {
+            return support.error(BAD_REQUEST, e.getMessage());
+        }
         Optional<org.geoserver.acl.domain.rules.Rule> found = service.get(id);
         support.setPreferredGeometryEncoding();
 
-        return ResponseEntity.status(found.isPresent() ? OK : NOT_FOUND)
-                .body(found.map(support::toApi).orElse(null));
+        Rule rule = found.map(support::toApi).orElse(null);
+        if (null != rule && details) {
+            rule.setLayerDetails(service.getLayerDetails(id).map(support::toApi).orElse(null));
+        }
+        return ResponseEntity.status(null == rule ? NOT_FOUND : OK).body(rule);
     }
 
     @Override
@@ -4,19 +4,33 @@
  */
 package org.geoserver.acl.api.server.support;
 
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
 
 import org.geoserver.acl.api.mapper.EnumsApiMapperImpl;
 import org.geoserver.acl.api.mapper.GeometryApiMapper;
+import org.geoserver.acl.api.mapper.RuleFieldsApiMapper;
 import org.geoserver.acl.api.mapper.RuleFilterApiMapper;
 import org.geoserver.acl.api.model.AdminRuleFilter;
+import org.geoserver.acl.api.model.ImportProgress;
 import org.geoserver.acl.api.model.InsertPosition;
+import org.geoserver.acl.api.model.Rule;
 import org.geoserver.acl.api.model.RuleFilter;
 import org.geoserver.acl.api.server.support.RequestBodyBufferingServletFilter.RequestBodyBufferingServletRequest;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -25,17 +39,41 @@ import org.springframework.web.context.request.NativeWebRequest;
 
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.stream.Stream;
 
+import javax.servlet.http.HttpServletResponse;
+
+@Slf4j
 @RequiredArgsConstructor
 public abstract class ApiImplSupport<DTO, T> {
 
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
+    public static final MediaType APPLICATION_NDJSON =
+            MediaType.parseMediaType(APPLICATION_NDJSON_VALUE);
+
+    public static final String NEXT_CURSOR_HEADER = "X-ACL-NEXTCURSOR";
+
     private final @NonNull NativeWebRequest nativeRequest;
     private final @NonNull Function<T, DTO> toApi;
     private final @NonNull Function<DTO, T> toModel;
 
     private final RuleFilterApiMapper filterMapper = new RuleFilterApiMapper();
+    private final RuleFieldsApiMapper fieldsMapper = new RuleFieldsApiMapper();
+
+    /**
+     * Used to write streamed responses, and to read streamed request bodies. Set to the application
+     * context's {@link ObjectMapper} so they're serialized like the message converters do.
+     */
+    @Setter private @NonNull ObjectMapper objectMapper = new ObjectMapper();
 
     public T toModel(DTO dto) {
         return toModel.apply(dto);
@@ -67,6 +105,22 @@ public abstract class ApiImplSupport<DTO, T> {
         return filterMapper.toModel(filter);
     }
 
+    /**
+     * @param fields the {@code fields} request parameter, {@code null} for all the rule properties
+     * @return the {@link org.geoserver.acl.domain.filter.RuleQuery#getFields() query fields}
+     * @throws IllegalArgumentException if it contains an unknown property
+     */
+    public Set<String> toRuleFields(List<String> fields) {
+        return fieldsMapper.toModel(fields);
+    }
+
+    /**
+     * @return {@code rule} with only the properties in the {@code fields} request parameter
+     */
+    public Rule project(Rule rule, List<String> fields) {
+        return fieldsMapper.project(rule, fields);
+    }
+
     public T mergePatch(final T orig) {
         DTO merged;
         try {
@@ -87,19 +141,228 @@ public abstract class ApiImplSupport<DTO, T> {
         return patched;
     }
 
+    /** Sets the non null properties of {@code patch} to {@code orig} */
+    public T mergePatch(final T orig, final DTO patch) {
+        ObjectMapper mapper = new ObjectMapper().setSerializationInclusion(Include.NON_NULL);
+        DTO merged;
+        try {
+            DTO current = toApi.apply(orig);
+            JsonNode properties = mapper.valueToTree(patch);
+            merged = mapper.readerForUpdating(current).readValue(properties);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return toModel.apply(merged);
+    }
+
     public <R> ResponseEntity<R> error(HttpStatus code, String reason) {
         return ResponseEntity.status(code).header("X-Reason", reason).build();
     }
 
-    public void setPreferredGeometryEncoding() {
-        String acceptContentType = nativeRequest.getHeader("Accept");
-        boolean useWkb = true;
-        if (StringUtils.hasText(acceptContentType)) {
-            MediaType mediaType = MediaType.parseMediaType(acceptContentType);
-            useWkb = !MediaType.APPLICATION_JSON.isCompatibleWith(mediaType);
-        } else {
-            useWkb = false;
+    /**
+     * Opens a newline-delimited JSON writer on the servlet response, so that large responses are
+     * streamed instead of being buffered by the HTTP message converters. The calling handler method
+     * shall return a {@code null} {@link ResponseEntity} for the request to be considered handled.
+     */
+    public NdjsonWriter ndjsonResponse() {
+        try {
+            return new NdjsonWriter(objectMapper, okResponse(APPLICATION_NDJSON, null));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
+    }
+
+    /**
+     * Writes {@code models} to the response as they're mapped to their API representation, instead
+     * of collecting them into a list for the HTTP message converters to serialize.
+     *
+     * <p>The response is a JSON array, or newline-delimited JSON if the {@code Accept} header
+     * prefers {@code application/x-ndjson}. Other media types (e.g. Smile) go through the message
+     * converters as usual.
+     *
+     * @param nextCursor the value of the {@code X-ACL-NEXTCURSOR} response header, if any
+     * @return {@code null} if the response was streamed, the response entity to return otherwise
+     */
+    public ResponseEntity<List<DTO>> streamList(@NonNull Stream<T> models, String nextCursor) {
+        return streamApiList(models.map(toApi), nextCursor);
+    }
+
+    /**
+     * Same as {@link #streamList(Stream, String)}, for values already mapped to their API
+     * representation
+     */
+    public ResponseEntity<List<DTO>> streamApiList(@NonNull Stream<DTO> values, String nextCursor) {
+        try (Stream<DTO> stream = values) {
+            return streamApiList(stream::forEach, nextCursor);
+        }
+    }
+
+    /**
+     * Same as {@link #streamApiList(Stream, String)}, for values pushed by {@code producer} to the
+     * consumer it's given, such as a repository callback
+     */
+    public ResponseEntity<List<DTO>> streamApiList(
+            @NonNull Consumer<Consumer<DTO>> producer, String nextCursor) {
+        final MediaType mediaType = streamingMediaType();
+        if (null == mediaType) {
+            List<DTO> body = new ArrayList<>();
+            producer.accept(body::add);
+            return ResponseEntity.ok().header(NEXT_CURSOR_HEADER, nextCursor).body(body);
+        }
+        try {
+            OutputStream out = okResponse(mediaType, nextCursor);
+            if (APPLICATION_NDJSON.equals(mediaType)) {
+                try (NdjsonWriter writer = new NdjsonWriter(objectMapper, out)) {
+                    producer.accept(writer::write);
+                }
+            } else {
+                writeJsonArray(producer, out);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return null;
+    }
+
+    private void writeJsonArray(Consumer<Consumer<DTO>> producer, OutputStream out)
+            throws IOException {
+        ObjectWriter writer =
+                objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            if (objectMapper.isEnabled(SerializationFeature.INDENT_OUTPUT)) {
+                generator.useDefaultPrettyPrinter();
+            }
+            generator.writeStartArray();
+            producer.accept(
+                    value -> {
+                        try {
+                            writer.writeValue(generator, value);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+            generator.writeEndArray();
+        }
+    }
+
+    /**
+     * @return the streaming media type preferred by the {@code Accept} header, or {@code null} if
+     *     it prefers one that's not streamed
+     */
+    private MediaType streamingMediaType() {
+        List<MediaType> accepted = acceptedMediaTypes();
+        if (accepted.isEmpty()) return MediaType.APPLICATION_JSON;
+
+        for (MediaType mediaType : accepted) {
+            if (mediaType.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+                return MediaType.APPLICATION_JSON;
+            }
+            if (mediaType.isCompatibleWith(APPLICATION_NDJSON)) {
+                return APPLICATION_NDJSON;
+            }
+        }
+        return null;
+    }
+
+    private OutputStream okResponse(MediaType contentType, String nextCursor) throws IOException {
+        HttpServletResponse response = nativeRequest.getNativeResponse(HttpServletResponse.class);
+        Objects.requireNonNull(response, "Expected a HttpServletResponse");
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(contentType.toString());
+        if (null != nextCursor) {
+            response.setHeader(NEXT_CURSOR_HEADER, nextCursor);
+        }
+        return response.getOutputStream();
+    }
+
+    /**
+     * Reads newline-delimited JSON values from {@code body} and passes them to {@code importer} in
+     * batches of {@code batchSize}, each batch expected to be committed on its own.
+     *
+     * <p>The request body is read incrementally, so memory usage is bound by the batch size. An
+     * {@link ImportProgress} line is streamed to the response after each batch, and a final one
+     * with {@code done=true}, or with the error that stopped the import. Errors on the first batch
+     * are returned as a {@code 400} or {@code 409} (for {@code conflictType} exceptions) response
+     * instead.
+     *
+     * @return {@code null} if the response was streamed, the error response otherwise
+     */
+    public <V> ResponseEntity<Resource> importNdjson(
+            @NonNull InputStreamResource body,
+            @NonNull Class<V> type,
+            Integer batchSize,
+            @NonNull Consumer<List<V>> importer,
+            @NonNull Class<? extends RuntimeException> conflictType) {
+
+        final int size = null == batchSize ? 1000 : batchSize;
+        if (size < 1) {
+            return error(HttpStatus.BAD_REQUEST, "batchSize must be > 0, got " + size);
+        }
+        long imported = 0;
+        NdjsonWriter progress = null;
+        try (MappingIterator<V> values =
+                objectMapper.readerFor(type).readValues(body.getInputStream())) {
+            List<V> batch = new ArrayList<>(size);
+            do {
+                batch.clear();
+                while (batch.size() < size && values.hasNextValue()) {
+                    batch.add(values.nextValue());
+                }
+                if (!batch.isEmpty()) {
+                    importer.accept(batch);
+                    imported += batch.size();
+                    if (null == progress) progress = ndjsonResponse();
+                    progress.write(new ImportProgress().imported(imported).done(false));
+                    progress.flush();
+                }
+            } while (batch.size() == size);
+        } catch (IOException | RuntimeException e) {
+            final HttpStatus status;
+            if (conflictType.isInstance(e)) {
+                status = HttpStatus.CONFLICT;
+            } else if (e instanceof JsonProcessingException
+                    || e instanceof IllegalArgumentException) {
+                status = HttpStatus.BAD_REQUEST;
+            } else {
+                status = HttpStatus.INTERNAL_SERVER_ERROR;
+            }
+            String reason = "Import stopped after " + imported + " records: " + e.getMessage();
+            if (null == progress) {
+                log.warn(reason);
+                return error(status, reason);
+            }
+            log.warn(reason, e);
+            progress.write(new ImportProgress().imported(imported).done(false).error(reason));
+            progress.close();
+            return null;
+        }
+        if (null == progress) progress = ndjsonResponse();
+        progress.write(new ImportProgress().imported(imported).done(true));
+        progress.close();
+        return null;
+    }
+
+    /**
+     * Encodes geometries as WKT if the preferred response media type is JSON or not specified, and
+     * as WKB otherwise, which binary formats like Smile carry as raw bytes.
+     */
+    public void setPreferredGeometryEncoding() {
+        List<MediaType> accepted = acceptedMediaTypes();
+        boolean useWkb =
+                !accepted.isEmpty()
+                        && !MediaType.APPLICATION_JSON.isCompatibleWith(accepted.get(0));
         GeometryApiMapper.setUseWkb(useWkb);
     }
+
+    /**
+     * @return the {@code Accept} header media types, most preferred first
+     */
+    private List<MediaType> acceptedMediaTypes() {
+        String accept = nativeRequest.getHeader("Accept");
+        if (!StringUtils.hasText(accept)) return List.of();
+
+        List<MediaType> accepted = MediaType.parseMediaTypes(accept);
+        MediaType.sortBySpecificityAndQuality(accepted);
+        return accepted;
+    }
 }
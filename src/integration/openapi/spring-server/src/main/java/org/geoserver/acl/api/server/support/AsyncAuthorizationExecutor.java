@@ -0,0 +1,303 @@
+/* (c) 2023  Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.acl.api.server.support;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * Runs the authorization requests off the servlet threads, on a fixed number of worker threads fed
+ * by a bounded queue. A slow database then ties up the worker threads and a bounded number of
+ * waiting requests, instead of every server thread.
+ *
+ * <p>A task that can't be queued fails right away with a {@link RejectedExecutionException}, and
+ * one whose deadline passed while it was queued fails with a {@link DeadlineExceededException}
+ * without being run, since its client has stopped waiting for it.
+ *
+ * <p>Tasks don't see the servlet request, which is recycled once its asynchronous processing times
+ * out while the task may still be running, but a {@link #detach detached copy} of its headers.
+ * Their remaining time is available to them through {@link #remainingTime()}, for instance to bound
+ * their database queries.
+ *
+ * <p>The time tasks spend queued is tracked, see {@link #getAverageQueueTime()} and {@link
+ * #getMaxQueueTime()}, and the executor's figures can be published through JMX, see {@link
+ * #registerMBean(MBeanServer)}.
+ *
+ * @since 1.0
+ */
+@Slf4j
+public class AsyncAuthorizationExecutor implements AsyncAuthorizationExecutorMBean, Closeable {
+
+    /** Wraps the tasks before they're run by the worker threads */
+    @FunctionalInterface
+    public interface Decorator {
+        Runnable decorate(Runnable task);
+    }
+
+    /** Thrown when a task's deadline passes before a worker thread picks it up */
+    @SuppressWarnings("serial")
+    public static class DeadlineExceededException extends RuntimeException {
+        public DeadlineExceededException(String message) {
+            super(message);
+        }
+    }
+
+    /** JMX name of the executor's {@link AsyncAuthorizationExecutorMBean} */
+    public static final String OBJECT_NAME = "org.geoserver.acl:type=AsyncAuthorizationExecutor";
+
+    /** {@link System#nanoTime()} based deadline of the task run by the current worker thread */
+    private static final ThreadLocal<Long> DEADLINE = new ThreadLocal<>();
+
+    private final @Getter int threads;
+    private final @Getter int queueCapacity;
+    private final @Getter Duration retryAfter;
+    private final ThreadPoolExecutor executor;
+
+    private Decorator decorator = task -> task;
+
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+    private final LongAdder dequeued = new LongAdder();
+    private final LongAdder totalQueueNanos = new LongAdder();
+    private final LongAccumulator maxQueueNanos = new LongAccumulator(Math::max, 0);
+
+    private MBeanServer mbeanServer;
+
+    /**
+     * @param threads number of worker threads, and hence of authorization requests evaluated at the
+     *     same time
+     * @param queueCapacity how many requests can wait for a worker thread before new ones are
+     *     rejected
+     * @param retryAfter the delay rejected clients are told to wait before retrying
+     */
+    public AsyncAuthorizationExecutor(
+            int threads, int queueCapacity, @NonNull Duration retryAfter) {
+        if (threads < 1) throw new IllegalArgumentException("threads must be > 0: " + threads);
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("queueCapacity must be > 0: " + queueCapacity);
+        }
+        this.threads = threads;
+        this.queueCapacity = queueCapacity;
+        this.retryAfter = retryAfter;
+        this.executor =
+                new ThreadPoolExecutor(
+                        threads,
+                        threads,
+                        60,
+                        TimeUnit.SECONDS,
+                        new ArrayBlockingQueue<>(queueCapacity),
+                        new CustomizableThreadFactory("acl-authorization-"),
+                        new ThreadPoolExecutor.AbortPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    public void setDecorator(@NonNull Decorator decorator) {
+        this.decorator = decorator;
+    }
+
+    /**
+     * Queues {@code task} for execution on a worker thread, which will see a {@link #detach
+     * detached copy} of the calling thread's {@link RequestContextHolder request attributes}.
+     *
+     * @param timeout how long the caller is willing to wait for the result, the task is not run if
+     *     it's still queued after that time
+     * @return the future result of {@code task}, failed with a {@link RejectedExecutionException}
+     *     if the queue is full, or a {@link DeadlineExceededException} if {@code timeout} elapsed
+     *     before a worker thread got to it
+     */
+    public <T> CompletableFuture<T> submit(@NonNull Duration timeout, @NonNull Supplier<T> task) {
+        final long queuedAt = System.nanoTime();
+        final long deadline = queuedAt + timeout.toNanos();
+        final RequestAttributes attributes = detach(RequestContextHolder.getRequestAttributes());
+        final CompletableFuture<T> result = new CompletableFuture<>();
+
+        Runnable run =
+                () -> {
+                    final long now = System.nanoTime();
+                    recordQueueTime(now - queuedAt);
+                    if (result.isDone()) return; // cancelled while queued
+                    if (now - deadline >= 0) {
+                        expired.increment();
+                        result.completeExceptionally(
+                                new DeadlineExceededException(
+                                        "Deadline of " + timeout.toMillis() + "ms exceeded"));
+                        return;
+                    }
+                    RequestContextHolder.setRequestAttributes(attributes);
+                    try {
+                        result.complete(task.get());
+                    } catch (RuntimeException | Error e) {
+                        result.completeExceptionally(e);
+                    } finally {
+                        RequestContextHolder.resetRequestAttributes();
+                        completed.increment();
+                    }
+                };
+        final Runnable decorated = decorator.decorate(run);
+        try {
+            executor.execute(
+                    () -> {
+                        DEADLINE.set(deadline);
+                        try {
+                            decorated.run();
+                        } finally {
+                            DEADLINE.remove();
+                        }
+                    });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            log.debug("Authorization queue full ({} waiting), rejecting request", queueCapacity);
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    /**
+     * @return the time left until the deadline of the task run by the calling thread, including its
+     *     {@link Decorator}, empty if not called from a task
+     */
+    public static Optional<Duration> remainingTime() {
+        Long deadline = DEADLINE.get();
+        if (null == deadline) return Optional.empty();
+        return Optional.of(Duration.ofNanos(Math.max(0, deadline - System.nanoTime())));
+    }
+
+    /**
+     * Copies the headers of the servlet request of {@code attributes}, so that the task doesn't
+     * hold on to the request, which the container recycles once the client's deadline passed, while
+     * the task may still be running. The copy has no response, and its request attributes start
+     * empty.
+     *
+     * @return the detached copy, or {@code null} if {@code attributes} is not bound to a servlet
+     *     request
+     */
+    static RequestAttributes detach(RequestAttributes attributes) {
+        if (!(attributes instanceof ServletRequestAttributes)) return null;
+        HttpServletRequest request = ((ServletRequestAttributes) attributes).getRequest();
+        return new ServletRequestAttributes(DetachedRequest.copyOf(request));
+    }
+
+    private void recordQueueTime(long nanos) {
+        dequeued.increment();
+        totalQueueNanos.add(nanos);
+        maxQueueNanos.accumulate(nanos);
+    }
+
+    /**
+     * @return the number of tasks being run
+     */
+    @Override
+    public int getActive() {
+        return executor.getActiveCount();
+    }
+
+    /**
+     * @return the number of tasks waiting for a worker thread
+     */
+    @Override
+    public int getQueued() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * @return the number of tasks run, successfully or not
+     */
+    @Override
+    public long getCompletedCount() {
+        return completed.sum();
+    }
+
+    /**
+     * @return the number of tasks rejected because the queue was full
+     */
+    @Override
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * @return the number of tasks not run because their deadline passed while queued
+     */
+    @Override
+    public long getExpiredCount() {
+        return expired.sum();
+    }
+
+    /**
+     * @return the average time tasks waited for a worker thread
+     */
+    public Duration getAverageQueueTime() {
+        long count = dequeued.sum();
+        return Duration.ofNanos(count == 0 ? 0 : totalQueueNanos.sum() / count);
+    }
+
+    /**
+     * @return the longest time a task waited for a worker thread
+     */
+    public Duration getMaxQueueTime() {
+        return Duration.ofNanos(maxQueueNanos.get());
+    }
+
+    @Override
+    public long getAverageQueueTimeMillis() {
+        return getAverageQueueTime().toMillis();
+    }
+
+    @Override
+    public long getMaxQueueTimeMillis() {
+        return getMaxQueueTime().toMillis();
+    }
+
+    /**
+     * Publishes the executor's figures as the {@link #OBJECT_NAME} MBean of {@code server}, until
+     * it's {@link #close() closed}. A failure to register is logged, not propagated.
+     */
+    public synchronized void registerMBean(@NonNull MBeanServer server) {
+        try {
+            server.registerMBean(this, new ObjectName(OBJECT_NAME));
+            this.mbeanServer = server;
+        } catch (JMException e) {
+            log.warn("Unable to register the {} MBean: {}", OBJECT_NAME, e.getMessage());
+        }
+    }
+
+    /** Stops accepting tasks, the queued ones are still run */
+    @Override
+    public synchronized void close() {
+        executor.shutdown();
+        if (null != mbeanServer) {
+            try {
+                mbeanServer.unregisterMBean(new ObjectName(OBJECT_NAME));
+            } catch (JMException e) {
+                log.debug("Error unregistering the {} MBean", OBJECT_NAME, e);
+            }
+            mbeanServer = null;
+        }
+    }
+}
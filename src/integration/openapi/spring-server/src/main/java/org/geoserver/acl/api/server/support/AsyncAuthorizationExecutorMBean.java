@@ -0,0 +1,31 @@
+/* (c) 2023  Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.acl.api.server.support;
+
+/**
+ * JMX view of an {@link AsyncAuthorizationExecutor}'s pool and queue.
+ *
+ * @since 1.0
+ */
+public interface AsyncAuthorizationExecutorMBean {
+
+    int getThreads();
+
+    int getQueueCapacity();
+
+    int getActive();
+
+    int getQueued();
+
+    long getCompletedCount();
+
+    long getRejectedCount();
+
+    long getExpiredCount();
+
+    long getAverageQueueTimeMillis();
+
+    long getMaxQueueTimeMillis();
+}
@@ -0,0 +1,241 @@
+/* (c) 2023  Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.acl.api.server.support;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Isolates the authorization requests from the administration ones, so that heavy administration
+ * calls (large rule listings, priority shifts, bulk imports) can't take all the server threads and
+ * push up the latency of the access checks GeoServer is waiting on.
+ *
+ * <p>Each kind of request gets a {@link Bulkhead} limiting how many of them run at once. When all
+ * the slots are taken, only {@link Bulkhead#getMaxWaiting() max waiting} requests can wait for one,
+ * for up to the bulkhead's {@link Bulkhead#getMaxWait() max wait}, since each of them holds a
+ * server thread. Any other request is answered right away with {@code 503 Service Unavailable} and
+ * a {@code Retry-After} header.
+ *
+ * <p>Authorization requests are the ones under {@code /authorization}, administration requests the
+ * ones under {@code /rules} and {@code /adminrules}. Anything else is not limited, including the
+ * long-polling {@code /rules/changes} feed, whose requests wait for changes for up to a minute and
+ * would otherwise hold the administration slots while idle.
+ *
+ * <p>A request that goes {@link ServletRequest#startAsync() asynchronous} (e.g. the asynchronous
+ * authorization calls) keeps its slot until the asynchronous processing completes, times out, or
+ * fails, not just until the servlet thread is released.
+ *
+ * @since 1.0
+ */
+public class BulkheadFilter implements javax.servlet.Filter, Ordered {
+
+    private static final Pattern AUTHORIZATION_PATH = Pattern.compile(".*/authorization(/.*)?");
+    private static final Pattern ADMINISTRATION_PATH =
+            Pattern.compile(".*/(rules|adminrules)(/.*)?");
+    private static final Pattern CHANGES_PATH = Pattern.compile(".*/rules/changes/?");
+
+    private final @Getter Bulkhead authorization;
+    private final @Getter Bulkhead administration;
+
+    public BulkheadFilter(@NonNull Bulkhead authorization, @NonNull Bulkhead administration) {
+        this.authorization = authorization;
+        this.administration = administration;
+    }
+
+    /** Runs before the other filters, so rejected requests cost as little as possible */
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 1;
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+
+        final Bulkhead bulkhead = bulkheadFor((HttpServletRequest) request);
+        if (null == bulkhead) {
+            chain.doFilter(request, response);
+            return;
+        }
+        if (!bulkhead.tryEnter()) {
+            reject(bulkhead, (HttpServletResponse) response);
+            return;
+        }
+        boolean async = false;
+        try {
+            chain.doFilter(request, response);
+            async = request.isAsyncStarted();
+            if (async) {
+                // completion is deferred until this thread returns, the listener can't miss it
+                request.getAsyncContext().addListener(new AsyncExit(bulkhead));
+            }
+        } finally {
+            if (!async) bulkhead.exit();
+        }
+    }
+
+    /** Releases the slot of an asynchronous request once, whichever way it ends */
+    private static class AsyncExit implements AsyncListener {
+        private final Bulkhead bulkhead;
+        private final AtomicBoolean exited = new AtomicBoolean();
+
+        AsyncExit(Bulkhead bulkhead) {
+            this.bulkhead = bulkhead;
+        }
+
+        private void exit() {
+            if (exited.compareAndSet(false, true)) bulkhead.exit();
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            exit();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            exit();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            exit();
+        }
+
+        /** Listeners are dropped when the request is put in asynchronous mode again */
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+
+    private Bulkhead bulkheadFor(HttpServletRequest req) {
+        if (isAuthorizationRequest(req)) return authorization;
+        String path = path(req);
+        if (CHANGES_PATH.matcher(path).matches()) return null;
+        if (ADMINISTRATION_PATH.matcher(path).matches()) return administration;
+        return null;
+    }
+
+    /**
+     * @return whether {@code req} is an authorization request, as opposed to an administration one
+     */
+    public static boolean isAuthorizationRequest(HttpServletRequest req) {
+        return AUTHORIZATION_PATH.matcher(path(req)).matches();
+    }
+
+    private static String path(HttpServletRequest req) {
+        return req.getRequestURI().substring(req.getContextPath().length());
+    }
+
+    private void reject(Bulkhead bulkhead, HttpServletResponse res) {
+        long retryAfter = Math.max(1, (bulkhead.getRetryAfter().toMillis() + 999) / 1000);
+        res.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        res.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+        res.setHeader("X-Reason", "Too many concurrent " + bulkhead.getName() + " requests");
+    }
+
+    /**
+     * Limits the number of requests of a kind running at the same time.
+     *
+     * @since 1.0
+     */
+    public static class Bulkhead {
+        private final @Getter String name;
+        private final @Getter int maxConcurrent;
+        private final @Getter int maxWaiting;
+        private final @Getter Duration maxWait;
+        private final @Getter Duration retryAfter;
+        private final Semaphore permits;
+        private final AtomicInteger waiting = new AtomicInteger();
+
+        /**
+         * @param name the kind of requests, used in the rejection reason
+         * @param maxConcurrent how many requests can run at the same time
+         * @param maxWaiting how many requests can wait for a slot at the same time, zero to reject
+         *     them right away when there's none
+         * @param maxWait how long a request can wait for a slot before being rejected, zero to
+         *     reject it right away
+         * @param retryAfter the delay rejected clients are told to wait before retrying
+         */
+        public Bulkhead(
+                @NonNull String name,
+                int maxConcurrent,
+                int maxWaiting,
+                @NonNull Duration maxWait,
+                @NonNull Duration retryAfter) {
+            if (maxConcurrent < 1) {
+                throw new IllegalArgumentException(
+                        name + " maxConcurrent must be > 0: " + maxConcurrent);
+            }
+            if (maxWaiting < 0) {
+                throw new IllegalArgumentException(
+                        name + " maxWaiting must be >= 0: " + maxWaiting);
+            }
+            this.name = name;
+            this.maxConcurrent = maxConcurrent;
+            this.maxWaiting = maxWaiting;
+            this.maxWait = maxWait;
+            this.retryAfter = retryAfter;
+            this.permits = new Semaphore(maxConcurrent, true);
+        }
+
+        boolean tryEnter() {
+            if (permits.tryAcquire()) return true;
+            if (maxWait.isZero() || maxWait.isNegative()) return false;
+            if (waiting.incrementAndGet() > maxWaiting) {
+                waiting.decrementAndGet();
+                return false;
+            }
+            try {
+                return permits.tryAcquire(maxWait.toNanos(), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            } finally {
+                waiting.decrementAndGet();
+            }
+        }
+
+        void exit() {
+            permits.release();
+        }
+
+        /**
+         * @return the number of requests running
+         */
+        public int getActive() {
+            return maxConcurrent - permits.availablePermits();
+        }
+
+        /**
+         * @return the number of requests waiting for a slot
+         */
+        public int getWaiting() {
+            return waiting.get();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+/* (c) 2023  Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.acl.api.server.support;
+
+import lombok.NonNull;
+
+import org.springframework.util.LinkedCaseInsensitiveMap;
+
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * A copy of the method, path and headers of a servlet request, that stays valid after the request
+ * is recycled by the container. Its request attributes start empty, any other method throws {@link
+ * UnsupportedOperationException}.
+ *
+ * @since 1.0
+ */
+class DetachedRequest {
+
+    private final String method;
+    private final String requestURI;
+    private final String contextPath;
+    private final Map<String, List<String>> headers = new LinkedCaseInsensitiveMap<>();
+    private final Map<String, Object> attributes = Collections.synchronizedMap(new HashMap<>());
+
+    private DetachedRequest(HttpServletRequest request) {
+        this.method = request.getMethod();
+        this.requestURI = request.getRequestURI();
+        this.contextPath = request.getContextPath();
+        for (String name : Collections.list(request.getHeaderNames())) {
+            headers.put(name, Collections.list(request.getHeaders(name)));
+        }
+    }
+
+    public static HttpServletRequest copyOf(@NonNull HttpServletRequest request) {
+        DetachedRequest copy = new DetachedRequest(request);
+        return (HttpServletRequest)
+                Proxy.newProxyInstance(
+                        DetachedRequest.class.getClassLoader(),
+                        new Class<?>[] {HttpServletRequest.class},
+                        (proxy, m, args) -> copy.invoke(proxy, m.getName(), args));
+    }
+
+    private Object invoke(Object proxy, String name, Object[] args) {
+        switch (name) {
+            case "getMethod":
+                return method;
+            case "getRequestURI":
+                return requestURI;
+            case "getContextPath":
+                return contextPath;
+            case "getHeader":
+                List<String> values = headers.get((String) args[0]);
+                return null == values || values.isEmpty() ? null : values.get(0);
+            case "getHeaders":
+                return Collections.enumeration(
+                        headers.getOrDefault((String) args[0], Collections.emptyList()));
+            case "getHeaderNames":
+                return Collections.enumeration(headers.keySet());
+            case "getAttribute":
+                return attributes.get((String) args[0]);
+            case "getAttributeNames":
+                return Collections.enumeration(List.copyOf(attributes.keySet()));
+            case "setAttribute":
+                if (null == args[1]) attributes.remove((String) args[0]);
+                else attributes.put((String) args[0], args[1]);
+                return null;
+            case "removeAttribute":
+                attributes.remove((String) args[0]);
+                return null;
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "toString":
+                return "DetachedRequest[" + method + " " + requestURI + "]";
+            default:
+                throw new UnsupportedOperationException(
+                        name + " is not available on a detached request");
+        }
+    }
+}
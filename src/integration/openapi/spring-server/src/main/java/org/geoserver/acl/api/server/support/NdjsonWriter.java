@@ -0,0 +1,73 @@
+/* (c) 2023  Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.acl.api.server.support;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import lombok.NonNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Writes values as newline-delimited JSON, one value per line, to an {@link OutputStream}.
+ *
+ * <p>Values are always written in compact form, regardless of the {@code ObjectMapper}'s {@link
+ * SerializationFeature#INDENT_OUTPUT} setting, as each one must fit in a single line.
+ *
+ * <p>Values are buffered by the underlying {@link JsonGenerator} and only flushed to the output
+ * stream when the buffer is full, or when {@link #flush()} is called explicitly.
+ *
+ * @since 1.0
+ */
+public class NdjsonWriter implements Closeable {
+
+    private final ObjectWriter writer;
+    private final JsonGenerator generator;
+
+    public NdjsonWriter(@NonNull ObjectMapper mapper, @NonNull OutputStream out) {
+        this.writer =
+                mapper.writer()
+                        .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                        .without(SerializationFeature.INDENT_OUTPUT);
+        try {
+            this.generator = mapper.getFactory().createGenerator(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.generator.setRootValueSeparator(null);
+    }
+
+    public void write(Object value) {
+        try {
+            writer.writeValue(generator, value);
+            generator.writeRaw('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void flush() {
+        try {
+            generator.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            generator.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
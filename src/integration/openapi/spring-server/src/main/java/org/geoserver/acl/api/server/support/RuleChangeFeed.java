@@ -0,0 +1,187 @@
+/* (c) 2023  Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.acl.api.server.support;
+
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+
+import org.geoserver.acl.domain.adminrules.AdminRuleEvent;
+import org.geoserver.acl.domain.rules.RuleChange;
+import org.geoserver.acl.domain.rules.RuleChange.RuleType;
+import org.geoserver.acl.domain.rules.RuleChangeLog;
+import org.geoserver.acl.domain.rules.RuleEvent;
+import org.geoserver.acl.domain.rules.RuleEvent.EventType;
+import org.springframework.context.event.EventListener;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records every {@link RuleEvent} and {@link AdminRuleEvent} in the {@link RuleChangeLog}, and
+ * serves the recorded changes to clients following the log, optionally waiting for new ones.
+ *
+ * <p>Events are only recorded if the log is not {@link RuleChangeLog#isAppendedByRepositories()
+ * appended by the repositories}, in the same transaction as the changes. Either way, they wake up
+ * the waiting requests.
+ *
+ * <p>Waiting requests don't query the log each on their own. They wait for the latest sequence
+ * number of the log to go past their {@code since}, which is queried at most once every {@link
+ * #POLL_INTERVAL} to pick up the changes made by other instances sharing the log, and right after
+ * an event for the local ones.
+ *
+ * @since 1.0
+ */
+@RequiredArgsConstructor
+public class RuleChangeFeed {
+
+    /**
+     * Maximum time between two queries of the log's latest sequence number, to pick up the changes
+     * recorded by other instances sharing the same log
+     */
+    static final Duration POLL_INTERVAL = Duration.ofSeconds(1);
+
+    private final @NonNull RuleChangeLog log;
+
+    private final Object monitor = new Object();
+
+    /** Latest known {@link RuleChangeLog#lastSequence()}, guarded by {@link #monitor} */
+    private long head;
+
+    /** {@link System#nanoTime()} of the last {@link #head} query, guarded by {@link #monitor} */
+    private long headQueriedAt;
+
+    /** Number of events received, starts ahead to query the {@link #head} on first use */
+    private long eventCount = 1;
+
+    /** {@link #eventCount} as of the last {@link #head} query, guarded by {@link #monitor} */
+    private long queriedEventCount;
+
+    /** Whether a thread is querying the {@link #head}, guarded by {@link #monitor} */
+    private boolean querying;
+
+    @EventListener(RuleEvent.class)
+    public void onRuleEvent(RuleEvent event) {
+        append(RuleType.RULE, event.getEventType(), event.getRuleIds());
+    }
+
+    @EventListener(AdminRuleEvent.class)
+    public void onAdminRuleEvent(AdminRuleEvent event) {
+        EventType eventType = EventType.valueOf(event.getEventType().name());
+        append(RuleType.ADMIN_RULE, eventType, event.getRuleIds());
+    }
+
+    private void append(RuleType ruleType, EventType eventType, Set<String> ids) {
+        if (!log.isAppendedByRepositories()) {
+            log.append(ruleType, eventType, ids);
+        }
+        // the admin services publish their events once the changes are committed
+        synchronized (monitor) {
+            eventCount++;
+            monitor.notifyAll();
+        }
+    }
+
+    /**
+     * @return {@code true} if the changes after {@code since} can't be served, either because they
+     *     were discarded or because {@code since} is ahead of the log
+     */
+    public boolean isGone(long since) {
+        long first = log.firstSequence();
+        long last = log.lastSequence();
+        return since > last || (first > 0 && since < first - 1);
+    }
+
+    public long lastSequence() {
+        return log.lastSequence();
+    }
+
+    /**
+     * @see RuleChangeLog#epoch()
+     */
+    public String epoch() {
+        return log.epoch();
+    }
+
+    /**
+     * Returns up to {@code limit} changes after {@code since}, waiting up to {@code wait} for a
+     * change to be recorded if there are none yet.
+     *
+     * @return the changes after {@code since}, empty if none was recorded within {@code wait}
+     */
+    public List<RuleChange> findSince(long since, int limit, @NonNull Duration wait)
+            throws InterruptedException {
+        final long deadline = System.nanoTime() + wait.toNanos();
+        while (true) {
+            final long knownHead = knownHead();
+            List<RuleChange> changes = log.findSince(since, limit);
+            final long now = System.nanoTime();
+            if (!changes.isEmpty() || now - deadline >= 0) {
+                return changes;
+            }
+            if (knownHead > since) {
+                // the log had changes after since that it can't serve yet, check again later
+                long retry = now + POLL_INTERVAL.toNanos();
+                awaitHead(knownHead, deadline - retry < 0 ? deadline : retry);
+            } else {
+                awaitHead(since, deadline);
+            }
+        }
+    }
+
+    private long knownHead() {
+        synchronized (monitor) {
+            return head;
+        }
+    }
+
+    /**
+     * Waits until the known {@link #head} is greater than {@code sequence}, or {@link
+     * System#nanoTime()} reaches {@code until}, querying the log when the head is out of date and
+     * no other thread is querying it
+     */
+    private void awaitHead(long sequence, long until) throws InterruptedException {
+        while (true) {
+            final long events;
+            synchronized (monitor) {
+                while (true) {
+                    final long now = System.nanoTime();
+                    if (head > sequence || now - until >= 0) {
+                        return;
+                    }
+                    long nextQuery = headQueriedAt + POLL_INTERVAL.toNanos();
+                    boolean due = eventCount != queriedEventCount || now - nextQuery >= 0;
+                    if (due && !querying) {
+                        querying = true;
+                        events = eventCount;
+                        break;
+                    }
+                    // if due, the querying thread notifies when done
+                    long timeout = due || until - nextQuery < 0 ? until - now : nextQuery - now;
+                    TimeUnit.NANOSECONDS.timedWait(monitor, timeout);
+                }
+            }
+            queryHead(events);
+        }
+    }
+
+    private void queryHead(long events) {
+        Long last = null;
+        try {
+            last = log.lastSequence();
+        } finally {
+            synchronized (monitor) {
+                querying = false;
+                headQueriedAt = System.nanoTime();
+                queriedEventCount = events;
+                if (null != last) {
+                    head = last;
+                }
+                monitor.notifyAll();
+            }
+        }
+    }
+}
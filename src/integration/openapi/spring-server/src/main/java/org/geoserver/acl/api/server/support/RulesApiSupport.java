@@ -8,9 +8,11 @@ import lombok.NonNull;
 
 import org.geoserver.acl.api.mapper.LayerDetailsApiMapper;
 import org.geoserver.acl.api.mapper.RuleApiMapper;
+import org.geoserver.acl.api.mapper.RuleChangeApiMapper;
 import org.geoserver.acl.api.mapper.RuleLimitsApiMapper;
 import org.geoserver.acl.api.model.Rule;
 import org.geoserver.acl.domain.rules.LayerDetails;
+import org.geoserver.acl.domain.rules.RuleChange;
 import org.geoserver.acl.domain.rules.RuleLimits;
 import org.springframework.web.context.request.NativeWebRequest;
 
@@ -18,16 +20,19 @@ public class RulesApiSupport extends ApiImplSupport<Rule, org.geoserver.acl.doma
 
     private final @NonNull LayerDetailsApiMapper layerDetailsMapper;
     private final @NonNull RuleLimitsApiMapper limitsMapper;
+    private final @NonNull RuleChangeApiMapper changeMapper;
 
     public RulesApiSupport(
             @NonNull NativeWebRequest nativeRequest,
             RuleApiMapper mapper,
             LayerDetailsApiMapper layerDetailsMapper,
-            RuleLimitsApiMapper limitsMapper) {
+            RuleLimitsApiMapper limitsMapper,
+            RuleChangeApiMapper changeMapper) {
 
         super(nativeRequest, mapper::toApi, mapper::toModel);
         this.layerDetailsMapper = layerDetailsMapper;
         this.limitsMapper = limitsMapper;
+        this.changeMapper = changeMapper;
     }
 
     public RuleLimits toModel(org.geoserver.acl.api.model.RuleLimits ruleLimits) {
@@ -41,4 +46,8 @@ public class RulesApiSupport extends ApiImplSupport<Rule, org.geoserver.acl.doma
     public org.geoserver.acl.api.model.LayerDetails toApi(LayerDetails layerDetails) {
         return layerDetailsMapper.map(layerDetails);
     }
+
+    public org.geoserver.acl.api.model.RuleChange toApi(RuleChange change) {
+        return changeMapper.toApi(change);
+    }
 }
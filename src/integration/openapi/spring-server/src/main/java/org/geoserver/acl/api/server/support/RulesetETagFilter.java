@@ -0,0 +1,103 @@
+/* (c) 2023  Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.acl.api.server.support;
+
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.regex.Pattern;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Tags the responses of the rules and admin rules read operations with an {@code ETag} holding the
+ * ruleset version, and answers {@code 304 Not Modified} when the request's {@code If-None-Match}
+ * header matches it, so that clients polling for changes don't download the ruleset again.
+ *
+ * <p>Read operations are {@code GET} requests to {@code /rules} and {@code /adminrules}, and the
+ * {@code POST} queries under {@code /rules/query} and {@code /adminrules/query}. The {@code
+ * /rules/changes} feed is excluded, it's versioned by its own sequence numbers.
+ *
+ * <p>The version is the {@link RuleChangeFeed#lastSequence() last sequence number} of the rule
+ * change log, prefixed by its {@link RuleChangeFeed#epoch() epoch}. It only advances once the
+ * changes are committed, and instances sharing the change log tag the same ruleset alike. The
+ * responses carry a {@code Vary: Accept} header, since the same version is served in different
+ * formats and geometry encodings.
+ *
+ * @since 1.0
+ */
+@RequiredArgsConstructor
+public class RulesetETagFilter implements javax.servlet.Filter {
+
+    private static final Pattern READ_PATH = Pattern.compile(".*/(rules|adminrules)(/.*)?");
+    private static final Pattern QUERY_PATH = Pattern.compile(".*/(rules|adminrules)/query(/.*)?");
+    private static final Pattern CHANGES_PATH = Pattern.compile(".*/rules/changes(/.*)?");
+
+    private final @NonNull RuleChangeFeed changeFeed;
+
+    /**
+     * @return the weak {@code ETag} of the current ruleset version
+     */
+    public String getETag() {
+        final String epoch = changeFeed.epoch();
+        final long sequence = changeFeed.lastSequence();
+        return "W/\"" + (epoch.isEmpty() ? "" : epoch + "-") + sequence + "\"";
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+
+        HttpServletRequest req = (HttpServletRequest) request;
+        if (isRead(req)) {
+            // taken before the request is served, a concurrent change leads to a refetch
+            final String etag = getETag();
+            HttpServletResponse res = (HttpServletResponse) response;
+            res.setHeader(HttpHeaders.ETAG, etag);
+            res.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+            if (matches(req, etag)) {
+                res.setStatus(HttpStatus.NOT_MODIFIED.value());
+                return;
+            }
+        }
+        chain.doFilter(request, response);
+    }
+
+    private boolean isRead(HttpServletRequest req) {
+        String path = req.getRequestURI().substring(req.getContextPath().length());
+        String method = req.getMethod();
+        if ("GET".equalsIgnoreCase(method) || "HEAD".equalsIgnoreCase(method)) {
+            return READ_PATH.matcher(path).matches() && !CHANGES_PATH.matcher(path).matches();
+        }
+        return "POST".equalsIgnoreCase(method) && QUERY_PATH.matcher(path).matches();
+    }
+
+    private boolean matches(HttpServletRequest req, String etag) {
+        final String opaqueTag = stripWeak(etag);
+        for (String header : Collections.list(req.getHeaders(HttpHeaders.IF_NONE_MATCH))) {
+            for (String tag : header.split(",")) {
+                tag = tag.trim();
+                if ("*".equals(tag) || opaqueTag.equals(stripWeak(tag))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static String stripWeak(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+}
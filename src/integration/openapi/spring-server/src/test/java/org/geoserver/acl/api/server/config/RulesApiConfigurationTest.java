@@ -17,6 +17,7 @@ import org.geoserver.acl.api.server.AdminRulesApiDelegate;
 import org.geoserver.acl.api.server.RulesApiController;
 import org.geoserver.acl.api.server.RulesApiDelegate;
 import org.geoserver.acl.domain.adminrules.AdminRuleRepository;
+import org.geoserver.acl.domain.rules.RuleChangeLog;
 import org.geoserver.acl.domain.rules.RuleRepository;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.UnsatisfiedDependencyException;
@@ -34,6 +35,7 @@ class RulesApiConfigurationTest {
         runner = withMock(NativeWebRequest.class);
         runner = withMock(RuleRepository.class);
         runner = withMock(AdminRuleRepository.class);
+        runner = withMock(RuleChangeLog.class);
         return runner;
     }
 
@@ -61,6 +63,7 @@ class RulesApiConfigurationTest {
     @Test
     void testMissingRuleRepository() {
         runner = withMock(AdminRuleRepository.class);
+        runner = withMock(RuleChangeLog.class);
         runner.run(
                 context -> {
                     assertThat(context)
@@ -74,6 +77,7 @@ class RulesApiConfigurationTest {
     @Test
     void testMissingAdminRuleRepository() {
         runner = withMock(RuleRepository.class);
+        runner = withMock(RuleChangeLog.class);
         runner.run(
                 context -> {
                     assertThat(context)
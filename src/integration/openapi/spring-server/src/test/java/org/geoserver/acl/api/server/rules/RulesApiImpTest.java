@@ -9,6 +9,7 @@ import static org.junit.jupiter.api.Assertions.fail;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -17,37 +18,59 @@ import static org.mockito.Mockito.when;
 import static org.springframework.http.HttpStatus.BAD_REQUEST;
 import static org.springframework.http.HttpStatus.CONFLICT;
 import static org.springframework.http.HttpStatus.CREATED;
+import static org.springframework.http.HttpStatus.GONE;
 import static org.springframework.http.HttpStatus.NOT_FOUND;
 import static org.springframework.http.HttpStatus.OK;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.geoserver.acl.api.model.RuleBatchOperation;
+import org.geoserver.acl.api.model.RuleBatchOperation.OpEnum;
 import org.geoserver.acl.api.server.config.RulesApiConfiguration;
 import org.geoserver.acl.api.server.support.RulesApiSupport;
 import org.geoserver.acl.domain.adminrules.AdminRuleAdminService;
 import org.geoserver.acl.domain.filter.RuleQuery;
 import org.geoserver.acl.domain.rules.InsertPosition;
+import org.geoserver.acl.domain.rules.LayerDetails;
 import org.geoserver.acl.domain.rules.Rule;
 import org.geoserver.acl.domain.rules.RuleAdminService;
+import org.geoserver.acl.domain.rules.RuleBatch;
+import org.geoserver.acl.domain.rules.RuleChange;
+import org.geoserver.acl.domain.rules.RuleChangeLog;
+import org.geoserver.acl.domain.rules.RuleEvent;
 import org.geoserver.acl.domain.rules.RuleFilter;
 import org.geoserver.acl.domain.rules.RuleIdentifierConflictException;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.BiConsumer;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 @SpringBootTest(classes = RulesApiConfiguration.class)
 class RulesApiImpTest {
 
     private @MockBean RuleAdminService rules;
     private @MockBean AdminRuleAdminService adminRules;
+    private @MockBean RuleChangeLog changeLog;
 
     private @Autowired RulesApiSupport support;
     private @Autowired RulesApiImpl api;
@@ -94,6 +117,120 @@ class RulesApiImpTest {
         assertThat(responseEntity.getHeaders().get("X-Reason").get(0)).contains(reason);
     }
 
+    @Test
+    void testGetRuleChanges() {
+        RuleChange change =
+                new RuleChange(
+                        3,
+                        RuleChange.RuleType.RULE,
+                        RuleEvent.EventType.CREATED,
+                        Set.of("r1"),
+                        Instant.ofEpochMilli(1000));
+        when(changeLog.firstSequence()).thenReturn(3L);
+        when(changeLog.lastSequence()).thenReturn(3L);
+        when(changeLog.findSince(2, 1000)).thenReturn(List.of(change));
+
+        ResponseEntity<List<org.geoserver.acl.api.model.RuleChange>> response =
+                api.getRuleChanges(2L, null, null);
+        assertThat(response.getStatusCode()).isEqualTo(OK);
+        assertThat(response.getHeaders().getFirst(RulesApiImpl.CHANGE_SEQUENCE_HEADER))
+                .isEqualTo("3");
+        assertThat(response.getBody()).singleElement().isEqualTo(support.toApi(change));
+        assertThat(response.getBody().get(0).getTimestamp()).isEqualTo(1000L);
+
+        response = api.getRuleChanges(1L, null, null);
+        assertThat(response.getStatusCode()).isEqualTo(GONE);
+        assertThat(response.getHeaders().getFirst(RulesApiImpl.CHANGE_SEQUENCE_HEADER))
+                .isEqualTo("3");
+
+        assertError(() -> api.getRuleChanges(3L, 0, null), BAD_REQUEST, "Invalid");
+        assertError(
+                () -> api.getRuleChanges(3L, RulesApiImpl.MAX_CHANGES + 1, null),
+                BAD_REQUEST,
+                "Invalid");
+    }
+
+    @Test
+    void testGetLastRuleChangeSequence() {
+        when(changeLog.lastSequence()).thenReturn(7L);
+        ResponseEntity<Long> response = api.getLastRuleChangeSequence();
+        assertThat(response.getBody()).isEqualTo(7L);
+        assertThat(response.getHeaders().getFirst(RulesApiImpl.CHANGE_SEQUENCE_HEADER))
+                .isEqualTo("7");
+    }
+
+    @Test
+    void testFindRulesById() {
+        Rule allow = Rule.allow().withId("1").withPriority(1).withLayer("l1");
+        Rule deny = Rule.deny().withId("2").withPriority(2);
+        LayerDetails details = LayerDetails.builder().allowedStyles(Set.of("s1")).build();
+        doAnswer(
+                        invocation -> {
+                            BiConsumer<Rule, LayerDetails> consumer = invocation.getArgument(1);
+                            consumer.accept(allow, details);
+                            consumer.accept(deny, null);
+                            return null;
+                        })
+                .when(rules)
+                .getAllByIdWithDetails(eq(Set.of("1", "2", "3")), any());
+
+        ResponseEntity<List<org.geoserver.acl.api.model.Rule>> response =
+                api.findRulesById(Set.of("1", "2", "3"), List.of(RulesApiImpl.INCLUDE_DETAILS));
+        assertThat(response.getStatusCode()).isEqualTo(OK);
+        assertThat(response.getBody())
+                .containsExactly(
+                        support.toApi(allow).layerDetails(support.toApi(details)),
+                        support.toApi(deny));
+
+        response = api.findRulesById(Set.of("1", "2", "3"), null);
+        assertThat(response.getBody()).containsExactly(support.toApi(allow), support.toApi(deny));
+
+        Set<String> tooMany =
+                IntStream.rangeClosed(0, RulesApiImpl.MAX_IDS)
+                        .mapToObj(String::valueOf)
+                        .collect(Collectors.toSet());
+        assertError(() -> api.findRulesById(tooMany, null), BAD_REQUEST, "At most");
+    }
+
+    @Test
+    void testExecuteRuleBatch() {
+        Rule created = Rule.allow().withId("3").withLayer("l3");
+        Rule current = Rule.allow().withId("1").withPriority(1).withLayer("l1");
+        when(rules.execute(any())).thenReturn(Arrays.asList(created, null, current));
+
+        org.geoserver.acl.api.model.RuleBatch batch = new org.geoserver.acl.api.model.RuleBatch();
+        batch.addOperationsItem(
+                new RuleBatchOperation().op(OpEnum.CREATE).rule(support.toApi(Rule.allow())));
+        batch.addOperationsItem(new RuleBatchOperation().op(OpEnum.DELETE).id("2"));
+        batch.addOperationsItem(
+                new RuleBatchOperation()
+                        .op(OpEnum.PATCH)
+                        .id("1")
+                        .rule(new org.geoserver.acl.api.model.Rule().layer("l2")));
+
+        ResponseEntity<List<org.geoserver.acl.api.model.Rule>> response =
+                api.executeRuleBatch(batch);
+        assertThat(response.getStatusCode()).isEqualTo(OK);
+        assertThat(response.getBody())
+                .containsExactly(support.toApi(created), null, support.toApi(current));
+
+        ArgumentCaptor<RuleBatch> captor = ArgumentCaptor.forClass(RuleBatch.class);
+        verify(rules).execute(captor.capture());
+        List<RuleBatch.Operation> ops = captor.getValue().getOperations();
+        assertThat(ops.get(0).getType()).isEqualTo(RuleBatch.OperationType.CREATE);
+        assertThat(ops.get(0).getRule()).isEqualTo(Rule.allow());
+        assertThat(ops.get(0).getPosition()).isEqualTo(InsertPosition.FIXED);
+        assertThat(ops.get(1).getType()).isEqualTo(RuleBatch.OperationType.DELETE);
+        assertThat(ops.get(1).getId()).isEqualTo("2");
+        assertThat(ops.get(2).getType()).isEqualTo(RuleBatch.OperationType.PATCH);
+        assertThat(ops.get(2).getPatch().apply(current)).isEqualTo(current.withLayer("l2"));
+
+        batch = new org.geoserver.acl.api.model.RuleBatch();
+        batch.addOperationsItem(new RuleBatchOperation().op(OpEnum.DELETE));
+        org.geoserver.acl.api.model.RuleBatch incomplete = batch;
+        assertError(() -> api.executeRuleBatch(incomplete), BAD_REQUEST, "Incomplete DELETE");
+    }
+
     @Test
     void testDeleteRuleById() {
         when(rules.delete("id1")).thenReturn(true);
@@ -108,11 +245,164 @@ class RulesApiImpTest {
         List<Rule> expected = List.of(Rule.allow(), Rule.deny());
         when(rules.getAll(eq(expectedQuery))).thenReturn(expected.stream());
 
-        List<Rule> actual = assertList(() -> api.getRules(null, null), OK);
+        request().addHeader("Accept", "application/x-jackson-smile");
+        List<Rule> actual = assertList(() -> api.getRules(null, null, null, null, null), OK);
         assertThat(actual).isEqualTo(expected);
         verify(rules, times(1)).getAll(eq(expectedQuery));
     }
 
+    @Test
+    void testGetRulesIncludeDetails() {
+        RuleQuery<RuleFilter> expectedQuery = RuleQuery.of(3, null);
+        Rule allow = Rule.allow().withId("1").withLayer("layer1");
+        Rule deny = Rule.deny().withId("2");
+        LayerDetails details = LayerDetails.builder().allowedStyles(Set.of("s1")).build();
+        doAnswer(
+                        invocation -> {
+                            BiConsumer<Rule, LayerDetails> consumer = invocation.getArgument(1);
+                            consumer.accept(allow, details);
+                            consumer.accept(deny, null);
+                            return null;
+                        })
+                .when(rules)
+                .getAllWithDetails(eq(expectedQuery), any());
+
+        request().addHeader("Accept", "application/x-jackson-smile");
+        ResponseEntity<List<org.geoserver.acl.api.model.Rule>> response =
+                api.getRules(2, null, null, List.of("details"), null);
+        assertThat(response.getStatusCode()).isEqualTo(OK);
+        assertThat(response.getBody())
+                .extracting(org.geoserver.acl.api.model.Rule::getLayerDetails)
+                .containsExactly(support.toApi(details), null);
+        // the stubbing matched the query when called, query() restores its limit afterwards
+        verify(rules, times(1)).getAllWithDetails(any(), any());
+        verify(rules, times(0)).getAll(any());
+
+        assertError(
+                () -> api.getRules(null, null, null, List.of("unknown"), null),
+                BAD_REQUEST,
+                "Unknown include value");
+    }
+
+    @Test
+    void testGetRulesFields() {
+        RuleQuery<RuleFilter> expectedQuery =
+                RuleQuery.<RuleFilter>of().setFields(Set.of("priority", "identifier"));
+        Rule rule = Rule.allow().withId("1").withPriority(10).withName("name").withLayer("layer1");
+        when(rules.getAll(eq(expectedQuery))).thenReturn(Stream.of(rule));
+
+        request().addHeader("Accept", "application/x-jackson-smile");
+        ResponseEntity<List<org.geoserver.acl.api.model.Rule>> response =
+                api.getRules(null, null, null, null, List.of("priority", "layer"));
+        assertThat(response.getStatusCode()).isEqualTo(OK);
+        assertThat(response.getBody())
+                .containsExactly(
+                        new org.geoserver.acl.api.model.Rule()
+                                .id("1")
+                                .priority(10L)
+                                .layer("layer1"));
+
+        assertError(
+                () -> api.getRules(null, null, null, null, List.of("area")),
+                BAD_REQUEST,
+                "Unknown rule property");
+    }
+
+    @Test
+    void testGetRulesStreamsJson() throws Exception {
+        List<Rule> expected = List.of(Rule.allow().withId("1"), Rule.deny().withId("2"));
+        when(rules.getAll(eq(RuleQuery.of()))).thenReturn(expected.stream());
+
+        assertThat(api.getRules(null, null, null, null, null)).isNull();
+
+        MockHttpServletResponse response = response();
+        assertThat(response.getStatus()).isEqualTo(OK.value());
+        assertThat(response.getContentType()).isEqualTo("application/json");
+        assertThat(response.getHeader("X-ACL-NEXTCURSOR")).isNull();
+
+        ObjectMapper mapper = new ObjectMapper();
+        List<org.geoserver.acl.api.model.Rule> dtos =
+                expected.stream().map(support::toApi).collect(Collectors.toList());
+        assertThat(mapper.readTree(response.getContentAsByteArray()))
+                .isEqualTo(mapper.readTree(mapper.writeValueAsString(dtos)));
+    }
+
+    @Test
+    void testGetRulesStreamsNdjsonPage() throws Exception {
+        List<Rule> all =
+                List.of(
+                        Rule.allow().withId("1"),
+                        Rule.deny().withId("2"),
+                        Rule.allow().withId("3"));
+        when(rules.getAll(eq(RuleQuery.of(3, null)))).thenReturn(all.stream());
+
+        request().addHeader("Accept", "application/x-ndjson");
+        assertThat(api.getRules(2, null, null, null, null)).isNull();
+
+        MockHttpServletResponse response = response();
+        assertThat(response.getContentType()).isEqualTo("application/x-ndjson");
+        assertThat(response.getHeader("X-ACL-NEXTCURSOR")).isEqualTo("3");
+
+        ObjectMapper mapper = new ObjectMapper();
+        String[] lines = response.getContentAsString().split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(mapper.readTree(lines[0]))
+                .isEqualTo(mapper.readTree(mapper.writeValueAsString(support.toApi(all.get(0)))));
+        assertThat(mapper.readTree(lines[1]))
+                .isEqualTo(mapper.readTree(mapper.writeValueAsString(support.toApi(all.get(1)))));
+    }
+
+    @Test
+    void testGetRulesIncludeDetailsStreamsUnpaged() throws Exception {
+        Rule allow = Rule.allow().withId("1").withLayer("layer1");
+        Rule deny = Rule.deny().withId("2");
+        LayerDetails details = LayerDetails.builder().allowedStyles(Set.of("s1")).build();
+        doAnswer(
+                        invocation -> {
+                            BiConsumer<Rule, LayerDetails> consumer = invocation.getArgument(1);
+                            consumer.accept(allow, details);
+                            consumer.accept(deny, null);
+                            return null;
+                        })
+                .when(rules)
+                .getAllWithDetails(eq(RuleQuery.of()), any());
+
+        request().addHeader("Accept", "application/x-ndjson");
+        // written to the response as they're passed, not collected into a response entity
+        assertThat(api.getRules(null, null, null, List.of("details"), null)).isNull();
+
+        assertThat(response().getContentType()).isEqualTo("application/x-ndjson");
+        List<org.geoserver.acl.api.model.Rule> all = readNdjson(response().getContentAsString());
+        assertThat(all)
+                .extracting(org.geoserver.acl.api.model.Rule::getId)
+                .containsExactly("1", "2");
+        assertThat(all.get(0).getLayerDetails()).isEqualTo(support.toApi(details));
+        assertThat(all.get(1).getLayerDetails()).isNull();
+    }
+
+    private List<org.geoserver.acl.api.model.Rule> readNdjson(String content) throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        List<org.geoserver.acl.api.model.Rule> values = new ArrayList<>();
+        for (String line : content.split("\n")) {
+            if (!line.isBlank()) {
+                values.add(mapper.readValue(line, org.geoserver.acl.api.model.Rule.class));
+            }
+        }
+        return values;
+    }
+
+    private MockHttpServletRequest request() {
+        return (MockHttpServletRequest) attributes().getRequest();
+    }
+
+    private MockHttpServletResponse response() {
+        return (MockHttpServletResponse) attributes().getResponse();
+    }
+
+    private ServletRequestAttributes attributes() {
+        return (ServletRequestAttributes) RequestContextHolder.currentRequestAttributes();
+    }
+
     private List<Rule> assertList(
             Supplier<ResponseEntity<List<org.geoserver.acl.api.model.Rule>>> call,
             HttpStatus status) {
@@ -136,8 +426,15 @@ class RulesApiImpTest {
         when(rules.get(eq("id1"))).thenReturn(Optional.of(found));
         when(rules.get(eq("id2"))).thenReturn(Optional.empty());
 
-        assertResponse(() -> api.getRuleById("id1"), OK, found);
-        assertResponse(() -> api.getRuleById("id2"), NOT_FOUND, null);
+        assertResponse(() -> api.getRuleById("id1", null), OK, found);
+        assertResponse(() -> api.getRuleById("id2", null), NOT_FOUND, null);
+
+        LayerDetails details = LayerDetails.builder().allowedStyles(Set.of("s1")).build();
+        when(rules.getLayerDetails(eq("id1"))).thenReturn(Optional.of(details));
+        ResponseEntity<org.geoserver.acl.api.model.Rule> response =
+                api.getRuleById("id1", List.of("details"));
+        assertThat(response.getStatusCode()).isEqualTo(OK);
+        assertThat(response.getBody().getLayerDetails()).isEqualTo(support.toApi(details));
     }
 
     @Test
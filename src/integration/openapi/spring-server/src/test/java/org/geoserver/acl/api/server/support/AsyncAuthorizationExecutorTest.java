@@ -0,0 +1,182 @@
+/* (c) 2023  Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.acl.api.server.support;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.geoserver.acl.api.server.support.AsyncAuthorizationExecutor.DeadlineExceededException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+import javax.servlet.http.HttpServletRequest;
+
+class AsyncAuthorizationExecutorTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private AsyncAuthorizationExecutor executor =
+            new AsyncAuthorizationExecutor(1, 1, Duration.ofSeconds(1));
+
+    private CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.close();
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void runsOnWorkerThreadWithDetachedRequestAttributes() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/authorization");
+        request.addHeader("Accept", "application/json");
+        request.setAttribute("attribute", "value");
+        ServletRequestAttributes attributes = new ServletRequestAttributes(request);
+        RequestContextHolder.setRequestAttributes(attributes);
+
+        CompletableFuture<Object> result =
+                executor.submit(TIMEOUT, RequestContextHolder::getRequestAttributes);
+        Object taskAttributes = result.get(5, TimeUnit.SECONDS);
+        assertThat(taskAttributes)
+                .isInstanceOf(ServletRequestAttributes.class)
+                .isNotSameAs(attributes);
+
+        // the container recycles the request once it times out, the task's copy shall not change
+        request.removeHeader("Accept");
+        HttpServletRequest copy = ((ServletRequestAttributes) taskAttributes).getRequest();
+        assertThat(copy).isNotSameAs(request);
+        assertThat(copy.getHeader("accept")).isEqualTo("application/json");
+        assertThat(copy.getRequestURI()).isEqualTo("/api/authorization");
+        assertThat(copy.getAttribute("attribute")).isNull();
+        assertThat(((ServletRequestAttributes) taskAttributes).getResponse()).isNull();
+
+        String thread = executor.submit(TIMEOUT, () -> Thread.currentThread().getName()).get();
+        assertThat(thread).startsWith("acl-authorization-");
+        assertThat(executor.getCompletedCount()).isEqualTo(2);
+    }
+
+    @Test
+    void exposesTheRemainingTimeToDecorators() throws Exception {
+        AtomicReference<Optional<Duration>> seen = new AtomicReference<>();
+        executor.setDecorator(
+                task ->
+                        () -> {
+                            seen.set(AsyncAuthorizationExecutor.remainingTime());
+                            task.run();
+                        });
+        Optional<Duration> inTask =
+                executor.submit(TIMEOUT, AsyncAuthorizationExecutor::remainingTime).get();
+
+        assertThat(seen.get()).get().matches(d -> !d.isNegative() && d.compareTo(TIMEOUT) <= 0);
+        assertThat(inTask).get().matches(d -> d.compareTo(seen.get().get()) <= 0);
+        assertThat(AsyncAuthorizationExecutor.remainingTime()).isEmpty();
+    }
+
+    @Test
+    void registersMBean() throws Exception {
+        MBeanServer server = MBeanServerFactory.newMBeanServer();
+        ObjectName name = new ObjectName(AsyncAuthorizationExecutor.OBJECT_NAME);
+        executor.registerMBean(server);
+        executor.submit(TIMEOUT, () -> true).get();
+
+        assertThat(server.getAttribute(name, "Threads")).isEqualTo(1);
+        assertThat(server.getAttribute(name, "QueueCapacity")).isEqualTo(1);
+        assertThat(server.getAttribute(name, "CompletedCount")).isEqualTo(1L);
+        assertThat(server.getAttribute(name, "MaxQueueTimeMillis")).isInstanceOf(Long.class);
+
+        executor.close();
+        assertThat(server.isRegistered(name)).isFalse();
+    }
+
+    @Test
+    void rejectsWhenQueueIsFull() throws Exception {
+        CompletableFuture<Boolean> running = executor.submit(TIMEOUT, this::block);
+        CompletableFuture<Boolean> queued = executor.submit(TIMEOUT, () -> true);
+        CompletableFuture<Boolean> rejected = executor.submit(TIMEOUT, () -> true);
+
+        ExecutionException e = assertThrows(ExecutionException.class, rejected::get);
+        assertThat(e.getCause()).isInstanceOf(RejectedExecutionException.class);
+        assertThat(executor.getRejectedCount()).isEqualTo(1);
+
+        release.countDown();
+        assertThat(running.get()).isTrue();
+        assertThat(queued.get()).isTrue();
+    }
+
+    @Test
+    void dropsExpiredTasks() throws Exception {
+        CompletableFuture<Boolean> running = executor.submit(TIMEOUT, this::block);
+        CompletableFuture<Boolean> expiring =
+                executor.submit(Duration.ofMillis(10), () -> fail("expired task run"));
+
+        Thread.sleep(50);
+        release.countDown();
+        assertThat(running.get()).isTrue();
+
+        ExecutionException e = assertThrows(ExecutionException.class, expiring::get);
+        assertThat(e.getCause()).isInstanceOf(DeadlineExceededException.class);
+        assertThat(executor.getExpiredCount()).isEqualTo(1);
+        assertThat(executor.getMaxQueueTime()).isGreaterThanOrEqualTo(Duration.ofMillis(50));
+        assertThat(executor.getAverageQueueTime()).isLessThan(executor.getMaxQueueTime());
+    }
+
+    @Test
+    void skipsCancelledTasks() throws Exception {
+        CompletableFuture<Boolean> running = executor.submit(TIMEOUT, this::block);
+        CompletableFuture<Boolean> cancelled =
+                executor.submit(TIMEOUT, () -> fail("cancelled task run"));
+        cancelled.cancel(false);
+
+        release.countDown();
+        assertThat(running.get()).isTrue();
+        assertThat(executor.submit(TIMEOUT, () -> true).get()).isTrue();
+        assertThat(executor.getCompletedCount()).isEqualTo(2);
+    }
+
+    @Test
+    void decoratesTasks() throws Exception {
+        ThreadLocal<String> scope = new ThreadLocal<>();
+        executor.setDecorator(
+                task ->
+                        () -> {
+                            scope.set("decorated");
+                            try {
+                                task.run();
+                            } finally {
+                                scope.remove();
+                            }
+                        });
+        assertThat(executor.submit(TIMEOUT, scope::get).get()).isEqualTo("decorated");
+    }
+
+    private Boolean block() {
+        try {
+            return release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static Boolean fail(String message) {
+        throw new AssertionError(message);
+    }
+}
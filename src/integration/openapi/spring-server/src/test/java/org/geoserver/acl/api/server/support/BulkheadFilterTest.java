@@ -0,0 +1,158 @@
+/* (c) 2023  Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.acl.api.server.support;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.geoserver.acl.api.server.support.BulkheadFilter.Bulkhead;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.servlet.FilterChain;
+
+class BulkheadFilterTest {
+
+    private Bulkhead authorization =
+            new Bulkhead("authorization", 1, 0, Duration.ZERO, Duration.ofMillis(1500));
+    private Bulkhead administration =
+            new Bulkhead("administration", 1, 0, Duration.ZERO, Duration.ofSeconds(5));
+
+    private BulkheadFilter filter = new BulkheadFilter(authorization, administration);
+
+    @Test
+    void passesThroughWithinLimits() throws Exception {
+        assertThat(doFilter("/api/authorization/resources", new MockFilterChain()).getStatus())
+                .isEqualTo(200);
+        assertThat(doFilter("/api/rules", new MockFilterChain()).getStatus()).isEqualTo(200);
+        assertThat(authorization.getActive()).isZero();
+        assertThat(administration.getActive()).isZero();
+    }
+
+    @Test
+    void authorizationIsNotBlockedByAdministration() throws Exception {
+        AtomicReference<MockHttpServletResponse> nested = new AtomicReference<>();
+        // while an administration request is running
+        FilterChain adminChain =
+                (req, res) ->
+                        nested.set(doFilter("/api/authorization/resources", new MockFilterChain()));
+        doFilter("/api/rules/query", adminChain);
+
+        assertThat(nested.get().getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void rejectsWhenSaturated() throws Exception {
+        AtomicReference<MockHttpServletResponse> nested = new AtomicReference<>();
+        FilterChain chain =
+                (req, res) ->
+                        nested.set(doFilter("/api/authorization/resources", new MockFilterChain()));
+        MockHttpServletResponse response = doFilter("/api/authorization/resources", chain);
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        MockHttpServletResponse rejected = nested.get();
+        assertThat(rejected.getStatus()).isEqualTo(503);
+        assertThat(rejected.getHeader("Retry-After")).isEqualTo("2");
+        assertThat(rejected.getHeader("X-Reason")).contains("authorization");
+
+        // the slot is released afterwards
+        assertThat(authorization.getActive()).isZero();
+        assertThat(doFilter("/api/authorization/resources", new MockFilterChain()).getStatus())
+                .isEqualTo(200);
+    }
+
+    @Test
+    void asyncRequestsKeepTheirSlotUntilCompleted() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/rules/query");
+        request.setAsyncSupported(true);
+        FilterChain chain = (req, res) -> req.startAsync();
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        // the servlet thread is released but the request is still running
+        assertThat(administration.getActive()).isOne();
+        assertThat(doFilter("/api/rules", new MockFilterChain()).getStatus()).isEqualTo(503);
+
+        ((MockAsyncContext) request.getAsyncContext()).complete();
+        assertThat(administration.getActive()).isZero();
+        assertThat(doFilter("/api/rules", new MockFilterChain()).getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void boundsTheRequestsWaitingForASlot() throws Exception {
+        Bulkhead bulkhead =
+                new Bulkhead("authorization", 1, 1, Duration.ofSeconds(30), Duration.ofSeconds(1));
+        assertThat(bulkhead.tryEnter()).isTrue();
+
+        CountDownLatch waiting = new CountDownLatch(1);
+        CompletableFuture<Boolean> waiter =
+                CompletableFuture.supplyAsync(
+                        () -> {
+                            waiting.countDown();
+                            return bulkhead.tryEnter();
+                        });
+        waiting.await();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (bulkhead.getWaiting() == 0 && System.nanoTime() < deadline) Thread.sleep(10);
+        assertThat(bulkhead.getWaiting()).isOne();
+
+        // no room to wait, rejected right away instead of holding the thread for 30s
+        long start = System.nanoTime();
+        assertThat(bulkhead.tryEnter()).isFalse();
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(1));
+
+        bulkhead.exit();
+        assertThat(waiter.get(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(bulkhead.getWaiting()).isZero();
+        assertThat(bulkhead.getActive()).isOne();
+    }
+
+    @Test
+    void changeFeedIsNotLimited() throws Exception {
+        AtomicReference<MockHttpServletResponse> changes = new AtomicReference<>();
+        // while the only administration slot is taken
+        FilterChain chain =
+                (req, res) -> changes.set(doFilter("/api/rules/changes", new MockFilterChain()));
+        doFilter("/api/rules/query", chain);
+
+        assertThat(changes.get().getStatus()).isEqualTo(200);
+        assertThat(administration.getActive()).isZero();
+    }
+
+    @Test
+    void otherRequestsAreNotLimited() throws Exception {
+        FilterChain chain =
+                (req, res) ->
+                        assertThat(doFilter("/api/api-docs", new MockFilterChain()).getStatus())
+                                .isEqualTo(200);
+        assertThat(doFilter("/api/swagger-ui.html", chain).getStatus()).isEqualTo(200);
+        assertThat(
+                        BulkheadFilter.isAuthorizationRequest(
+                                new MockHttpServletRequest("POST", "/api/authorization/resources")))
+                .isTrue();
+        assertThat(
+                        BulkheadFilter.isAuthorizationRequest(
+                                new MockHttpServletRequest("GET", "/api/rules")))
+                .isFalse();
+    }
+
+    private MockHttpServletResponse doFilter(String uri, FilterChain chain) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", uri);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        try {
+            filter.doFilter(request, response, chain);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+        return response;
+    }
+}
@@ -0,0 +1,94 @@
+/* (c) 2023  Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.acl.api.server.support;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atMost;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.geoserver.acl.domain.adminrules.AdminRuleEvent;
+import org.geoserver.acl.domain.rules.RuleChange;
+import org.geoserver.acl.domain.rules.RuleChange.RuleType;
+import org.geoserver.acl.domain.rules.RuleChangeLog;
+import org.geoserver.acl.domain.rules.RuleEvent;
+import org.geoserver.acl.domain.rules.RuleEvent.EventType;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+class RuleChangeFeedTest {
+
+    private RuleChangeLog log = mock(RuleChangeLog.class);
+    private RuleChangeFeed feed = new RuleChangeFeed(log);
+
+    @Test
+    void recordsEvents() {
+        feed.onRuleEvent(RuleEvent.deleted("r1"));
+        verify(log).append(RuleType.RULE, EventType.DELETED, Set.of("r1"));
+
+        feed.onAdminRuleEvent(AdminRuleEvent.updated("a1", "a2"));
+        verify(log).append(RuleType.ADMIN_RULE, EventType.UPDATED, Set.of("a1", "a2"));
+    }
+
+    @Test
+    void doesNotRecordEventsAppendedByTheRepositories() {
+        when(log.isAppendedByRepositories()).thenReturn(true);
+        feed.onRuleEvent(RuleEvent.deleted("r1"));
+        feed.onAdminRuleEvent(AdminRuleEvent.updated("a1"));
+        verify(log, never()).append(any(), any(), any());
+    }
+
+    @Test
+    void isGone() {
+        when(log.firstSequence()).thenReturn(5L);
+        when(log.lastSequence()).thenReturn(10L);
+        assertThat(feed.isGone(3)).isTrue();
+        assertThat(feed.isGone(4)).isFalse();
+        assertThat(feed.isGone(10)).isFalse();
+        assertThat(feed.isGone(11)).isTrue();
+    }
+
+    @Test
+    void findSinceWaitsForChanges() throws InterruptedException {
+        RuleChange change =
+                new RuleChange(1, RuleType.RULE, EventType.CREATED, Set.of("r1"), Instant.now());
+        when(log.findSince(0, 10)).thenReturn(List.of());
+        assertThat(feed.findSince(0, 10, Duration.ZERO)).isEmpty();
+
+        when(log.lastSequence()).thenReturn(1L);
+        when(log.findSince(0, 10)).thenReturn(List.of(), List.of(change));
+        assertThat(feed.findSince(0, 10, Duration.ofSeconds(10))).containsExactly(change);
+    }
+
+    @Test
+    void waitingRequestsShareTheLogQueries() throws Exception {
+        when(log.findSince(0, 10)).thenReturn(List.of());
+        ExecutorService executor = Executors.newFixedThreadPool(10);
+        try {
+            List<Future<List<RuleChange>>> waiting = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                waiting.add(executor.submit(() -> feed.findSince(0, 10, Duration.ofMillis(1500))));
+            }
+            for (Future<List<RuleChange>> w : waiting) {
+                assertThat(w.get()).isEmpty();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        // once on first use and once per poll interval, not once per waiting request
+        verify(log, atMost(3)).lastSequence();
+    }
+}
@@ -0,0 +1,86 @@
+/* (c) 2023  Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.acl.api.server.support;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.geoserver.acl.domain.rules.RuleChangeLog;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+class RulesetETagFilterTest {
+
+    private RuleChangeLog log = mock(RuleChangeLog.class);
+    private RulesetETagFilter filter = new RulesetETagFilter(new RuleChangeFeed(log));
+
+    @BeforeEach
+    void setUp() {
+        when(log.epoch()).thenReturn("");
+        when(log.lastSequence()).thenReturn(1L);
+    }
+
+    @Test
+    void tagsReadRequests() throws Exception {
+        MockHttpServletResponse response = doFilter("GET", "/api/rules", null);
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getHeader("ETag")).isEqualTo("W/\"1\"");
+        assertThat(response.getHeader("Vary")).isEqualTo("Accept");
+
+        response = doFilter("POST", "/api/adminrules/query", null);
+        assertThat(response.getHeader("ETag")).isEqualTo(filter.getETag());
+
+        response = doFilter("POST", "/api/rules", null);
+        assertThat(response.getHeader("ETag")).isNull();
+
+        response = doFilter("POST", "/api/authorization/resources", null);
+        assertThat(response.getHeader("ETag")).isNull();
+    }
+
+    @Test
+    void notModifiedUntilRulesetChanges() throws Exception {
+        final String etag = filter.getETag();
+
+        MockHttpServletResponse response = doFilter("POST", "/api/rules/query", etag);
+        assertThat(response.getStatus()).isEqualTo(304);
+
+        when(log.lastSequence()).thenReturn(2L);
+        assertThat(filter.getETag()).isNotEqualTo(etag);
+        response = doFilter("POST", "/api/rules/query", etag);
+        assertThat(response.getStatus()).isEqualTo(200);
+
+        final String etag2 = filter.getETag();
+        response = doFilter("GET", "/api/adminrules", "\"other\", " + etag2);
+        assertThat(response.getStatus()).isEqualTo(304);
+
+        when(log.lastSequence()).thenReturn(3L);
+        response = doFilter("GET", "/api/adminrules", etag2);
+        assertThat(response.getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void epochTellsNumberingsApart() {
+        when(log.epoch()).thenReturn("e1");
+        final String etag = filter.getETag();
+        assertThat(etag).isEqualTo("W/\"e1-1\"");
+
+        // the log started over and reached the same sequence number
+        when(log.epoch()).thenReturn("e2");
+        assertThat(filter.getETag()).isNotEqualTo(etag);
+    }
+
+    private MockHttpServletResponse doFilter(String method, String uri, String ifNoneMatch)
+            throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        if (null != ifNoneMatch) request.addHeader("If-None-Match", ifNoneMatch);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
@@ -6,15 +6,19 @@ package org.geoserver.acl.integration.jpa.config;
 
 import org.geoserver.acl.domain.adminrules.AdminRuleEvent;
 import org.geoserver.acl.domain.adminrules.AdminRuleRepository;
+import org.geoserver.acl.domain.rules.RuleChangeLog;
 import org.geoserver.acl.domain.rules.RuleEvent;
 import org.geoserver.acl.domain.rules.RuleRepository;
 import org.geoserver.acl.integration.jpa.mapper.AdminRuleJpaMapper;
 import org.geoserver.acl.integration.jpa.mapper.RuleJpaMapper;
 import org.geoserver.acl.integration.jpa.repository.AdminRuleRepositoryJpaAdaptor;
+import org.geoserver.acl.integration.jpa.repository.RuleChangeLogJpaAdaptor;
 import org.geoserver.acl.integration.jpa.repository.RuleRepositoryJpaAdaptor;
 import org.geoserver.acl.jpa.config.AclDataSourceConfiguration;
+import org.geoserver.acl.jpa.config.AclJpaProperties;
 import org.geoserver.acl.jpa.config.AuthorizationJPAConfiguration;
 import org.geoserver.acl.jpa.repository.JpaAdminRuleRepository;
+import org.geoserver.acl.jpa.repository.JpaRuleChangeRepository;
 import org.geoserver.acl.jpa.repository.JpaRuleRepository;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Bean;
@@ -36,12 +40,16 @@ public class JPAIntegrationConfiguration {
             EntityManager em,
             JpaRuleRepository jpaRuleRepository,
             RuleJpaMapper modelMapper,
-            ApplicationEventPublisher eventPublisher) {
+            ApplicationEventPublisher eventPublisher,
+            RuleChangeLog changeLog,
+            AclJpaProperties props) {
 
         RuleRepositoryJpaAdaptor adaptor =
                 new RuleRepositoryJpaAdaptor(em, jpaRuleRepository, modelMapper);
         Consumer<RuleEvent> publisher = eventPublisher::publishEvent;
         adaptor.setEventPublisher(publisher);
+        adaptor.setChangeLog(changeLog);
+        adaptor.setPriorityGap(props.getPriority().getGap());
         return adaptor;
     }
 
@@ -50,12 +58,26 @@ public class JPAIntegrationConfiguration {
             EntityManager em,
             JpaAdminRuleRepository jpaAdminRuleRepo,
             AdminRuleJpaMapper modelMapper,
-            ApplicationEventPublisher eventPublisher) {
+            ApplicationEventPublisher eventPublisher,
+            RuleChangeLog changeLog,
+            AclJpaProperties props) {
 
         AdminRuleRepositoryJpaAdaptor adaptor =
                 new AdminRuleRepositoryJpaAdaptor(em, jpaAdminRuleRepo, modelMapper);
         Consumer<AdminRuleEvent> publisher = eventPublisher::publishEvent;
         adaptor.setEventPublisher(publisher);
+        adaptor.setChangeLog(changeLog);
+        adaptor.setPriorityGap(props.getPriority().getGap());
         return adaptor;
     }
+
+    @Bean
+    public RuleChangeLog aclRuleChangeLogJpaAdaptor(
+            JpaRuleChangeRepository jpaRuleChangeRepository, AclJpaProperties props) {
+        int maxSize = props.getChangeLog().getMaxSize();
+        RuleChangeLogJpaAdaptor changeLog =
+                new RuleChangeLogJpaAdaptor(jpaRuleChangeRepository, maxSize);
+        changeLog.setMaxCommitDelay(props.getChangeLog().getMaxCommitDelay());
+        return changeLog;
+    }
 }
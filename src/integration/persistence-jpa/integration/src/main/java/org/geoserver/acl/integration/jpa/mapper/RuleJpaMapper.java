@@ -48,6 +48,8 @@ public interface RuleJpaMapper {
 
     Rule toModel(org.geoserver.acl.jpa.model.Rule entity);
 
+    Rule toModel(org.geoserver.acl.jpa.model.RuleCandidate candidate);
+
     @Mapping(target = "layerDetails", ignore = true)
     @Mapping(target = "createdBy", ignore = true)
     @Mapping(target = "createdDate", ignore = true)
@@ -69,12 +71,14 @@ public interface RuleJpaMapper {
     org.geoserver.acl.jpa.model.LayerDetails toEntity(
             org.geoserver.acl.domain.rules.LayerDetails value);
 
+    @Mapping(target = "areaWkb", ignore = true)
     org.geoserver.acl.domain.rules.LayerDetails toModel(
             org.geoserver.acl.jpa.model.LayerDetails value);
 
     org.geoserver.acl.jpa.model.RuleLimits toEntity(
             org.geoserver.acl.domain.rules.RuleLimits value);
 
+    @Mapping(target = "allowedAreaWkb", ignore = true)
     org.geoserver.acl.domain.rules.RuleLimits toModel(org.geoserver.acl.jpa.model.RuleLimits value);
 
     static String encodeId(Long id) {
@@ -22,25 +22,34 @@ import org.geoserver.acl.domain.adminrules.AdminRuleIdentifierConflictException;
 import org.geoserver.acl.domain.adminrules.AdminRuleRepository;
 import org.geoserver.acl.domain.adminrules.InsertPosition;
 import org.geoserver.acl.domain.filter.RuleQuery;
+import org.geoserver.acl.domain.filter.predicate.FilterType;
 import org.geoserver.acl.domain.filter.predicate.IPAddressRangeFilter;
+import org.geoserver.acl.domain.rules.RuleChange.RuleType;
+import org.geoserver.acl.domain.rules.RuleChangeLog;
 import org.geoserver.acl.integration.jpa.mapper.AdminRuleJpaMapper;
 import org.geoserver.acl.integration.jpa.mapper.RuleJpaMapper;
 import org.geoserver.acl.jpa.model.AdminRuleIdentifier;
+import org.geoserver.acl.jpa.model.CacheRegions;
 import org.geoserver.acl.jpa.model.QAdminRule;
 import org.geoserver.acl.jpa.repository.JpaAdminRuleRepository;
 import org.geoserver.acl.jpa.repository.TransactionReadOnly;
 import org.geoserver.acl.jpa.repository.TransactionRequired;
 import org.geoserver.acl.jpa.repository.TransactionSupported;
+import org.hibernate.annotations.QueryHints;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.IncorrectResultSizeDataAccessException;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.Spliterators;
 import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
@@ -62,6 +71,14 @@ public class AdminRuleRepositoryJpaAdaptor implements AdminRuleRepository {
                 // no-op
             };
 
+    /**
+     * Priority spacing for new rules, {@code 1} keeps priorities dense, see {@link
+     * PriorityResolver}
+     */
+    @Setter private long priorityGap = 1;
+
+    private RuleChangeRecorder changes = new RuleChangeRecorder(null, RuleType.ADMIN_RULE);
+
     public AdminRuleRepositoryJpaAdaptor(
             EntityManager em, JpaAdminRuleRepository jparepo, AdminRuleJpaMapper mapper) {
         Objects.requireNonNull(em);
@@ -73,12 +90,26 @@ public class AdminRuleRepositoryJpaAdaptor implements AdminRuleRepository {
         this.queryMapper = new PredicateMapper();
     }
 
+    /**
+     * Sets the log to append the changes to, within the transactions that make them, see {@link
+     * RuleChangeRecorder}
+     */
+    public void setChangeLog(RuleChangeLog changeLog) {
+        this.changes = new RuleChangeRecorder(changeLog, RuleType.ADMIN_RULE);
+    }
+
     private PriorityResolver<org.geoserver.acl.jpa.model.AdminRule> priorityResolver() {
-        return new PriorityResolver<>(jparepo, org.geoserver.acl.jpa.model.AdminRule::getPriority);
+        return new PriorityResolver<>(
+                em,
+                org.geoserver.acl.jpa.model.AdminRule.class,
+                jparepo,
+                org.geoserver.acl.jpa.model.AdminRule::getPriority,
+                priorityGap);
     }
 
     // send an updated event for all collaterally updated rule
     private void notifyCollateralUpdates(Set<Long> ids) {
+        changes.updated(ids);
         if (!ids.isEmpty()) {
             Set<String> updatedIds =
                     ids.stream().map(RuleJpaMapper::encodeId).collect(Collectors.toSet());
@@ -112,10 +143,172 @@ public class AdminRuleRepositoryJpaAdaptor implements AdminRuleRepository {
         } catch (DataIntegrityViolationException e) {
             throw throwConflict(rule, e);
         }
+        changes.created(List.of(saved.getId()));
         notifyCollateralUpdates(priorityResolver.getUpdatedIds());
         return modelMapper.toModel(saved);
     }
 
+    @Override
+    @TransactionRequired
+    public List<AdminRule> createAll(@NonNull List<AdminRule> rules, InsertPosition position) {
+        if (rules.isEmpty()) return List.of();
+        for (AdminRule rule : rules) {
+            if (null != rule.getId()) throw new IllegalArgumentException("Rule must have no id");
+            if (rule.getPriority() < 0)
+                throw new IllegalArgumentException(
+                        "Negative priority is not allowed: " + rule.getPriority());
+        }
+        checkNoDups(rules, Set.of());
+
+        PriorityResolver<org.geoserver.acl.jpa.model.AdminRule> priorityResolver =
+                priorityResolver();
+        final long[] priorities =
+                priorityResolver.resolveFinalPriorities(
+                        rules.get(0).getPriority(), map(position), rules.size());
+
+        List<org.geoserver.acl.jpa.model.AdminRule> entities = new ArrayList<>(rules.size());
+        for (int i = 0; i < rules.size(); i++) {
+            org.geoserver.acl.jpa.model.AdminRule entity = modelMapper.toEntity(rules.get(i));
+            entity.setPriority(priorities[i]);
+            entities.add(entity);
+        }
+        List<org.geoserver.acl.jpa.model.AdminRule> saved;
+        try {
+            saved = jparepo.saveAllAndFlush(entities);
+        } catch (DataIntegrityViolationException e) {
+            throw throwConflict(rules.get(0), e);
+        }
+        changes.created(ids(saved));
+        notifyCollateralUpdates(priorityResolver.getUpdatedIds());
+        return saved.stream().map(modelMapper::toModel).collect(Collectors.toList());
+    }
+
+    /**
+     * Overrides the default method to import the rules atomically, checking the priorities are
+     * available with a single query
+     */
+    @Override
+    @TransactionRequired
+    public List<AdminRule> importAll(@NonNull List<AdminRule> rules) {
+        if (rules.isEmpty()) return List.of();
+        final Set<Long> priorities = new HashSet<>();
+        for (AdminRule rule : rules) {
+            if (null != rule.getId()) throw new IllegalArgumentException("Rule must have no id");
+            if (rule.getPriority() < 0)
+                throw new IllegalArgumentException(
+                        "Negative priority is not allowed: " + rule.getPriority());
+            if (!priorities.add(rule.getPriority()))
+                throw new IllegalArgumentException(
+                        "Priority " + rule.getPriority() + " is repeated");
+        }
+        org.geoserver.acl.jpa.model.AdminRule taken =
+                new JPAQuery<org.geoserver.acl.jpa.model.AdminRule>(em)
+                        .select(QAdminRule.adminRule)
+                        .from(QAdminRule.adminRule)
+                        .where(QAdminRule.adminRule.priority.in(priorities))
+                        .fetchFirst();
+        if (null != taken) {
+            throw new IllegalArgumentException(
+                    "Priority "
+                            + taken.getPriority()
+                            + " is already taken by AdminRule "
+                            + modelMapper.toModel(taken).getId());
+        }
+        checkNoDups(rules, Set.of());
+
+        List<org.geoserver.acl.jpa.model.AdminRule> entities = new ArrayList<>(rules.size());
+        for (AdminRule rule : rules) {
+            org.geoserver.acl.jpa.model.AdminRule entity = modelMapper.toEntity(rule);
+            entity.setPriority(rule.getPriority());
+            entities.add(entity);
+        }
+        List<org.geoserver.acl.jpa.model.AdminRule> saved;
+        try {
+            saved = jparepo.saveAllAndFlush(entities);
+        } catch (DataIntegrityViolationException e) {
+            throw throwConflict(rules.get(0), e);
+        }
+        changes.created(ids(saved));
+        return saved.stream().map(modelMapper::toModel).collect(Collectors.toList());
+    }
+
+    @Override
+    @TransactionRequired
+    public List<AdminRule> saveAll(@NonNull List<AdminRule> rules) {
+        if (rules.isEmpty()) return List.of();
+        final Set<Long> ids = new HashSet<>();
+        for (AdminRule rule : rules) {
+            Objects.requireNonNull(rule.getId());
+            if (!ids.add(decodeId(rule.getId())))
+                throw new IllegalArgumentException("Duplicate AdminRule id " + rule.getId());
+        }
+        checkNoDups(rules, ids);
+
+        // apply priority changes one at a time, each one may shift other rules
+        PriorityResolver<org.geoserver.acl.jpa.model.AdminRule> priorityResolver =
+                priorityResolver();
+        for (AdminRule rule : rules) {
+            org.geoserver.acl.jpa.model.AdminRule entity =
+                    jparepo.findById(decodeId(rule.getId()))
+                            .orElseThrow(
+                                    () ->
+                                            new IllegalArgumentException(
+                                                    "AdminRule "
+                                                            + rule.getId()
+                                                            + " does not exist"));
+            long currentPriority = entity.getPriority();
+            long finalPriority =
+                    priorityResolver.resolvePriorityUpdate(currentPriority, rule.getPriority());
+            if (finalPriority != currentPriority) {
+                jparepo.setPriority(entity.getId(), finalPriority);
+            }
+        }
+
+        // priority updates clear the persistence context, reload the final state
+        Map<Long, org.geoserver.acl.jpa.model.AdminRule> entities =
+                jparepo.findAllById(ids).stream()
+                        .collect(Collectors.toMap(r -> r.getId(), Function.identity()));
+
+        List<org.geoserver.acl.jpa.model.AdminRule> updated = new ArrayList<>(rules.size());
+        for (AdminRule rule : rules) {
+            org.geoserver.acl.jpa.model.AdminRule entity = entities.get(decodeId(rule.getId()));
+            final long finalPriority = entity.getPriority();
+            modelMapper.updateEntity(entity, rule);
+            entity.setPriority(finalPriority);
+            updated.add(entity);
+        }
+        List<org.geoserver.acl.jpa.model.AdminRule> saved;
+        try {
+            saved = jparepo.saveAllAndFlush(updated);
+        } catch (DataIntegrityViolationException e) {
+            throw throwConflict(rules.get(0), e);
+        }
+        changes.updated(ids);
+        Set<Long> collateral = new HashSet<>(priorityResolver.getUpdatedIds());
+        collateral.removeAll(ids);
+        notifyCollateralUpdates(collateral);
+        return saved.stream().map(modelMapper::toModel).collect(Collectors.toList());
+    }
+
+    /**
+     * Checks no rule in the batch conflicts with another one in the batch or with an existing rule
+     * other than the ones in {@code batchIds}
+     */
+    private void checkNoDups(List<AdminRule> rules, Set<Long> batchIds) {
+        final Set<AdminRuleIdentifier> identifiers = new HashSet<>();
+        for (AdminRule rule : rules) {
+            AdminRuleIdentifier identifier = modelMapper.toEntity(rule.getIdentifier());
+            if (!identifiers.add(identifier)) {
+                throwConflict(rule, null);
+            }
+            jparepo.findAllByIdentifier(identifier).stream()
+                    .filter(r -> !batchIds.contains(r.getId()))
+                    .findFirst()
+                    .map(modelMapper::toModel)
+                    .ifPresent(dup -> throwConflict(dup, null));
+        }
+    }
+
     private org.geoserver.acl.domain.rules.InsertPosition map(InsertPosition position) {
         switch (position) {
             case FIXED:
@@ -134,6 +327,16 @@ public class AdminRuleRepositoryJpaAdaptor implements AdminRuleRepository {
         return jparepo.findById(decodeId(id).longValue()).map(modelMapper::toModel);
     }
 
+    @Override
+    @TransactionReadOnly
+    public List<AdminRule> findAllById(@NonNull Set<String> ids) {
+        List<Long> entityIds =
+                ids.stream().map(AdminRuleJpaMapper::decodeId).collect(Collectors.toList());
+        return jparepo.findAllById(entityIds).stream()
+                .map(modelMapper::toModel)
+                .collect(Collectors.toList());
+    }
+
     @Override
     public int count() {
         return (int) jparepo.count();
@@ -182,6 +385,7 @@ public class AdminRuleRepositoryJpaAdaptor implements AdminRuleRepository {
         try {
             jparepo.flush();
             org.geoserver.acl.jpa.model.AdminRule saved = jparepo.saveAndFlush(entity);
+            changes.updated(List.of(saved.getId()));
             notifyCollateralUpdates(priorityResolver.getUpdatedIds());
             return modelMapper.toModel(saved);
         } catch (DataIntegrityViolationException e) {
@@ -207,28 +411,71 @@ public class AdminRuleRepositoryJpaAdaptor implements AdminRuleRepository {
             predicate = QAdminRule.adminRule.id.goe(nextId).and(predicate);
         }
 
-        CloseableIterator<org.geoserver.acl.jpa.model.AdminRule> iterator =
-                queryOrderByPriority(predicate);
-
-        try (Stream<org.geoserver.acl.jpa.model.AdminRule> stream = stream(iterator)) {
+        final Integer limit = query.getLimit();
+        // rule matching queries (i.e. filtered, neither paginated nor limited) go through the
+        // query cache, if enabled, the others are streamed
+        final boolean cacheable =
+                query.getFilter().isPresent()
+                        && query.getNextId() == null
+                        && limit == null
+                        && RuleRepositoryJpaAdaptor.isQueryCacheEnabled(em);
+        // the address filter runs in memory, the database can only apply the limit without it
+        final Integer queryLimit = filtersByAddress(query.getFilter()) ? null : limit;
+
+        try (Stream<org.geoserver.acl.jpa.model.AdminRule> stream =
+                queryOrderByPriority(predicate, cacheable, queryLimit)) {
             Stream<AdminRule> rules = stream.map(modelMapper::toModel).filter(postFilter);
-            if (null != query.getLimit()) {
-                rules = rules.limit(query.getLimit());
+            if (null != limit) {
+                rules = rules.limit(limit);
             }
             return rules.collect(Collectors.toList()).stream();
         }
     }
 
-    private CloseableIterator<org.geoserver.acl.jpa.model.AdminRule> queryOrderByPriority(
-            Predicate predicate) {
+    /**
+     * Scrolls over the admin rules with a forward-only database cursor, detaching each entity once
+     * mapped, so that neither the result set nor the persistence context grow with the number of
+     * rules
+     */
+    @Override
+    @TransactionReadOnly
+    public void exportAll(@NonNull Consumer<AdminRule> consumer) {
+        JPAQuery<org.geoserver.acl.jpa.model.AdminRule> query =
+                new JPAQuery<org.geoserver.acl.jpa.model.AdminRule>(em)
+                        .from(QAdminRule.adminRule)
+                        .orderBy(new OrderSpecifier<>(Order.ASC, QAdminRule.adminRule.priority))
+                        .setHint(QueryHints.FETCH_SIZE, RuleRepositoryJpaAdaptor.EXPORT_FETCH_SIZE);
+
+        try (CloseableIterator<org.geoserver.acl.jpa.model.AdminRule> it = query.iterate()) {
+            while (it.hasNext()) {
+                org.geoserver.acl.jpa.model.AdminRule entity = it.next();
+                AdminRule rule = modelMapper.toModel(entity);
+                em.detach(entity);
+                consumer.accept(rule);
+            }
+        }
+    }
 
-        CloseableIterator<org.geoserver.acl.jpa.model.AdminRule> iterator =
+    private Stream<org.geoserver.acl.jpa.model.AdminRule> queryOrderByPriority(
+            Predicate predicate, boolean cacheable, Integer limit) {
+
+        JPAQuery<org.geoserver.acl.jpa.model.AdminRule> query =
                 new JPAQuery<org.geoserver.acl.jpa.model.AdminRule>(em)
                         .from(QAdminRule.adminRule)
                         .where(predicate)
-                        .orderBy(new OrderSpecifier<>(Order.ASC, QAdminRule.adminRule.priority))
-                        .iterate();
-        return iterator;
+                        .orderBy(new OrderSpecifier<>(Order.ASC, QAdminRule.adminRule.priority));
+        if (null != limit) {
+            query.limit(limit);
+        }
+        if (cacheable) {
+            // the query cache does not apply to scrolled results
+            return query
+                    .setHint(QueryHints.CACHEABLE, true)
+                    .setHint(QueryHints.CACHE_REGION, CacheRegions.ADMIN_RULE_QUERIES)
+                    .fetch()
+                    .stream();
+        }
+        return stream(query.iterate());
     }
 
     private Stream<org.geoserver.acl.jpa.model.AdminRule> stream(
@@ -237,6 +484,13 @@ public class AdminRuleRepositoryJpaAdaptor implements AdminRuleRepository {
                 .onClose(iterator::close);
     }
 
+    /**
+     * @return whether {@link #filterByAddress} can filter out rules
+     */
+    private static boolean filtersByAddress(Optional<AdminRuleFilter> filter) {
+        return filter.isPresent() && filter.get().getSourceAddress().getType() != FilterType.ANY;
+    }
+
     private java.util.function.Predicate<? super AdminRule> filterByAddress(
             Optional<AdminRuleFilter> filter) {
         if (filter.isEmpty()) return r -> true;
@@ -273,12 +527,22 @@ public class AdminRuleRepositoryJpaAdaptor implements AdminRuleRepository {
         rule2.setPriority(p1);
 
         jparepo.saveAll(List.of(rule1, rule2));
+        changes.updated(List.of(rule1.getId(), rule2.getId()));
     }
 
     @Override
     @TransactionRequired
     public boolean deleteById(@NonNull String id) {
-        return 1 == jparepo.deleteById(decodeId(id).longValue());
+        final long entityId = decodeId(id).longValue();
+        boolean deleted = 1 == jparepo.deleteById(entityId);
+        if (deleted) changes.deleted(List.of(entityId));
+        return deleted;
+    }
+
+    private static List<Long> ids(List<org.geoserver.acl.jpa.model.AdminRule> entities) {
+        return entities.stream()
+                .map(org.geoserver.acl.jpa.model.AdminRule::getId)
+                .collect(Collectors.toList());
     }
 
     private org.geoserver.acl.jpa.model.AdminRule getOrThrowIAE(@NonNull String ruleId) {
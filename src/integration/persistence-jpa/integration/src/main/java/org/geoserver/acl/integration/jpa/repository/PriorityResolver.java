@@ -8,45 +8,121 @@ import lombok.Getter;
 
 import org.geoserver.acl.domain.rules.InsertPosition;
 import org.geoserver.acl.jpa.repository.PriorityRepository;
+import org.geoserver.acl.jpa.repository.PriorityRepository.IdPriority;
+import org.hibernate.Session;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.entity.AbstractEntityPersister;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.domain.Sort.Direction;
 
+import java.sql.PreparedStatement;
+import java.util.Iterator;
 import java.util.Optional;
 import java.util.Set;
 import java.util.TreeSet;
 import java.util.function.Function;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 
+import javax.persistence.EntityManager;
+
+/**
+ * Resolves the final priority of inserted and updated rules, making room for them as needed.
+ *
+ * <p>With a {@link #gap} of {@code 1} priorities are kept dense, and taking an occupied priority
+ * shifts all the rules below it. With a larger gap, appended rules are spaced by {@code gap} and
+ * inserting in between two rules picks a free priority in the middle, or shifts only the contiguous
+ * run of rules starting at the requested priority. When a gap is exhausted all the priorities are
+ * renumbered to multiples of {@code gap}, with a batched update streaming over all the rules.
+ *
+ * <p>{@link #getUpdatedIds()} collects the ids of the rules whose relative order changed as a side
+ * effect, in order to notify collateral updates. Sparse mode moves rules without changing their
+ * relative order, so it reports none.
+ */
 class PriorityResolver<T> {
 
+    /** Number of renumbered priorities sent to the database at once */
+    static final int RENUMBER_BATCH_SIZE = 500;
+
+    private final EntityManager em;
+    private final Class<T> entityType;
     private final PriorityRepository<T> jparepo;
     private final Function<T, Long> priorityExtractor;
+    private final long gap;
 
     private final @Getter Set<Long> updatedIds = new TreeSet<>();
 
-    PriorityResolver(PriorityRepository<T> jparepo, Function<T, Long> priorityExtractor) {
+    /**
+     * @param em the entity manager renumbering the priorities of {@code entityType}, see {@link
+     *     #rebalance}
+     */
+    PriorityResolver(
+            EntityManager em,
+            Class<T> entityType,
+            PriorityRepository<T> jparepo,
+            Function<T, Long> priorityExtractor,
+            long gap) {
+        if (gap < 1) throw new IllegalArgumentException("priority gap must be > 0: " + gap);
+        this.em = em;
+        this.entityType = entityType;
         this.jparepo = jparepo;
         this.priorityExtractor = priorityExtractor;
+        this.gap = gap;
+    }
+
+    private boolean isSparse() {
+        return gap > 1;
     }
 
     public long resolveFinalPriority(long priority, InsertPosition position) {
+        if (isSparse()) {
+            return resolveSparsePriority(priority, position);
+        }
+        return resolveDensePriority(priority, position, 1);
+    }
+
+    /**
+     * Resolves the priorities for a block of {@code count} new rules to be inserted contiguously,
+     * positioned as {@link #resolveFinalPriority(long, InsertPosition)} would do for a single one,
+     * and making room for all of them at once.
+     *
+     * @return the priorities for each rule in the block, in ascending order
+     */
+    public long[] resolveFinalPriorities(long priority, InsertPosition position, int count) {
+        if (count < 1) throw new IllegalArgumentException("count must be > 0: " + count);
+        if (count == 1) {
+            return new long[] {resolveFinalPriority(priority, position)};
+        }
+        if (isSparse()) {
+            return resolveSparsePriorities(priority, position, count);
+        }
+        final long first = resolveDensePriority(priority, position, count);
+        return LongStream.range(first, first + count).toArray();
+    }
+
+    /**
+     * @param slots the number of consecutive priorities to make room for
+     * @return the first of the {@code slots} consecutive priorities available
+     */
+    private long resolveDensePriority(long priority, InsertPosition position, int slots) {
         long finalPriority;
         switch (position) {
             case FIXED:
                 {
-                    finalPriority = resolveFixedPriority(priority);
+                    finalPriority = resolveFixedPriority(priority, slots);
                     break;
                 }
             case FROM_START:
                 {
                     long positionFromStart = priority;
-                    finalPriority = resolvePriorityFromStart(positionFromStart);
+                    finalPriority = resolvePriorityFromStart(positionFromStart, slots);
                     break;
                 }
             case FROM_END:
                 {
                     long positionFromEnd = priority;
-                    finalPriority = resolvePriorityFromEnd(positionFromEnd);
+                    finalPriority = resolvePriorityFromEnd(positionFromEnd, slots);
                     break;
                 }
             default:
@@ -55,18 +131,19 @@ class PriorityResolver<T> {
         return finalPriority;
     }
 
-    private long resolveFixedPriority(final long requestedPriority) {
+    private long resolveFixedPriority(final long requestedPriority, final int slots) {
         final boolean priorityUnset = 0L == requestedPriority;
         if (priorityUnset) {
             return jparepo.findMaxPriority().orElse(0L) + 1;
         }
-        jparepo.findOneByPriority(requestedPriority)
-                .ifPresent(
-                        r -> {
-                            jparepo.streamIdsByShiftPriority(requestedPriority)
-                                    .forEach(updatedIds::add);
-                            jparepo.shiftPriority(requestedPriority, 1);
-                        });
+        final boolean busy =
+                slots == 1
+                        ? slotBusy(requestedPriority)
+                        : anySlotBusy(requestedPriority, requestedPriority + slots - 1);
+        if (busy) {
+            jparepo.streamIdsByShiftPriority(requestedPriority).forEach(updatedIds::add);
+            jparepo.shiftPriority(requestedPriority, slots);
+        }
         return requestedPriority;
     }
 
@@ -86,11 +163,14 @@ class PriorityResolver<T> {
             return currentPriority;
         }
         if (0L == targetPriority) {
-            return jparepo.findMaxPriority().orElse(0L) + 1;
+            return jparepo.findMaxPriority().orElse(0L) + gap;
         }
         if (!slotBusy(targetPriority)) {
             return targetPriority;
         }
+        if (isSparse()) {
+            return makeRoomAt(targetPriority, currentPriority);
+        }
 
         long min, max, offset;
         if (targetPriority < currentPriority) {
@@ -113,25 +193,31 @@ class PriorityResolver<T> {
         return targetPriority;
     }
 
+    private boolean anySlotBusy(long min, long max) {
+        try (Stream<Long> ids = jparepo.streamIdsByShiftPriorityBetween(min, max)) {
+            return ids.findAny().isPresent();
+        }
+    }
+
     private boolean slotBusy(long targetPriority) {
         final Optional<T> another = jparepo.findOneByPriority(targetPriority);
         final boolean slotBusy = another.isPresent();
         return slotBusy;
     }
 
-    private long resolvePriorityFromStart(final long requestedPosition) {
+    private long resolvePriorityFromStart(final long requestedPosition, final int slots) {
         // find the rule at index $min + requestedPosition
         if (0 == requestedPosition) {
             Optional<Long> min = jparepo.findMinPriority();
             if (min.isPresent()) {
-                jparepo.shiftPriority(min.get(), 1);
+                jparepo.shiftPriority(min.get(), slots);
                 return min.get();
             }
             return 1L;
         }
         Optional<Long> found = findNthPriorityByOrder(requestedPosition, Direction.ASC);
         if (found.isPresent()) {
-            jparepo.shiftPriority(found.get(), 1);
+            jparepo.shiftPriority(found.get(), slots);
             return found.get();
         }
 
@@ -139,7 +225,7 @@ class PriorityResolver<T> {
         return 1 + jparepo.findMaxPriority().orElse(0L);
     }
 
-    private long resolvePriorityFromEnd(final long requestedPosition) {
+    private long resolvePriorityFromEnd(final long requestedPosition, final int slots) {
         // find the rule at index $max - requestedPosition
         if (0 == requestedPosition) {
             return jparepo.findMaxPriority().map(max -> 1 + max).orElse(1L);
@@ -148,7 +234,7 @@ class PriorityResolver<T> {
         Optional<Long> found = findNthPriorityByOrder(requestedPosition, Direction.DESC);
         if (found.isPresent()) {
             jparepo.streamIdsByShiftPriority(found.get()).forEach(updatedIds::add);
-            jparepo.shiftPriority(found.get(), 1);
+            jparepo.shiftPriority(found.get(), slots);
             return found.get();
         }
 
@@ -157,7 +243,7 @@ class PriorityResolver<T> {
         min.ifPresent(
                 minPriority -> {
                     jparepo.streamIdsByShiftPriority(minPriority).forEach(updatedIds::add);
-                    jparepo.shiftPriority(minPriority, 1);
+                    jparepo.shiftPriority(minPriority, slots);
                 });
         return min.orElse(1L);
     }
@@ -179,4 +265,205 @@ class PriorityResolver<T> {
                 .findFirst()
                 .map(priorityExtractor);
     }
+
+    private long resolveSparsePriority(final long priority, InsertPosition position) {
+        switch (position) {
+            case FIXED:
+                if (0L == priority) {
+                    return nextPriority();
+                }
+                return slotBusy(priority) ? makeRoomAt(priority, -1L) : priority;
+            case FROM_START:
+                {
+                    Optional<Long> found =
+                            0 == priority
+                                    ? jparepo.findMinPriority()
+                                    : findNthPriorityByOrder(priority, Direction.ASC);
+                    return found.map(this::insertBefore).orElseGet(this::nextPriority);
+                }
+            case FROM_END:
+                {
+                    if (0 == priority) {
+                        return nextPriority();
+                    }
+                    Optional<Long> found = findNthPriorityByOrder(priority, Direction.DESC);
+                    if (found.isEmpty()) {
+                        found = jparepo.findMinPriority();
+                    }
+                    return found.map(this::insertBefore).orElseGet(this::nextPriority);
+                }
+            default:
+                throw new IllegalStateException("Unknown InsertPosition " + position);
+        }
+    }
+
+    private long[] resolveSparsePriorities(
+            final long priority, InsertPosition position, int count) {
+        switch (position) {
+            case FIXED:
+                {
+                    if (0L == priority) {
+                        return append(count);
+                    }
+                    if (slotBusy(priority)) {
+                        return insertBefore(priority, count);
+                    }
+                    Optional<Long> next;
+                    try (Stream<Long> following = jparepo.streamPrioritiesFrom(priority)) {
+                        next = following.findFirst();
+                    }
+                    if (next.isEmpty()) {
+                        return spread(priority, gap, count);
+                    }
+                    final long room = next.get() - priority;
+                    if (room >= count) {
+                        return spread(priority, Math.min(gap, room / count), count);
+                    }
+                    return insertBefore(next.get(), count);
+                }
+            case FROM_START:
+                {
+                    Optional<Long> found =
+                            0 == priority
+                                    ? jparepo.findMinPriority()
+                                    : findNthPriorityByOrder(priority, Direction.ASC);
+                    return found.map(p -> insertBefore(p, count)).orElseGet(() -> append(count));
+                }
+            case FROM_END:
+                {
+                    if (0 == priority) {
+                        return append(count);
+                    }
+                    Optional<Long> found = findNthPriorityByOrder(priority, Direction.DESC);
+                    if (found.isEmpty()) {
+                        found = jparepo.findMinPriority();
+                    }
+                    return found.map(p -> insertBefore(p, count)).orElseGet(() -> append(count));
+                }
+            default:
+                throw new IllegalStateException("Unknown InsertPosition " + position);
+        }
+    }
+
+    private long[] append(int count) {
+        return spread(nextPriority(), gap, count);
+    }
+
+    /**
+     * @return {@code count} free priorities right before the {@code occupied} one, evenly spread
+     *     over the gap with the previous rule, renumbering all priorities if there's not enough
+     *     room
+     */
+    private long[] insertBefore(final long occupied, final int count) {
+        final long previous = jparepo.findMaxPriorityBefore(occupied).orElse(0L);
+        final long step = (occupied - previous) / (count + 1);
+        if (step > 0) {
+            return spread(previous + step, step, count);
+        }
+        return insertBefore(rebalance(occupied, count), count);
+    }
+
+    private static long[] spread(long first, long step, int count) {
+        return LongStream.range(0, count).map(i -> first + i * step).toArray();
+    }
+
+    private long nextPriority() {
+        return jparepo.findMaxPriority().orElse(0L) + gap;
+    }
+
+    /**
+     * @return a free priority right before the {@code occupied} one, taking the middle of the gap
+     *     with the previous rule if there's room, or making room at {@code occupied} otherwise
+     */
+    private long insertBefore(final long occupied) {
+        final long previous = jparepo.findMaxPriorityBefore(occupied).orElse(0L);
+        if (occupied - previous > 1) {
+            return previous + (occupied - previous) / 2;
+        }
+        return makeRoomAt(occupied, -1L);
+    }
+
+    /**
+     * Shifts by one the contiguous run of rules starting at {@code priority}, up to the first free
+     * slot, treating {@code vacated} (the current priority of a rule being moved) as free. If the
+     * run is longer than {@link #gap}, the gap is considered exhausted and all priorities are
+     * renumbered instead.
+     *
+     * @return the priority that's now free for the inserted or moved rule
+     */
+    private long makeRoomAt(final long priority, final long vacated) {
+        long runEnd = priority - 1;
+        try (Stream<Long> priorities = jparepo.streamPrioritiesFrom(priority)) {
+            Iterator<Long> it = priorities.iterator();
+            while (it.hasNext()) {
+                long next = it.next();
+                if (next != runEnd + 1 || next == vacated) break;
+                runEnd = next;
+            }
+        }
+        final long runLength = runEnd - priority + 1;
+        if (runLength > gap) {
+            return insertBefore(rebalance(priority, 0));
+        }
+        jparepo.shiftPrioritiesBetween(priority, runEnd, 1);
+        return priority;
+    }
+
+    /**
+     * Renumbers all priorities to consecutive multiples of {@link #gap}, preserving their order.
+     * The rules are streamed in priority order, and only the rows whose priority differs are
+     * updated, in JDBC batches of {@link #RENUMBER_BATCH_SIZE}.
+     *
+     * @param roomAt the priority before which to leave room for {@code slots} extra rules
+     * @param slots the number of extra rules to leave room for before {@code roomAt}
+     * @return the new priority of the rule at {@code roomAt}
+     */
+    private long rebalance(final long roomAt, final int slots) {
+        final AbstractEntityPersister persister = persister();
+        final String sql =
+                String.format(
+                        "UPDATE %s SET %s = ? WHERE %s = ?",
+                        persister.getTableName(),
+                        persister.toColumns("priority")[0],
+                        persister.getIdentifierColumnNames()[0]);
+        final long[] renumbered = {roomAt};
+        em.flush();
+        em.unwrap(Session.class)
+                .doWork(
+                        connection -> {
+                            try (Stream<IdPriority> all =
+                                            jparepo.streamIdPrioritiesOrderByPriority();
+                                    PreparedStatement update = connection.prepareStatement(sql)) {
+                                int batched = 0;
+                                long next = gap;
+                                for (Iterator<IdPriority> it = all.iterator(); it.hasNext(); ) {
+                                    IdPriority ip = it.next();
+                                    long current = ip.getPriority();
+                                    if (current == roomAt) {
+                                        next += slots * gap;
+                                        renumbered[0] = next;
+                                    }
+                                    if (current != next) {
+                                        update.setLong(1, next);
+                                        update.setLong(2, ip.getId());
+                                        update.addBatch();
+                                        if (++batched % RENUMBER_BATCH_SIZE == 0) {
+                                            update.executeBatch();
+                                        }
+                                    }
+                                    next += gap;
+                                }
+                                if (batched % RENUMBER_BATCH_SIZE != 0) update.executeBatch();
+                            }
+                        });
+        // like the other bulk updates, don't leave entities with stale priorities around
+        em.clear();
+        return renumbered[0];
+    }
+
+    private AbstractEntityPersister persister() {
+        SessionFactoryImplementor factory =
+                em.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class);
+        return (AbstractEntityPersister) factory.getMetamodel().entityPersister(entityType);
+    }
 }
@@ -0,0 +1,128 @@
+/* (c) 2023  Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.acl.integration.jpa.repository;
+
+import lombok.NonNull;
+import lombok.Setter;
+
+import org.geoserver.acl.domain.rules.RuleChange;
+import org.geoserver.acl.domain.rules.RuleChange.RuleType;
+import org.geoserver.acl.domain.rules.RuleChangeLog;
+import org.geoserver.acl.domain.rules.RuleEvent.EventType;
+import org.geoserver.acl.jpa.repository.JpaRuleChangeRepository;
+import org.geoserver.acl.jpa.repository.TransactionReadOnly;
+import org.geoserver.acl.jpa.repository.TransactionRequired;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * {@link RuleChangeLog} backed by the {@code acl_rule_change} table, shared by all the application
+ * instances using the same database.
+ *
+ * <p>The rule repositories append their changes themselves, right before their transaction commits
+ * (see {@link RuleChangeRecorder}), so a change is recorded if and only if it's committed.
+ *
+ * <p>Sequence numbers are taken before commit, so concurrent transactions may make their changes
+ * visible out of sequence order. {@link #findSince} and {@link #lastSequence} stop before a missing
+ * sequence number until the change following it is {@link #setMaxCommitDelay maxCommitDelay} old,
+ * then the missing change is assumed rolled back.
+ *
+ * @since 1.0
+ */
+public class RuleChangeLogJpaAdaptor implements RuleChangeLog {
+
+    /** How often, in number of appended changes, the changes over {@code maxSize} are deleted */
+    public static final int TRIM_INTERVAL = 100;
+
+    private final JpaRuleChangeRepository jparepo;
+    private final int maxSize;
+
+    /** Maximum time between a change taking its sequence number and its transaction committing */
+    @Setter private @NonNull Duration maxCommitDelay = Duration.ofSeconds(10);
+
+    public RuleChangeLogJpaAdaptor(@NonNull JpaRuleChangeRepository jparepo, int maxSize) {
+        if (maxSize < 1) throw new IllegalArgumentException("maxSize must be > 0");
+        this.jparepo = jparepo;
+        this.maxSize = maxSize;
+    }
+
+    @Override
+    @TransactionRequired
+    public RuleChange append(
+            @NonNull RuleType ruleType, @NonNull EventType eventType, @NonNull Set<String> ids) {
+        org.geoserver.acl.jpa.model.RuleChange entity =
+                new org.geoserver.acl.jpa.model.RuleChange()
+                        .setRuleType(ruleType.name())
+                        .setEventType(eventType.name())
+                        .setRuleIds(new HashSet<>(ids))
+                        .setTimestamp(Instant.now());
+        entity = jparepo.save(entity);
+        final long sequence = entity.getId();
+        if (sequence % TRIM_INTERVAL == 0 && sequence > maxSize) {
+            jparepo.deleteByIdLessThan(sequence - maxSize + 1);
+        }
+        return map(entity);
+    }
+
+    @Override
+    @TransactionReadOnly
+    public List<RuleChange> findSince(long since, int limit) {
+        final Instant settled = Instant.now().minus(maxCommitDelay);
+        List<RuleChange> changes = new ArrayList<>();
+        long expected = since + 1;
+        for (org.geoserver.acl.jpa.model.RuleChange entity :
+                jparepo.findSince(since, PageRequest.ofSize(limit))) {
+            if (entity.getId() != expected && entity.getTimestamp().isAfter(settled)) {
+                break;
+            }
+            changes.add(map(entity));
+            expected = entity.getId() + 1;
+        }
+        return changes;
+    }
+
+    @Override
+    @TransactionReadOnly
+    public long firstSequence() {
+        return jparepo.findMinId().orElse(0L);
+    }
+
+    @Override
+    @TransactionReadOnly
+    public long lastSequence() {
+        final Instant settled = Instant.now().minus(maxCommitDelay);
+        // the changes up to the latest settled one can't be followed by a missing one that commits
+        long last =
+                Math.max(
+                        jparepo.findMaxIdNotAfter(settled).orElse(0L),
+                        jparepo.findMinId().orElse(1L) - 1);
+        for (long id : jparepo.findIdsSince(last)) {
+            if (id != last + 1) break;
+            last = id;
+        }
+        return last;
+    }
+
+    /** The JPA rule repositories append their changes, see {@link RuleChangeRecorder} */
+    @Override
+    public boolean isAppendedByRepositories() {
+        return true;
+    }
+
+    private RuleChange map(org.geoserver.acl.jpa.model.RuleChange entity) {
+        return new RuleChange(
+                entity.getId(),
+                RuleType.valueOf(entity.getRuleType()),
+                EventType.valueOf(entity.getEventType()),
+                Set.copyOf(entity.getRuleIds()),
+                entity.getTimestamp());
+    }
+}
@@ -0,0 +1,92 @@
+/* (c) 2023  Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.acl.integration.jpa.repository;
+
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+
+import org.geoserver.acl.domain.rules.RuleChange.RuleType;
+import org.geoserver.acl.domain.rules.RuleChangeLog;
+import org.geoserver.acl.domain.rules.RuleEvent.EventType;
+import org.geoserver.acl.integration.jpa.mapper.RuleJpaMapper;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Appends the changes made by a JPA rule repository to the {@link RuleChangeLog}, right before the
+ * transaction that makes them commits, and in that same transaction.
+ *
+ * <p>Rolled back transactions append nothing, and sequence numbers are taken as late as possible,
+ * so that concurrent transactions seldom commit out of sequence order.
+ *
+ * @since 1.0
+ */
+@RequiredArgsConstructor
+class RuleChangeRecorder {
+
+    /** The log to append to, {@code null} to record nothing */
+    private final RuleChangeLog log;
+
+    private final @NonNull RuleType ruleType;
+
+    public void created(Collection<Long> ids) {
+        record(EventType.CREATED, ids);
+    }
+
+    public void updated(Collection<Long> ids) {
+        record(EventType.UPDATED, ids);
+    }
+
+    public void deleted(Collection<Long> ids) {
+        record(EventType.DELETED, ids);
+    }
+
+    private void record(EventType eventType, Collection<Long> ids) {
+        if (null == log || ids.isEmpty()) return;
+        Set<String> ruleIds = ids.stream().map(RuleJpaMapper::encodeId).collect(Collectors.toSet());
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            log.append(ruleType, eventType, ruleIds);
+            return;
+        }
+        PendingChanges pending =
+                (PendingChanges) TransactionSynchronizationManager.getResource(this);
+        if (null == pending) {
+            pending = new PendingChanges();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.add(eventType, ruleIds);
+    }
+
+    /** The changes of the current transaction, in the order they were made */
+    private class PendingChanges implements TransactionSynchronization {
+
+        private final List<EventType> eventTypes = new ArrayList<>();
+        private final List<Set<String>> ruleIds = new ArrayList<>();
+
+        void add(EventType eventType, Set<String> ids) {
+            eventTypes.add(eventType);
+            ruleIds.add(ids);
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            for (int i = 0; i < eventTypes.size(); i++) {
+                log.append(ruleType, eventTypes.get(i), ruleIds.get(i));
+            }
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResource(RuleChangeRecorder.this);
+        }
+    }
+}
@@ -19,31 +19,47 @@ import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 
 import org.geoserver.acl.domain.filter.RuleQuery;
+import org.geoserver.acl.domain.filter.predicate.FilterType;
 import org.geoserver.acl.domain.filter.predicate.IPAddressRangeFilter;
 import org.geoserver.acl.domain.rules.InsertPosition;
 import org.geoserver.acl.domain.rules.Rule;
+import org.geoserver.acl.domain.rules.RuleBatch;
+import org.geoserver.acl.domain.rules.RuleChange.RuleType;
+import org.geoserver.acl.domain.rules.RuleChangeLog;
 import org.geoserver.acl.domain.rules.RuleEvent;
 import org.geoserver.acl.domain.rules.RuleFilter;
 import org.geoserver.acl.domain.rules.RuleIdentifierConflictException;
 import org.geoserver.acl.domain.rules.RuleLimits;
 import org.geoserver.acl.domain.rules.RuleRepository;
 import org.geoserver.acl.integration.jpa.mapper.RuleJpaMapper;
+import org.geoserver.acl.jpa.model.CacheRegions;
 import org.geoserver.acl.jpa.model.GrantType;
 import org.geoserver.acl.jpa.model.LayerDetails;
 import org.geoserver.acl.jpa.model.QRule;
+import org.geoserver.acl.jpa.model.RuleCandidate;
 import org.geoserver.acl.jpa.model.RuleIdentifier;
 import org.geoserver.acl.jpa.repository.JpaRuleRepository;
 import org.geoserver.acl.jpa.repository.TransactionReadOnly;
 import org.geoserver.acl.jpa.repository.TransactionRequired;
 import org.geoserver.acl.jpa.repository.TransactionSupported;
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.QueryHints;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.IncorrectResultSizeDataAccessException;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.Spliterators;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
@@ -55,6 +71,12 @@ import javax.persistence.EntityNotFoundException;
 @TransactionSupported
 public class RuleRepositoryJpaAdaptor implements RuleRepository {
 
+    /** JDBC fetch size for the {@link #exportAll} database cursor */
+    static final int EXPORT_FETCH_SIZE = 1000;
+
+    /** Number of rules whose layer details {@link #findAllWithDetails} loads per query */
+    static final int DETAILS_BATCH_SIZE = 1000;
+
     private final EntityManager em;
 
     private final JpaRuleRepository jparepo;
@@ -67,6 +89,14 @@ public class RuleRepositoryJpaAdaptor implements RuleRepository {
                 // no-op
             };
 
+    /**
+     * Priority spacing for new rules, {@code 1} keeps priorities dense, see {@link
+     * PriorityResolver}
+     */
+    @Setter private long priorityGap = 1;
+
+    private RuleChangeRecorder changes = new RuleChangeRecorder(null, RuleType.RULE);
+
     public RuleRepositoryJpaAdaptor(
             EntityManager em, JpaRuleRepository jparepo, RuleJpaMapper mapper) {
         Objects.requireNonNull(em);
@@ -78,8 +108,21 @@ public class RuleRepositoryJpaAdaptor implements RuleRepository {
         this.queryMapper = new PredicateMapper();
     }
 
+    /**
+     * Sets the log to append the changes to, within the transactions that make them, see {@link
+     * RuleChangeRecorder}
+     */
+    public void setChangeLog(RuleChangeLog changeLog) {
+        this.changes = new RuleChangeRecorder(changeLog, RuleType.RULE);
+    }
+
     private PriorityResolver<org.geoserver.acl.jpa.model.Rule> priorityResolver() {
-        return new PriorityResolver<>(jparepo, org.geoserver.acl.jpa.model.Rule::getPriority);
+        return new PriorityResolver<>(
+                em,
+                org.geoserver.acl.jpa.model.Rule.class,
+                jparepo,
+                org.geoserver.acl.jpa.model.Rule::getPriority,
+                priorityGap);
     }
 
     @Override
@@ -116,7 +159,14 @@ public class RuleRepositoryJpaAdaptor implements RuleRepository {
     @Override
     @TransactionReadOnly
     public Stream<Rule> findAll(@NonNull RuleQuery<RuleFilter> query) {
+        // collected, the stream shall outlive the transaction
+        try (Stream<Rule> rules = streamAll(query)) {
+            return rules.collect(Collectors.toList()).stream();
+        }
+    }
 
+    /** The rules matching {@code query}, to be consumed within the calling transaction */
+    private Stream<Rule> streamAll(RuleQuery<RuleFilter> query) {
         Predicate predicate = queryMapper.toPredicate(query);
         final java.util.function.Predicate<? super Rule> postFilter =
                 filterByAddress(query.getFilter());
@@ -126,35 +176,207 @@ public class RuleRepositoryJpaAdaptor implements RuleRepository {
             predicate = QRule.rule.id.goe(nextId).and(predicate);
         }
 
-        CloseableIterator<org.geoserver.acl.jpa.model.Rule> iterator = query(predicate);
+        final Integer limit = query.getLimit();
+        // rule matching queries (i.e. filtered, neither paginated nor limited) go through the
+        // query cache, if enabled, the others are streamed
+        final boolean cacheable =
+                query.getFilter().isPresent()
+                        && query.getNextId() == null
+                        && limit == null
+                        && isQueryCacheEnabled(em);
+        // the address filter runs in memory, the database can only apply the limit without it
+        final Integer queryLimit = filtersByAddress(query.getFilter()) ? null : limit;
+
+        Stream<Rule> rules =
+                query(predicate, cacheable, query.getFields(), queryLimit)
+                        .map(modelMapper::toModel)
+                        .filter(postFilter);
+        if (null != limit) {
+            rules = rules.limit(limit);
+        }
+        return rules;
+    }
 
-        try (Stream<org.geoserver.acl.jpa.model.Rule> stream = stream(iterator)) {
-            Stream<Rule> rules = stream.map(modelMapper::toModel).filter(postFilter);
-            final Integer pageSize = query.getLimit();
-            if (null != pageSize) {
-                rules = rules.limit(query.getLimit());
+    /**
+     * Scrolls over the rule entities with a forward-only database cursor, detaching each one once
+     * mapped, so that neither the result set nor the persistence context grow with the number of
+     * rules. The layer details are loaded in batches of {@link #DETAILS_BATCH_SIZE} rules, as
+     * {@link #findAllWithDetails} does.
+     */
+    @Override
+    @TransactionReadOnly
+    public void exportAll(
+            @NonNull BiConsumer<Rule, org.geoserver.acl.domain.rules.LayerDetails> consumer) {
+        JPAQuery<org.geoserver.acl.jpa.model.Rule> query =
+                new JPAQuery<org.geoserver.acl.jpa.model.Rule>(em)
+                        .from(QRule.rule)
+                        .orderBy(new OrderSpecifier<>(Order.ASC, QRule.rule.priority))
+                        .setHint(QueryHints.FETCH_SIZE, EXPORT_FETCH_SIZE);
+
+        List<Rule> batch = new ArrayList<>(DETAILS_BATCH_SIZE);
+        try (CloseableIterator<org.geoserver.acl.jpa.model.Rule> it = query.iterate()) {
+            while (it.hasNext()) {
+                org.geoserver.acl.jpa.model.Rule entity = it.next();
+                batch.add(modelMapper.toModel(entity));
+                em.detach(entity);
+                if (batch.size() == DETAILS_BATCH_SIZE) {
+                    acceptWithDetails(batch, consumer);
+                    batch.clear();
+                }
             }
-            return rules.collect(Collectors.toList()).stream();
         }
+        acceptWithDetails(batch, consumer);
     }
 
-    private CloseableIterator<org.geoserver.acl.jpa.model.Rule> query(Predicate predicate) {
+    /**
+     * Loads the layer details of the matching rules in batches of {@link #DETAILS_BATCH_SIZE} as
+     * they're read, instead of one entity and two collection queries per rule, so that only a batch
+     * of rules is held in memory
+     */
+    @Override
+    @TransactionReadOnly
+    public void findAllWithDetails(
+            @NonNull RuleQuery<RuleFilter> query,
+            @NonNull BiConsumer<Rule, org.geoserver.acl.domain.rules.LayerDetails> consumer) {
+        List<Rule> batch = new ArrayList<>(DETAILS_BATCH_SIZE);
+        try (Stream<Rule> rules = streamAll(query)) {
+            rules.forEach(
+                    rule -> {
+                        batch.add(rule);
+                        if (batch.size() == DETAILS_BATCH_SIZE) {
+                            acceptWithDetails(batch, consumer);
+                            batch.clear();
+                        }
+                    });
+        }
+        acceptWithDetails(batch, consumer);
+    }
+
+    /**
+     * Queries the rules {@code id in} batches of {@link #DETAILS_BATCH_SIZE} ids, and their layer
+     * details as {@link #findAllWithDetails} does
+     */
+    @Override
+    @TransactionReadOnly
+    public void findAllByIdWithDetails(
+            @NonNull Set<String> ids,
+            @NonNull BiConsumer<Rule, org.geoserver.acl.domain.rules.LayerDetails> consumer) {
+        List<Long> entityIds =
+                ids.stream().map(RuleJpaMapper::decodeId).collect(Collectors.toList());
+        for (int from = 0; from < entityIds.size(); from += DETAILS_BATCH_SIZE) {
+            List<Long> chunk =
+                    entityIds.subList(from, Math.min(entityIds.size(), from + DETAILS_BATCH_SIZE));
+            final List<Rule> batch;
+            try (Stream<RuleCandidate> stream = query(QRule.rule.id.in(chunk), false, null, null)) {
+                batch = stream.map(modelMapper::toModel).collect(Collectors.toList());
+            }
+            acceptWithDetails(batch, consumer);
+        }
+    }
 
-        CloseableIterator<org.geoserver.acl.jpa.model.Rule> iterator =
+    private void acceptWithDetails(
+            List<Rule> batch,
+            BiConsumer<Rule, org.geoserver.acl.domain.rules.LayerDetails> consumer) {
+        if (batch.isEmpty()) return;
+        Map<Long, org.geoserver.acl.domain.rules.LayerDetails> details = findLayerDetails(batch);
+        batch.forEach(rule -> consumer.accept(rule, details.get(decodeId(rule.getId()))));
+    }
+
+    /**
+     * Only {@link GrantType#ALLOW ALLOW} rules have layer details. Their styles are fetch-joined,
+     * and their attributes initialized in {@link LayerDetails#getAttributes() batches} by a
+     * separate query, to avoid the cartesian product of both collections.
+     */
+    private Map<Long, org.geoserver.acl.domain.rules.LayerDetails> findLayerDetails(
+            List<Rule> rules) {
+        final Set<Long> ids =
+                rules.stream()
+                        .filter(rule -> rule.getIdentifier().getAccess() == ALLOW)
+                        .map(rule -> decodeId(rule.getId()))
+                        .collect(Collectors.toSet());
+        if (ids.isEmpty()) return Map.of();
+
+        final QRule qrule = QRule.rule;
+        List<org.geoserver.acl.jpa.model.Rule> entities =
                 new JPAQuery<org.geoserver.acl.jpa.model.Rule>(em)
+                        .select(qrule)
+                        .distinct()
+                        .from(qrule)
+                        .leftJoin(qrule.layerDetails.allowedStyles)
+                        .fetchJoin()
+                        .where(qrule.id.in(ids))
+                        .fetch();
+        // the first one loads the attributes of all the entities, the others are no-ops
+        for (org.geoserver.acl.jpa.model.Rule entity : entities) {
+            LayerDetails ld = entity.getLayerDetails();
+            if (ld != null) Hibernate.initialize(ld.getAttributes());
+        }
+
+        Map<Long, org.geoserver.acl.domain.rules.LayerDetails> details = new HashMap<>();
+        for (org.geoserver.acl.jpa.model.Rule entity : entities) {
+            LayerDetails ld = entity.getLayerDetails();
+            if (ld != null && !ld.isEmpty()) {
+                details.put(entity.getId(), modelMapper.toModel(ld));
+            }
+            em.detach(entity);
+        }
+        return details;
+    }
+
+    /**
+     * Queries {@link RuleCandidate} projections instead of entities, the domain {@link Rule} does
+     * not carry the {@link LayerDetails}, so there's no point in loading their columns, and no
+     * managed entities are added to the persistence context
+     *
+     * @param fields the rule properties needed, see {@link RuleCandidate#projection(QRule, Set)}
+     * @param limit the maximum number of rules to return, {@code null} for no limit
+     */
+    private Stream<RuleCandidate> query(
+            Predicate predicate, boolean cacheable, Set<String> fields, Integer limit) {
+
+        JPAQuery<RuleCandidate> query =
+                new JPAQuery<RuleCandidate>(em)
+                        .select(RuleCandidate.projection(QRule.rule, fields))
                         .from(QRule.rule)
                         .where(predicate)
-                        .orderBy(new OrderSpecifier<>(Order.ASC, QRule.rule.priority))
-                        .iterate();
-        return iterator;
+                        .orderBy(new OrderSpecifier<>(Order.ASC, QRule.rule.priority));
+        if (null != limit) {
+            query.limit(limit);
+        }
+        if (cacheable) {
+            // the query cache does not apply to scrolled results
+            return query
+                    .setHint(QueryHints.CACHEABLE, true)
+                    .setHint(QueryHints.CACHE_REGION, CacheRegions.RULE_QUERIES)
+                    .fetch()
+                    .stream();
+        }
+        return stream(query.iterate());
     }
 
-    private Stream<org.geoserver.acl.jpa.model.Rule> stream(
-            CloseableIterator<org.geoserver.acl.jpa.model.Rule> iterator) {
+    private <T> Stream<T> stream(CloseableIterator<T> iterator) {
         return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, 0), false)
                 .onClose(iterator::close);
     }
 
+    /**
+     * @return whether Hibernate's query cache is enabled, otherwise there's no point in loading the
+     *     whole result of a matching query at once
+     */
+    static boolean isQueryCacheEnabled(EntityManager em) {
+        return em.getEntityManagerFactory()
+                .unwrap(SessionFactoryImplementor.class)
+                .getSessionFactoryOptions()
+                .isQueryCacheEnabled();
+    }
+
+    /**
+     * @return whether {@link #filterByAddress} can filter out rules
+     */
+    private static boolean filtersByAddress(Optional<RuleFilter> filter) {
+        return filter.isPresent() && filter.get().getSourceAddress().getType() != FilterType.ANY;
+    }
+
     private java.util.function.Predicate<? super Rule> filterByAddress(
             Optional<RuleFilter> filter) {
 
@@ -181,8 +403,13 @@ public class RuleRepositoryJpaAdaptor implements RuleRepository {
         modelMapper.updateEntity(entity, rule);
         entity.setPriority(finalPriority);
 
-        org.geoserver.acl.jpa.model.Rule saved = jparepo.save(entity);
-
+        org.geoserver.acl.jpa.model.Rule saved;
+        try {
+            saved = jparepo.saveAndFlush(entity);
+        } catch (DataIntegrityViolationException e) {
+            throw throwConflict(rule, e);
+        }
+        changes.updated(List.of(saved.getId()));
         notifyCollateralUpdates(priorityResolver.getUpdatedIds());
         return modelMapper.toModel(saved);
     }
@@ -225,15 +452,200 @@ public class RuleRepositoryJpaAdaptor implements RuleRepository {
         org.geoserver.acl.jpa.model.Rule entity = modelMapper.toEntity(rule);
         entity.setPriority(finalPriority);
 
-        org.geoserver.acl.jpa.model.Rule saved = jparepo.save(entity);
-
+        org.geoserver.acl.jpa.model.Rule saved;
+        try {
+            // gotta use saveAndFlush to catch the exception before the method returns and the tx is
+            // committed
+            saved = jparepo.saveAndFlush(entity);
+        } catch (DataIntegrityViolationException e) {
+            throw throwConflict(rule, e);
+        }
+        changes.created(List.of(saved.getId()));
         notifyCollateralUpdates(priorityResolver.getUpdatedIds());
 
         return modelMapper.toModel(saved);
     }
 
+    @Override
+    @TransactionRequired
+    public List<Rule> createAll(@NonNull List<Rule> rules, @NonNull InsertPosition position) {
+        if (rules.isEmpty()) return List.of();
+        for (Rule rule : rules) {
+            if (null != rule.getId()) throw new IllegalArgumentException("Rule must have no id");
+            if (rule.getPriority() < 0)
+                throw new IllegalArgumentException(
+                        "Negative priority is not allowed: " + rule.getPriority());
+        }
+        checkNoDups(rules, Set.of());
+
+        PriorityResolver<org.geoserver.acl.jpa.model.Rule> priorityResolver = priorityResolver();
+        final long[] priorities =
+                priorityResolver.resolveFinalPriorities(
+                        rules.get(0).getPriority(), position, rules.size());
+
+        List<org.geoserver.acl.jpa.model.Rule> entities = new ArrayList<>(rules.size());
+        for (int i = 0; i < rules.size(); i++) {
+            org.geoserver.acl.jpa.model.Rule entity = modelMapper.toEntity(rules.get(i));
+            entity.setPriority(priorities[i]);
+            entities.add(entity);
+        }
+        // saveAll() keeps the argument order, inserts are batched as per hibernate.jdbc.batch_size
+        List<org.geoserver.acl.jpa.model.Rule> saved;
+        try {
+            saved = jparepo.saveAllAndFlush(entities);
+        } catch (DataIntegrityViolationException e) {
+            throw throwConflict(rules.get(0), e);
+        }
+
+        changes.created(ids(saved));
+        notifyCollateralUpdates(priorityResolver.getUpdatedIds());
+
+        return saved.stream().map(modelMapper::toModel).collect(Collectors.toList());
+    }
+
+    /** Overrides the default method to create the rules and their layer details atomically */
+    @Override
+    @TransactionRequired
+    public List<Rule> createAll(
+            @NonNull List<Rule> rules,
+            @NonNull List<org.geoserver.acl.domain.rules.LayerDetails> details,
+            @NonNull InsertPosition position) {
+        return RuleRepository.super.createAll(rules, details, position);
+    }
+
+    /**
+     * Overrides the default method to import the rules atomically, checking the priorities are
+     * available with a single query
+     */
+    @Override
+    @TransactionRequired
+    public List<Rule> importAll(
+            @NonNull List<Rule> rules,
+            @NonNull List<org.geoserver.acl.domain.rules.LayerDetails> details) {
+        if (rules.isEmpty()) return List.of();
+        if (details.size() != rules.size())
+            throw new IllegalArgumentException("Expected one LayerDetails entry per Rule");
+        final Set<Long> priorities = new HashSet<>();
+        for (Rule rule : rules) {
+            if (null != rule.getId()) throw new IllegalArgumentException("Rule must have no id");
+            if (rule.getPriority() < 0)
+                throw new IllegalArgumentException(
+                        "Negative priority is not allowed: " + rule.getPriority());
+            if (!priorities.add(rule.getPriority()))
+                throw new IllegalArgumentException(
+                        "Priority " + rule.getPriority() + " is repeated");
+        }
+        org.geoserver.acl.jpa.model.Rule taken =
+                new JPAQuery<org.geoserver.acl.jpa.model.Rule>(em)
+                        .select(QRule.rule)
+                        .from(QRule.rule)
+                        .where(QRule.rule.priority.in(priorities))
+                        .fetchFirst();
+        if (null != taken) {
+            throw new IllegalArgumentException(
+                    "Priority "
+                            + taken.getPriority()
+                            + " is already taken by Rule "
+                            + modelMapper.toModel(taken).getId());
+        }
+        checkNoDups(rules, Set.of());
+
+        List<org.geoserver.acl.jpa.model.Rule> entities = new ArrayList<>(rules.size());
+        for (Rule rule : rules) {
+            org.geoserver.acl.jpa.model.Rule entity = modelMapper.toEntity(rule);
+            entity.setPriority(rule.getPriority());
+            entities.add(entity);
+        }
+        List<org.geoserver.acl.jpa.model.Rule> saved;
+        try {
+            saved = jparepo.saveAllAndFlush(entities);
+        } catch (DataIntegrityViolationException e) {
+            throw throwConflict(rules.get(0), e);
+        }
+        changes.created(ids(saved));
+        List<Rule> created = saved.stream().map(modelMapper::toModel).collect(Collectors.toList());
+        for (int i = 0; i < created.size(); i++) {
+            if (details.get(i) != null) setLayerDetails(created.get(i).getId(), details.get(i));
+        }
+        return created;
+    }
+
+    @Override
+    @TransactionRequired
+    public List<Rule> saveAll(@NonNull List<Rule> rules) {
+        if (rules.isEmpty()) return List.of();
+        final Set<Long> ids = new HashSet<>();
+        for (Rule rule : rules) {
+            Objects.requireNonNull(rule.getId());
+            if (!ids.add(decodeId(rule.getId())))
+                throw new IllegalArgumentException("Duplicate Rule id " + rule.getId());
+        }
+        checkNoDups(rules, ids);
+
+        // apply priority changes one at a time, each one may shift other rules
+        PriorityResolver<org.geoserver.acl.jpa.model.Rule> priorityResolver = priorityResolver();
+        for (Rule rule : rules) {
+            org.geoserver.acl.jpa.model.Rule entity = getOrThrowIAE(rule.getId());
+            long currentPriority = entity.getPriority();
+            long finalPriority =
+                    priorityResolver.resolvePriorityUpdate(currentPriority, rule.getPriority());
+            if (finalPriority != currentPriority) {
+                jparepo.setPriority(entity.getId(), finalPriority);
+            }
+        }
+
+        // priority updates clear the persistence context, reload the final state
+        Map<Long, org.geoserver.acl.jpa.model.Rule> entities =
+                jparepo.findAllById(ids).stream()
+                        .collect(Collectors.toMap(r -> r.getId(), Function.identity()));
+
+        List<org.geoserver.acl.jpa.model.Rule> updated = new ArrayList<>(rules.size());
+        for (Rule rule : rules) {
+            org.geoserver.acl.jpa.model.Rule entity = entities.get(decodeId(rule.getId()));
+            final long finalPriority = entity.getPriority();
+            removeLayerDetailsIfNotApplicableAnyMore(rule, entity);
+            modelMapper.updateEntity(entity, rule);
+            entity.setPriority(finalPriority);
+            updated.add(entity);
+        }
+        List<org.geoserver.acl.jpa.model.Rule> saved;
+        try {
+            saved = jparepo.saveAllAndFlush(updated);
+        } catch (DataIntegrityViolationException e) {
+            throw throwConflict(rules.get(0), e);
+        }
+
+        changes.updated(ids);
+        Set<Long> collateral = new HashSet<>(priorityResolver.getUpdatedIds());
+        collateral.removeAll(ids);
+        notifyCollateralUpdates(collateral);
+
+        return saved.stream().map(modelMapper::toModel).collect(Collectors.toList());
+    }
+
+    /**
+     * Checks no rule in the batch conflicts with another one in the batch or with an existing rule
+     * other than the ones in {@code batchIds}
+     */
+    private void checkNoDups(List<Rule> rules, Set<Long> batchIds) {
+        final Set<RuleIdentifier> identifiers = new HashSet<>();
+        for (Rule rule : rules) {
+            if (rule.getIdentifier().getAccess() == LIMIT) continue;
+            RuleIdentifier identifier = modelMapper.toEntity(rule.getIdentifier());
+            if (!identifiers.add(identifier)) {
+                throwConflict(rule);
+            }
+            jparepo.findAllByIdentifier(identifier).stream()
+                    .filter(r -> !batchIds.contains(r.getId()))
+                    .findFirst()
+                    .map(modelMapper::toModel)
+                    .ifPresent(this::throwConflict);
+        }
+    }
+
     // send an updated event for all collaterally updated rule
     private void notifyCollateralUpdates(Set<Long> ids) {
+        changes.updated(ids);
         if (!ids.isEmpty()) {
             Set<String> updatedIds =
                     ids.stream().map(RuleJpaMapper::encodeId).collect(Collectors.toSet());
@@ -256,10 +668,20 @@ public class RuleRepositoryJpaAdaptor implements RuleRepository {
                 .map(modelMapper::toModel);
     }
 
+    /** Overrides the default method to apply all the operations in a single transaction */
+    @Override
+    @TransactionRequired
+    public List<Rule> execute(@NonNull RuleBatch batch) {
+        return RuleRepository.super.execute(batch);
+    }
+
     @Override
     @TransactionRequired
     public boolean deleteById(@NonNull String id) {
-        return 1 == jparepo.deleteById(decodeId(id).longValue());
+        final long entityId = decodeId(id).longValue();
+        boolean deleted = 1 == jparepo.deleteById(entityId);
+        if (deleted) changes.deleted(List.of(entityId));
+        return deleted;
     }
 
     @Override
@@ -297,6 +719,7 @@ public class RuleRepositoryJpaAdaptor implements RuleRepository {
         rule2.setPriority(p1);
 
         jparepo.saveAll(List.of(rule1, rule2));
+        changes.updated(List.of(rule1.getId(), rule2.getId()));
     }
 
     @Override
@@ -318,6 +741,7 @@ public class RuleRepositoryJpaAdaptor implements RuleRepository {
             layerDetails.getAllowedStyles().addAll(styles);
         }
         jparepo.save(rule);
+        changes.updated(List.of(rule.getId()));
     }
 
     @Override
@@ -331,6 +755,7 @@ public class RuleRepositoryJpaAdaptor implements RuleRepository {
         rule.setRuleLimits(modelMapper.toEntity(limits));
 
         jparepo.save(rule);
+        changes.updated(List.of(rule.getId()));
     }
 
     @Override
@@ -349,6 +774,7 @@ public class RuleRepositoryJpaAdaptor implements RuleRepository {
         LayerDetails details = modelMapper.toEntity(detailsNew);
         rule.setLayerDetails(details);
         jparepo.save(rule);
+        changes.updated(List.of(rule.getId()));
     }
 
     @Override
@@ -363,12 +789,18 @@ public class RuleRepositoryJpaAdaptor implements RuleRepository {
         // }
 
         LayerDetails jpadetails = jparule.getLayerDetails();
-        if (jpadetails.isEmpty()) {
+        if (jpadetails == null || jpadetails.isEmpty()) {
             return Optional.empty();
         }
         return Optional.of(modelMapper.toModel(jpadetails));
     }
 
+    private static List<Long> ids(List<org.geoserver.acl.jpa.model.Rule> entities) {
+        return entities.stream()
+                .map(org.geoserver.acl.jpa.model.Rule::getId)
+                .collect(Collectors.toList());
+    }
+
     private org.geoserver.acl.jpa.model.Rule getOrThrowIAE(@NonNull String ruleId) {
         org.geoserver.acl.jpa.model.Rule rule;
         try {
@@ -381,7 +813,12 @@ public class RuleRepositoryJpaAdaptor implements RuleRepository {
     }
 
     private void throwConflict(Rule dup) {
+        throw throwConflict(dup, null);
+    }
+
+    private RuleIdentifierConflictException throwConflict(
+            Rule rule, DataIntegrityViolationException e) {
         throw new RuleIdentifierConflictException(
-                "A Rule with the same identifier already exists: " + dup.toShortString());
+                "A Rule with the same identifier already exists: " + rule.toShortString(), e);
     }
 }
@@ -3,6 +3,7 @@ package org.geoserver.acl.integration.jpa.config;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import org.geoserver.acl.domain.adminrules.AdminRuleRepository;
+import org.geoserver.acl.domain.rules.RuleChangeLog;
 import org.geoserver.acl.domain.rules.RuleRepository;
 import org.geoserver.acl.integration.jpa.mapper.AdminRuleJpaMapper;
 import org.geoserver.acl.integration.jpa.mapper.RuleJpaMapper;
@@ -28,6 +29,7 @@ class JPAIntegrationConfigurationTest {
                             .hasNotFailed()
                             .hasSingleBean(RuleRepository.class)
                             .hasSingleBean(AdminRuleRepository.class)
+                            .hasSingleBean(RuleChangeLog.class)
                             .hasSingleBean(RuleJpaMapper.class)
                             .hasSingleBean(AdminRuleJpaMapper.class);
                 });
@@ -96,6 +96,49 @@ class AdminRuleRepositoryJpaAdaptorTest {
         assertThat(message).contains(r2.toShortString());
     }
 
+    @Test
+    void createAll_saveAll() {
+        AdminRule r1 = repo.create(AdminRule.user().withWorkspace("w1"), InsertPosition.FIXED);
+
+        List<AdminRule> created =
+                repo.createAll(
+                        List.of(createFull(1), createFull(2), createFull(3)),
+                        InsertPosition.FROM_START);
+        assertThat(created.stream().map(AdminRule::getPriority)).containsExactly(1L, 2L, 3L);
+        assertThat(repo.findById(r1.getId()).orElseThrow().getPriority()).isEqualTo(4L);
+        assertThat(repo.findAll().collect(Collectors.toList()))
+                .isEqualTo(
+                        List.of(
+                                created.get(0),
+                                created.get(1),
+                                created.get(2),
+                                r1.withPriority(4)));
+
+        List<AdminRule> updates =
+                created.stream()
+                        .map(r -> r.withName(r.getName() + "-updated"))
+                        .collect(Collectors.toList());
+        assertThat(repo.saveAll(updates)).isEqualTo(updates);
+
+        List<AdminRule> dups =
+                List.of(updates.get(1).withIdentifier(updates.get(0).getIdentifier()));
+        assertThrows(AdminRuleIdentifierConflictException.class, () -> repo.saveAll(dups));
+    }
+
+    @Test
+    void importAll() {
+        AdminRule existing = repo.create(AdminRule.user().withPriority(5), InsertPosition.FIXED);
+        List<AdminRule> imported = repo.importAll(List.of(createFull(10), createFull(3)));
+
+        assertThat(imported.stream().map(AdminRule::getPriority)).containsExactly(10L, 3L);
+        assertThat(repo.findAll().collect(Collectors.toList()))
+                .isEqualTo(List.of(imported.get(1), existing, imported.get(0)));
+
+        List<AdminRule> taken = List.of(createFull(5));
+        assertThrows(IllegalArgumentException.class, () -> repo.importAll(taken));
+        assertThat(repo.count()).isEqualTo(3);
+    }
+
     @Test
     void count() {
         assertThat(repo.count()).isZero();
@@ -3,11 +3,14 @@ package org.geoserver.acl.integration.jpa.it;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.geoserver.acl.domain.rules.RuleEvent.created;
 import static org.geoserver.acl.domain.rules.RuleEvent.updated;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import org.geoserver.acl.config.domain.RuleAdminServiceConfiguration;
+import org.geoserver.acl.domain.rules.InsertPosition;
 import org.geoserver.acl.domain.rules.Rule;
 import org.geoserver.acl.domain.rules.RuleAdminService;
 import org.geoserver.acl.domain.rules.RuleAdminServiceIT;
+import org.geoserver.acl.domain.rules.RuleBatch;
 import org.geoserver.acl.domain.rules.RuleEvent;
 import org.geoserver.acl.integration.jpa.config.AuthorizationJPAPropertiesTestConfiguration;
 import org.geoserver.acl.integration.jpa.config.JPAIntegrationConfiguration;
@@ -116,4 +119,23 @@ public class RuleAdminServiceJpaIT extends RuleAdminServiceIT {
         service.shift(100, 1);
         assertThat(captured).isEmpty();
     }
+
+    @Test
+    void testExecuteBatch_rolls_back_on_failure() {
+        RuleAdminService service = super.ruleAdminService;
+        Rule r1 = service.insert(Rule.allow().withPriority(1).withLayer("l1"));
+        Rule r2 = service.insert(Rule.allow().withPriority(2).withLayer("l2"));
+
+        RuleBatch batch =
+                RuleBatch.of(
+                        List.of(
+                                RuleBatch.Operation.create(
+                                        Rule.deny().withPriority(1), InsertPosition.FIXED, null),
+                                RuleBatch.Operation.delete(r1.getId()),
+                                RuleBatch.Operation.update(r2.withLayer("l3"), null),
+                                RuleBatch.Operation.delete("1000000")));
+        assertThrows(IllegalArgumentException.class, () -> service.execute(batch));
+
+        assertThat(service.getAll()).containsExactly(r1, r2);
+    }
 }
@@ -0,0 +1,142 @@
+package org.geoserver.acl.integration.jpa.it;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.geoserver.acl.domain.rules.InsertPosition;
+import org.geoserver.acl.domain.rules.Rule;
+import org.geoserver.acl.domain.rules.RuleBatch;
+import org.geoserver.acl.domain.rules.RuleBatch.Operation;
+import org.geoserver.acl.domain.rules.RuleChange;
+import org.geoserver.acl.domain.rules.RuleChange.RuleType;
+import org.geoserver.acl.domain.rules.RuleChangeLog;
+import org.geoserver.acl.domain.rules.RuleEvent.EventType;
+import org.geoserver.acl.domain.rules.RuleRepository;
+import org.geoserver.acl.integration.jpa.config.AuthorizationJPAPropertiesTestConfiguration;
+import org.geoserver.acl.integration.jpa.config.JPAIntegrationConfiguration;
+import org.geoserver.acl.integration.jpa.repository.RuleChangeLogJpaAdaptor;
+import org.geoserver.acl.jpa.repository.JpaRuleChangeRepository;
+import org.geoserver.acl.jpa.repository.JpaRuleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@SpringBootTest(
+        classes = {
+            AuthorizationJPAPropertiesTestConfiguration.class,
+            JPAIntegrationConfiguration.class
+        })
+@ActiveProfiles("test") // see config props in src/test/resource/application-test.yaml
+class RuleChangeLogJpaAdaptorTest {
+
+    private @Autowired RuleChangeLog log;
+    private @Autowired JpaRuleChangeRepository jpaRepo;
+    private @Autowired RuleRepository ruleRepo;
+    private @Autowired JpaRuleRepository jpaRuleRepo;
+
+    @BeforeEach
+    void setup() {
+        jpaRepo.deleteAll();
+        jpaRuleRepo.deleteAll();
+    }
+
+    @Test
+    void emptyLog() {
+        assertThat(log.firstSequence()).isZero();
+        assertThat(log.lastSequence()).isZero();
+        assertThat(log.findSince(0, 10)).isEmpty();
+    }
+
+    @Test
+    void appendAndFindSince() {
+        RuleChange c1 = log.append(RuleType.RULE, EventType.CREATED, Set.of("1"));
+        RuleChange c2 = log.append(RuleType.ADMIN_RULE, EventType.UPDATED, Set.of("2", "3"));
+        assertThat(c2.getSequence()).isGreaterThan(c1.getSequence());
+        assertThat(log.firstSequence()).isEqualTo(c1.getSequence());
+        assertThat(log.lastSequence()).isEqualTo(c2.getSequence());
+
+        List<RuleChange> changes = log.findSince(c1.getSequence() - 1, 10);
+        assertThat(changes).hasSize(2);
+        assertThat(changes.get(1).getRuleType()).isEqualTo(RuleType.ADMIN_RULE);
+        assertThat(changes.get(1).getEventType()).isEqualTo(EventType.UPDATED);
+        assertThat(changes.get(1).getRuleIds()).isEqualTo(Set.of("2", "3"));
+
+        assertThat(sequences(log.findSince(c1.getSequence(), 10)))
+                .containsExactly(c2.getSequence());
+        assertThat(log.findSince(c2.getSequence(), 10)).isEmpty();
+        assertThat(sequences(log.findSince(c1.getSequence() - 1, 1)))
+                .containsExactly(c1.getSequence());
+    }
+
+    @Test
+    void discardsOldestChangesOverMaxSize() {
+        RuleChangeLog small = new RuleChangeLogJpaAdaptor(jpaRepo, 10);
+        long last = 0;
+        int i = 0;
+        // sequences aren't reset across tests, append up to the next trim
+        do {
+            last = small.append(RuleType.RULE, EventType.DELETED, Set.of("r" + i++)).getSequence();
+        } while (last <= 10 || last % RuleChangeLogJpaAdaptor.TRIM_INTERVAL != 0);
+
+        assertThat(small.lastSequence()).isEqualTo(last);
+        // trimmed on the last append
+        assertThat(small.firstSequence()).isEqualTo(last - 9);
+        assertThat(small.findSince(last - 10, 100)).hasSize(10);
+    }
+
+    @Test
+    void holdsBackChangesAfterAMissingSequence() {
+        RuleChange c1 = log.append(RuleType.RULE, EventType.CREATED, Set.of("1"));
+        RuleChange c2 = log.append(RuleType.RULE, EventType.CREATED, Set.of("2"));
+        RuleChange c3 = log.append(RuleType.RULE, EventType.CREATED, Set.of("3"));
+        // as if c2 was still committing
+        jpaRepo.deleteById(c2.getSequence());
+
+        final long since = c1.getSequence() - 1;
+        assertThat(sequences(log.findSince(since, 10))).containsExactly(c1.getSequence());
+        assertThat(log.lastSequence()).isEqualTo(c1.getSequence());
+        assertThat(log.findSince(c1.getSequence(), 10)).isEmpty();
+
+        // once c3 is older than maxCommitDelay, c2 is assumed rolled back
+        RuleChangeLogJpaAdaptor settled = new RuleChangeLogJpaAdaptor(jpaRepo, 100);
+        settled.setMaxCommitDelay(Duration.ZERO);
+        assertThat(sequences(settled.findSince(since, 10)))
+                .containsExactly(c1.getSequence(), c3.getSequence());
+        assertThat(settled.lastSequence()).isEqualTo(c3.getSequence());
+    }
+
+    @Test
+    void repositoriesAppendTheirChangesOnCommit() {
+        assertThat(log.isAppendedByRepositories()).isTrue();
+        final long since = log.append(RuleType.RULE, EventType.DELETED, Set.of()).getSequence();
+        Rule rule = ruleRepo.create(Rule.allow().withPriority(1), InsertPosition.FIXED);
+        List<RuleChange> changes = log.findSince(since, 10);
+        assertThat(changes).hasSize(1);
+        assertThat(changes.get(0).getEventType()).isEqualTo(EventType.CREATED);
+        assertThat(changes.get(0).getRuleIds()).containsExactly(rule.getId());
+
+        final long last = log.lastSequence();
+        // the create is rolled back with the failed delete, so is its change
+        RuleBatch batch =
+                RuleBatch.of(
+                        List.of(
+                                Operation.create(
+                                        Rule.deny().withPriority(2), InsertPosition.FIXED, null),
+                                Operation.delete("ffff")));
+        assertThrows(IllegalArgumentException.class, () -> ruleRepo.execute(batch));
+        assertThat(ruleRepo.count()).isOne();
+        assertThat(log.findSince(last, 10)).isEmpty();
+        assertThat(log.lastSequence()).isEqualTo(last);
+    }
+
+    private List<Long> sequences(List<RuleChange> changes) {
+        return changes.stream().map(RuleChange::getSequence).collect(Collectors.toList());
+    }
+}
@@ -8,10 +8,15 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import org.geolatte.geom.MultiPolygon;
 import org.geolatte.geom.codec.Wkt;
 import org.geoserver.acl.domain.filter.RuleQuery;
+import org.geoserver.acl.domain.filter.predicate.SpecialFilterType;
 import org.geoserver.acl.domain.rules.CatalogMode;
 import org.geoserver.acl.domain.rules.GrantType;
 import org.geoserver.acl.domain.rules.InsertPosition;
+import org.geoserver.acl.domain.rules.LayerAttribute;
+import org.geoserver.acl.domain.rules.LayerAttribute.AccessType;
+import org.geoserver.acl.domain.rules.LayerDetails;
 import org.geoserver.acl.domain.rules.Rule;
+import org.geoserver.acl.domain.rules.RuleFilter;
 import org.geoserver.acl.domain.rules.RuleIdentifierConflictException;
 import org.geoserver.acl.domain.rules.RuleLimits;
 import org.geoserver.acl.domain.rules.RuleRepository;
@@ -25,7 +30,12 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -134,6 +144,220 @@ class RuleRepositoryJpaAdaptorTest {
         assertThat(result).isEqualTo(all);
     }
 
+    @Test
+    void findAll_ruleMatching() {
+        Rule limit = addFull(1);
+        Rule allow =
+                repo.create(
+                        Rule.allow().withPriority(2).withWorkspace("ws-1").withLayer("layer-1"),
+                        InsertPosition.FIXED);
+        LayerDetails details =
+                LayerDetails.builder()
+                        .area((MultiPolygon<?>) Wkt.fromWkt(WORLD))
+                        .cqlFilterRead("a = 1")
+                        .allowedStyles(Set.of("s1", "s2"))
+                        .build();
+        repo.setLayerDetails(allow.getId(), details);
+        repo.create(Rule.deny().withPriority(3).withWorkspace("ws-2"), InsertPosition.FIXED);
+
+        RuleFilter filter = new RuleFilter(SpecialFilterType.ANY);
+        filter.setWorkspace("ws-1").setLayer("layer-1");
+
+        List<Rule> matches = repo.findAll(RuleQuery.of(filter)).collect(Collectors.toList());
+        assertThat(matches).containsExactly(limit, allow);
+        // layer details are not part of the candidate rules, but loaded on demand
+        assertThat(repo.findLayerDetailsByRuleId(allow.getId())).contains(details);
+    }
+
+    @Test
+    void findAll_ruleMatching_limit() {
+        List<Rule> rules =
+                repo.createAll(
+                        IntStream.rangeClosed(1, 4)
+                                .mapToObj(
+                                        i ->
+                                                Rule.allow()
+                                                        .withPriority(i)
+                                                        .withWorkspace("ws-1")
+                                                        .withLayer("layer-" + i)
+                                                        .withAddressRange(
+                                                                i % 2 == 1
+                                                                        ? "10.0.0.0/8"
+                                                                        : "192.168.0.0/16"))
+                                .collect(Collectors.toList()),
+                        InsertPosition.FIXED);
+
+        RuleFilter filter = new RuleFilter(SpecialFilterType.ANY);
+        filter.setWorkspace("ws-1");
+        assertThat(repo.findAll(RuleQuery.of(filter).setLimit(2)))
+                .containsExactly(rules.get(0), rules.get(1));
+
+        // the address filter runs after the query, the limit applies to the rules it keeps
+        filter.setSourceAddress("10.1.2.3");
+        assertThat(repo.findAll(RuleQuery.of(filter).setLimit(2)))
+                .containsExactly(rules.get(0), rules.get(2));
+    }
+
+    @Test
+    void exportAll() {
+        Rule limit = addFull(1);
+        List<LayerDetails> details = new ArrayList<>();
+        details.add(null);
+        details.add(
+                LayerDetails.builder()
+                        .area((MultiPolygon<?>) Wkt.fromWkt(WORLD))
+                        .allowedStyles(Set.of("s1"))
+                        .build());
+        List<Rule> created =
+                repo.createAll(
+                        List.of(
+                                Rule.deny().withPriority(2).withLayer("layer-1"),
+                                Rule.allow().withPriority(3).withLayer("layer-1")),
+                        details,
+                        InsertPosition.FIXED);
+
+        List<Rule> rules = new ArrayList<>();
+        List<LayerDetails> exportedDetails = new ArrayList<>();
+        repo.exportAll(
+                (rule, layerDetails) -> {
+                    rules.add(rule);
+                    exportedDetails.add(layerDetails);
+                });
+        assertThat(rules).containsExactly(limit, created.get(0), created.get(1));
+        assertThat(exportedDetails).containsExactly(null, null, details.get(1));
+    }
+
+    @Test
+    void importAll() {
+        Rule existing = repo.create(Rule.deny().withPriority(5), InsertPosition.FIXED);
+        LayerDetails details = LayerDetails.builder().allowedStyles(Set.of("s1")).build();
+        List<Rule> imported =
+                repo.importAll(
+                        List.of(
+                                Rule.allow().withPriority(10).withLayer("layer-1"),
+                                Rule.deny().withPriority(3).withLayer("layer-2")),
+                        Arrays.asList(details, null));
+
+        assertThat(imported.stream().map(Rule::getPriority)).containsExactly(10L, 3L);
+        assertThat(repo.findAll()).containsExactly(imported.get(1), existing, imported.get(0));
+        assertThat(repo.findLayerDetailsByRuleId(imported.get(0).getId())).contains(details);
+
+        List<Rule> taken = List.of(Rule.allow().withPriority(1), Rule.allow().withPriority(5));
+        List<LayerDetails> noDetails = Arrays.asList(null, null);
+        assertThrows(IllegalArgumentException.class, () -> repo.importAll(taken, noDetails));
+        assertThat(repo.count()).isEqualTo(3);
+    }
+
+    @Test
+    void findAll_fields() {
+        Rule full = addFull(1);
+        Rule expected =
+                Rule.builder()
+                        .id(full.getId())
+                        .priority(1)
+                        .identifier(full.getIdentifier())
+                        .build();
+
+        RuleQuery<RuleFilter> query = RuleQuery.of();
+        assertThat(repo.findAll(query.setFields(Set.of("priority", "identifier"))))
+                .containsExactly(expected);
+        assertThat(repo.findAll(query.setFields(Set.of("name")))).containsExactly(full);
+        assertThat(repo.findAll(query.setFields(null))).containsExactly(full);
+    }
+
+    @Test
+    void findAllWithDetails() {
+        LayerDetails details =
+                LayerDetails.builder()
+                        .area((MultiPolygon<?>) Wkt.fromWkt(WORLD))
+                        .allowedStyles(Set.of("s1", "s2"))
+                        .build();
+        List<Rule> created =
+                repo.createAll(
+                        List.of(
+                                Rule.allow().withPriority(1).withLayer("layer-1"),
+                                Rule.deny().withPriority(2).withLayer("layer-1"),
+                                Rule.allow().withPriority(3).withLayer("layer-2")),
+                        Arrays.asList(details, null, null),
+                        InsertPosition.FIXED);
+
+        List<Rule> rules = new ArrayList<>();
+        List<LayerDetails> found = new ArrayList<>();
+        repo.findAllWithDetails(
+                RuleQuery.of(2, null),
+                (rule, layerDetails) -> {
+                    rules.add(rule);
+                    found.add(layerDetails);
+                });
+        assertThat(rules).containsExactly(created.get(0), created.get(1));
+        assertThat(found).containsExactly(details, null);
+    }
+
+    @Test
+    void findAllWithDetails_stylesAndAttributes() {
+        LayerDetails details1 =
+                LayerDetails.builder()
+                        .allowedStyles(Set.of("s1", "s2"))
+                        .attributes(
+                                Set.of(
+                                        attribute("a1", AccessType.READONLY),
+                                        attribute("a2", AccessType.READWRITE)))
+                        .build();
+        LayerDetails details2 =
+                LayerDetails.builder()
+                        .allowedStyles(Set.of("s3"))
+                        .attributes(Set.of(attribute("a3", AccessType.NONE)))
+                        .build();
+        repo.createAll(
+                List.of(
+                        Rule.allow().withPriority(1).withLayer("layer-1"),
+                        Rule.allow().withPriority(2).withLayer("layer-2")),
+                List.of(details1, details2),
+                InsertPosition.FIXED);
+
+        List<LayerDetails> found = new ArrayList<>();
+        repo.findAllWithDetails(RuleQuery.of(), (rule, layerDetails) -> found.add(layerDetails));
+        assertThat(found).containsExactly(details1, details2);
+    }
+
+    private static LayerAttribute attribute(String name, AccessType access) {
+        return LayerAttribute.builder().name(name).dataType("String").access(access).build();
+    }
+
+    @Test
+    void findAllByIdWithDetails() {
+        LayerDetails details = LayerDetails.builder().allowedStyles(Set.of("s1")).build();
+        List<Rule> created =
+                repo.createAll(
+                        List.of(
+                                Rule.allow().withPriority(1).withLayer("layer-1"),
+                                Rule.deny().withPriority(2).withLayer("layer-1"),
+                                Rule.allow().withPriority(3).withLayer("layer-2")),
+                        Arrays.asList(details, null, null),
+                        InsertPosition.FIXED);
+        String deleted = created.get(1).getId();
+        repo.deleteById(deleted);
+
+        Map<Rule, LayerDetails> found = new HashMap<>();
+        repo.findAllByIdWithDetails(
+                Set.of(created.get(0).getId(), deleted, created.get(2).getId()), found::put);
+        assertThat(found.keySet()).containsExactlyInAnyOrder(created.get(0), created.get(2));
+        assertThat(found.get(created.get(0))).isEqualTo(details);
+        assertThat(found.get(created.get(2))).isNull();
+    }
+
+    @Test
+    void createAll_withLayerDetails_isAtomic() {
+        LayerDetails details = LayerDetails.builder().allowedStyles(Set.of("s1")).build();
+        List<Rule> rules = List.of(Rule.allow().withLayer("layer-1"), Rule.deny());
+        List<LayerDetails> invalid = List.of(details, details);
+
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> repo.createAll(rules, invalid, InsertPosition.FIXED));
+        assertThat(repo.count()).isZero();
+    }
+
     @Test
     void deleteById() {
         Rule r1 = repo.create(Rule.allow(), InsertPosition.FIXED);
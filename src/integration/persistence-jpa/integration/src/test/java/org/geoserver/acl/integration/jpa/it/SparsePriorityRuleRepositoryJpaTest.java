@@ -0,0 +1,203 @@
+package org.geoserver.acl.integration.jpa.it;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.geoserver.acl.domain.rules.InsertPosition;
+import org.geoserver.acl.domain.rules.Rule;
+import org.geoserver.acl.domain.rules.RuleRepository;
+import org.geoserver.acl.integration.jpa.config.AuthorizationJPAPropertiesTestConfiguration;
+import org.geoserver.acl.integration.jpa.config.JPAIntegrationConfiguration;
+import org.geoserver.acl.jpa.repository.JpaRuleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+@SpringBootTest(
+        classes = {
+            AuthorizationJPAPropertiesTestConfiguration.class,
+            JPAIntegrationConfiguration.class
+        },
+        properties = "geoserver.acl.priority.gap=10")
+@ActiveProfiles("test") // see config props in src/test/resource/application-test.yaml
+class SparsePriorityRuleRepositoryJpaTest {
+
+    private @Autowired RuleRepository repo;
+    private @Autowired JpaRuleRepository jpaRepo;
+    private @Autowired RuleEventCollector eventCollector;
+
+    @BeforeEach
+    void setup() {
+        jpaRepo.deleteAll();
+        eventCollector.getRuleEvents().clear();
+    }
+
+    @Test
+    void create_appendsWithGap() {
+        Rule r1 = repo.create(Rule.allow().withLayer("l1"), InsertPosition.FIXED);
+        Rule r2 = repo.create(Rule.allow().withLayer("l2"), InsertPosition.FIXED);
+        Rule r3 = repo.create(Rule.allow().withLayer("l3"), InsertPosition.FROM_END);
+
+        assertThat(r1.getPriority()).isEqualTo(10);
+        assertThat(r2.getPriority()).isEqualTo(20);
+        assertThat(r3.getPriority()).isEqualTo(30);
+    }
+
+    @Test
+    void create_inBetween_takesTheMiddleOfTheGap() {
+        Rule r1 = repo.create(Rule.allow().withLayer("l1"), InsertPosition.FIXED);
+        Rule r2 = repo.create(Rule.allow().withLayer("l2"), InsertPosition.FIXED);
+        Rule r3 = repo.create(Rule.allow().withLayer("l3"), InsertPosition.FIXED);
+
+        Rule first = repo.create(Rule.allow().withLayer("first"), InsertPosition.FROM_START);
+        Rule second =
+                repo.create(
+                        Rule.allow().withLayer("second").withPriority(2),
+                        InsertPosition.FROM_START);
+        Rule beforeLast =
+                repo.create(
+                        Rule.allow().withLayer("beforeLast").withPriority(1),
+                        InsertPosition.FROM_END);
+
+        assertThat(first.getPriority()).isEqualTo(5);
+        assertThat(second.getPriority()).isEqualTo(7);
+        assertThat(beforeLast.getPriority()).isEqualTo(25);
+
+        assertThat(layers()).containsExactly("first", "second", "l1", "l2", "beforeLast", "l3");
+        assertThat(priorities(r1, r2, r3)).containsExactly(10L, 20L, 30L);
+        assertThat(eventCollector.getRuleEvents()).isEmpty();
+    }
+
+    @Test
+    void create_fixedPriority_onlyShiftsTheContiguousRun() {
+        Rule r1 = repo.create(Rule.allow().withLayer("l1"), InsertPosition.FIXED);
+        Rule r2 = repo.create(Rule.allow().withLayer("l2"), InsertPosition.FIXED);
+        Rule r3 = repo.create(Rule.allow().withLayer("l3"), InsertPosition.FIXED);
+
+        Rule r4 = repo.create(Rule.allow().withLayer("l4").withPriority(20), InsertPosition.FIXED);
+        assertThat(r4.getPriority()).isEqualTo(20);
+        assertThat(priorities(r1, r2, r3)).containsExactly(10L, 21L, 30L);
+
+        Rule r5 = repo.create(Rule.allow().withLayer("l5").withPriority(20), InsertPosition.FIXED);
+        assertThat(r5.getPriority()).isEqualTo(20);
+        assertThat(priorities(r1, r4, r2, r3)).containsExactly(10L, 21L, 22L, 30L);
+
+        assertThat(layers()).containsExactly("l1", "l5", "l4", "l2", "l3");
+        assertThat(eventCollector.getRuleEvents()).isEmpty();
+    }
+
+    @Test
+    void create_rebalancesWhenTheGapIsExhausted() {
+        repo.create(Rule.allow().withLayer("l1"), InsertPosition.FIXED);
+        repo.create(Rule.allow().withLayer("l2"), InsertPosition.FIXED);
+        // inserting always at the top halves the free range until it's exhausted, and then grows
+        // the contiguous run starting at the first priority until it's longer than the gap
+        for (int i = 0; i < 14; i++) {
+            Rule rule = Rule.allow().withLayer("n" + i).withPriority(1);
+            repo.create(rule, InsertPosition.FROM_START);
+        }
+
+        List<Rule> rules = repo.findAll().collect(Collectors.toList());
+        assertThat(rules.stream().map(r -> r.getIdentifier().getLayer()))
+                .containsExactly(
+                        "n13", "n12", "n11", "n10", "n9", "n8", "n7", "n6", "n5", "n4", "n3", "n2",
+                        "n1", "n0", "l1", "l2");
+        List<Long> priorities = rules.stream().map(Rule::getPriority).collect(Collectors.toList());
+        assertThat(priorities).isSorted().doesNotHaveDuplicates();
+        // renumbered as multiples of the gap instead of shifting the whole run
+        assertThat(priorities.get(priorities.size() - 1)).isGreaterThan(100L);
+        assertThat(eventCollector.getRuleEvents()).isEmpty();
+    }
+
+    @Test
+    void createAll_spreadsTheBlockOverTheGap() {
+        Rule r1 = repo.create(Rule.allow().withLayer("l1"), InsertPosition.FIXED);
+        Rule r2 = repo.create(Rule.allow().withLayer("l2"), InsertPosition.FIXED);
+
+        List<Rule> block =
+                repo.createAll(
+                        List.of(
+                                Rule.allow().withLayer("b1").withPriority(1),
+                                Rule.allow().withLayer("b2"),
+                                Rule.allow().withLayer("b3")),
+                        InsertPosition.FROM_END);
+        assertThat(block.stream().map(Rule::getPriority)).containsExactly(12L, 14L, 16L);
+        assertThat(layers()).containsExactly("l1", "b1", "b2", "b3", "l2");
+        assertThat(priorities(r1, r2)).containsExactly(10L, 20L);
+
+        // no room left in between, renumbers leaving room for the whole block
+        List<Rule> block2 =
+                repo.createAll(
+                        List.of(
+                                Rule.allow().withLayer("c1").withPriority(13),
+                                Rule.allow().withLayer("c2"),
+                                Rule.allow().withLayer("c3"),
+                                Rule.allow().withLayer("c4")),
+                        InsertPosition.FIXED);
+        assertThat(layers()).containsExactly("l1", "b1", "c1", "c2", "c3", "c4", "b2", "b3", "l2");
+        assertThat(block2.stream().map(Rule::getPriority)).isSorted().doesNotHaveDuplicates();
+        assertThat(repo.findAll().map(Rule::getPriority).collect(Collectors.toList()))
+                .isSorted()
+                .doesNotHaveDuplicates();
+        assertThat(eventCollector.getRuleEvents()).isEmpty();
+    }
+
+    @Test
+    void createAll_rebalancesInBatches() {
+        // more rules than fit in one renumbering batch
+        List<Rule> rules =
+                repo.createAll(
+                        IntStream.range(0, 1001)
+                                .mapToObj(i -> Rule.allow().withLayer("l" + i))
+                                .collect(Collectors.toList()),
+                        InsertPosition.FIXED);
+        assertThat(rules.get(1000).getPriority()).isEqualTo(10010L);
+
+        // no room for 10 rules before the first one, renumbers all of them
+        List<Rule> block =
+                repo.createAll(
+                        IntStream.range(0, 10)
+                                .mapToObj(i -> Rule.allow().withLayer("b" + i).withPriority(10))
+                                .collect(Collectors.toList()),
+                        InsertPosition.FIXED);
+        assertThat(block.stream().map(Rule::getPriority))
+                .containsExactly(10L, 20L, 30L, 40L, 50L, 60L, 70L, 80L, 90L, 100L);
+        assertThat(priorities(rules.get(0), rules.get(500), rules.get(1000)))
+                .containsExactly(110L, 5110L, 10110L);
+        assertThat(repo.findAll().map(Rule::getPriority).collect(Collectors.toList()))
+                .hasSize(1011)
+                .isSorted()
+                .doesNotHaveDuplicates();
+        assertThat(eventCollector.getRuleEvents()).isEmpty();
+    }
+
+    @Test
+    void update_priority() {
+        Rule r1 = repo.create(Rule.allow().withLayer("l1"), InsertPosition.FIXED);
+        Rule r2 = repo.create(Rule.allow().withLayer("l2"), InsertPosition.FIXED);
+        Rule r3 = repo.create(Rule.allow().withLayer("l3"), InsertPosition.FIXED);
+
+        r3 = repo.save(r3.withPriority(15));
+        assertThat(priorities(r1, r3, r2)).containsExactly(10L, 15L, 20L);
+
+        r1 = repo.save(r1.withPriority(15));
+        assertThat(layers()).containsExactly("l1", "l3", "l2");
+        assertThat(priorities(r1, r3, r2)).containsExactly(15L, 16L, 20L);
+        assertThat(eventCollector.getRuleEvents()).isEmpty();
+    }
+
+    private List<String> layers() {
+        return repo.findAll().map(r -> r.getIdentifier().getLayer()).collect(Collectors.toList());
+    }
+
+    private List<Long> priorities(Rule... rules) {
+        return List.of(rules).stream()
+                .map(r -> repo.findById(r.getId()).orElseThrow().getPriority())
+                .collect(Collectors.toList());
+    }
+}
@@ -7,14 +7,22 @@ package org.geoserver.acl.jpa.config;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
 
+import lombok.extern.slf4j.Slf4j;
+
 import org.geoserver.acl.jpa.config.AclJpaProperties.DataSourceProperties;
+import org.geoserver.acl.jpa.config.AclJpaProperties.PoolProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.jdbc.datasource.lookup.JndiDataSourceLookup;
 import org.springframework.util.StringUtils;
 
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
 import javax.sql.DataSource;
 
+@Slf4j
 @Configuration
 public class AclDataSourceConfiguration {
 
@@ -37,27 +45,101 @@ public class AclDataSourceConfiguration {
      * <pre>{@code
      * geoserver.acl.datasource.jndiName: java:comp/env/jdbc/gsuath
      * }</pre>
+     *
+     * Read-only transactions can be offloaded to read replicas, each configured like the primary
+     * data source:
+     *
+     * <pre>{@code
+     * geoserver.acl:
+     *   datasource:
+     *     url: jdbc:postgresql://primary:5432/acl
+     *     max-replication-lag: 5s
+     *     replicas:
+     *     - url: jdbc:postgresql://replica1:5432/acl
+     *     - jndiName: java:comp/env/jdbc/acl-replica2
+     * }</pre>
+     *
+     * Access checks can get their own connection pool, see {@link AuthorizationConnectionPool}:
+     *
+     * <pre>{@code
+     * geoserver.acl:
+     *   datasource:
+     *     url: jdbc:postgresql://primary:5432/acl
+     *     hikari:
+     *       maximum-pool-size: 10
+     *     authorization-pool:
+     *       minimum-idle: 2
+     *       maximum-pool-size: 20
+     * }</pre>
      */
     @Bean("authorizationDataSource")
     public DataSource authorizationDataSource(AclJpaProperties props) {
         DataSourceProperties dsprops = props.getDatasource();
+        // both pools route to the same replicas, reads through one must see the writes of the other
+        AtomicLong lastWrite =
+                ReadReplicaRoutingDataSource.newWriteClock(dsprops.getMaxReplicationLag());
+        DataSource main = dataSource(dsprops, null, lastWrite);
+        PoolProperties authorizationPool = dsprops.getAuthorizationPool();
+        if (authorizationPool.getMaximumPoolSize() <= 0) {
+            return main;
+        }
+        if (StringUtils.hasText(dsprops.getJndiName())) {
+            log.warn(
+                    "geoserver.acl.datasource.authorization-pool is ignored for JNDI data sources");
+            return main;
+        }
+        DataSource authorization = dataSource(dsprops, authorizationPool, lastWrite);
+        return new AuthorizationPoolRoutingDataSource(main, authorization);
+    }
+
+    private DataSource dataSource(
+            DataSourceProperties dsprops, PoolProperties pool, AtomicLong lastWrite) {
+        DataSource primary = dataSource(dsprops, "geoserver.acl.datasource", pool);
+        if (dsprops.getReplicas().isEmpty()) {
+            return primary;
+        }
+        List<DataSource> replicas =
+                dsprops.getReplicas().stream()
+                        .map(r -> dataSource(r, "geoserver.acl.datasource.replicas", pool))
+                        .collect(Collectors.toList());
+        var router =
+                new ReadReplicaRoutingDataSource(
+                        primary, replicas, dsprops.getMaxReplicationLag(), lastWrite);
+        return router.lazyConnectionProxy();
+    }
+
+    private DataSource dataSource(
+            DataSourceProperties dsprops, String prefix, PoolProperties pool) {
         final String jndiName = dsprops.getJndiName();
         if (StringUtils.hasText(jndiName)) {
-            new JndiDataSourceLookup().getDataSource(jndiName);
+            return new JndiDataSourceLookup().getDataSource(jndiName);
         }
 
         String url = dsprops.getUrl();
         if (!StringUtils.hasText(url)) {
             throw new IllegalArgumentException(
-                    "geoserver.acl.datasource.url or geoserver.acl.datasource.jndiName is requried");
+                    prefix + ".url or " + prefix + ".jndiName is requried");
         }
         String username = dsprops.getUsername();
         String pwd = dsprops.getPassword();
         HikariConfig hikariConfig = dsprops.getHikari();
+        if (null != pool) {
+            hikariConfig = authorizationPoolConfig(hikariConfig, pool);
+        }
         if (null == hikariConfig.getJdbcUrl()) hikariConfig.setJdbcUrl(url);
         if (null == hikariConfig.getUsername()) hikariConfig.setUsername(username);
         if (null == hikariConfig.getPassword()) hikariConfig.setPassword(pwd);
-        HikariDataSource ds = new HikariDataSource(hikariConfig);
-        return ds;
+        return new HikariDataSource(hikariConfig);
+    }
+
+    private HikariConfig authorizationPoolConfig(HikariConfig base, PoolProperties pool) {
+        HikariConfig config = new HikariConfig();
+        base.copyStateTo(config);
+        config.setMaximumPoolSize(pool.getMaximumPoolSize());
+        config.setMinimumIdle(Math.min(pool.getMinimumIdle(), pool.getMaximumPoolSize()));
+        if (null != base.getPoolName()) {
+            config.setPoolName(base.getPoolName() + "-authorization");
+        }
+        return config;
     }
 }
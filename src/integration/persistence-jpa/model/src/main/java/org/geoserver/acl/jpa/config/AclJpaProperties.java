@@ -8,7 +8,10 @@ import com.zaxxer.hikari.HikariConfig;
 
 import lombok.Data;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Data
@@ -16,6 +19,9 @@ public class AclJpaProperties {
 
     private DataSourceProperties datasource = new DataSourceProperties();
     private JpaProperties jpa = new JpaProperties();
+    private PriorityProperties priority = new PriorityProperties();
+    private CacheProperties cache = new CacheProperties();
+    private ChangeLogProperties changeLog = new ChangeLogProperties();
 
     @Data
     public static class DataSourceProperties {
@@ -24,6 +30,39 @@ public class AclJpaProperties {
         private String username;
         private String password;
         private HikariConfig hikari = new HikariConfig();
+
+        /**
+         * Optional read replicas. Read-only transactions are balanced across them in round-robin
+         * order, read-write transactions always go to the primary. Nested {@code replicas} are
+         * ignored.
+         */
+        private List<DataSourceProperties> replicas = new ArrayList<>();
+
+        /**
+         * How long after a write is committed read-only transactions keep going to the primary, so
+         * clients can read their own writes while the replicas catch up. Only used with {@link
+         * #replicas}.
+         */
+        private Duration maxReplicationLag = Duration.ofSeconds(5);
+
+        /**
+         * Optional connection pool dedicated to access checks, so that administration requests
+         * can't starve them of connections. It's created with the same settings as {@link #hikari},
+         * overriding the pool sizes, for the primary data source and for each {@link #url}
+         * configured {@link #replicas replica}, with that replica's {@code hikari} settings.
+         * Ignored if the primary data source is configured with a {@link #jndiName}, and a JNDI
+         * configured replica is shared by both pools.
+         */
+        private PoolProperties authorizationPool = new PoolProperties();
+    }
+
+    @Data
+    public static class PoolProperties {
+        /** Maximum number of connections, {@code 0} disables the pool */
+        private int maximumPoolSize = 0;
+
+        /** Minimum number of idle connections */
+        private int minimumIdle = 0;
     }
 
     @Data
@@ -33,4 +72,81 @@ public class AclJpaProperties {
         private String databasePlatform;
         private Map<String, String> properties = new HashMap<>();
     }
+
+    @Data
+    public static class PriorityProperties {
+        /**
+         * Distance between the priorities assigned to appended rules. The default value of {@code
+         * 1} keeps priorities dense, shifting all the rules below the insertion point when a
+         * priority is taken. A larger value leaves room to insert rules in between touching at most
+         * a handful of rows, and renumbers all priorities only when a gap is exhausted.
+         */
+        private long gap = 1;
+    }
+
+    /**
+     * Hibernate second-level and query cache settings, backed by a JCache (Caffeine) cache manager.
+     * Region names are defined in {@link org.geoserver.acl.jpa.model.CacheRegions}.
+     *
+     * <p>The caches are local to each JVM and there's no invalidation across nodes: a node only
+     * evicts the entries its own transactions modify. Only enable them for a single instance
+     * deployment, or if serving data up to {@link #expireAfterWrite} stale after another node's
+     * change is acceptable.
+     */
+    @Data
+    public static class CacheProperties {
+        /**
+         * Enables the second-level (entity and collection) cache. Single-node only, changes made by
+         * other nodes are visible after at most {@link #expireAfterWrite}.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Enables the query cache for the rule matching queries, requires {@link #enabled}. Same
+         * staleness bound as the second-level cache.
+         */
+        private boolean queryCache = false;
+
+        /**
+         * How long cached entities, collections and query results are kept after they're loaded,
+         * which is the maximum time a node keeps serving rules changed by another node. {@code
+         * null} or zero disables expiration, only safe when this is the only node writing to the
+         * database.
+         */
+        private Duration expireAfterWrite = Duration.ofMinutes(1);
+
+        /**
+         * Enables Hibernate statistics and JCache statistics and management MBeans, exposing the
+         * cache hit/miss counts through JMX
+         */
+        private boolean statistics = false;
+
+        /** Maximum number of entries of the regions not configured in {@link #regions} */
+        private long defaultSize = 10_000;
+
+        /** Maximum number of entries per region name */
+        private Map<String, Long> regions = new HashMap<>();
+
+        public long sizeOf(String region) {
+            return regions.getOrDefault(region, defaultSize);
+        }
+    }
+
+    @Data
+    public static class ChangeLogProperties {
+        /**
+         * Maximum number of rule changes kept in the {@code acl_rule_change} table. Older changes
+         * are discarded as new ones are appended, and clients that fell further behind reload the
+         * whole ruleset.
+         */
+        private int maxSize = 100_000;
+
+        /**
+         * Maximum time between a change taking its sequence number and its transaction committing.
+         * Concurrent transactions may commit out of sequence order, so the changes after a missing
+         * sequence number are held back from the feed until the change following it is this old,
+         * then the missing one is assumed rolled back.
+         */
+        private Duration maxCommitDelay = Duration.ofSeconds(10);
+    }
 }
@@ -0,0 +1,46 @@
+/* (c) 2023  Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.acl.jpa.config;
+
+/**
+ * Marks the calling thread as serving an access check, so that the connections it asks for come
+ * from the dedicated pool configured through {@code geoserver.acl.datasource.authorization-pool},
+ * and can't be starved by administration requests.
+ *
+ * <pre>{@code
+ * try (var scope = AuthorizationConnectionPool.enter()) {
+ *     return authorizationService.getAccessInfo(request);
+ * }
+ * }</pre>
+ *
+ * Has no effect if no dedicated pool is configured.
+ *
+ * @since 1.0
+ */
+public final class AuthorizationConnectionPool {
+
+    private static final ThreadLocal<Boolean> ACTIVE = new ThreadLocal<>();
+
+    private AuthorizationConnectionPool() {}
+
+    /** Scope returned by {@link #enter()}, closing it restores the previous state */
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    public static Scope enter() {
+        final Boolean previous = ACTIVE.get();
+        ACTIVE.set(Boolean.TRUE);
+        return () -> {
+            if (null == previous) ACTIVE.remove();
+            else ACTIVE.set(previous);
+        };
+    }
+
+    static boolean isActive() {
+        return Boolean.TRUE.equals(ACTIVE.get());
+    }
+}
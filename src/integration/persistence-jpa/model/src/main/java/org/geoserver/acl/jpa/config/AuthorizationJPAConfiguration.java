@@ -4,10 +4,18 @@
  */
 package org.geoserver.acl.jpa.config;
 
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+
+import org.geoserver.acl.jpa.config.AclJpaProperties.CacheProperties;
 import org.geoserver.acl.jpa.config.AclJpaProperties.JpaProperties;
+import org.geoserver.acl.jpa.model.CacheRegions;
 import org.geoserver.acl.jpa.model.Rule;
 import org.geoserver.acl.jpa.repository.JpaAdminRuleRepository;
+import org.geoserver.acl.jpa.repository.JpaRuleChangeRepository;
 import org.geoserver.acl.jpa.repository.JpaRuleRepository;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -19,8 +27,16 @@ import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
 import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
+import java.net.URI;
+import java.time.Duration;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.OptionalLong;
+import java.util.UUID;
 
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
 import javax.persistence.EntityManagerFactory;
 import javax.sql.DataSource;
 
@@ -28,7 +44,11 @@ import javax.sql.DataSource;
 @EnableTransactionManagement
 @EnableJpaAuditing
 @EnableJpaRepositories( //
-        basePackageClasses = {JpaRuleRepository.class, JpaAdminRuleRepository.class},
+        basePackageClasses = {
+            JpaRuleRepository.class,
+            JpaAdminRuleRepository.class,
+            JpaRuleChangeRepository.class
+        },
         entityManagerFactoryRef = "authorizationEntityManagerFactory",
         transactionManagerRef = "authorizationTransactionManager")
 public class AuthorizationJPAConfiguration {
@@ -54,19 +74,87 @@ public class AuthorizationJPAConfiguration {
             @Qualifier("authorizationVendorAdapter")
                     HibernateJpaVendorAdapter authorizationVendorAdapter,
             @Qualifier("authorizationDataSource") DataSource dataSource,
+            @Qualifier("authorizationCacheManager") CacheManager authorizationCacheManager,
             AclJpaProperties configProps) {
 
-        Map<String, String> jpaProperties = configProps.getJpa().getProperties();
+        Map<String, Object> jpaProperties = new HashMap<>(configProps.getJpa().getProperties());
+        // batch inserts and updates (e.g. bulk rule creation) unless explicitly configured
+        jpaProperties.putIfAbsent("hibernate.jdbc.batch_size", "50");
+        jpaProperties.putIfAbsent("hibernate.order_inserts", "true");
+        jpaProperties.putIfAbsent("hibernate.order_updates", "true");
+        configureCache(jpaProperties, configProps.getCache(), authorizationCacheManager);
+
+        // before hbm2ddl validates or updates the schema
+        Object schema = jpaProperties.get(AvailableSettings.DEFAULT_SCHEMA);
+        new IdSequenceMigration(dataSource, null == schema ? null : schema.toString()).run();
 
         LocalContainerEntityManagerFactoryBean emf = new LocalContainerEntityManagerFactoryBean();
         emf.setPersistenceUnitName("authorizationPersistentUnit");
-        emf.setDataSource(dataSource);
+        // statements run within a QueryDeadline scope get its remaining time as query timeout
+        emf.setDataSource(new QueryDeadlineDataSource(dataSource));
         emf.setJpaVendorAdapter(authorizationVendorAdapter);
         emf.setJpaPropertyMap(jpaProperties);
         emf.setPackagesToScan(Rule.class.getPackage().getName());
         return emf;
     }
 
+    /**
+     * JCache manager for the Hibernate second-level and query cache regions, with the region sizes
+     * from {@link AclJpaProperties#getCache()}
+     */
+    @Bean(name = "authorizationCacheManager", destroyMethod = "close")
+    CacheManager authorizationCacheManager(AclJpaProperties configProps) {
+        CacheProperties config = configProps.getCache();
+        CachingProvider provider =
+                Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        // the provider shares cache managers by URI, make sure each persistence unit gets its own
+        URI uri = URI.create("geoserver-acl:" + UUID.randomUUID());
+        CacheManager cacheManager = provider.getCacheManager(uri, getClass().getClassLoader());
+        for (String region : CacheRegions.bounded()) {
+            long size = config.sizeOf(region);
+            CaffeineConfiguration<Object, Object> regionConfig =
+                    regionConfig(config, OptionalLong.of(size));
+            regionConfig.setExpireAfterWrite(expireAfterWrite(config));
+            cacheManager.createCache(region, regionConfig);
+        }
+        // the update timestamps must outlive the query results, don't expire them
+        cacheManager.createCache(
+                CacheRegions.UPDATE_TIMESTAMPS, regionConfig(config, OptionalLong.empty()));
+        return cacheManager;
+    }
+
+    private OptionalLong expireAfterWrite(CacheProperties config) {
+        Duration ttl = config.getExpireAfterWrite();
+        if (null == ttl || ttl.isZero() || ttl.isNegative()) return OptionalLong.empty();
+        return OptionalLong.of(ttl.toNanos());
+    }
+
+    private CaffeineConfiguration<Object, Object> regionConfig(
+            CacheProperties config, OptionalLong maximumSize) {
+        CaffeineConfiguration<Object, Object> regionConfig = new CaffeineConfiguration<>();
+        regionConfig.setMaximumSize(maximumSize);
+        regionConfig.setStatisticsEnabled(config.isStatistics());
+        regionConfig.setManagementEnabled(config.isStatistics());
+        return regionConfig;
+    }
+
+    private void configureCache(
+            Map<String, Object> jpaProperties, CacheProperties config, CacheManager cacheManager) {
+
+        final boolean enabled = config.isEnabled();
+        final boolean queryCache = enabled && config.isQueryCache();
+        jpaProperties.putIfAbsent(
+                AvailableSettings.USE_SECOND_LEVEL_CACHE, String.valueOf(enabled));
+        jpaProperties.putIfAbsent(AvailableSettings.USE_QUERY_CACHE, String.valueOf(queryCache));
+        jpaProperties.putIfAbsent(
+                AvailableSettings.GENERATE_STATISTICS, String.valueOf(config.isStatistics()));
+        if (enabled) {
+            jpaProperties.putIfAbsent(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            jpaProperties.putIfAbsent(ConfigSettings.CACHE_MANAGER, cacheManager);
+            jpaProperties.putIfAbsent(ConfigSettings.MISSING_CACHE_STRATEGY, "create-warn");
+        }
+    }
+
     @Bean("authorizationTransactionManager")
     public JpaTransactionManager authorizationTransactionManager(
             @Qualifier("authorizationEntityManagerFactory") final EntityManagerFactory emf) {
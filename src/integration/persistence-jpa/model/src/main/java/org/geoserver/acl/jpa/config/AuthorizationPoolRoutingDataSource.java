@@ -0,0 +1,57 @@
+/* (c) 2023  Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.acl.jpa.config;
+
+import lombok.NonNull;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+/**
+ * {@link DataSource} that gives threads within an {@link AuthorizationConnectionPool#enter()
+ * authorization scope} connections from their own pool, and everything else from the default one.
+ */
+class AuthorizationPoolRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+
+    private static final String DEFAULT = "default";
+    private static final String AUTHORIZATION = "authorization";
+
+    private final DataSource defaultPool;
+    private final DataSource authorizationPool;
+
+    AuthorizationPoolRoutingDataSource(
+            @NonNull DataSource defaultPool, @NonNull DataSource authorizationPool) {
+        this.defaultPool = defaultPool;
+        this.authorizationPool = authorizationPool;
+        super.setTargetDataSources(Map.of(DEFAULT, defaultPool, AUTHORIZATION, authorizationPool));
+        super.setDefaultTargetDataSource(defaultPool);
+        super.setLenientFallback(false);
+        super.afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return AuthorizationConnectionPool.isActive() ? AUTHORIZATION : DEFAULT;
+    }
+
+    /** Visible for testing */
+    DataSource currentTarget() {
+        return determineTargetDataSource();
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (DataSource ds : new DataSource[] {authorizationPool, defaultPool}) {
+            if (ds instanceof Closeable) {
+                ((Closeable) ds).close();
+            }
+        }
+    }
+}
@@ -0,0 +1,122 @@
+/* (c) 2023  Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.acl.jpa.config;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.util.StringUtils;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+/**
+ * Creates the id sequences of the rule tables on databases created before they were introduced,
+ * when ids came from Hibernate's shared {@code hibernate_sequence}.
+ *
+ * <p>Runs before the entity manager factory is built, so that {@code hbm2ddl.auto: validate} finds
+ * the sequences, and {@code update} doesn't create them starting at {@code 1}. A sequence is only
+ * created if it's missing and its table exists, new databases get both from the schema generation.
+ * Startup fails if they can't be created.
+ *
+ * <p>The entities use Hibernate's pooled optimizer, which takes the sequence value as the upper
+ * bound of a block of {@link #ALLOCATION_SIZE} ids, so the sequence starts at {@code max(id) +
+ * ALLOCATION_SIZE} for the first block to start right after the existing ids.
+ */
+@Slf4j
+class IdSequenceMigration {
+
+    /** Must match the {@code allocationSize} of the entities' {@code @SequenceGenerator} */
+    static final int ALLOCATION_SIZE = 50;
+
+    /** Table to sequence name */
+    static final Map<String, String> SEQUENCES =
+            Map.of("acl_rule", "acl_rule_seq", "acl_adminrule", "acl_adminrule_seq");
+
+    private static final String SEQUENCE_QUERY =
+            "SELECT count(*) FROM information_schema.sequences"
+                    + " WHERE lower(sequence_schema) = lower(?) AND lower(sequence_name) = ?";
+
+    private static final String TABLE_QUERY =
+            "SELECT count(*) FROM information_schema.tables"
+                    + " WHERE lower(table_schema) = lower(?) AND lower(table_name) = ?";
+
+    private final DataSource dataSource;
+    private final String schema;
+
+    /**
+     * @param schema the {@code hibernate.default_schema}, may be {@code null}
+     */
+    IdSequenceMigration(@NonNull DataSource dataSource, String schema) {
+        this.dataSource = dataSource;
+        this.schema = StringUtils.hasText(schema) ? schema : null;
+    }
+
+    /**
+     * Creates the missing sequences of the existing tables, does nothing if both sequences exist.
+     *
+     * @throws IllegalStateException if the sequences can't be checked or created, since the
+     *     entities can't get new ids without them
+     */
+    public void run() {
+        try (Connection c = dataSource.getConnection()) {
+            final String currentSchema = null == schema ? c.getSchema() : schema;
+            for (Map.Entry<String, String> e : SEQUENCES.entrySet()) {
+                String table = e.getKey();
+                String sequence = e.getValue();
+                if (exists(c, SEQUENCE_QUERY, currentSchema, sequence)) {
+                    log.debug("Id sequence {} exists", sequence);
+                } else if (exists(c, TABLE_QUERY, currentSchema, table)) {
+                    migrate(c, qualify(table), qualify(sequence));
+                } else {
+                    log.debug(
+                            "{} does not exist, {} left to the schema generation", table, sequence);
+                }
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException(
+                    "Unable to create the rule id sequences: " + e.getMessage(), e);
+        }
+    }
+
+    private boolean exists(Connection c, String query, String schema, String name)
+            throws SQLException {
+        try (PreparedStatement st = c.prepareStatement(query)) {
+            st.setString(1, schema);
+            st.setString(2, name);
+            try (ResultSet rs = st.executeQuery()) {
+                return rs.next() && rs.getLong(1) > 0;
+            }
+        }
+    }
+
+    private void migrate(Connection c, String table, String sequence) throws SQLException {
+        final long maxId;
+        try (Statement st = c.createStatement();
+                ResultSet rs = st.executeQuery("SELECT max(id) FROM " + table)) {
+            rs.next();
+            maxId = rs.getLong(1);
+        }
+        final long start = maxId + ALLOCATION_SIZE;
+        String ddl =
+                String.format(
+                        "CREATE SEQUENCE IF NOT EXISTS %s START WITH %d INCREMENT BY %d",
+                        sequence, start, ALLOCATION_SIZE);
+        try (Statement st = c.createStatement()) {
+            st.execute(ddl);
+        }
+        log.info("Created id sequence {} starting at {}", sequence, start);
+    }
+
+    private String qualify(String name) {
+        return schema == null ? name : schema + "." + name;
+    }
+}
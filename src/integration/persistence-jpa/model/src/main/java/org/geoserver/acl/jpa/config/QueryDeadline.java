@@ -0,0 +1,81 @@
+/* (c) 2023  Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.acl.jpa.config;
+
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.time.Duration;
+
+/**
+ * Bounds the database work of the calling thread by a deadline, for instance the time a client is
+ * willing to wait for an access check. The statements it runs get a JDBC query timeout of the time
+ * left until the deadline, and fail right away once it passed, instead of holding a connection for
+ * an answer nobody waits for anymore.
+ *
+ * <pre>{@code
+ * try (var scope = QueryDeadline.enter(Duration.ofSeconds(2))) {
+ *     return authorizationService.getAccessInfo(request);
+ * }
+ * }</pre>
+ *
+ * Nested scopes keep the earliest deadline.
+ *
+ * @since 1.0
+ */
+public final class QueryDeadline {
+
+    /** {@link System#nanoTime()} based deadline of the current thread */
+    private static final ThreadLocal<Long> DEADLINE = new ThreadLocal<>();
+
+    private QueryDeadline() {}
+
+    /** Scope returned by {@link #enter(Duration)}, closing it restores the previous deadline */
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    /**
+     * @param timeout time left until the deadline, {@code null} for no deadline
+     */
+    public static Scope enter(Duration timeout) {
+        final Long previous = DEADLINE.get();
+        if (null == timeout) {
+            return () -> {};
+        }
+        long deadline = System.nanoTime() + timeout.toNanos();
+        if (null != previous && previous - deadline < 0) {
+            deadline = previous;
+        }
+        DEADLINE.set(deadline);
+        return () -> {
+            if (null == previous) DEADLINE.remove();
+            else DEADLINE.set(previous);
+        };
+    }
+
+    static boolean isActive() {
+        return null != DEADLINE.get();
+    }
+
+    /**
+     * Sets the query timeout of {@code statement} to the seconds left until the deadline, rounded
+     * up, JDBC timeouts having a one second resolution
+     *
+     * @throws SQLTimeoutException if the deadline already passed
+     */
+    static void apply(Statement statement) throws SQLException {
+        final Long deadline = DEADLINE.get();
+        if (null == deadline) return;
+        final long left = deadline - System.nanoTime();
+        if (left <= 0) {
+            statement.close();
+            throw new SQLTimeoutException("Query deadline exceeded");
+        }
+        long seconds = (left + 999_999_999L) / 1_000_000_000L;
+        statement.setQueryTimeout((int) Math.min(Integer.MAX_VALUE, seconds));
+    }
+}
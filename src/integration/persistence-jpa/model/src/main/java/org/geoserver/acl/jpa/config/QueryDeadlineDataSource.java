@@ -0,0 +1,56 @@
+/* (c) 2023  Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.acl.jpa.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import javax.sql.DataSource;
+
+/**
+ * {@link DataSource} applying the {@link QueryDeadline} of the calling thread to the statements
+ * created on its connections. Connections taken outside a deadline scope are returned as is.
+ */
+class QueryDeadlineDataSource extends DelegatingDataSource {
+
+    QueryDeadlineDataSource(DataSource target) {
+        super(target);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return withDeadline(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return withDeadline(super.getConnection(username, password));
+    }
+
+    private static Connection withDeadline(Connection connection) {
+        if (!QueryDeadline.isActive()) return connection;
+        return (Connection)
+                Proxy.newProxyInstance(
+                        QueryDeadlineDataSource.class.getClassLoader(),
+                        new Class<?>[] {Connection.class},
+                        (proxy, method, args) -> {
+                            Object result;
+                            try {
+                                result = method.invoke(connection, args);
+                            } catch (InvocationTargetException e) {
+                                throw e.getCause();
+                            }
+                            if (result instanceof Statement) {
+                                QueryDeadline.apply((Statement) result);
+                            }
+                            return result;
+                        });
+    }
+}
@@ -0,0 +1,178 @@
+/* (c) 2023  Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.acl.jpa.config;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.sql.DataSource;
+
+/**
+ * {@link DataSource} that sends read-only transactions to a set of read replicas, in round-robin
+ * order, and everything else to the primary.
+ *
+ * <p>Read-only transactions joining a read-write one, and the ones started within {@code
+ * maxReplicationLag} after a read-write transaction committed, go to the primary so writes are
+ * visible right away. Routers over the same database can share the time of the last write, so that
+ * reads through one see the writes made through the other. A replica that fails to provide a
+ * connection falls back to the primary.
+ *
+ * <p>The routing decision relies on the transaction being already set up when the connection is
+ * requested, hence the data source must be used through {@link #lazyConnectionProxy()}.
+ */
+@Slf4j
+class ReadReplicaRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+
+    private static final String PRIMARY = "primary";
+
+    private final DataSource primary;
+    private final List<DataSource> replicas;
+    private final long maxReplicationLagNanos;
+
+    private final AtomicInteger next = new AtomicInteger();
+    private final AtomicLong lastWrite;
+
+    ReadReplicaRoutingDataSource(
+            @NonNull DataSource primary,
+            @NonNull List<DataSource> replicas,
+            @NonNull Duration maxReplicationLag) {
+        this(primary, replicas, maxReplicationLag, newWriteClock(maxReplicationLag));
+    }
+
+    /**
+     * @param lastWrite {@link System#nanoTime()} of the last write commit, shared with the other
+     *     routers over the same primary, see {@link #newWriteClock(Duration)}
+     */
+    ReadReplicaRoutingDataSource(
+            @NonNull DataSource primary,
+            @NonNull List<DataSource> replicas,
+            @NonNull Duration maxReplicationLag,
+            @NonNull AtomicLong lastWrite) {
+        if (replicas.isEmpty()) throw new IllegalArgumentException("No replicas provided");
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.maxReplicationLagNanos = maxReplicationLag.toNanos();
+        this.lastWrite = lastWrite;
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < this.replicas.size(); i++) {
+            targets.put(i, this.replicas.get(i));
+        }
+        super.setTargetDataSources(targets);
+        super.setDefaultTargetDataSource(primary);
+        super.setLenientFallback(false);
+        super.afterPropertiesSet();
+    }
+
+    /**
+     * @return a write clock for {@link #ReadReplicaRoutingDataSource(DataSource, List, Duration,
+     *     AtomicLong)}, with no write within {@code maxReplicationLag}
+     */
+    static AtomicLong newWriteClock(@NonNull Duration maxReplicationLag) {
+        return new AtomicLong(System.nanoTime() - maxReplicationLag.toNanos());
+    }
+
+    /**
+     * @return a proxy that defers getting the actual connection until the first statement, once the
+     *     transaction read-only flag is known
+     */
+    public DataSource lazyConnectionProxy() {
+        return new LazyProxy(this);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return PRIMARY;
+        }
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            trackWrite();
+            return PRIMARY;
+        }
+        if (System.nanoTime() - lastWrite.get() < maxReplicationLagNanos) {
+            return PRIMARY;
+        }
+        return Math.floorMod(next.getAndIncrement(), replicas.size());
+    }
+
+    private void trackWrite() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                    new TransactionSynchronization() {
+                        @Override
+                        public void afterCommit() {
+                            lastWrite.set(System.nanoTime());
+                        }
+                    });
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        DataSource target = determineTargetDataSource();
+        try {
+            return target.getConnection();
+        } catch (SQLException e) {
+            if (target == primary) throw e;
+            log.warn("Unable to connect to read replica, falling back to primary", e);
+            return primary.getConnection();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        DataSource target = determineTargetDataSource();
+        try {
+            return target.getConnection(username, password);
+        } catch (SQLException e) {
+            if (target == primary) throw e;
+            log.warn("Unable to connect to read replica, falling back to primary", e);
+            return primary.getConnection(username, password);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        List<DataSource> all = new ArrayList<>(replicas);
+        all.add(primary);
+        for (DataSource ds : all) {
+            if (ds instanceof Closeable) {
+                ((Closeable) ds).close();
+            }
+        }
+    }
+
+    private static class LazyProxy extends LazyConnectionDataSourceProxy implements Closeable {
+        private final ReadReplicaRoutingDataSource router;
+
+        LazyProxy(ReadReplicaRoutingDataSource router) {
+            super(router);
+            this.router = router;
+        }
+
+        @Override
+        public void close() throws IOException {
+            router.close();
+        }
+    }
+}
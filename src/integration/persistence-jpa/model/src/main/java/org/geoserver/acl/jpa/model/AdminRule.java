@@ -16,6 +16,7 @@ import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Embedded;
 import javax.persistence.Entity;
@@ -23,8 +24,10 @@ import javax.persistence.EntityListeners;
 import javax.persistence.EnumType;
 import javax.persistence.Enumerated;
 import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.Index;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
 import javax.persistence.UniqueConstraint;
 
@@ -63,11 +66,23 @@ import javax.persistence.UniqueConstraint;
             @Index(name = "idx_adminrule_workspace", columnList = "workspace"),
             @Index(name = "idx_adminrule_grant_type", columnList = "grant_type")
         })
-@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "Rule")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.ADMIN_RULE)
 public class AdminRule extends Auditable implements Cloneable {
     private static final long serialVersionUID = 422357467611162461L;
 
-    @Id @GeneratedValue @Column private Long id;
+    /**
+     * Ids are allocated in blocks of {@code allocationSize} so that batch inserts don't need a
+     * round trip to the database per row
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "adminrule_id")
+    @SequenceGenerator(
+            name = "adminrule_id",
+            sequenceName = "acl_adminrule_seq",
+            allocationSize = 50)
+    @Column
+    private Long id;
 
     /**
      * External Id. An ID used in an external systems. This field should simplify Authorization
@@ -0,0 +1,41 @@
+/* (c) 2023  Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.acl.jpa.model;
+
+import java.util.List;
+
+/** Names of the Hibernate second-level and query cache regions */
+public final class CacheRegions {
+
+    public static final String RULE = "acl-rule";
+    public static final String RULE_ALLOWED_STYLES = "acl-rule-allowed-styles";
+    public static final String RULE_LAYER_ATTRIBUTES = "acl-rule-layer-attributes";
+    public static final String RULE_QUERIES = "acl-rule-queries";
+
+    public static final String ADMIN_RULE = "acl-adminrule";
+    public static final String ADMIN_RULE_QUERIES = "acl-adminrule-queries";
+
+    /** Hibernate's region to track the last update of each table, must not be evicted */
+    public static final String UPDATE_TIMESTAMPS = "default-update-timestamps-region";
+
+    /** Hibernate's region for cacheable queries that don't set a region */
+    public static final String DEFAULT_QUERY_RESULTS = "default-query-results-region";
+
+    private CacheRegions() {
+        // constants class
+    }
+
+    /** Bounded regions, i.e. all but {@link #UPDATE_TIMESTAMPS} */
+    public static List<String> bounded() {
+        return List.of(
+                RULE,
+                RULE_ALLOWED_STYLES,
+                RULE_LAYER_ATTRIBUTES,
+                RULE_QUERIES,
+                ADMIN_RULE,
+                ADMIN_RULE_QUERIES,
+                DEFAULT_QUERY_RESULTS);
+    }
+}
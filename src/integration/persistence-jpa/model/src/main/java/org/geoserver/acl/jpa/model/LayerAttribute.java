@@ -10,9 +10,6 @@ package org.geoserver.acl.jpa.model;
 import lombok.Data;
 import lombok.experimental.Accessors;
 
-import org.hibernate.annotations.Cache;
-import org.hibernate.annotations.CacheConcurrencyStrategy;
-
 import java.io.Serializable;
 
 import javax.persistence.Column;
@@ -26,7 +23,6 @@ import javax.persistence.Enumerated;
 @Data
 @Accessors(chain = true)
 @Embeddable
-@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "LayerAttribute")
 public class LayerAttribute implements Serializable, Cloneable {
 
     private static final long serialVersionUID = 1L;
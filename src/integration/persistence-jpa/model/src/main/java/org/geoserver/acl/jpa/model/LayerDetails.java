@@ -13,6 +13,9 @@ import lombok.Data;
 import lombok.experimental.Accessors;
 
 import org.geolatte.geom.MultiPolygon;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.Fetch;
 import org.hibernate.annotations.FetchMode;
 
@@ -77,6 +80,7 @@ public class LayerDetails implements Serializable, Cloneable {
 
     /** Styles allowed for this layer */
     @ElementCollection(fetch = FetchType.LAZY)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.RULE_ALLOWED_STYLES)
     @JoinTable(
             name = "acl_layer_styles",
             joinColumns =
@@ -87,6 +91,7 @@ public class LayerDetails implements Serializable, Cloneable {
     private Set<String> allowedStyles;
 
     @ElementCollection(fetch = FetchType.LAZY)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.RULE_LAYER_ATTRIBUTES)
     @JoinTable(
             name = "acl_layer_attributes",
             joinColumns = @JoinColumn(name = "details_id"),
@@ -96,6 +101,8 @@ public class LayerDetails implements Serializable, Cloneable {
                             columnNames = {"details_id", "name"}),
             foreignKey = @ForeignKey(name = "fk_attribute_layer"))
     @Fetch(FetchMode.SELECT)
+    // initializing one loads those of the other rules in the persistence context, up to the size
+    @BatchSize(size = 1000)
     private Set<LayerAttribute> attributes;
 
     public @Override LayerDetails clone() {
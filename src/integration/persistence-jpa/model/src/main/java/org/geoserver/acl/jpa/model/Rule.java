@@ -16,13 +16,16 @@ import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 import java.io.Serializable;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Embedded;
 import javax.persistence.Entity;
 import javax.persistence.EntityListeners;
 import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.Index;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
 
 @Data
@@ -58,12 +61,21 @@ import javax.persistence.Table;
             @Index(name = "idx_rule_workspace", columnList = "workspace"),
             @Index(name = "idx_rule_layer", columnList = "layer")
         })
-@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "Rule")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.RULE)
 public class Rule extends Auditable implements Serializable, Cloneable {
 
     private static final long serialVersionUID = 1L;
 
-    @Id @GeneratedValue @Column private Long id;
+    /**
+     * Ids are allocated in blocks of {@code allocationSize} so that batch inserts don't need a
+     * round trip to the database per row
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "rule_id")
+    @SequenceGenerator(name = "rule_id", sequenceName = "acl_rule_seq", allocationSize = 50)
+    @Column
+    private Long id;
 
     /**
      * External Id. An ID used in an external systems. This field should simplify Authorization
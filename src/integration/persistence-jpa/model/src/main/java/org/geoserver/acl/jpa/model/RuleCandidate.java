@@ -0,0 +1,167 @@
+/* (c) 2023  Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.acl.jpa.model;
+
+import com.querydsl.core.annotations.QueryProjection;
+
+import lombok.Getter;
+
+import org.geolatte.geom.MultiPolygon;
+
+import java.util.Set;
+
+/**
+ * Read-only projection of a {@link Rule} with the columns needed to evaluate it, built by {@link
+ * QRuleCandidate} queries without loading managed entities.
+ *
+ * <p>The {@link LayerDetails} columns (CQL filters, area, attributes and styles) are not part of
+ * the projection, they're only loaded for the rules that contribute to an authorization decision.
+ */
+@Getter
+public class RuleCandidate {
+
+    /** Rule properties left out by the {@link #projection(QRule, Set) identifier projection} */
+    private static final Set<String> OPTIONAL_PROPERTIES =
+            Set.of("extId", "name", "description", "ruleLimits");
+
+    private final Long id;
+    private final String extId;
+    private final String name;
+    private final String description;
+    private final long priority;
+    private final RuleIdentifier identifier;
+    private final RuleLimits ruleLimits;
+
+    @QueryProjection
+    public RuleCandidate(
+            Long id,
+            String extId,
+            String name,
+            String description,
+            long priority,
+            GrantType access,
+            String instance,
+            String username,
+            String rolename,
+            String service,
+            long ipLow,
+            long ipHigh,
+            int ipSize,
+            String request,
+            String subfield,
+            String workspace,
+            String layer,
+            MultiPolygon<?> allowedArea,
+            SpatialFilterType spatialFilterType,
+            CatalogMode catalogMode) {
+        this.id = id;
+        this.extId = extId;
+        this.name = name;
+        this.description = description;
+        this.priority = priority;
+        this.identifier =
+                new RuleIdentifier()
+                        .setAccess(access)
+                        .setInstance(instance)
+                        .setUsername(username)
+                        .setRolename(rolename)
+                        .setService(service)
+                        .setAddressRange(new IPAddressRange(ipLow, ipHigh, ipSize))
+                        .setRequest(request)
+                        .setSubfield(subfield)
+                        .setWorkspace(workspace)
+                        .setLayer(layer);
+        RuleLimits limits =
+                new RuleLimits()
+                        .setAllowedArea(allowedArea)
+                        .setSpatialFilterType(spatialFilterType)
+                        .setCatalogMode(catalogMode);
+        // same as hibernate does for an embedded with all null columns
+        this.ruleLimits = limits.isEmpty() ? null : limits;
+    }
+
+    /**
+     * Candidate without the {@code extId}, {@code name}, {@code description}, and {@link
+     * RuleLimits} columns, for callers that only need the rules' identifiers
+     */
+    @QueryProjection
+    public RuleCandidate(
+            Long id,
+            long priority,
+            GrantType access,
+            String instance,
+            String username,
+            String rolename,
+            String service,
+            long ipLow,
+            long ipHigh,
+            int ipSize,
+            String request,
+            String subfield,
+            String workspace,
+            String layer) {
+        this(
+                id, null, null, null, priority, access, instance, username, rolename, service,
+                ipLow, ipHigh, ipSize, request, subfield, workspace, layer, null, null, null);
+    }
+
+    /**
+     * @param fields names of the rule properties needed, {@code null} for all of them. The id,
+     *     priority, and identifier are always part of the projection
+     * @return a projection of the {@link RuleCandidate} columns of {@code rule}, leaving out the
+     *     {@code extId}, {@code name}, {@code description}, and {@code ruleLimits} ones if none of
+     *     them is requested
+     */
+    public static QRuleCandidate projection(QRule rule, Set<String> fields) {
+        if (null == fields || fields.stream().anyMatch(OPTIONAL_PROPERTIES::contains)) {
+            return projection(rule);
+        }
+        QRuleIdentifier identifier = rule.identifier;
+        return new QRuleCandidate(
+                rule.id,
+                rule.priority,
+                identifier.access,
+                identifier.instance,
+                identifier.username,
+                identifier.rolename,
+                identifier.service,
+                identifier.addressRange.low,
+                identifier.addressRange.high,
+                identifier.addressRange.size,
+                identifier.request,
+                identifier.subfield,
+                identifier.workspace,
+                identifier.layer);
+    }
+
+    /**
+     * @return a projection of all the {@link RuleCandidate} columns of {@code rule}
+     */
+    public static QRuleCandidate projection(QRule rule) {
+        QRuleIdentifier identifier = rule.identifier;
+        QRuleLimits limits = rule.ruleLimits;
+        return new QRuleCandidate(
+                rule.id,
+                rule.extId,
+                rule.name,
+                rule.description,
+                rule.priority,
+                identifier.access,
+                identifier.instance,
+                identifier.username,
+                identifier.rolename,
+                identifier.service,
+                identifier.addressRange.low,
+                identifier.addressRange.high,
+                identifier.addressRange.size,
+                identifier.request,
+                identifier.subfield,
+                identifier.workspace,
+                identifier.layer,
+                limits.allowedArea,
+                limits.spatialFilterType,
+                limits.catalogMode);
+    }
+}
@@ -0,0 +1,74 @@
+/* (c) 2023  Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.acl.jpa.model;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Set;
+
+import javax.persistence.CollectionTable;
+import javax.persistence.Column;
+import javax.persistence.ElementCollection;
+import javax.persistence.Entity;
+import javax.persistence.FetchType;
+import javax.persistence.ForeignKey;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.JoinColumn;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+
+/**
+ * An entry of the rule change log, recording the ids of the rules or admin rules affected by a
+ * create, update, or delete operation.
+ *
+ * @since 1.0
+ */
+@Data
+@Accessors(chain = true)
+@Entity(name = "RuleChange")
+@Table(name = "acl_rule_change")
+public class RuleChange implements Serializable {
+    private static final long serialVersionUID = -4719373451634128265L;
+
+    /**
+     * The change sequence number. Ids are allocated one at a time so that they grow monotonically
+     * across application instances sharing the database
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "rule_change_id")
+    @SequenceGenerator(
+            name = "rule_change_id",
+            sequenceName = "acl_rule_change_seq",
+            allocationSize = 1)
+    @Column
+    private Long id;
+
+    /** Either {@code RULE} or {@code ADMIN_RULE} */
+    @Column(name = "rule_type", nullable = false, length = 16)
+    private String ruleType;
+
+    /** Either {@code CREATED}, {@code UPDATED}, or {@code DELETED} */
+    @Column(name = "event_type", nullable = false, length = 16)
+    private String eventType;
+
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(
+            name = "acl_rule_change_ids",
+            joinColumns =
+                    @JoinColumn(
+                            name = "change_id",
+                            foreignKey = @ForeignKey(name = "fk_rule_change_ids")))
+    @Column(name = "rule_id", nullable = false)
+    private Set<String> ruleIds = new HashSet<>();
+
+    @Column(nullable = false)
+    private Instant timestamp;
+}
@@ -10,6 +10,7 @@ import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.querydsl.QuerydslPredicateExecutor;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -18,6 +19,8 @@ import java.util.List;
 import java.util.Optional;
 import java.util.stream.Stream;
 
+import javax.persistence.QueryHint;
+
 @Repository
 @TransactionSupported
 public interface JpaAdminRuleRepository
@@ -67,5 +70,27 @@ public interface JpaAdminRuleRepository
     @Query("SELECT MIN(r.priority) FROM AdminRule r")
     Optional<Long> findMinPriority();
 
+    @Override
+    @Query("SELECT MAX(r.priority) FROM AdminRule r WHERE r.priority < :priority")
+    Optional<Long> findMaxPriorityBefore(@Param("priority") long priority);
+
+    @Override
+    @TransactionRequired
+    @Query(
+            "SELECT r.priority FROM AdminRule r WHERE r.priority >= :priorityStart ORDER BY r.priority")
+    Stream<Long> streamPrioritiesFrom(@Param("priorityStart") long priorityStart);
+
+    @Override
+    @TransactionRequired
+    @QueryHints(@QueryHint(name = org.hibernate.annotations.QueryHints.FETCH_SIZE, value = "1000"))
+    @Query("SELECT r.id AS id, r.priority AS priority FROM AdminRule r ORDER BY r.priority")
+    Stream<IdPriority> streamIdPrioritiesOrderByPriority();
+
+    @Override
+    @TransactionRequired
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE AdminRule SET priority = :priority WHERE id = :id")
+    void setPriority(@Param("id") long id, @Param("priority") long priority);
+
     List<AdminRule> findAllByIdentifier(AdminRuleIdentifier identifier);
 }
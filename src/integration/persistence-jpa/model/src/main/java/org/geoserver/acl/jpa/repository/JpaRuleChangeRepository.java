@@ -0,0 +1,46 @@
+/* (c) 2023  Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.acl.jpa.repository;
+
+import org.geoserver.acl.jpa.model.RuleChange;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * @since 1.0
+ */
+@Repository
+@TransactionSupported
+public interface JpaRuleChangeRepository extends JpaRepository<RuleChange, Long> {
+
+    @Query("SELECT c FROM RuleChange c WHERE c.id > :since ORDER BY c.id")
+    List<RuleChange> findSince(@Param("since") long since, Pageable page);
+
+    @Query("SELECT MIN(c.id) FROM RuleChange c")
+    Optional<Long> findMinId();
+
+    @Query("SELECT MAX(c.id) FROM RuleChange c")
+    Optional<Long> findMaxId();
+
+    @Query("SELECT MAX(c.id) FROM RuleChange c WHERE c.timestamp <= :timestamp")
+    Optional<Long> findMaxIdNotAfter(@Param("timestamp") Instant timestamp);
+
+    @Query("SELECT c.id FROM RuleChange c WHERE c.id > :since ORDER BY c.id")
+    List<Long> findIdsSince(@Param("since") long since);
+
+    /**
+     * Deletes the changes with an id lower than {@code id}. Entities are loaded and removed one by
+     * one, for their rule ids to be deleted too.
+     */
+    @TransactionRequired
+    long deleteByIdLessThan(long id);
+}
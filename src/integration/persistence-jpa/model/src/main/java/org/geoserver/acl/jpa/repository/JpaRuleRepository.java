@@ -9,6 +9,7 @@ import org.geoserver.acl.jpa.model.RuleIdentifier;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.querydsl.QuerydslPredicateExecutor;
 import org.springframework.data.repository.query.Param;
 
@@ -16,6 +17,8 @@ import java.util.List;
 import java.util.Optional;
 import java.util.stream.Stream;
 
+import javax.persistence.QueryHint;
+
 @TransactionSupported
 public interface JpaRuleRepository
         extends JpaRepository<Rule, Long>,
@@ -61,5 +64,26 @@ public interface JpaRuleRepository
     @Query("SELECT MIN(r.priority) FROM Rule r")
     Optional<Long> findMinPriority();
 
+    @Override
+    @Query("SELECT MAX(r.priority) FROM Rule r WHERE r.priority < :priority")
+    Optional<Long> findMaxPriorityBefore(@Param("priority") long priority);
+
+    @Override
+    @TransactionRequired
+    @Query("SELECT r.priority FROM Rule r WHERE r.priority >= :priorityStart ORDER BY r.priority")
+    Stream<Long> streamPrioritiesFrom(@Param("priorityStart") long priorityStart);
+
+    @Override
+    @TransactionRequired
+    @QueryHints(@QueryHint(name = org.hibernate.annotations.QueryHints.FETCH_SIZE, value = "1000"))
+    @Query("SELECT r.id AS id, r.priority AS priority FROM Rule r ORDER BY r.priority")
+    Stream<IdPriority> streamIdPrioritiesOrderByPriority();
+
+    @Override
+    @TransactionRequired
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Rule SET priority = :priority WHERE id = :id")
+    void setPriority(@Param("id") long id, @Param("priority") long priority);
+
     List<Rule> findAllByIdentifier(RuleIdentifier identifier);
 }
@@ -35,4 +35,24 @@ public interface PriorityRepository<T> extends PagingAndSortingRepository<T, Lon
      * long)} with the same {@code min} and {@code max} parameters
      */
     Stream<Long> streamIdsByShiftPriorityBetween(@Param("min") long min, @Param("max") long max);
+
+    /**
+     * @return the highest priority strictly lower than {@code priority}, or empty if there's none
+     */
+    Optional<Long> findMaxPriorityBefore(@Param("priority") long priority);
+
+    /** Stream the priorities {@code >= priorityStart}, in ascending order */
+    Stream<Long> streamPrioritiesFrom(@Param("priorityStart") long priorityStart);
+
+    /** Stream all the id/priority pairs, in ascending priority order */
+    Stream<IdPriority> streamIdPrioritiesOrderByPriority();
+
+    void setPriority(@Param("id") long id, @Param("priority") long priority);
+
+    /** Projection on a rule's id and priority, used to renumber priorities */
+    interface IdPriority {
+        Long getId();
+
+        Long getPriority();
+    }
 }
@@ -6,6 +6,12 @@ import com.zaxxer.hikari.HikariDataSource;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.Closeable;
+import java.sql.SQLException;
 
 import javax.sql.DataSource;
 
@@ -55,4 +61,115 @@ class AclDataSourceConfigurationTest {
                                             "geoserver.acl.datasource.url or geoserver.acl.datasource.jndiName is requried");
                         });
     }
+
+    @Test
+    void testReadReplicas() {
+        runner.withPropertyValues(
+                        "geoserver.acl.datasource.url=jdbc:h2:mem:primary",
+                        "geoserver.acl.datasource.max-replication-lag=0s",
+                        "geoserver.acl.datasource.replicas[0].url=jdbc:h2:mem:replica1",
+                        "geoserver.acl.datasource.replicas[1].url=jdbc:h2:mem:replica2")
+                .run(
+                        context -> {
+                            assertThat(context).hasNotFailed();
+                            DataSource ds =
+                                    context.getBean("authorizationDataSource", DataSource.class);
+                            assertThat(ds).isInstanceOf(Closeable.class);
+
+                            assertThat(connectionUrl(ds, false)).isEqualTo("jdbc:h2:mem:primary");
+                            assertThat(connectionUrl(ds, true)).isEqualTo("jdbc:h2:mem:replica1");
+                            assertThat(connectionUrl(ds, true)).isEqualTo("jdbc:h2:mem:replica2");
+                            assertThat(connectionUrl(ds, true)).isEqualTo("jdbc:h2:mem:replica1");
+                            assertThat(connectionUrl(ds, false)).isEqualTo("jdbc:h2:mem:primary");
+                        });
+    }
+
+    @Test
+    void testReadReplicas_readYourWrites() {
+        runner.withPropertyValues(
+                        "geoserver.acl.datasource.url=jdbc:h2:mem:primary",
+                        "geoserver.acl.datasource.max-replication-lag=1h",
+                        "geoserver.acl.datasource.replicas[0].url=jdbc:h2:mem:replica1")
+                .run(
+                        context -> {
+                            DataSource ds =
+                                    context.getBean("authorizationDataSource", DataSource.class);
+                            assertThat(connectionUrl(ds, true)).isEqualTo("jdbc:h2:mem:replica1");
+                            assertThat(connectionUrl(ds, false)).isEqualTo("jdbc:h2:mem:primary");
+                            // within the replication lag window after a write
+                            assertThat(connectionUrl(ds, true)).isEqualTo("jdbc:h2:mem:primary");
+                        });
+    }
+
+    @Test
+    void testAuthorizationPool() {
+        runner.withPropertyValues(
+                        "geoserver.acl.datasource.url=jdbc:h2:mem:authorization-pool",
+                        "geoserver.acl.datasource.hikari.maximum-pool-size=4",
+                        "geoserver.acl.datasource.authorization-pool.maximum-pool-size=2")
+                .run(
+                        context -> {
+                            assertThat(context).hasNotFailed();
+                            DataSource ds =
+                                    context.getBean("authorizationDataSource", DataSource.class);
+                            assertThat(ds).isInstanceOf(AuthorizationPoolRoutingDataSource.class);
+                            var router = (AuthorizationPoolRoutingDataSource) ds;
+
+                            HikariDataSource main = (HikariDataSource) router.currentTarget();
+                            assertThat(main.getMaximumPoolSize()).isEqualTo(4);
+
+                            HikariDataSource authorization;
+                            try (var scope = AuthorizationConnectionPool.enter()) {
+                                authorization = (HikariDataSource) router.currentTarget();
+                                assertThat(ds.getConnection()).isNotNull();
+                            }
+                            assertThat(authorization).isNotSameAs(main);
+                            assertThat(authorization.getMaximumPoolSize()).isEqualTo(2);
+                            assertThat(authorization.getJdbcUrl())
+                                    .isEqualTo("jdbc:h2:mem:authorization-pool");
+                            assertThat(router.currentTarget()).isSameAs(main);
+                        });
+    }
+
+    @Test
+    void testAuthorizationPoolWithReadReplicas_readYourWrites() {
+        runner.withPropertyValues(
+                        "geoserver.acl.datasource.url=jdbc:h2:mem:primary",
+                        "geoserver.acl.datasource.max-replication-lag=1h",
+                        "geoserver.acl.datasource.replicas[0].url=jdbc:h2:mem:replica1",
+                        "geoserver.acl.datasource.authorization-pool.maximum-pool-size=2")
+                .run(
+                        context -> {
+                            assertThat(context).hasNotFailed();
+                            DataSource ds =
+                                    context.getBean("authorizationDataSource", DataSource.class);
+                            assertThat(ds).isInstanceOf(AuthorizationPoolRoutingDataSource.class);
+
+                            try (var scope = AuthorizationConnectionPool.enter()) {
+                                assertThat(connectionUrl(ds, true))
+                                        .isEqualTo("jdbc:h2:mem:replica1");
+                            }
+                            // an administration write through the default pool
+                            assertThat(connectionUrl(ds, false)).isEqualTo("jdbc:h2:mem:primary");
+                            // is seen by the access checks, within the replication lag window
+                            try (var scope = AuthorizationConnectionPool.enter()) {
+                                assertThat(connectionUrl(ds, true))
+                                        .isEqualTo("jdbc:h2:mem:primary");
+                            }
+                            assertThat(connectionUrl(ds, true)).isEqualTo("jdbc:h2:mem:primary");
+                        });
+    }
+
+    private String connectionUrl(DataSource ds, boolean readOnly) {
+        TransactionTemplate tx = new TransactionTemplate(new DataSourceTransactionManager(ds));
+        tx.setReadOnly(readOnly);
+        return tx.execute(
+                status -> {
+                    try {
+                        return DataSourceUtils.getConnection(ds).getMetaData().getURL();
+                    } catch (SQLException e) {
+                        throw new IllegalStateException(e);
+                    }
+                });
+    }
 }
@@ -0,0 +1,115 @@
+package org.geoserver.acl.jpa.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+
+import org.geoserver.acl.jpa.model.AdminGrantType;
+import org.geoserver.acl.jpa.model.AdminRule;
+import org.geoserver.acl.jpa.model.CacheRegions;
+import org.geoserver.acl.jpa.model.Rule;
+import org.geoserver.acl.jpa.repository.JpaAdminRuleRepository;
+import org.geoserver.acl.jpa.repository.JpaRuleRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.util.OptionalLong;
+
+import javax.cache.CacheManager;
+import javax.persistence.EntityManagerFactory;
+
+@SpringBootTest(
+        classes = {
+            AuthorizationJPAPropertiesTestConfiguration.class,
+            AclDataSourceConfiguration.class,
+            AuthorizationJPAConfiguration.class
+        },
+        properties = {
+            "geoserver.acl.cache.enabled=true",
+            "geoserver.acl.cache.query-cache=true",
+            "geoserver.acl.cache.expire-after-write=30s",
+            "geoserver.acl.cache.statistics=true",
+            "geoserver.acl.cache.regions.acl-rule=100"
+        })
+@ActiveProfiles("test")
+class AuthorizationJPACacheTest {
+
+    private @Autowired JpaRuleRepository ruleRepo;
+    private @Autowired JpaAdminRuleRepository adminRuleRepo;
+
+    @Qualifier("authorizationEntityManagerFactory")
+    private @Autowired EntityManagerFactory emf;
+
+    @Qualifier("authorizationCacheManager")
+    private @Autowired CacheManager cacheManager;
+
+    private Statistics stats;
+
+    @BeforeEach
+    void setUp() {
+        ruleRepo.deleteAll();
+        adminRuleRepo.deleteAll();
+        stats = emf.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+    }
+
+    @Test
+    void regionsAreCreatedWithTheConfiguredSizes() {
+        assertThat(cacheManager.getCacheNames())
+                .contains(
+                        CacheRegions.RULE,
+                        CacheRegions.RULE_ALLOWED_STYLES,
+                        CacheRegions.RULE_LAYER_ATTRIBUTES,
+                        CacheRegions.RULE_QUERIES,
+                        CacheRegions.ADMIN_RULE,
+                        CacheRegions.ADMIN_RULE_QUERIES,
+                        CacheRegions.UPDATE_TIMESTAMPS);
+        assertThat(stats.isStatisticsEnabled()).isTrue();
+
+        assertThat(expireAfterWrite(CacheRegions.RULE)).hasValue(Duration.ofSeconds(30).toNanos());
+        assertThat(expireAfterWrite(CacheRegions.RULE_QUERIES))
+                .hasValue(Duration.ofSeconds(30).toNanos());
+        assertThat(expireAfterWrite(CacheRegions.UPDATE_TIMESTAMPS)).isEmpty();
+    }
+
+    @SuppressWarnings("unchecked")
+    private OptionalLong expireAfterWrite(String region) {
+        return cacheManager
+                .getCache(region)
+                .getConfiguration(CaffeineConfiguration.class)
+                .getExpireAfterWrite();
+    }
+
+    @Test
+    void entitiesAreServedFromTheSecondLevelCache() {
+        Rule rule = new Rule();
+        rule.setPriority(1);
+        rule.getIdentifier().setLayer("layer1");
+        final long ruleId = ruleRepo.save(rule).getId();
+
+        AdminRule adminRule = new AdminRule();
+        adminRule.setPriority(1);
+        adminRule.setAccess(AdminGrantType.ADMIN);
+        final long adminRuleId = adminRuleRepo.save(adminRule).getId();
+
+        // each call runs on its own session
+        assertThat(ruleRepo.findById(ruleId)).isPresent();
+        assertThat(ruleRepo.findById(ruleId)).isPresent();
+        assertThat(adminRuleRepo.findById(adminRuleId)).isPresent();
+
+        CacheRegionStatistics ruleRegion = stats.getDomainDataRegionStatistics(CacheRegions.RULE);
+        assertThat(ruleRegion.getHitCount()).isEqualTo(2);
+
+        CacheRegionStatistics adminRegion =
+                stats.getDomainDataRegionStatistics(CacheRegions.ADMIN_RULE);
+        assertThat(adminRegion.getHitCount()).isEqualTo(1);
+    }
+}
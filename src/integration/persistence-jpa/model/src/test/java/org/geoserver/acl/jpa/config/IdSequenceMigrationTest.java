@@ -0,0 +1,102 @@
+/* (c) 2023  Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.acl.jpa.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+class IdSequenceMigrationTest {
+
+    private EmbeddedDatabase db =
+            new EmbeddedDatabaseBuilder()
+                    .setType(EmbeddedDatabaseType.H2)
+                    .generateUniqueName(true)
+                    .build();
+    private JdbcTemplate jdbc = new JdbcTemplate(db);
+
+    @AfterEach
+    void tearDown() {
+        db.shutdown();
+    }
+
+    @Test
+    void createsTheSequencesAfterTheExistingIds() {
+        jdbc.execute("CREATE TABLE acl_rule (id BIGINT PRIMARY KEY)");
+        jdbc.execute("INSERT INTO acl_rule VALUES (1), (120)");
+
+        new IdSequenceMigration(db, null).run();
+
+        // the first block of the pooled optimizer is [121, 170]
+        assertThat(nextValue("acl_rule_seq")).isEqualTo(170L);
+        assertThat(sequenceExists("acl_adminrule_seq")).isFalse();
+
+        // existing sequences are left alone
+        new IdSequenceMigration(db, null).run();
+        assertThat(nextValue("acl_rule_seq")).isEqualTo(220L);
+    }
+
+    @Test
+    void emptyTable() {
+        jdbc.execute("CREATE TABLE acl_adminrule (id BIGINT PRIMARY KEY)");
+
+        new IdSequenceMigration(db, null).run();
+
+        assertThat(nextValue("acl_adminrule_seq")).isEqualTo(50L);
+        assertThat(sequenceExists("acl_rule_seq")).isFalse();
+    }
+
+    @Test
+    void skippedIfBothSequencesExist() {
+        // no id column, migrating acl_rule would fail
+        jdbc.execute("CREATE TABLE acl_rule (name VARCHAR(10))");
+        jdbc.execute("CREATE SEQUENCE acl_rule_seq START WITH 1000 INCREMENT BY 50");
+        jdbc.execute("CREATE SEQUENCE acl_adminrule_seq START WITH 2000 INCREMENT BY 50");
+
+        new IdSequenceMigration(db, null).run();
+
+        assertThat(nextValue("acl_rule_seq")).isEqualTo(1000L);
+        assertThat(nextValue("acl_adminrule_seq")).isEqualTo(2000L);
+    }
+
+    @Test
+    void failsIfTheSequenceCantBeCreated() {
+        jdbc.execute("CREATE TABLE acl_rule (name VARCHAR(10))");
+
+        IdSequenceMigration migration = new IdSequenceMigration(db, null);
+        assertThrows(IllegalStateException.class, migration::run);
+        assertThat(sequenceExists("acl_rule_seq")).isFalse();
+    }
+
+    @Test
+    void schema() {
+        jdbc.execute("CREATE SCHEMA acl");
+        jdbc.execute("CREATE TABLE acl.acl_rule (id BIGINT PRIMARY KEY)");
+        jdbc.execute("INSERT INTO acl.acl_rule VALUES (10)");
+
+        new IdSequenceMigration(db, "acl").run();
+
+        assertThat(nextValue("acl.acl_rule_seq")).isEqualTo(60L);
+        assertThat(sequenceExists("acl_adminrule_seq")).isFalse();
+    }
+
+    private long nextValue(String sequence) {
+        return jdbc.queryForObject("SELECT NEXT VALUE FOR " + sequence, Long.class);
+    }
+
+    private boolean sequenceExists(String sequence) {
+        return 0
+                < jdbc.queryForObject(
+                        "SELECT count(*) FROM information_schema.sequences WHERE lower(sequence_name) = ?",
+                        Integer.class,
+                        sequence);
+    }
+}
@@ -0,0 +1,71 @@
+/* (c) 2023  Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.acl.jpa.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.time.Duration;
+
+import javax.sql.DataSource;
+
+class QueryDeadlineTest {
+
+    private EmbeddedDatabase db =
+            new EmbeddedDatabaseBuilder()
+                    .setType(EmbeddedDatabaseType.H2)
+                    .generateUniqueName(true)
+                    .build();
+
+    private DataSource dataSource = new QueryDeadlineDataSource(db);
+
+    @AfterEach
+    void tearDown() {
+        db.shutdown();
+    }
+
+    @Test
+    void noDeadline() throws Exception {
+        try (Connection c = dataSource.getConnection();
+                Statement st = c.createStatement()) {
+            assertThat(st.getQueryTimeout()).isZero();
+        }
+    }
+
+    @Test
+    void statementsGetTheTimeLeft() throws Exception {
+        try (var scope = QueryDeadline.enter(Duration.ofMillis(2500));
+                Connection c = dataSource.getConnection();
+                PreparedStatement st = c.prepareStatement("SELECT 1")) {
+            assertThat(st.getQueryTimeout()).isEqualTo(3);
+
+            // nested scopes keep the earliest deadline
+            try (var nested = QueryDeadline.enter(Duration.ofMinutes(1));
+                    Statement inner = c.createStatement()) {
+                assertThat(inner.getQueryTimeout()).isEqualTo(3);
+            }
+        }
+        assertThat(QueryDeadline.isActive()).isFalse();
+    }
+
+    @Test
+    void failsOnceTheDeadlinePassed() throws Exception {
+        try (var scope = QueryDeadline.enter(Duration.ofMillis(10));
+                Connection c = dataSource.getConnection()) {
+            Thread.sleep(20);
+            assertThrows(SQLTimeoutException.class, c::createStatement);
+        }
+    }
+}
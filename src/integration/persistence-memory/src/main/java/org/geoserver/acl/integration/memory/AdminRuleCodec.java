@@ -0,0 +1,58 @@
+/* (c) 2023  Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.acl.integration.memory;
+
+import static org.geoserver.acl.integration.memory.RecordCodec.readEnum;
+import static org.geoserver.acl.integration.memory.RecordCodec.readString;
+import static org.geoserver.acl.integration.memory.RecordCodec.writeEnum;
+import static org.geoserver.acl.integration.memory.RecordCodec.writeString;
+
+import org.geoserver.acl.domain.adminrules.AdminGrantType;
+import org.geoserver.acl.domain.adminrules.AdminRule;
+import org.geoserver.acl.domain.adminrules.AdminRuleIdentifier;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+class AdminRuleCodec implements RecordCodec<AdminRule> {
+
+    @Override
+    public void write(AdminRule rule, DataOutput out) throws IOException {
+        writeString(rule.getId(), out);
+        writeString(rule.getExtId(), out);
+        writeString(rule.getName(), out);
+        writeString(rule.getDescription(), out);
+        out.writeLong(rule.getPriority());
+        writeEnum(rule.getAccess(), out);
+
+        AdminRuleIdentifier identifier = rule.getIdentifier();
+        writeString(identifier.getInstanceName(), out);
+        writeString(identifier.getUsername(), out);
+        writeString(identifier.getRolename(), out);
+        writeString(identifier.getWorkspace(), out);
+        writeString(identifier.getAddressRange(), out);
+    }
+
+    @Override
+    public AdminRule read(DataInput in) throws IOException {
+        return AdminRule.builder()
+                .id(readString(in))
+                .extId(readString(in))
+                .name(readString(in))
+                .description(readString(in))
+                .priority(in.readLong())
+                .access(readEnum(AdminGrantType.class, in))
+                .identifier(
+                        AdminRuleIdentifier.builder()
+                                .instanceName(readString(in))
+                                .username(readString(in))
+                                .rolename(readString(in))
+                                .workspace(readString(in))
+                                .addressRange(readString(in))
+                                .build())
+                .build();
+    }
+}
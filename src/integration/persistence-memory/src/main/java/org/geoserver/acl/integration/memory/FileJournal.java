@@ -0,0 +1,335 @@
+/* (c) 2023  Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.acl.integration.memory;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.zip.CRC32;
+
+/**
+ * Durable storage for a {@link PriorityStore}, as a snapshot file with the full state plus a
+ * journal file with the changes committed since the snapshot was taken.
+ *
+ * <p>Each commit is appended to the journal as a single checksummed batch, so a torn write from a
+ * crash is detected and discarded at load time. Once the journal holds {@code compactionThreshold}
+ * changes a new snapshot is written to a temporary file and atomically moved in place, and the
+ * journal is truncated.
+ *
+ * <p>The journal file is locked while open, so only one process at a time can use the same
+ * directory.
+ */
+@Slf4j
+class FileJournal<R> implements Closeable {
+
+    private static final int MAGIC = 0x41434c53; // ACLS
+    private static final int VERSION = 1;
+
+    private static final byte PUT = 1;
+    private static final byte DELETE = 2;
+
+    private final Path snapshotFile;
+    private final Path journalFile;
+    private final RecordCodec<R> codec;
+    private final Function<R, String> idFunction;
+    private final int compactionThreshold;
+    private final boolean sync;
+
+    private FileChannel journal;
+    private FileLock lock;
+    private int journalEntries;
+    private long lastId;
+
+    /**
+     * @param directory where to store the {@code <name>.snapshot} and {@code <name>.journal} files
+     * @param compactionThreshold number of journaled changes that trigger a new snapshot
+     * @param sync whether to force each commit to the storage device before returning
+     */
+    FileJournal(
+            @NonNull Path directory,
+            @NonNull String name,
+            @NonNull RecordCodec<R> codec,
+            @NonNull Function<R, String> idFunction,
+            int compactionThreshold,
+            boolean sync) {
+        if (compactionThreshold < 1) {
+            throw new IllegalArgumentException("compactionThreshold must be > 0");
+        }
+        this.snapshotFile = directory.resolve(name + ".snapshot");
+        this.journalFile = directory.resolve(name + ".journal");
+        this.codec = codec;
+        this.idFunction = idFunction;
+        this.compactionThreshold = compactionThreshold;
+        this.sync = sync;
+    }
+
+    /**
+     * @return the highest numeric id ever persisted, including the ones of deleted records, so that
+     *     ids are not reused after a restart
+     */
+    public long lastId() {
+        return lastId;
+    }
+
+    /**
+     * Opens the journal and returns the persisted records, as of the snapshot plus the journaled
+     * changes
+     */
+    public Collection<R> load() {
+        try {
+            Files.createDirectories(journalFile.getParent());
+            journal =
+                    FileChannel.open(
+                            journalFile,
+                            StandardOpenOption.CREATE,
+                            StandardOpenOption.READ,
+                            StandardOpenOption.WRITE);
+            lock = journal.tryLock();
+            if (lock == null) {
+                journal.close();
+                throw new IllegalStateException(journalFile + " is in use by another process");
+            }
+            Map<String, R> records = readSnapshot();
+            replayJournal(records);
+            log.info(
+                    "Loaded {} records from {} and {} changes from {}",
+                    records.size(),
+                    snapshotFile,
+                    journalEntries,
+                    journalFile);
+            return records.values();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error loading " + snapshotFile, e);
+        }
+    }
+
+    private Map<String, R> readSnapshot() throws IOException {
+        Map<String, R> records = new LinkedHashMap<>();
+        if (!Files.exists(snapshotFile)) return records;
+
+        try (InputStream fin = Files.newInputStream(snapshotFile);
+                DataInputStream in = new DataInputStream(new BufferedInputStream(fin))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException(snapshotFile + " is not a snapshot file");
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported snapshot version " + version);
+            }
+            lastId = in.readLong();
+            final int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                R record = codec.read(in);
+                records.put(idFunction.apply(record), record);
+            }
+        }
+        return records;
+    }
+
+    private void replayJournal(Map<String, R> records) throws IOException {
+        long validLength = 0;
+        journal.position(0);
+        DataInputStream in =
+                new DataInputStream(new BufferedInputStream(Channels.newInputStream(journal)));
+        while (true) {
+            byte[] batch;
+            try {
+                int length = in.readInt();
+                if (length < 0 || length > journal.size() - validLength) {
+                    log.warn(
+                            "Discarding corrupt batch at offset {} of {}",
+                            validLength,
+                            journalFile);
+                    break;
+                }
+                batch = new byte[length];
+                in.readFully(batch);
+                long checksum = in.readLong();
+                if (checksum != checksum(batch)) {
+                    log.warn(
+                            "Discarding corrupt batch at offset {} of {}",
+                            validLength,
+                            journalFile);
+                    break;
+                }
+            } catch (EOFException e) {
+                if (validLength < journal.size()) {
+                    log.warn(
+                            "Discarding truncated batch at offset {} of {}",
+                            validLength,
+                            journalFile);
+                }
+                break;
+            }
+            journalEntries += applyBatch(batch, records);
+            validLength += Integer.BYTES + batch.length + Long.BYTES;
+        }
+        journal.truncate(validLength);
+        journal.position(validLength);
+    }
+
+    private int applyBatch(byte[] batch, Map<String, R> records) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(batch));
+        final int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            byte op = in.readByte();
+            if (op == PUT) {
+                R record = codec.read(in);
+                String id = idFunction.apply(record);
+                records.put(id, record);
+                updateLastId(id);
+            } else if (op == DELETE) {
+                String id = RecordCodec.readString(in);
+                records.remove(id);
+                updateLastId(id);
+            } else {
+                throw new IOException("Unknown journal operation " + op);
+            }
+        }
+        return count;
+    }
+
+    private void updateLastId(String id) {
+        lastId = Math.max(lastId, Long.parseLong(id));
+    }
+
+    /**
+     * Appends the changes as a single batch
+     *
+     * @param changes records by id, {@code null} values stand for deleted records
+     */
+    public void append(Map<String, R> changes) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(changes.size());
+            for (Map.Entry<String, R> change : changes.entrySet()) {
+                if (change.getValue() == null) {
+                    out.writeByte(DELETE);
+                    RecordCodec.writeString(change.getKey(), out);
+                } else {
+                    out.writeByte(PUT);
+                    codec.write(change.getValue(), out);
+                }
+            }
+            out.flush();
+            byte[] batch = bytes.toByteArray();
+
+            ByteBuffer buff = ByteBuffer.allocate(Integer.BYTES + batch.length + Long.BYTES);
+            buff.putInt(batch.length).put(batch).putLong(checksum(batch)).flip();
+            final long position = journal.position();
+            try {
+                while (buff.hasRemaining()) {
+                    journal.write(buff);
+                }
+                if (sync) {
+                    journal.force(false);
+                }
+            } catch (IOException | RuntimeException e) {
+                // don't leave a partial batch for the next one to be appended after
+                discardFrom(position, e);
+                throw e;
+            }
+            journalEntries += changes.size();
+            changes.keySet().forEach(this::updateLastId);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error writing to " + journalFile, e);
+        }
+    }
+
+    private void discardFrom(long position, Exception cause) {
+        try {
+            journal.truncate(position);
+            journal.position(position);
+        } catch (IOException e) {
+            cause.addSuppressed(e);
+        }
+    }
+
+    /** Writes a new snapshot and truncates the journal if it grew past the compaction threshold */
+    public void compactIfNeeded(Collection<R> records) {
+        if (journalEntries < compactionThreshold) return;
+        try {
+            writeSnapshot(records);
+            journal.truncate(0);
+            journal.position(0);
+            if (sync) {
+                journal.force(true);
+            }
+            journalEntries = 0;
+        } catch (IOException e) {
+            // the journal is still valid, try again on the next commit
+            log.warn("Error compacting {}", journalFile, e);
+        }
+    }
+
+    private void writeSnapshot(Collection<R> records) throws IOException {
+        Path tmp = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+        try (FileChannel channel =
+                        FileChannel.open(
+                                tmp,
+                                StandardOpenOption.CREATE,
+                                StandardOpenOption.TRUNCATE_EXISTING,
+                                StandardOpenOption.WRITE);
+                OutputStream fout = Channels.newOutputStream(channel);
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fout))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(lastId);
+            out.writeInt(records.size());
+            for (R record : records) {
+                codec.write(record, out);
+            }
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(
+                tmp,
+                snapshotFile,
+                StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        log.debug("Saved {} records to {}", records.size(), snapshotFile);
+    }
+
+    @Override
+    public void close() {
+        try {
+            if (lock != null) lock.release();
+            if (journal != null) journal.close();
+        } catch (IOException e) {
+            log.warn("Error closing {}", journalFile, e);
+        }
+    }
+
+    private static long checksum(byte[] batch) {
+        CRC32 crc = new CRC32();
+        crc.update(batch);
+        return crc.getValue();
+    }
+}
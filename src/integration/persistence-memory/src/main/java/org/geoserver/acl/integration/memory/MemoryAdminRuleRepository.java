@@ -0,0 +1,398 @@
+/* (c) 2023  Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.acl.integration.memory;
+
+import lombok.NonNull;
+import lombok.Setter;
+
+import org.geoserver.acl.domain.adminrules.AdminRule;
+import org.geoserver.acl.domain.adminrules.AdminRuleEvent;
+import org.geoserver.acl.domain.adminrules.AdminRuleFilter;
+import org.geoserver.acl.domain.adminrules.AdminRuleIdentifierConflictException;
+import org.geoserver.acl.domain.adminrules.AdminRuleRepository;
+import org.geoserver.acl.domain.adminrules.InsertPosition;
+import org.geoserver.acl.domain.filter.RuleQuery;
+import org.geoserver.acl.integration.memory.PriorityStore.Position;
+
+import java.io.Closeable;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * {@link AdminRuleRepository} that holds all the admin rules in memory, see {@link
+ * MemoryRuleRepository}
+ *
+ * @since 1.0
+ */
+public class MemoryAdminRuleRepository implements AdminRuleRepository, Closeable {
+
+    private final PriorityStore<AdminRule> store;
+
+    @Setter
+    private @NonNull Consumer<AdminRuleEvent> eventPublisher =
+            r -> {
+                // no-op
+            };
+
+    /** Creates a volatile repository */
+    public MemoryAdminRuleRepository() {
+        this.store = newStore(null);
+    }
+
+    /**
+     * Creates a repository persisted to {@code adminrules.snapshot} and {@code adminrules.journal}
+     * files in {@code directory}, loading their contents if they exist
+     *
+     * @param compactionThreshold number of journaled changes that trigger a new snapshot
+     * @param sync whether to force each change to the storage device before returning
+     */
+    public MemoryAdminRuleRepository(
+            @NonNull Path directory, int compactionThreshold, boolean sync) {
+        this.store =
+                newStore(
+                        new FileJournal<>(
+                                directory,
+                                "adminrules",
+                                new AdminRuleCodec(),
+                                AdminRule::getId,
+                                compactionThreshold,
+                                sync));
+    }
+
+    private PriorityStore<AdminRule> newStore(FileJournal<AdminRule> journal) {
+        return new PriorityStore<>(
+                AdminRule::getId,
+                AdminRule::getPriority,
+                AdminRule::withPriority,
+                MemoryAdminRuleRepository::uniqueKey,
+                ids -> eventPublisher.accept(AdminRuleEvent.updated(ids)),
+                journal);
+    }
+
+    private static Object uniqueKey(AdminRule rule) {
+        return Arrays.asList(rule.getAccess(), rule.getIdentifier());
+    }
+
+    @Override
+    public void close() {
+        store.close();
+    }
+
+    @Override
+    public Optional<AdminRule> findById(@NonNull String id) {
+        return store.snapshot().get(id);
+    }
+
+    @Override
+    public List<AdminRule> findAllById(@NonNull Set<String> ids) {
+        final PriorityStore.Snapshot<AdminRule> snapshot = store.snapshot();
+        return ids.stream()
+                .map(snapshot::get)
+                .flatMap(Optional::stream)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public Optional<AdminRule> findOneByPriority(long priority) {
+        return store.snapshot().getByPriority(priority);
+    }
+
+    @Override
+    public Stream<AdminRule> findAll() {
+        return store.snapshot().stream();
+    }
+
+    @Override
+    public Stream<AdminRule> findAll(@NonNull RuleQuery<AdminRuleFilter> query) {
+        Stream<AdminRule> matches = findAll();
+        if (query.getFilter().isPresent()) {
+            matches = matches.filter(query.getFilter().get());
+        }
+        final String nextId = query.getNextId();
+        if (nextId != null) {
+            matches = matches.dropWhile(r -> !nextId.equals(r.getId()));
+        }
+        if (query.getLimit() != null) {
+            matches = matches.limit(query.getLimit());
+        }
+        return matches;
+    }
+
+    @Override
+    public Optional<AdminRule> findFirst(@NonNull AdminRuleFilter filter) {
+        return findAll().filter(filter).findFirst();
+    }
+
+    @Override
+    public int count() {
+        return store.snapshot().size();
+    }
+
+    @Override
+    public int count(@NonNull AdminRuleFilter filter) {
+        return (int) findAll().filter(filter).count();
+    }
+
+    @Override
+    public AdminRule create(@NonNull AdminRule rule, @NonNull InsertPosition position) {
+        validateNew(rule);
+        return store.write(
+                tx -> {
+                    checkNoDups(tx, rule, Set.of());
+                    return insert(tx, rule, map(position));
+                });
+    }
+
+    @Override
+    public List<AdminRule> createAll(
+            @NonNull List<AdminRule> rules, @NonNull InsertPosition position) {
+        if (rules.isEmpty()) return List.of();
+        rules.forEach(this::validateNew);
+        return store.write(
+                tx -> {
+                    checkNoDups(tx, rules, Set.of());
+                    List<AdminRule> created = new ArrayList<>(rules.size());
+                    for (AdminRule rule : rules) {
+                        if (created.isEmpty()) {
+                            created.add(insert(tx, rule, map(position)));
+                        } else {
+                            long next = created.get(created.size() - 1).getPriority() + 1;
+                            created.add(insert(tx, rule.withPriority(next), Position.FIXED));
+                        }
+                    }
+                    return created;
+                });
+    }
+
+    /** Overrides the default method to import the rules atomically, at their exact priorities */
+    @Override
+    public List<AdminRule> importAll(@NonNull List<AdminRule> rules) {
+        if (rules.isEmpty()) return List.of();
+        rules.forEach(this::validateNew);
+        return store.write(
+                tx -> {
+                    checkNoDups(tx, rules, Set.of());
+                    List<AdminRule> created = new ArrayList<>(rules.size());
+                    for (AdminRule rule : rules) {
+                        tx.getByPriority(rule.getPriority())
+                                .ifPresent(
+                                        taken -> {
+                                            throw new IllegalArgumentException(
+                                                    "Priority "
+                                                            + rule.getPriority()
+                                                            + " is already taken by AdminRule "
+                                                            + taken.getId());
+                                        });
+                        created.add(tx.save(rule.withId(tx.nextId())));
+                    }
+                    return created;
+                });
+    }
+
+    private void validateNew(AdminRule rule) {
+        if (null != rule.getId()) throw new IllegalArgumentException("AdminRule must have no id");
+        if (rule.getPriority() < 0)
+            throw new IllegalArgumentException(
+                    "Negative priority is not allowed: " + rule.getPriority());
+    }
+
+    private AdminRule insert(
+            PriorityStore<AdminRule>.Transaction tx, AdminRule rule, Position position) {
+        long priority = tx.resolveFinalPriority(rule.getPriority(), position);
+        return tx.save(rule.withId(tx.nextId()).withPriority(priority));
+    }
+
+    @Override
+    public AdminRule save(@NonNull AdminRule rule) {
+        if (null == rule.getId()) throw new IllegalArgumentException("AdminRule has no id");
+        return store.write(
+                tx -> {
+                    getOrThrow(tx, rule.getId());
+                    checkNoDups(tx, rule, Set.of());
+                    return doSave(tx, rule);
+                });
+    }
+
+    @Override
+    public List<AdminRule> saveAll(@NonNull List<AdminRule> rules) {
+        if (rules.isEmpty()) return List.of();
+        final Set<String> ids = new HashSet<>();
+        for (AdminRule rule : rules) {
+            if (null == rule.getId()) throw new IllegalArgumentException("AdminRule has no id");
+            if (!ids.add(rule.getId()))
+                throw new IllegalArgumentException("Duplicate AdminRule id " + rule.getId());
+        }
+        return store.write(
+                tx -> {
+                    rules.forEach(r -> getOrThrow(tx, r.getId()));
+                    checkNoDups(tx, rules, ids);
+                    return rules.stream().map(r -> doSave(tx, r)).collect(Collectors.toList());
+                });
+    }
+
+    private AdminRule doSave(PriorityStore<AdminRule>.Transaction tx, AdminRule rule) {
+        final AdminRule current = getOrThrow(tx, rule.getId());
+        final long priority = tx.resolvePriorityUpdate(current.getPriority(), rule.getPriority());
+        tx.remove(rule.getId());
+        if (tx.getByPriority(priority).isPresent()) {
+            tx.shiftRun(priority);
+        }
+        return tx.save(rule.withPriority(priority));
+    }
+
+    private void checkNoDups(
+            PriorityStore<AdminRule>.Transaction tx, List<AdminRule> rules, Set<String> ignoreIds) {
+        Set<Object> keys = new HashSet<>();
+        for (AdminRule rule : rules) {
+            if (!keys.add(uniqueKey(rule))) {
+                throw new AdminRuleIdentifierConflictException(
+                        "An AdminRule with the same identifier is repeated: "
+                                + rule.toShortString());
+            }
+            checkNoDups(tx, rule, ignoreIds);
+        }
+    }
+
+    private void checkNoDups(
+            PriorityStore<AdminRule>.Transaction tx, AdminRule rule, Set<String> ignoreIds) {
+        tx.getByKey(uniqueKey(rule))
+                .map(AdminRule::getId)
+                .filter(id -> !id.equals(rule.getId()) && !ignoreIds.contains(id))
+                .ifPresent(
+                        id -> {
+                            throw new AdminRuleIdentifierConflictException(
+                                    "An AdminRule with the same identifier already exists: "
+                                            + rule.toShortString());
+                        });
+    }
+
+    @Override
+    public int shiftPriority(long priorityStart, long offset) {
+        if (offset <= 0) {
+            throw new IllegalArgumentException("Positive offset required");
+        }
+        int shifted = store.write(tx -> tx.shift(priorityStart, offset));
+        return shifted > 0 ? shifted : -1;
+    }
+
+    @Override
+    public void swap(@NonNull String id1, @NonNull String id2) {
+        store.write(
+                tx -> {
+                    AdminRule r1 = getOrThrow(tx, id1);
+                    AdminRule r2 = getOrThrow(tx, id2);
+                    tx.remove(id1);
+                    tx.remove(id2);
+                    tx.save(r1.withPriority(r2.getPriority()));
+                    tx.save(r2.withPriority(r1.getPriority()));
+                    return null;
+                });
+    }
+
+    @Override
+    public boolean deleteById(@NonNull String id) {
+        return store.write(tx -> tx.remove(id));
+    }
+
+    /**
+     * Replaces all the admin rules by the ones in {@code snapshot}
+     *
+     * @see RulesetSnapshot#load(Path)
+     */
+    public void restore(@NonNull RulesetSnapshot snapshot) {
+        store.write(
+                tx -> {
+                    tx.clear();
+                    for (AdminRule rule : snapshot.getAdminRules()) {
+                        tx.save(rule);
+                        tx.reserveId(rule.getId());
+                    }
+                    return null;
+                });
+    }
+
+    /**
+     * Catches up with a change made to the {@code source} repository, see {@link
+     * MemoryRuleRepository#replicate}
+     */
+    public void replicate(@NonNull AdminRuleEvent event, @NonNull AdminRuleRepository source) {
+        // fetched rules by id, null values stand for rules that no longer exist
+        Map<String, AdminRule> fetched = new HashMap<>();
+        Set<String> pending = new HashSet<>(event.getRuleIds());
+        while (!pending.isEmpty()) {
+            fetch(pending, source, fetched);
+            pending = store.write(tx -> applyFetched(tx, fetched));
+        }
+    }
+
+    private void fetch(
+            Set<String> ids, AdminRuleRepository source, Map<String, AdminRule> fetched) {
+        final PriorityStore.Snapshot<AdminRule> snapshot = store.snapshot();
+        Set<String> pending = new HashSet<>(ids);
+        pending.removeAll(fetched.keySet());
+        while (!pending.isEmpty()) {
+            Set<String> next = new HashSet<>();
+            for (AdminRule rule : source.findAllById(pending)) {
+                fetched.put(rule.getId(), rule);
+                snapshot.getByPriority(rule.getPriority())
+                        .map(AdminRule::getId)
+                        .ifPresent(next::add);
+            }
+            // the ones not returned no longer exist
+            pending.forEach(id -> fetched.putIfAbsent(id, null));
+            next.removeAll(fetched.keySet());
+            pending = next;
+        }
+    }
+
+    private Set<String> applyFetched(
+            PriorityStore<AdminRule>.Transaction tx, Map<String, AdminRule> fetched) {
+        Set<String> stale =
+                fetched.values().stream()
+                        .filter(Objects::nonNull)
+                        .map(r -> tx.getByPriority(r.getPriority()))
+                        .flatMap(Optional::stream)
+                        .map(AdminRule::getId)
+                        .filter(id -> !fetched.containsKey(id))
+                        .collect(Collectors.toSet());
+        if (!stale.isEmpty()) return stale;
+
+        fetched.keySet().forEach(tx::remove);
+        fetched.values().stream()
+                .filter(Objects::nonNull)
+                .forEach(
+                        r -> {
+                            tx.save(r);
+                            tx.reserveId(r.getId());
+                        });
+        return Set.of();
+    }
+
+    private AdminRule getOrThrow(PriorityStore<AdminRule>.Transaction tx, String id) {
+        try {
+            Long.parseLong(id);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid id: " + id);
+        }
+        return tx.get(id)
+                .orElseThrow(
+                        () -> new IllegalArgumentException("AdminRule " + id + " does not exist"));
+    }
+
+    private static Position map(InsertPosition position) {
+        return Position.valueOf(position.name());
+    }
+}
@@ -0,0 +1,77 @@
+/* (c) 2023  Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.acl.integration.memory;
+
+import lombok.NonNull;
+
+import org.geoserver.acl.domain.rules.RuleChange;
+import org.geoserver.acl.domain.rules.RuleChange.RuleType;
+import org.geoserver.acl.domain.rules.RuleChangeLog;
+import org.geoserver.acl.domain.rules.RuleEvent.EventType;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * {@link RuleChangeLog} holding the latest {@code capacity} changes in memory.
+ *
+ * <p>The log is volatile, sequence numbers start over at {@code 1} when the application restarts.
+ *
+ * @since 1.0
+ */
+public class MemoryRuleChangeLog implements RuleChangeLog {
+
+    /** Sequence numbers start over on restart */
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    private final int capacity;
+    private final Deque<RuleChange> changes = new ArrayDeque<>();
+    private long lastSequence;
+
+    public MemoryRuleChangeLog(int capacity) {
+        if (capacity < 1) throw new IllegalArgumentException("capacity must be > 0");
+        this.capacity = capacity;
+    }
+
+    @Override
+    public synchronized RuleChange append(
+            @NonNull RuleType ruleType, @NonNull EventType eventType, @NonNull Set<String> ids) {
+        RuleChange change =
+                new RuleChange(++lastSequence, ruleType, eventType, Set.copyOf(ids), Instant.now());
+        if (changes.size() == capacity) {
+            changes.removeFirst();
+        }
+        changes.addLast(change);
+        return change;
+    }
+
+    @Override
+    public synchronized List<RuleChange> findSince(long since, int limit) {
+        List<RuleChange> found = new ArrayList<>(Math.min(limit, changes.size()));
+        // changes are contiguous, skip straight to the first one after since
+        long skip = Math.max(0, since - firstSequence() + 1);
+        changes.stream().skip(skip).limit(limit).forEach(found::add);
+        return found;
+    }
+
+    @Override
+    public synchronized long firstSequence() {
+        return changes.isEmpty() ? 0 : changes.getFirst().getSequence();
+    }
+
+    @Override
+    public synchronized long lastSequence() {
+        return lastSequence;
+    }
+
+    @Override
+    public String epoch() {
+        return epoch;
+    }
+}
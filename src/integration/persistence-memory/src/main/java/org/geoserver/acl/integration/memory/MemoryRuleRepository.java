@@ -0,0 +1,597 @@
+/* (c) 2023  Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.acl.integration.memory;
+
+import static org.geoserver.acl.domain.rules.GrantType.ALLOW;
+import static org.geoserver.acl.domain.rules.GrantType.LIMIT;
+
+import lombok.NonNull;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+
+import org.geoserver.acl.domain.filter.RuleQuery;
+import org.geoserver.acl.domain.rules.InsertPosition;
+import org.geoserver.acl.domain.rules.LayerDetails;
+import org.geoserver.acl.domain.rules.Rule;
+import org.geoserver.acl.domain.rules.RuleBatch;
+import org.geoserver.acl.domain.rules.RuleEvent;
+import org.geoserver.acl.domain.rules.RuleFilter;
+import org.geoserver.acl.domain.rules.RuleIdentifierConflictException;
+import org.geoserver.acl.domain.rules.RuleLimits;
+import org.geoserver.acl.domain.rules.RuleRepository;
+import org.geoserver.acl.integration.memory.PriorityStore.Position;
+
+import java.io.Closeable;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * {@link RuleRepository} that holds all the rules in memory, for deployments with no database.
+ *
+ * <p>Reads work on immutable snapshots and never block, writes are serialized and either apply
+ * completely or not at all. Optionally, all changes are persisted to snapshot and journal files in
+ * a local directory and reloaded at startup.
+ *
+ * @since 1.0
+ */
+@Slf4j
+public class MemoryRuleRepository implements RuleRepository, Closeable {
+
+    private final PriorityStore<StoredRule> store;
+
+    @Setter
+    private @NonNull Consumer<RuleEvent> eventPublisher =
+            r -> {
+                // no-op
+            };
+
+    /** Creates a volatile repository */
+    public MemoryRuleRepository() {
+        this.store = newStore(null);
+    }
+
+    /**
+     * Creates a repository persisted to {@code rules.snapshot} and {@code rules.journal} files in
+     * {@code directory}, loading their contents if they exist
+     *
+     * @param compactionThreshold number of journaled changes that trigger a new snapshot
+     * @param sync whether to force each change to the storage device before returning
+     */
+    public MemoryRuleRepository(@NonNull Path directory, int compactionThreshold, boolean sync) {
+        this.store =
+                newStore(
+                        new FileJournal<>(
+                                directory,
+                                "rules",
+                                new RuleCodec(),
+                                StoredRule::getId,
+                                compactionThreshold,
+                                sync));
+    }
+
+    private PriorityStore<StoredRule> newStore(FileJournal<StoredRule> journal) {
+        return new PriorityStore<>(
+                StoredRule::getId,
+                StoredRule::getPriority,
+                StoredRule::withPriority,
+                r -> uniqueKey(r.getRule()),
+                ids -> eventPublisher.accept(RuleEvent.updated(ids)),
+                journal);
+    }
+
+    /** LIMIT rules are the only ones that can share the same identifier */
+    private static Object uniqueKey(Rule rule) {
+        return rule.getIdentifier().getAccess() == LIMIT ? null : rule.getIdentifier();
+    }
+
+    @Override
+    public void close() {
+        store.close();
+    }
+
+    @Override
+    public boolean existsById(@NonNull String id) {
+        return store.snapshot().get(id).isPresent();
+    }
+
+    @Override
+    public Optional<Rule> findById(@NonNull String id) {
+        return store.snapshot().get(id).map(StoredRule::getRule);
+    }
+
+    @Override
+    public void findAllByIdWithDetails(
+            @NonNull Set<String> ids, @NonNull BiConsumer<Rule, LayerDetails> consumer) {
+        final PriorityStore.Snapshot<StoredRule> snapshot = store.snapshot();
+        ids.stream()
+                .map(snapshot::get)
+                .flatMap(Optional::stream)
+                .forEach(r -> consumer.accept(r.getRule(), r.getLayerDetails()));
+    }
+
+    @Override
+    public Optional<Rule> findOneByPriority(long priority) {
+        return store.snapshot().getByPriority(priority).map(StoredRule::getRule);
+    }
+
+    @Override
+    public int count() {
+        return store.snapshot().size();
+    }
+
+    @Override
+    public int count(@NonNull RuleFilter filter) {
+        return (int) findAll().filter(filter).count();
+    }
+
+    @Override
+    public Stream<Rule> findAll() {
+        return store.snapshot().stream().map(StoredRule::getRule);
+    }
+
+    @Override
+    public void exportAll(@NonNull BiConsumer<Rule, LayerDetails> consumer) {
+        store.snapshot().stream().forEach(r -> consumer.accept(r.getRule(), r.getLayerDetails()));
+    }
+
+    @Override
+    public Stream<Rule> findAll(@NonNull RuleQuery<RuleFilter> query) {
+        Stream<Rule> matches = findAll();
+        if (query.getFilter().isPresent()) {
+            matches = matches.filter(query.getFilter().get());
+        }
+        final String nextId = query.getNextId();
+        if (nextId != null) {
+            matches = matches.dropWhile(r -> !nextId.equals(r.getId()));
+        }
+        if (query.getLimit() != null) {
+            matches = matches.limit(query.getLimit());
+        }
+        return matches;
+    }
+
+    @Override
+    public Rule create(@NonNull Rule rule, @NonNull InsertPosition position) {
+        validateNew(rule);
+        return store.write(
+                tx -> {
+                    checkNoDups(tx, rule, Set.of());
+                    return insert(tx, rule, null, map(position));
+                });
+    }
+
+    @Override
+    public List<Rule> createAll(@NonNull List<Rule> rules, @NonNull InsertPosition position) {
+        return createAll(rules, Collections.nCopies(rules.size(), null), position);
+    }
+
+    @Override
+    public List<Rule> createAll(
+            @NonNull List<Rule> rules,
+            @NonNull List<LayerDetails> details,
+            @NonNull InsertPosition position) {
+        if (rules.isEmpty()) return List.of();
+        if (details.size() != rules.size())
+            throw new IllegalArgumentException("Expected one LayerDetails entry per Rule");
+        rules.forEach(this::validateNew);
+        return store.write(
+                tx -> {
+                    checkNoDups(tx, rules, Set.of());
+                    List<Rule> created = new ArrayList<>(rules.size());
+                    for (int i = 0; i < rules.size(); i++) {
+                        Rule rule = rules.get(i);
+                        if (created.isEmpty()) {
+                            created.add(insert(tx, rule, details.get(i), map(position)));
+                        } else {
+                            long next = created.get(created.size() - 1).getPriority() + 1;
+                            rule = rule.withPriority(next);
+                            created.add(insert(tx, rule, details.get(i), Position.FIXED));
+                        }
+                    }
+                    return created;
+                });
+    }
+
+    /** Overrides the default method to import the rules atomically, at their exact priorities */
+    @Override
+    public List<Rule> importAll(@NonNull List<Rule> rules, @NonNull List<LayerDetails> details) {
+        if (rules.isEmpty()) return List.of();
+        if (details.size() != rules.size())
+            throw new IllegalArgumentException("Expected one LayerDetails entry per Rule");
+        rules.forEach(this::validateNew);
+        return store.write(
+                tx -> {
+                    checkNoDups(tx, rules, Set.of());
+                    List<Rule> created = new ArrayList<>(rules.size());
+                    for (int i = 0; i < rules.size(); i++) {
+                        Rule rule = rules.get(i);
+                        tx.getByPriority(rule.getPriority())
+                                .ifPresent(taken -> throwPriorityTaken(rule, taken.getId()));
+                        created.add(insert(tx, rule, details.get(i), rule.getPriority()));
+                    }
+                    return created;
+                });
+    }
+
+    private void throwPriorityTaken(Rule rule, String takenBy) {
+        throw new IllegalArgumentException(
+                "Priority " + rule.getPriority() + " is already taken by Rule " + takenBy);
+    }
+
+    private void validateNew(Rule rule) {
+        if (null != rule.getId()) throw new IllegalArgumentException("Rule must have no id");
+        if (rule.getPriority() < 0)
+            throw new IllegalArgumentException(
+                    "Negative priority is not allowed: " + rule.getPriority());
+    }
+
+    private Rule insert(
+            PriorityStore<StoredRule>.Transaction tx,
+            Rule rule,
+            LayerDetails details,
+            Position position) {
+        long priority = tx.resolveFinalPriority(rule.getPriority(), position);
+        return insert(tx, rule, details, priority);
+    }
+
+    private Rule insert(
+            PriorityStore<StoredRule>.Transaction tx,
+            Rule rule,
+            LayerDetails details,
+            long priority) {
+        if (details != null && !canHaveLayerDetails(rule)) {
+            throw new IllegalArgumentException(
+                    "Rule can't have LayerDetails, it is not of ALLOW type or does not refer to a fixed layer: "
+                            + rule.toShortString());
+        }
+        Rule created = rule.withId(tx.nextId()).withPriority(priority);
+        tx.save(new StoredRule(created, details));
+        return created;
+    }
+
+    @Override
+    public Rule save(@NonNull Rule rule) {
+        if (null == rule.getId()) throw new IllegalArgumentException("Rule has no id");
+        return store.write(
+                tx -> {
+                    getOrThrow(tx, rule.getId());
+                    checkNoDups(tx, rule, Set.of());
+                    return doSave(tx, rule);
+                });
+    }
+
+    @Override
+    public List<Rule> saveAll(@NonNull List<Rule> rules) {
+        if (rules.isEmpty()) return List.of();
+        final Set<String> ids = new HashSet<>();
+        for (Rule rule : rules) {
+            if (null == rule.getId()) throw new IllegalArgumentException("Rule has no id");
+            if (!ids.add(rule.getId()))
+                throw new IllegalArgumentException("Duplicate Rule id " + rule.getId());
+        }
+        return store.write(
+                tx -> {
+                    rules.forEach(r -> getOrThrow(tx, r.getId()));
+                    checkNoDups(tx, rules, ids);
+                    return rules.stream().map(r -> doSave(tx, r)).collect(Collectors.toList());
+                });
+    }
+
+    private Rule doSave(PriorityStore<StoredRule>.Transaction tx, Rule rule) {
+        final StoredRule current = getOrThrow(tx, rule.getId());
+        final long priority = tx.resolvePriorityUpdate(current.getPriority(), rule.getPriority());
+        final Rule updated = rule.withPriority(priority);
+
+        LayerDetails details = current.getLayerDetails();
+        if (details != null && !canHaveLayerDetails(updated)) {
+            log.info(
+                    "Removing LayerDetails for Rule {}. Tansitioned from {} to {}",
+                    rule.getId(),
+                    current.getRule().getIdentifier().toShortString(),
+                    updated.getIdentifier().toShortString());
+            details = null;
+        }
+
+        tx.remove(rule.getId());
+        if (tx.getByPriority(priority).isPresent()) {
+            tx.shiftRun(priority);
+        }
+        tx.save(new StoredRule(updated, details));
+        return updated;
+    }
+
+    private boolean canHaveLayerDetails(Rule rule) {
+        return ALLOW == rule.getIdentifier().getAccess() && null != rule.getIdentifier().getLayer();
+    }
+
+    /**
+     * Checks no rule conflicts with another one in the list or with an existing rule other than the
+     * ones in {@code ignoreIds}
+     */
+    private void checkNoDups(
+            PriorityStore<StoredRule>.Transaction tx, List<Rule> rules, Set<String> ignoreIds) {
+        Set<Object> keys = new HashSet<>();
+        for (Rule rule : rules) {
+            Object key = uniqueKey(rule);
+            if (key != null && !keys.add(key)) {
+                throw new RuleIdentifierConflictException(
+                        "A Rule with the same identifier is repeated: " + rule.toShortString());
+            }
+            checkNoDups(tx, rule, ignoreIds);
+        }
+    }
+
+    private void checkNoDups(
+            PriorityStore<StoredRule>.Transaction tx, Rule rule, Set<String> ignoreIds) {
+        Object key = uniqueKey(rule);
+        if (key == null) return;
+        tx.getByKey(key)
+                .map(StoredRule::getId)
+                .filter(id -> !id.equals(rule.getId()) && !ignoreIds.contains(id))
+                .ifPresent(
+                        id -> {
+                            throw new RuleIdentifierConflictException(
+                                    "A Rule with the same identifier already exists: "
+                                            + rule.toShortString());
+                        });
+    }
+
+    @Override
+    public boolean deleteById(@NonNull String id) {
+        return store.write(tx -> tx.remove(id));
+    }
+
+    /** Applies all the operations in a single write transaction, none is applied if one fails */
+    @Override
+    public List<Rule> execute(@NonNull RuleBatch batch) {
+        for (RuleBatch.Operation op : batch.getOperations()) {
+            if (op.getType() == RuleBatch.OperationType.CREATE) validateNew(op.getRule());
+        }
+        return store.write(
+                tx -> {
+                    List<Rule> results = new ArrayList<>(batch.getOperations().size());
+                    for (RuleBatch.Operation op : batch.getOperations()) {
+                        Rule result = execute(tx, op);
+                        if (result != null && op.getLayerDetails() != null) {
+                            doSetLayerDetails(tx, result.getId(), op.getLayerDetails());
+                        }
+                        results.add(result);
+                    }
+                    return results;
+                });
+    }
+
+    private Rule execute(PriorityStore<StoredRule>.Transaction tx, RuleBatch.Operation op) {
+        switch (op.getType()) {
+            case CREATE:
+                checkNoDups(tx, op.getRule(), Set.of());
+                return insert(tx, op.getRule(), null, map(op.getPosition()));
+            case UPDATE:
+                getOrThrow(tx, op.getRule().getId());
+                checkNoDups(tx, op.getRule(), Set.of());
+                return doSave(tx, op.getRule());
+            case PATCH:
+                Rule current = getOrThrow(tx, op.getId()).getRule();
+                Rule patched = op.getPatch().apply(current).withId(op.getId());
+                checkNoDups(tx, patched, Set.of());
+                return doSave(tx, patched);
+            case DELETE:
+                validateId(op.getId());
+                if (!tx.remove(op.getId())) throw notFound(op.getId());
+                return null;
+            default:
+                throw new IllegalArgumentException("Unknown operation " + op.getType());
+        }
+    }
+
+    @Override
+    public int shift(long priorityStart, long offset) {
+        if (offset <= 0) {
+            throw new IllegalArgumentException("Positive offset required");
+        }
+        int shifted = store.write(tx -> tx.shift(priorityStart, offset));
+        return shifted > 0 ? shifted : -1;
+    }
+
+    @Override
+    public void swap(@NonNull String id1, @NonNull String id2) {
+        store.write(
+                tx -> {
+                    StoredRule r1 = getOrThrow(tx, id1);
+                    StoredRule r2 = getOrThrow(tx, id2);
+                    tx.remove(id1);
+                    tx.remove(id2);
+                    tx.save(r1.withPriority(r2.getPriority()));
+                    tx.save(r2.withPriority(r1.getPriority()));
+                    return null;
+                });
+    }
+
+    @Override
+    public void setAllowedStyles(@NonNull String ruleId, Set<String> styles) {
+        store.write(
+                tx -> {
+                    StoredRule stored = getOrThrow(tx, ruleId);
+                    if (null == stored.getRule().getIdentifier().getLayer()) {
+                        throw new IllegalArgumentException(
+                                "Rule has no layer, can't set allowed styles");
+                    }
+                    LayerDetails details = stored.getLayerDetails();
+                    if (details == null) {
+                        throw new IllegalArgumentException("Rule has no details associated");
+                    }
+                    Set<String> allowedStyles = styles == null ? Set.of() : Set.copyOf(styles);
+                    return tx.save(
+                            stored.withLayerDetails(details.withAllowedStyles(allowedStyles)));
+                });
+    }
+
+    @Override
+    public void setLimits(@NonNull String ruleId, RuleLimits limits) {
+        store.write(
+                tx -> {
+                    StoredRule stored = getOrThrow(tx, ruleId);
+                    Rule rule = stored.getRule();
+                    if (limits != null && rule.getIdentifier().getAccess() != LIMIT) {
+                        throw new IllegalArgumentException("Rule is not of LIMIT type");
+                    }
+                    return tx.save(stored.withRule(rule.withRuleLimits(limits)));
+                });
+    }
+
+    @Override
+    public void setLayerDetails(@NonNull String ruleId, LayerDetails detailsNew) {
+        store.write(tx -> doSetLayerDetails(tx, ruleId, detailsNew));
+    }
+
+    private StoredRule doSetLayerDetails(
+            PriorityStore<StoredRule>.Transaction tx, String ruleId, LayerDetails detailsNew) {
+        StoredRule stored = getOrThrow(tx, ruleId);
+        Rule rule = stored.getRule();
+        if (detailsNew != null) {
+            if (rule.getIdentifier().getAccess() != ALLOW) {
+                throw new IllegalArgumentException("Rule is not of ALLOW type");
+            }
+            if (rule.getIdentifier().getLayer() == null) {
+                throw new IllegalArgumentException("Rule does not refer to a fixed layer");
+            }
+        }
+        return tx.save(stored.withLayerDetails(detailsNew));
+    }
+
+    @Override
+    public Optional<LayerDetails> findLayerDetailsByRuleId(@NonNull String ruleId) {
+        validateId(ruleId);
+        StoredRule stored = store.snapshot().get(ruleId).orElseThrow(() -> notFound(ruleId));
+        return Optional.ofNullable(stored.getLayerDetails());
+    }
+
+    /**
+     * Replaces all the rules by the ones in {@code snapshot}
+     *
+     * @see RulesetSnapshot#load(Path)
+     */
+    public void restore(@NonNull RulesetSnapshot snapshot) {
+        store.write(
+                tx -> {
+                    tx.clear();
+                    for (Rule rule : snapshot.getRules()) {
+                        LayerDetails details = snapshot.getLayerDetails().get(rule.getId());
+                        tx.save(new StoredRule(rule, details));
+                        tx.reserveId(rule.getId());
+                    }
+                    return null;
+                });
+    }
+
+    /**
+     * Catches up with a change made to the {@code source} repository, replacing the rules referred
+     * to by {@code event} with their current state in {@code source}, or removing them if they no
+     * longer exist there.
+     *
+     * <p>Out of date rules that hold the priority of an updated one are fetched again too.
+     *
+     * <p>The rules are fetched from {@code source} before taking the write lock, so a slow source
+     * doesn't hold back other writers, and then applied in a single write.
+     */
+    public void replicate(@NonNull RuleEvent event, @NonNull RuleRepository source) {
+        // fetched rules by id, null values stand for rules that no longer exist
+        Map<String, StoredRule> fetched = new HashMap<>();
+        Set<String> pending = new HashSet<>(event.getRuleIds());
+        while (!pending.isEmpty()) {
+            fetch(pending, source, fetched);
+            pending = store.write(tx -> applyFetched(tx, fetched));
+        }
+    }
+
+    /**
+     * Fetches the {@code ids} not yet in {@code fetched}, and the rules holding their priorities in
+     * the current snapshot, in bulk rounds of {@link RuleRepository#findAllByIdWithDetails}
+     */
+    private void fetch(Set<String> ids, RuleRepository source, Map<String, StoredRule> fetched) {
+        final PriorityStore.Snapshot<StoredRule> snapshot = store.snapshot();
+        Set<String> pending = new HashSet<>(ids);
+        pending.removeAll(fetched.keySet());
+        while (!pending.isEmpty()) {
+            Set<String> next = new HashSet<>();
+            source.findAllByIdWithDetails(
+                    pending,
+                    (rule, details) -> {
+                        StoredRule stored =
+                                new StoredRule(rule, canHaveLayerDetails(rule) ? details : null);
+                        fetched.put(rule.getId(), stored);
+                        snapshot.getByPriority(rule.getPriority())
+                                .map(StoredRule::getId)
+                                .ifPresent(next::add);
+                    });
+            // the ones not returned no longer exist
+            pending.forEach(id -> fetched.putIfAbsent(id, null));
+            next.removeAll(fetched.keySet());
+            pending = next;
+        }
+    }
+
+    /**
+     * Replaces the fetched rules, unless a rule that wasn't fetched holds one of their priorities,
+     * which may happen if the repository changed since {@link #fetch}
+     *
+     * @return the ids of the rules to fetch before trying again, empty if the changes were applied
+     */
+    private Set<String> applyFetched(
+            PriorityStore<StoredRule>.Transaction tx, Map<String, StoredRule> fetched) {
+        Set<String> stale =
+                fetched.values().stream()
+                        .filter(Objects::nonNull)
+                        .map(r -> tx.getByPriority(r.getPriority()))
+                        .flatMap(Optional::stream)
+                        .map(StoredRule::getId)
+                        .filter(id -> !fetched.containsKey(id))
+                        .collect(Collectors.toSet());
+        if (!stale.isEmpty()) return stale;
+
+        fetched.keySet().forEach(tx::remove);
+        fetched.values().stream()
+                .filter(Objects::nonNull)
+                .forEach(
+                        r -> {
+                            tx.save(r);
+                            tx.reserveId(r.getId());
+                        });
+        return Set.of();
+    }
+
+    private StoredRule getOrThrow(PriorityStore<StoredRule>.Transaction tx, String id) {
+        validateId(id);
+        return tx.get(id).orElseThrow(() -> notFound(id));
+    }
+
+    private void validateId(String id) {
+        try {
+            Long.parseLong(id);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid id: " + id);
+        }
+    }
+
+    private IllegalArgumentException notFound(String id) {
+        return new IllegalArgumentException("Rule " + id + " does not exist");
+    }
+
+    private static Position map(InsertPosition position) {
+        return Position.valueOf(position.name());
+    }
+}
@@ -0,0 +1,416 @@
+/* (c) 2023  Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.acl.integration.memory;
+
+import lombok.NonNull;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+import java.util.stream.Stream;
+
+/**
+ * Copy-on-write store of priority-ordered records.
+ *
+ * <p>Readers get an immutable {@link Snapshot} without any locking. Writers are serialized, work on
+ * a private copy of the current state through a {@link Transaction}, and publish it as the new
+ * snapshot only if the whole operation succeeds, so a failed operation leaves no partial changes.
+ * Committed changes are appended to the {@link FileJournal}, if any, before they're visible.
+ *
+ * @param <R> the record type
+ */
+class PriorityStore<R> implements Closeable {
+
+    enum Position {
+        /** priority is a fixed value */
+        FIXED,
+        /** priority is the position from start (0 is the first one) */
+        FROM_START,
+        /** priority is the position from end (0 is the last one) */
+        FROM_END
+    }
+
+    private final Function<R, String> idFunction;
+    private final ToLongFunction<R> priorityFunction;
+    private final BiFunction<R, Long, R> priorityUpdater;
+    private final Function<R, Object> uniqueKey;
+    private final Consumer<Set<String>> collateralUpdates;
+    private final FileJournal<R> journal;
+
+    private final AtomicLong idSequence = new AtomicLong();
+    private final Object writeLock = new Object();
+
+    private volatile Snapshot<R> snapshot;
+
+    /**
+     * @param idFunction extracts the record id
+     * @param priorityFunction extracts the record priority
+     * @param priorityUpdater returns a copy of the record with the given priority
+     * @param uniqueKey extracts the key that must be unique among all records, or {@code null} for
+     *     records that are exempt from the check
+     * @param collateralUpdates receives the ids of the records whose priority was shifted by a
+     *     committed operation, other than the ones explicitly saved by the operation itself
+     * @param journal where to persist the changes, or {@code null} for a volatile store
+     */
+    PriorityStore(
+            @NonNull Function<R, String> idFunction,
+            @NonNull ToLongFunction<R> priorityFunction,
+            @NonNull BiFunction<R, Long, R> priorityUpdater,
+            @NonNull Function<R, Object> uniqueKey,
+            @NonNull Consumer<Set<String>> collateralUpdates,
+            FileJournal<R> journal) {
+        this.idFunction = idFunction;
+        this.priorityFunction = priorityFunction;
+        this.priorityUpdater = priorityUpdater;
+        this.uniqueKey = uniqueKey;
+        this.collateralUpdates = collateralUpdates;
+        this.journal = journal;
+
+        Collection<R> initial = journal == null ? List.of() : journal.load();
+        Transaction tx = new Transaction(new Snapshot<>());
+        initial.forEach(tx::put);
+        this.snapshot = tx.toSnapshot();
+        if (journal != null) {
+            idSequence.set(journal.lastId());
+        }
+    }
+
+    /**
+     * @return the current state, readers never block
+     */
+    public Snapshot<R> snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Runs {@code operation} against a private copy of the current state and publishes it as the
+     * new snapshot if it completes normally
+     */
+    public <T> T write(Function<Transaction, T> operation) {
+        final Set<String> collateral;
+        final T result;
+        synchronized (writeLock) {
+            Transaction tx = new Transaction(snapshot);
+            result = operation.apply(tx);
+            if (tx.changes.isEmpty()) {
+                return result;
+            }
+            if (journal != null) {
+                journal.append(tx.changes);
+            }
+            Snapshot<R> committed = tx.toSnapshot();
+            this.snapshot = committed;
+            if (journal != null) {
+                journal.compactIfNeeded(committed.byPriority.values());
+            }
+            collateral = new LinkedHashSet<>(tx.shifted);
+            collateral.removeAll(tx.saved);
+        }
+        if (!collateral.isEmpty()) {
+            collateralUpdates.accept(collateral);
+        }
+        return result;
+    }
+
+    @Override
+    public void close() {
+        if (journal != null) {
+            synchronized (writeLock) {
+                journal.close();
+            }
+        }
+    }
+
+    /** Immutable state of the store */
+    static class Snapshot<R> {
+        private final NavigableMap<Long, R> byPriority;
+        private final Map<String, R> byId;
+        private final Map<Object, String> byKey;
+
+        Snapshot() {
+            this(new TreeMap<>(), new HashMap<>(), new HashMap<>());
+        }
+
+        private Snapshot(
+                NavigableMap<Long, R> byPriority, Map<String, R> byId, Map<Object, String> byKey) {
+            this.byPriority = Collections.unmodifiableNavigableMap(byPriority);
+            this.byId = Collections.unmodifiableMap(byId);
+            this.byKey = Collections.unmodifiableMap(byKey);
+        }
+
+        public Optional<R> get(String id) {
+            return Optional.ofNullable(byId.get(id));
+        }
+
+        public Optional<R> getByPriority(long priority) {
+            return Optional.ofNullable(byPriority.get(priority));
+        }
+
+        /**
+         * @return all records in priority order
+         */
+        public Stream<R> stream() {
+            return byPriority.values().stream();
+        }
+
+        public int size() {
+            return byId.size();
+        }
+    }
+
+    /** Mutable copy of a {@link Snapshot}, only valid inside {@link PriorityStore#write} */
+    class Transaction {
+        private final TreeMap<Long, R> byPriority;
+        private final Map<String, R> byId;
+        private final Map<Object, String> byKey;
+
+        /** changed records by id, in change order, {@code null} values stand for deletes */
+        private final Map<String, R> changes = new LinkedHashMap<>();
+
+        private final Set<String> shifted = new LinkedHashSet<>();
+        private final Set<String> saved = new LinkedHashSet<>();
+
+        private Transaction(Snapshot<R> snapshot) {
+            this.byPriority = new TreeMap<>(snapshot.byPriority);
+            this.byId = new HashMap<>(snapshot.byId);
+            this.byKey = new HashMap<>(snapshot.byKey);
+        }
+
+        private Snapshot<R> toSnapshot() {
+            return new Snapshot<>(byPriority, byId, byKey);
+        }
+
+        public String nextId() {
+            return String.valueOf(idSequence.incrementAndGet());
+        }
+
+        public Optional<R> get(String id) {
+            return Optional.ofNullable(byId.get(id));
+        }
+
+        public Optional<R> getByPriority(long priority) {
+            return Optional.ofNullable(byPriority.get(priority));
+        }
+
+        /**
+         * @return the record with the given unique key, if any
+         */
+        public Optional<R> getByKey(Object key) {
+            return Optional.ofNullable(byKey.get(key)).map(byId::get);
+        }
+
+        public Stream<R> stream() {
+            return byPriority.values().stream();
+        }
+
+        /**
+         * Adds or replaces a record by id
+         *
+         * @throws IllegalStateException if another record has the same priority
+         */
+        public R save(@NonNull R record) {
+            put(record);
+            saved.add(idFunction.apply(record));
+            return record;
+        }
+
+        private void put(R record) {
+            final String id = idFunction.apply(record);
+            final long priority = priorityFunction.applyAsLong(record);
+            R occupant = byPriority.get(priority);
+            if (occupant != null && !id.equals(idFunction.apply(occupant))) {
+                throw new IllegalStateException(
+                        "Rule with priority " + priority + " already exists");
+            }
+            removeIndexes(id);
+            byId.put(id, record);
+            byPriority.put(priority, record);
+            Object key = uniqueKey.apply(record);
+            if (key != null) {
+                byKey.put(key, id);
+            }
+            changes.put(id, record);
+        }
+
+        /** Removes all the records */
+        public void clear() {
+            new ArrayList<>(byId.keySet()).forEach(this::remove);
+        }
+
+        /** Makes sure {@link #nextId()} won't return {@code id} nor any lower one */
+        public void reserveId(@NonNull String id) {
+            idSequence.accumulateAndGet(Long.parseLong(id), Math::max);
+        }
+
+        public boolean remove(@NonNull String id) {
+            if (removeIndexes(id)) {
+                changes.put(id, null);
+                return true;
+            }
+            return false;
+        }
+
+        private boolean removeIndexes(String id) {
+            R current = byId.remove(id);
+            if (current == null) return false;
+            byPriority.remove(priorityFunction.applyAsLong(current));
+            Object key = uniqueKey.apply(current);
+            // the key may have been taken over already while saving several records
+            if (key != null && id.equals(byKey.get(key))) {
+                byKey.remove(key);
+            }
+            return true;
+        }
+
+        public Optional<Long> minPriority() {
+            return byPriority.isEmpty() ? Optional.empty() : Optional.of(byPriority.firstKey());
+        }
+
+        public Optional<Long> maxPriority() {
+            return byPriority.isEmpty() ? Optional.empty() : Optional.of(byPriority.lastKey());
+        }
+
+        /**
+         * @param position 1-based position
+         * @param descending search in reverse priority order
+         * @return the priority of the record at the Nth position in the requested sort order, or
+         *     empty if there's no record at that position
+         */
+        public Optional<Long> findNthPriorityByOrder(long position, boolean descending) {
+            if (position < 1) throw new IllegalArgumentException("find nth position is 1-based");
+            Iterator<Long> it =
+                    descending
+                            ? byPriority.descendingKeySet().iterator()
+                            : byPriority.keySet().iterator();
+            for (long i = 1; it.hasNext(); i++) {
+                Long priority = it.next();
+                if (i == position) return Optional.of(priority);
+            }
+            return Optional.empty();
+        }
+
+        /**
+         * Adds {@code offset} to the priority of all the records with priority greater than or
+         * equal to {@code priorityStart}
+         *
+         * @return the number of shifted records
+         */
+        public int shift(long priorityStart, long offset) {
+            if (offset <= 0) {
+                throw new IllegalArgumentException("Positive offset required");
+            }
+            return shift(new ArrayList<>(byPriority.tailMap(priorityStart, true).values()), offset);
+        }
+
+        /**
+         * Shifts by one the contiguous run of priorities starting at {@code priorityStart}, making
+         * room for a record at {@code priorityStart} without touching the records after the first
+         * gap
+         */
+        public int shiftRun(long priorityStart) {
+            List<R> run = new ArrayList<>();
+            long expected = priorityStart;
+            for (Map.Entry<Long, R> e : byPriority.tailMap(priorityStart, true).entrySet()) {
+                if (e.getKey().longValue() != expected) break;
+                run.add(e.getValue());
+                expected++;
+            }
+            return shift(run, 1);
+        }
+
+        private int shift(List<R> records, long offset) {
+            records.forEach(r -> removeIndexes(idFunction.apply(r)));
+            for (R r : records) {
+                long priority = priorityFunction.applyAsLong(r) + offset;
+                put(priorityUpdater.apply(r, priority));
+                shifted.add(idFunction.apply(r));
+            }
+            return records.size();
+        }
+
+        /**
+         * Resolves the priority for a new record, shifting the existing ones as needed to make room
+         * for it
+         */
+        public long resolveFinalPriority(long priority, @NonNull Position position) {
+            switch (position) {
+                case FIXED:
+                    return resolveFixedPriority(priority);
+                case FROM_START:
+                    return resolvePriorityFromStart(priority);
+                case FROM_END:
+                    return resolvePriorityFromEnd(priority);
+                default:
+                    throw new IllegalStateException("Unknown InsertPosition " + position);
+            }
+        }
+
+        public long resolvePriorityUpdate(long currentPriority, long requestedPriority) {
+            if (currentPriority == requestedPriority) {
+                return currentPriority;
+            }
+            if (0L == requestedPriority) {
+                return maxPriority().orElse(0L) + 1;
+            }
+            return requestedPriority;
+        }
+
+        private long resolveFixedPriority(final long requestedPriority) {
+            if (0L == requestedPriority) {
+                return maxPriority().orElse(0L) + 1;
+            }
+            if (byPriority.containsKey(requestedPriority)) {
+                shift(requestedPriority, 1);
+            }
+            return requestedPriority;
+        }
+
+        private long resolvePriorityFromStart(final long requestedPosition) {
+            if (0 == requestedPosition) {
+                Optional<Long> min = minPriority();
+                min.ifPresent(p -> shift(p, 1));
+                return min.orElse(1L);
+            }
+            Optional<Long> found = findNthPriorityByOrder(requestedPosition, false);
+            if (found.isPresent()) {
+                shift(found.get(), 1);
+                return found.get();
+            }
+            // there are not enough, get the max + 1
+            return 1 + maxPriority().orElse(0L);
+        }
+
+        private long resolvePriorityFromEnd(final long requestedPosition) {
+            if (0 == requestedPosition) {
+                return maxPriority().map(max -> 1 + max).orElse(1L);
+            }
+            Optional<Long> found = findNthPriorityByOrder(requestedPosition, true);
+            if (found.isPresent()) {
+                shift(found.get(), 1);
+                return found.get();
+            }
+            // there are not enough rules from the bottom, use the minimum one
+            Optional<Long> min = minPriority();
+            min.ifPresent(p -> shift(p, 1));
+            return min.orElse(1L);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+/* (c) 2023  Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.acl.integration.memory;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Binary encoding of the records persisted by a {@link FileJournal}, plus the helpers shared by the
+ * implementations
+ */
+interface RecordCodec<R> {
+
+    void write(R record, DataOutput out) throws IOException;
+
+    R read(DataInput in) throws IOException;
+
+    static void writeString(String value, DataOutput out) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+        } else {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    static String readString(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) return null;
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static void writeEnum(Enum<?> value, DataOutput out) throws IOException {
+        writeString(value == null ? null : value.name(), out);
+    }
+
+    static <E extends Enum<E>> E readEnum(Class<E> type, DataInput in) throws IOException {
+        String name = readString(in);
+        return name == null ? null : Enum.valueOf(type, name);
+    }
+
+    static void writeStrings(Set<String> values, DataOutput out) throws IOException {
+        out.writeInt(values.size());
+        for (String value : values) {
+            writeString(value, out);
+        }
+    }
+
+    static Set<String> readStrings(DataInput in) throws IOException {
+        final int size = in.readInt();
+        Set<String> values = new HashSet<>(size);
+        for (int i = 0; i < size; i++) {
+            values.add(readString(in));
+        }
+        return Set.copyOf(values);
+    }
+
+    /** Writes the geometry's EWKB, keeping its SRID */
+    static void writeGeometry(byte[] wkb, DataOutput out) throws IOException {
+        if (wkb == null) {
+            out.writeInt(-1);
+        } else {
+            out.writeInt(wkb.length);
+            out.write(wkb);
+        }
+    }
+
+    /** Reads the EWKB of a geometry written by {@link #writeGeometry}, without decoding it */
+    static byte[] readGeometry(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) return null;
+        byte[] wkb = new byte[length];
+        in.readFully(wkb);
+        return wkb;
+    }
+}
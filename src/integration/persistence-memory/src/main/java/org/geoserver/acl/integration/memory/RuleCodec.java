@@ -0,0 +1,143 @@
+/* (c) 2023  Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.acl.integration.memory;
+
+import static org.geoserver.acl.integration.memory.RecordCodec.readEnum;
+import static org.geoserver.acl.integration.memory.RecordCodec.readGeometry;
+import static org.geoserver.acl.integration.memory.RecordCodec.readString;
+import static org.geoserver.acl.integration.memory.RecordCodec.readStrings;
+import static org.geoserver.acl.integration.memory.RecordCodec.writeEnum;
+import static org.geoserver.acl.integration.memory.RecordCodec.writeGeometry;
+import static org.geoserver.acl.integration.memory.RecordCodec.writeString;
+import static org.geoserver.acl.integration.memory.RecordCodec.writeStrings;
+
+import org.geoserver.acl.domain.rules.CatalogMode;
+import org.geoserver.acl.domain.rules.GrantType;
+import org.geoserver.acl.domain.rules.LayerAttribute;
+import org.geoserver.acl.domain.rules.LayerAttribute.AccessType;
+import org.geoserver.acl.domain.rules.LayerDetails;
+import org.geoserver.acl.domain.rules.LayerDetails.LayerType;
+import org.geoserver.acl.domain.rules.Rule;
+import org.geoserver.acl.domain.rules.RuleIdentifier;
+import org.geoserver.acl.domain.rules.RuleLimits;
+import org.geoserver.acl.domain.rules.SpatialFilterType;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+
+class RuleCodec implements RecordCodec<StoredRule> {
+
+    @Override
+    public void write(StoredRule record, DataOutput out) throws IOException {
+        Rule rule = record.getRule();
+        writeString(rule.getId(), out);
+        writeString(rule.getExtId(), out);
+        writeString(rule.getName(), out);
+        writeString(rule.getDescription(), out);
+        out.writeLong(rule.getPriority());
+
+        RuleIdentifier identifier = rule.getIdentifier();
+        writeEnum(identifier.getAccess(), out);
+        writeString(identifier.getInstanceName(), out);
+        writeString(identifier.getUsername(), out);
+        writeString(identifier.getRolename(), out);
+        writeString(identifier.getService(), out);
+        writeString(identifier.getRequest(), out);
+        writeString(identifier.getSubfield(), out);
+        writeString(identifier.getWorkspace(), out);
+        writeString(identifier.getLayer(), out);
+        writeString(identifier.getAddressRange(), out);
+
+        RuleLimits limits = rule.getRuleLimits();
+        out.writeBoolean(limits != null);
+        if (limits != null) {
+            writeGeometry(limits.getAllowedAreaWkb(), out);
+            writeEnum(limits.getSpatialFilterType(), out);
+            writeEnum(limits.getCatalogMode(), out);
+        }
+
+        LayerDetails details = record.getLayerDetails();
+        out.writeBoolean(details != null);
+        if (details != null) {
+            writeEnum(details.getType(), out);
+            writeString(details.getDefaultStyle(), out);
+            writeString(details.getCqlFilterRead(), out);
+            writeString(details.getCqlFilterWrite(), out);
+            writeGeometry(details.getAreaWkb(), out);
+            writeEnum(details.getSpatialFilterType(), out);
+            writeEnum(details.getCatalogMode(), out);
+            writeStrings(details.getAllowedStyles(), out);
+            out.writeInt(details.getAttributes().size());
+            for (LayerAttribute att : details.getAttributes()) {
+                writeString(att.getName(), out);
+                writeString(att.getDataType(), out);
+                writeEnum(att.getAccess(), out);
+            }
+        }
+    }
+
+    @Override
+    public StoredRule read(DataInput in) throws IOException {
+        Rule.Builder rule =
+                Rule.builder()
+                        .id(readString(in))
+                        .extId(readString(in))
+                        .name(readString(in))
+                        .description(readString(in))
+                        .priority(in.readLong());
+
+        rule.identifier(
+                RuleIdentifier.builder()
+                        .access(readEnum(GrantType.class, in))
+                        .instanceName(readString(in))
+                        .username(readString(in))
+                        .rolename(readString(in))
+                        .service(readString(in))
+                        .request(readString(in))
+                        .subfield(readString(in))
+                        .workspace(readString(in))
+                        .layer(readString(in))
+                        .addressRange(readString(in))
+                        .build());
+
+        if (in.readBoolean()) {
+            rule.ruleLimits(
+                    RuleLimits.builder()
+                            .allowedAreaWkb(readGeometry(in))
+                            .spatialFilterType(readEnum(SpatialFilterType.class, in))
+                            .catalogMode(readEnum(CatalogMode.class, in))
+                            .build());
+        }
+
+        LayerDetails details = null;
+        if (in.readBoolean()) {
+            LayerDetails.Builder builder =
+                    LayerDetails.builder()
+                            .type(readEnum(LayerType.class, in))
+                            .defaultStyle(readString(in))
+                            .cqlFilterRead(readString(in))
+                            .cqlFilterWrite(readString(in))
+                            .areaWkb(readGeometry(in))
+                            .spatialFilterType(readEnum(SpatialFilterType.class, in))
+                            .catalogMode(readEnum(CatalogMode.class, in))
+                            .allowedStyles(readStrings(in));
+            final int attCount = in.readInt();
+            Set<LayerAttribute> attributes = new HashSet<>(attCount);
+            for (int i = 0; i < attCount; i++) {
+                attributes.add(
+                        LayerAttribute.builder()
+                                .name(readString(in))
+                                .dataType(readString(in))
+                                .access(readEnum(AccessType.class, in))
+                                .build());
+            }
+            details = builder.attributes(Set.copyOf(attributes)).build();
+        }
+        return new StoredRule(rule.build(), details);
+    }
+}
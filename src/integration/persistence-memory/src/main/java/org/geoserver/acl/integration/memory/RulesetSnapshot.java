@@ -0,0 +1,130 @@
+/* (c) 2023  Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.acl.integration.memory;
+
+import lombok.NonNull;
+import lombok.Value;
+
+import org.geoserver.acl.domain.adminrules.AdminRule;
+import org.geoserver.acl.domain.adminrules.AdminRuleRepository;
+import org.geoserver.acl.domain.rules.LayerDetails;
+import org.geoserver.acl.domain.rules.Rule;
+import org.geoserver.acl.domain.rules.RuleRepository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Point in time copy of the full rule and admin rule sets, that can be saved to a compact binary
+ * file for nodes to start serving authorization requests right away, before catching up with the
+ * changes made since the snapshot was taken, starting after its {@link #getSequence() sequence}.
+ *
+ * <p>The file is dictionary-encoded, each distinct string (workspace and layer names, user and role
+ * names, etc.) is stored only once, and geometries are stored as WKB. It is read through a
+ * memory-mapped buffer.
+ *
+ * @see MemoryRuleRepository#restore(RulesetSnapshot)
+ * @see MemoryAdminRuleRepository#restore(RulesetSnapshot)
+ * @see RulesetSnapshotWriter
+ * @since 1.0
+ */
+@Value
+public class RulesetSnapshot {
+
+    @NonNull Instant timestamp;
+
+    /**
+     * Sequence number of the last {@link org.geoserver.acl.domain.rules.RuleChangeLog change} the
+     * snapshot includes, {@code 0} if unknown
+     */
+    long sequence;
+
+    /** Rules in priority order */
+    @NonNull List<Rule> rules;
+
+    /** {@link LayerDetails} by {@link Rule#getId() rule id} */
+    @NonNull Map<String, LayerDetails> layerDetails;
+
+    /** Admin rules in priority order */
+    @NonNull List<AdminRule> adminRules;
+
+    /**
+     * Takes a snapshot of the current contents of the repositories, with an unknown sequence
+     *
+     * @see #of(RuleRepository, AdminRuleRepository, long)
+     */
+    public static RulesetSnapshot of(
+            @NonNull RuleRepository ruleRepository,
+            @NonNull AdminRuleRepository adminRuleRepository) {
+        return of(ruleRepository, adminRuleRepository, 0L);
+    }
+
+    /**
+     * Takes a snapshot of the current contents of the repositories, with a single bulk export of
+     * each
+     *
+     * @param sequence the change log sequence number read before exporting, so that changes made
+     *     during the export are replayed when resuming from the snapshot
+     */
+    public static RulesetSnapshot of(
+            @NonNull RuleRepository ruleRepository,
+            @NonNull AdminRuleRepository adminRuleRepository,
+            long sequence) {
+
+        final Instant timestamp = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        List<Rule> rules = new ArrayList<>();
+        Map<String, LayerDetails> details = new HashMap<>();
+        ruleRepository.exportAll(
+                (rule, ld) -> {
+                    rules.add(rule);
+                    if (null != ld) details.put(rule.getId(), ld);
+                });
+        List<AdminRule> adminRules = new ArrayList<>();
+        adminRuleRepository.exportAll(adminRules::add);
+        return new RulesetSnapshot(timestamp, sequence, rules, details, adminRules);
+    }
+
+    /**
+     * Saves the snapshot to {@code file}, replacing it atomically so concurrent readers see either
+     * the previous or the new snapshot
+     */
+    public void save(@NonNull Path file) {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            Files.write(tmp, RulesetSnapshotCodec.encode(this));
+            Files.move(
+                    tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error saving ruleset snapshot to " + file, e);
+        }
+    }
+
+    /**
+     * @return the snapshot saved to {@code file}, or empty if the file does not exist
+     */
+    public static Optional<RulesetSnapshot> load(@NonNull Path file) {
+        if (!Files.exists(file)) return Optional.empty();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return Optional.of(RulesetSnapshotCodec.decode(buffer));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error loading ruleset snapshot from " + file, e);
+        }
+    }
+}
@@ -0,0 +1,377 @@
+/* (c) 2023  Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.acl.integration.memory;
+
+import org.geoserver.acl.domain.adminrules.AdminGrantType;
+import org.geoserver.acl.domain.adminrules.AdminRule;
+import org.geoserver.acl.domain.adminrules.AdminRuleIdentifier;
+import org.geoserver.acl.domain.rules.CatalogMode;
+import org.geoserver.acl.domain.rules.GrantType;
+import org.geoserver.acl.domain.rules.LayerAttribute;
+import org.geoserver.acl.domain.rules.LayerAttribute.AccessType;
+import org.geoserver.acl.domain.rules.LayerDetails;
+import org.geoserver.acl.domain.rules.LayerDetails.LayerType;
+import org.geoserver.acl.domain.rules.Rule;
+import org.geoserver.acl.domain.rules.RuleIdentifier;
+import org.geoserver.acl.domain.rules.RuleLimits;
+import org.geoserver.acl.domain.rules.SpatialFilterType;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Binary format of a {@link RulesetSnapshot}:
+ *
+ * <pre>{@code
+ * header:     int magic, int version, long timestamp (epoch millis), long sequence
+ * dictionary: varint count, [varint length, UTF-8 bytes]*
+ * rules:      varint count, [rule, layer details]*
+ * adminrules: varint count, [admin rule]*
+ * }</pre>
+ *
+ * Strings and enum names are written as varint references to the dictionary ({@code 0} for {@code
+ * null}, {@code index + 1} otherwise), and geometries as a varint length ({@code 0} for {@code
+ * null}, {@code length + 1} otherwise) followed by their EWKB.
+ */
+class RulesetSnapshotCodec {
+
+    private static final int MAGIC = 0x41434c52; // ACLR
+    private static final int VERSION = 2;
+
+    private RulesetSnapshotCodec() {
+        // private constructor, utility class
+    }
+
+    static byte[] encode(RulesetSnapshot snapshot) throws IOException {
+        Encoder body = new Encoder();
+        body.writeVarLong(snapshot.getRules().size());
+        for (Rule rule : snapshot.getRules()) {
+            body.write(rule);
+            body.write(snapshot.getLayerDetails().get(rule.getId()));
+        }
+        body.writeVarLong(snapshot.getAdminRules().size());
+        for (AdminRule rule : snapshot.getAdminRules()) {
+            body.write(rule);
+        }
+
+        Encoder out = new Encoder();
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeLong(snapshot.getTimestamp().toEpochMilli());
+        out.writeLong(snapshot.getSequence());
+        out.writeVarLong(body.dictionary.size());
+        for (String value : body.dictionary.keySet()) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeVarLong(bytes.length);
+            out.write(bytes, 0, bytes.length);
+        }
+        body.writeTo(out);
+        return out.toByteArray();
+    }
+
+    static RulesetSnapshot decode(ByteBuffer buffer) throws IOException {
+        if (buffer.getInt() != MAGIC) {
+            throw new IOException("Not a ruleset snapshot");
+        }
+        final int version = buffer.getInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported ruleset snapshot version " + version);
+        }
+        final Instant timestamp = Instant.ofEpochMilli(buffer.getLong());
+        final long sequence = buffer.getLong();
+
+        Decoder in = new Decoder(buffer);
+        final int dictionarySize = in.readCount();
+        in.dictionary = new String[dictionarySize];
+        for (int i = 0; i < dictionarySize; i++) {
+            byte[] bytes = in.readBytes(in.readCount());
+            in.dictionary[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        final int ruleCount = in.readCount();
+        List<Rule> rules = new ArrayList<>(ruleCount);
+        Map<String, LayerDetails> details = new HashMap<>();
+        for (int i = 0; i < ruleCount; i++) {
+            Rule rule = in.readRule();
+            rules.add(rule);
+            LayerDetails ld = in.readLayerDetails();
+            if (ld != null) details.put(rule.getId(), ld);
+        }
+        final int adminRuleCount = in.readCount();
+        List<AdminRule> adminRules = new ArrayList<>(adminRuleCount);
+        for (int i = 0; i < adminRuleCount; i++) {
+            adminRules.add(in.readAdminRule());
+        }
+        return new RulesetSnapshot(
+                timestamp,
+                sequence,
+                List.copyOf(rules),
+                Map.copyOf(details),
+                List.copyOf(adminRules));
+    }
+
+    private static class Encoder extends ByteArrayOutputStream {
+
+        private final Map<String, Integer> dictionary = new LinkedHashMap<>();
+
+        Encoder() {
+            super(64 * 1024);
+        }
+
+        void writeInt(int v) {
+            for (int shift = 24; shift >= 0; shift -= 8) write(v >>> shift);
+        }
+
+        void writeLong(long v) {
+            writeInt((int) (v >>> 32));
+            writeInt((int) v);
+        }
+
+        void writeVarLong(long v) {
+            while ((v & ~0x7FL) != 0) {
+                write((int) ((v & 0x7F) | 0x80));
+                v >>>= 7;
+            }
+            write((int) v);
+        }
+
+        void writeString(String value) {
+            if (value == null) {
+                writeVarLong(0);
+            } else {
+                int index = dictionary.computeIfAbsent(value, v -> dictionary.size());
+                writeVarLong(index + 1L);
+            }
+        }
+
+        void writeEnum(Enum<?> value) {
+            writeString(value == null ? null : value.name());
+        }
+
+        void writeGeometry(byte[] wkb) {
+            if (wkb == null) {
+                writeVarLong(0);
+            } else {
+                writeVarLong(wkb.length + 1L);
+                write(wkb, 0, wkb.length);
+            }
+        }
+
+        void write(Rule rule) {
+            writeString(rule.getId());
+            writeString(rule.getExtId());
+            writeString(rule.getName());
+            writeString(rule.getDescription());
+            writeVarLong(rule.getPriority());
+
+            RuleIdentifier identifier = rule.getIdentifier();
+            writeEnum(identifier.getAccess());
+            writeString(identifier.getInstanceName());
+            writeString(identifier.getUsername());
+            writeString(identifier.getRolename());
+            writeString(identifier.getService());
+            writeString(identifier.getRequest());
+            writeString(identifier.getSubfield());
+            writeString(identifier.getWorkspace());
+            writeString(identifier.getLayer());
+            writeString(identifier.getAddressRange());
+
+            RuleLimits limits = rule.getRuleLimits();
+            write(limits == null ? 0 : 1);
+            if (limits != null) {
+                writeGeometry(limits.getAllowedAreaWkb());
+                writeEnum(limits.getSpatialFilterType());
+                writeEnum(limits.getCatalogMode());
+            }
+        }
+
+        void write(LayerDetails details) {
+            write(details == null ? 0 : 1);
+            if (details == null) return;
+            writeEnum(details.getType());
+            writeString(details.getDefaultStyle());
+            writeString(details.getCqlFilterRead());
+            writeString(details.getCqlFilterWrite());
+            writeGeometry(details.getAreaWkb());
+            writeEnum(details.getSpatialFilterType());
+            writeEnum(details.getCatalogMode());
+            writeVarLong(details.getAllowedStyles().size());
+            details.getAllowedStyles().forEach(this::writeString);
+            writeVarLong(details.getAttributes().size());
+            for (LayerAttribute att : details.getAttributes()) {
+                writeString(att.getName());
+                writeString(att.getDataType());
+                writeEnum(att.getAccess());
+            }
+        }
+
+        void write(AdminRule rule) {
+            writeString(rule.getId());
+            writeString(rule.getExtId());
+            writeString(rule.getName());
+            writeString(rule.getDescription());
+            writeVarLong(rule.getPriority());
+            writeEnum(rule.getAccess());
+
+            AdminRuleIdentifier identifier = rule.getIdentifier();
+            writeString(identifier.getInstanceName());
+            writeString(identifier.getUsername());
+            writeString(identifier.getRolename());
+            writeString(identifier.getWorkspace());
+            writeString(identifier.getAddressRange());
+        }
+    }
+
+    private static class Decoder {
+
+        private final ByteBuffer buffer;
+        private String[] dictionary;
+
+        Decoder(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        long readVarLong() {
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = buffer.get();
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            return value;
+        }
+
+        int readCount() throws IOException {
+            long count = readVarLong();
+            if (count < 0 || count > buffer.remaining()) {
+                throw new IOException("Corrupt ruleset snapshot, invalid count " + count);
+            }
+            return (int) count;
+        }
+
+        byte[] readBytes(int length) {
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            return bytes;
+        }
+
+        String readString() {
+            int ref = (int) readVarLong();
+            return ref == 0 ? null : dictionary[ref - 1];
+        }
+
+        <E extends Enum<E>> E readEnum(Class<E> type) {
+            String name = readString();
+            return name == null ? null : Enum.valueOf(type, name);
+        }
+
+        byte[] readGeometry() {
+            int length = (int) readVarLong();
+            if (length == 0) return null;
+            return readBytes(length - 1);
+        }
+
+        boolean readFlag() {
+            return buffer.get() != 0;
+        }
+
+        Rule readRule() throws IOException {
+            Rule.Builder rule =
+                    Rule.builder()
+                            .id(readString())
+                            .extId(readString())
+                            .name(readString())
+                            .description(readString())
+                            .priority(readVarLong());
+
+            rule.identifier(
+                    RuleIdentifier.builder()
+                            .access(readEnum(GrantType.class))
+                            .instanceName(readString())
+                            .username(readString())
+                            .rolename(readString())
+                            .service(readString())
+                            .request(readString())
+                            .subfield(readString())
+                            .workspace(readString())
+                            .layer(readString())
+                            .addressRange(readString())
+                            .build());
+
+            if (readFlag()) {
+                rule.ruleLimits(
+                        RuleLimits.builder()
+                                .allowedAreaWkb(readGeometry())
+                                .spatialFilterType(readEnum(SpatialFilterType.class))
+                                .catalogMode(readEnum(CatalogMode.class))
+                                .build());
+            }
+            return rule.build();
+        }
+
+        LayerDetails readLayerDetails() throws IOException {
+            if (!readFlag()) return null;
+            LayerDetails.Builder builder =
+                    LayerDetails.builder()
+                            .type(readEnum(LayerType.class))
+                            .defaultStyle(readString())
+                            .cqlFilterRead(readString())
+                            .cqlFilterWrite(readString())
+                            .areaWkb(readGeometry())
+                            .spatialFilterType(readEnum(SpatialFilterType.class))
+                            .catalogMode(readEnum(CatalogMode.class));
+
+            final int styleCount = readCount();
+            Set<String> styles = new HashSet<>(styleCount);
+            for (int i = 0; i < styleCount; i++) {
+                styles.add(readString());
+            }
+            final int attCount = readCount();
+            Set<LayerAttribute> attributes = new HashSet<>(attCount);
+            for (int i = 0; i < attCount; i++) {
+                attributes.add(
+                        LayerAttribute.builder()
+                                .name(readString())
+                                .dataType(readString())
+                                .access(readEnum(AccessType.class))
+                                .build());
+            }
+            return builder.allowedStyles(Set.copyOf(styles))
+                    .attributes(Set.copyOf(attributes))
+                    .build();
+        }
+
+        AdminRule readAdminRule() {
+            return AdminRule.builder()
+                    .id(readString())
+                    .extId(readString())
+                    .name(readString())
+                    .description(readString())
+                    .priority(readVarLong())
+                    .access(readEnum(AdminGrantType.class))
+                    .identifier(
+                            AdminRuleIdentifier.builder()
+                                    .instanceName(readString())
+                                    .username(readString())
+                                    .rolename(readString())
+                                    .workspace(readString())
+                                    .addressRange(readString())
+                                    .build())
+                    .build();
+        }
+    }
+}
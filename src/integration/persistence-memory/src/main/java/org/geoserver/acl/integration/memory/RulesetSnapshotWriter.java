@@ -0,0 +1,112 @@
+/* (c) 2023  Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.acl.integration.memory;
+
+import lombok.NonNull;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+
+import org.geoserver.acl.domain.adminrules.AdminRuleEvent;
+import org.geoserver.acl.domain.adminrules.AdminRuleRepository;
+import org.geoserver.acl.domain.rules.RuleChangeLog;
+import org.geoserver.acl.domain.rules.RuleEvent;
+import org.geoserver.acl.domain.rules.RuleRepository;
+import org.springframework.context.event.EventListener;
+
+import java.io.Closeable;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps a {@link RulesetSnapshot} file up to date with the contents of the rule and admin rule
+ * repositories, rewriting it after they change.
+ *
+ * <p>Changes are coalesced, a burst of rule events results in a single write {@code delay} after
+ * the first one.
+ *
+ * <p>If a {@link RuleChangeLog} is {@link #setChangeLog set}, the snapshots record its latest
+ * sequence number as of the start of the export, for readers to resume following the changes from
+ * there.
+ *
+ * @since 1.0
+ */
+@Slf4j
+public class RulesetSnapshotWriter implements Closeable {
+
+    private final RuleRepository ruleRepository;
+    private final AdminRuleRepository adminRuleRepository;
+    private final Path file;
+    private final Duration delay;
+
+    @Setter private RuleChangeLog changeLog;
+
+    private final AtomicBoolean pending = new AtomicBoolean();
+    private final ScheduledExecutorService executor;
+
+    public RulesetSnapshotWriter(
+            @NonNull RuleRepository ruleRepository,
+            @NonNull AdminRuleRepository adminRuleRepository,
+            @NonNull Path file,
+            @NonNull Duration delay) {
+        this.ruleRepository = ruleRepository;
+        this.adminRuleRepository = adminRuleRepository;
+        this.file = file;
+        this.delay = delay;
+        this.executor =
+                Executors.newSingleThreadScheduledExecutor(
+                        r -> {
+                            Thread t = new Thread(r, "acl-ruleset-snapshot-writer");
+                            t.setDaemon(true);
+                            return t;
+                        });
+    }
+
+    @EventListener(RuleEvent.class)
+    public void onRuleEvent(RuleEvent event) {
+        scheduleWrite();
+    }
+
+    @EventListener(AdminRuleEvent.class)
+    public void onAdminRuleEvent(AdminRuleEvent event) {
+        scheduleWrite();
+    }
+
+    /** Schedules a new snapshot unless one is already pending */
+    public void scheduleWrite() {
+        if (pending.compareAndSet(false, true)) {
+            executor.schedule(this::write, delay.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /** Takes and saves a new snapshot right away */
+    public void write() {
+        pending.set(false);
+        try {
+            long start = System.nanoTime();
+            final long sequence = null == changeLog ? 0L : changeLog.lastSequence();
+            RulesetSnapshot snapshot =
+                    RulesetSnapshot.of(ruleRepository, adminRuleRepository, sequence);
+            snapshot.save(file);
+            log.debug(
+                    "Saved {} rules and {} admin rules at change {} to {} in {}ms",
+                    snapshot.getRules().size(),
+                    snapshot.getAdminRules().size(),
+                    sequence,
+                    file,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (RuntimeException e) {
+            log.error("Error saving ruleset snapshot to {}", file, e);
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+}
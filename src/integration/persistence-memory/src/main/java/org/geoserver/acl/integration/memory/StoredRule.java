@@ -0,0 +1,36 @@
+/* (c) 2023  Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.acl.integration.memory;
+
+import lombok.NonNull;
+import lombok.Value;
+import lombok.With;
+
+import org.geoserver.acl.domain.rules.LayerDetails;
+import org.geoserver.acl.domain.rules.Rule;
+
+/**
+ * A {@link Rule} as held by {@link MemoryRuleRepository}, together with its {@link LayerDetails}
+ */
+@Value
+@With
+class StoredRule {
+
+    @NonNull Rule rule;
+
+    LayerDetails layerDetails;
+
+    String getId() {
+        return rule.getId();
+    }
+
+    long getPriority() {
+        return rule.getPriority();
+    }
+
+    StoredRule withPriority(long priority) {
+        return withRule(rule.withPriority(priority));
+    }
+}
@@ -0,0 +1,28 @@
+/* (c) 2023  Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.acl.integration.memory.config;
+
+import lombok.Data;
+
+import java.nio.file.Path;
+
+/** Configuration properties for the in-memory rule repositories */
+@Data
+public class AclMemoryProperties {
+
+    /**
+     * Directory where to persist the rules and admin rules, the repositories are volatile if unset
+     */
+    private Path directory;
+
+    /** Number of journaled changes that trigger writing a new snapshot */
+    private int compactionThreshold = 10_000;
+
+    /** Whether to force each change to the storage device before returning */
+    private boolean sync = true;
+
+    /** Number of rule changes kept in memory for consumers of the change feed to catch up */
+    private int changeLogCapacity = 10_000;
+}
@@ -0,0 +1,64 @@
+/* (c) 2023  Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.acl.integration.memory.config;
+
+import org.geoserver.acl.domain.adminrules.AdminRuleEvent;
+import org.geoserver.acl.domain.adminrules.AdminRuleRepository;
+import org.geoserver.acl.domain.rules.RuleChangeLog;
+import org.geoserver.acl.domain.rules.RuleEvent;
+import org.geoserver.acl.domain.rules.RuleRepository;
+import org.geoserver.acl.integration.memory.MemoryAdminRuleRepository;
+import org.geoserver.acl.integration.memory.MemoryRuleChangeLog;
+import org.geoserver.acl.integration.memory.MemoryRuleRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+import java.util.function.Consumer;
+
+/**
+ * Contributes in-memory {@link RuleRepository} and {@link AdminRuleRepository} beans, persisted to
+ * {@link AclMemoryProperties#getDirectory()} if set, and a volatile {@link RuleChangeLog}. Requires
+ * an {@link AclMemoryProperties} bean.
+ */
+@Configuration(proxyBeanMethods = false)
+public class MemoryPersistenceConfiguration {
+
+    @Bean
+    public RuleRepository aclRuleRepositoryMemory(
+            AclMemoryProperties props, ApplicationEventPublisher eventPublisher) {
+
+        Path directory = props.getDirectory();
+        MemoryRuleRepository repository =
+                directory == null
+                        ? new MemoryRuleRepository()
+                        : new MemoryRuleRepository(
+                                directory, props.getCompactionThreshold(), props.isSync());
+        Consumer<RuleEvent> publisher = eventPublisher::publishEvent;
+        repository.setEventPublisher(publisher);
+        return repository;
+    }
+
+    @Bean
+    public AdminRuleRepository aclAdminRuleRepositoryMemory(
+            AclMemoryProperties props, ApplicationEventPublisher eventPublisher) {
+
+        Path directory = props.getDirectory();
+        MemoryAdminRuleRepository repository =
+                directory == null
+                        ? new MemoryAdminRuleRepository()
+                        : new MemoryAdminRuleRepository(
+                                directory, props.getCompactionThreshold(), props.isSync());
+        Consumer<AdminRuleEvent> publisher = eventPublisher::publishEvent;
+        repository.setEventPublisher(publisher);
+        return repository;
+    }
+
+    @Bean
+    public RuleChangeLog aclRuleChangeLogMemory(AclMemoryProperties props) {
+        return new MemoryRuleChangeLog(props.getChangeLogCapacity());
+    }
+}
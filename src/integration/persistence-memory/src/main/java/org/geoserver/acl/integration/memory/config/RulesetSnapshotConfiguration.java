@@ -0,0 +1,48 @@
+/* (c) 2023  Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.acl.integration.memory.config;
+
+import org.geoserver.acl.domain.adminrules.AdminRuleRepository;
+import org.geoserver.acl.domain.rules.RuleChangeLog;
+import org.geoserver.acl.domain.rules.RuleRepository;
+import org.geoserver.acl.integration.memory.RulesetSnapshotWriter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.ContextRefreshedEvent;
+
+/**
+ * Contributes a {@link RulesetSnapshotWriter} that saves the ruleset snapshot once the application
+ * context is refreshed, and again after each change. Requires a {@link RulesetSnapshotProperties}
+ * bean with a {@link RulesetSnapshotProperties#getFile() file}. Snapshots record the latest {@link
+ * RuleChangeLog} sequence if there's one.
+ */
+@Configuration(proxyBeanMethods = false)
+public class RulesetSnapshotConfiguration {
+
+    @Bean
+    public RulesetSnapshotWriter aclRulesetSnapshotWriter(
+            RulesetSnapshotProperties props,
+            RuleRepository ruleRepository,
+            AdminRuleRepository adminRuleRepository,
+            ObjectProvider<RuleChangeLog> changeLog) {
+
+        if (props.getFile() == null) {
+            throw new IllegalStateException("Ruleset snapshot file not provided");
+        }
+        RulesetSnapshotWriter writer =
+                new RulesetSnapshotWriter(
+                        ruleRepository, adminRuleRepository, props.getFile(), props.getDelay());
+        writer.setChangeLog(changeLog.getIfAvailable());
+        return writer;
+    }
+
+    @Bean
+    ApplicationListener<ContextRefreshedEvent> aclRulesetSnapshotInitializer(
+            RulesetSnapshotWriter writer) {
+        return event -> writer.scheduleWrite();
+    }
+}
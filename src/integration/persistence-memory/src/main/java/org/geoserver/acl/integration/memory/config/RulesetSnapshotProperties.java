@@ -0,0 +1,24 @@
+/* (c) 2023  Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.acl.integration.memory.config;
+
+import lombok.Data;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Configuration properties for the {@link org.geoserver.acl.integration.memory.RulesetSnapshot}
+ * file
+ */
+@Data
+public class RulesetSnapshotProperties {
+
+    /** File to keep up to date with the full rule and admin rule sets, disabled if unset */
+    private Path file;
+
+    /** How long to wait after a change before saving, to coalesce bursts of changes */
+    private Duration delay = Duration.ofSeconds(1);
+}
@@ -0,0 +1,57 @@
+/* (c) 2023  Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.acl.integration.memory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.geoserver.acl.domain.rules.RuleChange;
+import org.geoserver.acl.domain.rules.RuleChange.RuleType;
+import org.geoserver.acl.domain.rules.RuleEvent.EventType;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+class MemoryRuleChangeLogTest {
+
+    private MemoryRuleChangeLog log = new MemoryRuleChangeLog(3);
+
+    @Test
+    void emptyLog() {
+        assertThat(log.firstSequence()).isZero();
+        assertThat(log.lastSequence()).isZero();
+        assertThat(log.findSince(0, 10)).isEmpty();
+    }
+
+    @Test
+    void appendAndFindSince() {
+        RuleChange c1 = log.append(RuleType.RULE, EventType.CREATED, Set.of("1"));
+        RuleChange c2 = log.append(RuleType.ADMIN_RULE, EventType.UPDATED, Set.of("2", "3"));
+        assertThat(c1.getSequence()).isEqualTo(1);
+        assertThat(c2.getSequence()).isEqualTo(2);
+        assertThat(c2.getRuleIds()).isEqualTo(Set.of("2", "3"));
+
+        assertThat(log.findSince(0, 10)).containsExactly(c1, c2);
+        assertThat(log.findSince(1, 10)).containsExactly(c2);
+        assertThat(log.findSince(2, 10)).isEmpty();
+        assertThat(log.findSince(0, 1)).containsExactly(c1);
+    }
+
+    @Test
+    void discardsOldestChangesOverCapacity() {
+        for (int i = 1; i <= 5; i++) {
+            log.append(RuleType.RULE, EventType.DELETED, Set.of(String.valueOf(i)));
+        }
+        assertThat(log.firstSequence()).isEqualTo(3);
+        assertThat(log.lastSequence()).isEqualTo(5);
+        assertThat(sequences(log.findSince(0, 10))).containsExactly(3L, 4L, 5L);
+        assertThat(sequences(log.findSince(3, 10))).containsExactly(4L, 5L);
+    }
+
+    private List<Long> sequences(List<RuleChange> changes) {
+        return changes.stream().map(RuleChange::getSequence).collect(Collectors.toList());
+    }
+}
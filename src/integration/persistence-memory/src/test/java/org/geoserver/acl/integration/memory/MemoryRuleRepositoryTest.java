@@ -0,0 +1,201 @@
+/* (c) 2023  Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.acl.integration.memory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.geoserver.acl.domain.rules.RuleEvent.updated;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.geolatte.geom.MultiPolygon;
+import org.geolatte.geom.codec.Wkt;
+import org.geoserver.acl.domain.adminrules.AdminGrantType;
+import org.geoserver.acl.domain.adminrules.AdminRule;
+import org.geoserver.acl.domain.adminrules.AdminRuleIdentifierConflictException;
+import org.geoserver.acl.domain.rules.CatalogMode;
+import org.geoserver.acl.domain.rules.InsertPosition;
+import org.geoserver.acl.domain.rules.LayerAttribute;
+import org.geoserver.acl.domain.rules.LayerAttribute.AccessType;
+import org.geoserver.acl.domain.rules.LayerDetails;
+import org.geoserver.acl.domain.rules.LayerDetails.LayerType;
+import org.geoserver.acl.domain.rules.Rule;
+import org.geoserver.acl.domain.rules.RuleBatch;
+import org.geoserver.acl.domain.rules.RuleEvent;
+import org.geoserver.acl.domain.rules.RuleLimits;
+import org.geoserver.acl.domain.rules.SpatialFilterType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+class MemoryRuleRepositoryTest {
+
+    @TempDir Path directory;
+
+    private MemoryRuleRepository rules;
+    private MemoryAdminRuleRepository adminRules;
+
+    @AfterEach
+    void tearDown() {
+        if (rules != null) rules.close();
+        if (adminRules != null) adminRules.close();
+    }
+
+    private void reopen(int compactionThreshold) {
+        tearDown();
+        rules = new MemoryRuleRepository(directory, compactionThreshold, true);
+        adminRules = new MemoryAdminRuleRepository(directory, compactionThreshold, true);
+    }
+
+    @Test
+    void testPersistence() {
+        reopen(100);
+
+        MultiPolygon<?> area =
+                (MultiPolygon<?>)
+                        Wkt.fromWkt("SRID=4326;MULTIPOLYGON (((0 0, 0 1, 1 1, 1 0, 0 0)))");
+        Rule allow = rules.create(Rule.allow().withLayer("l1"), InsertPosition.FIXED);
+        Rule limit =
+                rules.create(
+                        Rule.limit()
+                                .withLayer("l1")
+                                .withRuleLimits(
+                                        RuleLimits.builder()
+                                                .allowedArea(area)
+                                                .spatialFilterType(SpatialFilterType.CLIP)
+                                                .catalogMode(CatalogMode.HIDE)
+                                                .build()),
+                        InsertPosition.FROM_START);
+        Rule deny = rules.create(Rule.deny().withUsername("jd"), InsertPosition.FROM_END);
+        LayerDetails details =
+                LayerDetails.builder()
+                        .type(LayerType.VECTOR)
+                        .area(area)
+                        .cqlFilterRead("a = 1")
+                        .allowedStyles(Set.of("s1", "s2"))
+                        .attributes(
+                                Set.of(
+                                        LayerAttribute.builder()
+                                                .name("att")
+                                                .dataType("java.lang.String")
+                                                .access(AccessType.READONLY)
+                                                .build()))
+                        .build();
+        rules.setLayerDetails(allow.getId(), details);
+        rules.deleteById(deny.getId());
+
+        AdminRule admin =
+                adminRules.create(
+                        AdminRule.admin().withWorkspace("ws"),
+                        org.geoserver.acl.domain.adminrules.InsertPosition.FIXED);
+
+        List<Rule> expected = rules.findAll().collect(Collectors.toList());
+        assertThat(expected).hasSize(2);
+
+        reopen(100);
+        assertThat(rules.findAll()).isEqualTo(expected);
+        assertThat(rules.findById(limit.getId()).orElseThrow().getRuleLimits().getAllowedArea())
+                .isEqualTo(area);
+        assertThat(rules.findLayerDetailsByRuleId(allow.getId())).contains(details);
+        assertThat(adminRules.findAll()).containsExactly(admin);
+
+        // ids keep growing after reload
+        Rule created = rules.create(Rule.deny(), InsertPosition.FROM_END);
+        assertThat(Long.parseLong(created.getId())).isGreaterThan(Long.parseLong(deny.getId()));
+    }
+
+    @Test
+    void testCompaction() throws Exception {
+        reopen(3);
+        List<Rule> created = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            created.add(rules.create(Rule.allow().withLayer("l" + i), InsertPosition.FROM_END));
+        }
+        assertThat(directory.resolve("rules.snapshot")).exists();
+        assertThat(Files.size(directory.resolve("rules.journal"))).isLessThan(1000);
+
+        reopen(3);
+        assertThat(rules.findAll()).isEqualTo(created);
+    }
+
+    @Test
+    void testDiscardsTornWrite() throws Exception {
+        reopen(100);
+        Rule rule = rules.create(Rule.allow(), InsertPosition.FIXED);
+        tearDown();
+
+        Path journal = directory.resolve("rules.journal");
+        byte[] contents = Files.readAllBytes(journal);
+        Files.write(journal, java.util.Arrays.copyOf(contents, contents.length + 5));
+
+        reopen(100);
+        assertThat(rules.findAll()).containsExactly(rule);
+        assertThat(Files.size(journal)).isEqualTo(contents.length);
+    }
+
+    @Test
+    void testDirectoryInUse() {
+        reopen(100);
+        assertThrows(
+                IllegalStateException.class, () -> new MemoryRuleRepository(directory, 100, true));
+    }
+
+    @Test
+    void testFailedWriteLeavesNoChanges() {
+        adminRules = new MemoryAdminRuleRepository();
+        AdminRule r1 =
+                adminRules.create(
+                        AdminRule.user().withPriority(1).withWorkspace("ws1"),
+                        org.geoserver.acl.domain.adminrules.InsertPosition.FIXED);
+        AdminRule r2 =
+                adminRules.create(
+                        AdminRule.user().withPriority(2).withWorkspace("ws2"),
+                        org.geoserver.acl.domain.adminrules.InsertPosition.FIXED);
+
+        List<AdminRule> update =
+                List.of(
+                        r1.withPriority(5),
+                        r2.withWorkspace("ws1").withAccess(AdminGrantType.USER));
+        assertThrows(AdminRuleIdentifierConflictException.class, () -> adminRules.saveAll(update));
+        assertThat(adminRules.findAll()).containsExactly(r1, r2);
+    }
+
+    @Test
+    void testCollateralEvents() {
+        rules = new MemoryRuleRepository();
+        List<RuleEvent> events = new ArrayList<>();
+        rules.setEventPublisher(events::add);
+
+        Rule r1 = rules.create(Rule.allow().withPriority(1).withLayer("l1"), InsertPosition.FIXED);
+        Rule r2 = rules.create(Rule.allow().withPriority(2).withLayer("l2"), InsertPosition.FIXED);
+        assertThat(events).isEmpty();
+
+        rules.create(Rule.allow().withPriority(1).withLayer("l3"), InsertPosition.FIXED);
+        assertThat(events).containsExactly(updated(r1, r2));
+    }
+
+    @Test
+    void testFailedBatchLeavesNoChanges() {
+        rules = new MemoryRuleRepository();
+        Rule r1 = rules.create(Rule.allow().withPriority(1).withLayer("l1"), InsertPosition.FIXED);
+        Rule r2 = rules.create(Rule.allow().withPriority(2).withLayer("l2"), InsertPosition.FIXED);
+
+        RuleBatch batch =
+                RuleBatch.of(
+                        List.of(
+                                RuleBatch.Operation.create(
+                                        Rule.deny().withPriority(1), InsertPosition.FIXED, null),
+                                RuleBatch.Operation.delete(r1.getId()),
+                                RuleBatch.Operation.update(r2.withLayer("l3"), null),
+                                RuleBatch.Operation.delete("1000")));
+        assertThrows(IllegalArgumentException.class, () -> rules.execute(batch));
+        assertThat(rules.findAll()).containsExactly(r1, r2);
+    }
+}
@@ -0,0 +1,17 @@
+/* (c) 2023  Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.acl.integration.memory;
+
+import org.geoserver.acl.domain.rules.RuleAdminService;
+import org.geoserver.acl.domain.rules.RuleAdminServiceIT;
+import org.geoserver.acl.domain.rules.RuleAdminServiceImpl;
+
+class RuleAdminServiceMemoryIT extends RuleAdminServiceIT {
+
+    @Override
+    protected RuleAdminService getRuleAdminService() {
+        return new RuleAdminServiceImpl(new MemoryRuleRepository());
+    }
+}
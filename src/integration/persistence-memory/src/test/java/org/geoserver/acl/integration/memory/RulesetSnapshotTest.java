@@ -0,0 +1,212 @@
+/* (c) 2023  Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.acl.integration.memory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.spy;
+
+import org.geolatte.geom.MultiPolygon;
+import org.geolatte.geom.codec.Wkt;
+import org.geoserver.acl.domain.adminrules.AdminRule;
+import org.geoserver.acl.domain.rules.CatalogMode;
+import org.geoserver.acl.domain.rules.InsertPosition;
+import org.geoserver.acl.domain.rules.LayerAttribute;
+import org.geoserver.acl.domain.rules.LayerAttribute.AccessType;
+import org.geoserver.acl.domain.rules.LayerDetails;
+import org.geoserver.acl.domain.rules.LayerDetails.LayerType;
+import org.geoserver.acl.domain.rules.Rule;
+import org.geoserver.acl.domain.rules.RuleChange.RuleType;
+import org.geoserver.acl.domain.rules.RuleEvent;
+import org.geoserver.acl.domain.rules.RuleEvent.EventType;
+import org.geoserver.acl.domain.rules.RuleLimits;
+import org.geoserver.acl.domain.rules.RuleRepository;
+import org.geoserver.acl.domain.rules.SpatialFilterType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+class RulesetSnapshotTest {
+
+    @TempDir Path directory;
+
+    private MemoryRuleRepository rules;
+    private MemoryAdminRuleRepository adminRules;
+
+    private MultiPolygon<?> area =
+            (MultiPolygon<?>) Wkt.fromWkt("SRID=4326;MULTIPOLYGON (((0 0, 0 1, 1 1, 1 0, 0 0)))");
+
+    @BeforeEach
+    void setUp() {
+        rules = new MemoryRuleRepository();
+        adminRules = new MemoryAdminRuleRepository();
+    }
+
+    @Test
+    void testSaveAndLoad() {
+        for (int i = 1; i <= 100; i++) {
+            rules.create(
+                    Rule.allow().withWorkspace("ws").withLayer("layer" + i).withRolename("ROLE_1"),
+                    InsertPosition.FROM_END);
+        }
+        Rule limit =
+                rules.create(
+                        Rule.limit()
+                                .withLayer("layer1")
+                                .withRuleLimits(
+                                        RuleLimits.builder()
+                                                .allowedArea(area)
+                                                .spatialFilterType(SpatialFilterType.INTERSECT)
+                                                .catalogMode(CatalogMode.MIXED)
+                                                .build()),
+                        InsertPosition.FROM_START);
+        Rule allow = rules.findAll().filter(r -> r.getPriority() == 2).findFirst().orElseThrow();
+        LayerDetails details =
+                LayerDetails.builder()
+                        .type(LayerType.VECTOR)
+                        .area(area)
+                        .allowedStyles(Set.of("s1", "s2"))
+                        .attributes(
+                                Set.of(
+                                        LayerAttribute.builder()
+                                                .name("att")
+                                                .dataType("java.lang.String")
+                                                .access(AccessType.NONE)
+                                                .build()))
+                        .build();
+        rules.setLayerDetails(allow.getId(), details);
+        adminRules.create(
+                AdminRule.admin().withWorkspace("ws"),
+                org.geoserver.acl.domain.adminrules.InsertPosition.FIXED);
+
+        RulesetSnapshot snapshot = RulesetSnapshot.of(rules, adminRules, 42L);
+        Path file = directory.resolve("ruleset.bin");
+        snapshot.save(file);
+
+        RulesetSnapshot loaded = RulesetSnapshot.load(file).orElseThrow();
+        assertThat(loaded).isEqualTo(snapshot);
+        assertThat(loaded.getSequence()).isEqualTo(42L);
+        assertThat(loaded.getRules().get(0)).isEqualTo(limit);
+        assertThat(loaded.getLayerDetails()).isEqualTo(Map.of(allow.getId(), details));
+
+        MemoryRuleRepository restored = new MemoryRuleRepository();
+        MemoryAdminRuleRepository restoredAdmin = new MemoryAdminRuleRepository();
+        restored.restore(loaded);
+        restoredAdmin.restore(loaded);
+        assertThat(restored.findAll()).isEqualTo(snapshot.getRules());
+        assertThat(restored.findLayerDetailsByRuleId(allow.getId())).contains(details);
+        assertThat(restoredAdmin.findAll()).isEqualTo(snapshot.getAdminRules());
+
+        Rule created = restored.create(Rule.deny(), InsertPosition.FROM_END);
+        assertThat(Long.parseLong(created.getId())).isGreaterThan(Long.parseLong(limit.getId()));
+    }
+
+    @Test
+    void testDictionaryEncoding() throws Exception {
+        Path file = directory.resolve("ruleset.bin");
+        new RulesetSnapshot(Instant.now(), 0L, List.of(), Map.of(), List.of()).save(file);
+        final long empty = Files.size(file);
+
+        String workspace = "a-rather-long-workspace-name";
+        for (int i = 0; i < 200; i++) {
+            // repeated instances of the same values, only the id and priority differ
+            rules.create(
+                    Rule.limit().withWorkspace(workspace).withService("WMS"),
+                    InsertPosition.FROM_END);
+        }
+        RulesetSnapshot.of(rules, adminRules).save(file);
+        assertThat(Files.size(file) - empty).isLessThan(200 * 40);
+        assertThat(RulesetSnapshot.load(file).orElseThrow().getRules()).hasSize(200);
+    }
+
+    @Test
+    void testLoadMissingFile() {
+        assertThat(RulesetSnapshot.load(directory.resolve("missing.bin"))).isEmpty();
+    }
+
+    @Test
+    void testReplicate() {
+        Rule r1 = rules.create(Rule.allow().withLayer("l1").withPriority(1), InsertPosition.FIXED);
+        Rule r2 = rules.create(Rule.allow().withLayer("l2").withPriority(2), InsertPosition.FIXED);
+        Rule r3 = rules.create(Rule.allow().withLayer("l3").withPriority(3), InsertPosition.FIXED);
+
+        MemoryRuleRepository replica = new MemoryRuleRepository();
+        replica.restore(RulesetSnapshot.of(rules, adminRules));
+
+        rules.swap(r1.getId(), r3.getId());
+        replica.replicate(RuleEvent.updated(r1.getId(), r3.getId()), rules);
+        assertThat(replica.findAll()).isEqualTo(rules.findAll().collect(Collectors.toList()));
+
+        rules.deleteById(r2.getId());
+        Rule r4 = rules.create(Rule.deny().withPriority(2), InsertPosition.FIXED);
+        // the creation event arrives before the deletion one
+        replica.replicate(RuleEvent.created(r4), rules);
+        replica.replicate(RuleEvent.deleted(r2.getId()), rules);
+        assertThat(replica.findAll()).isEqualTo(rules.findAll().collect(Collectors.toList()));
+    }
+
+    @Test
+    void testReplicateFetchesBeforeLocking() throws Exception {
+        rules.create(Rule.deny().withPriority(5), InsertPosition.FIXED);
+        Rule r1 = rules.create(Rule.allow().withLayer("l1").withPriority(1), InsertPosition.FIXED);
+        MemoryRuleRepository replica = new MemoryRuleRepository();
+        RuleRepository source = spy(rules);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            doAnswer(
+                            invocation -> {
+                                // a concurrent write to the replica doesn't wait for the source
+                                executor.submit(
+                                                () ->
+                                                        replica.create(
+                                                                Rule.deny().withPriority(10),
+                                                                InsertPosition.FIXED))
+                                        .get(5, TimeUnit.SECONDS);
+                                return invocation.callRealMethod();
+                            })
+                    .when(source)
+                    .findAllByIdWithDetails(eq(Set.of(r1.getId())), any());
+            replica.replicate(RuleEvent.created(r1), source);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(replica.count()).isEqualTo(2);
+        assertThat(replica.findById(r1.getId())).contains(r1);
+    }
+
+    @Test
+    void testWriter() throws Exception {
+        Path file = directory.resolve("ruleset.bin");
+        try (RulesetSnapshotWriter writer =
+                new RulesetSnapshotWriter(rules, adminRules, file, Duration.ofMillis(10))) {
+            MemoryRuleChangeLog changeLog = new MemoryRuleChangeLog(10);
+            writer.setChangeLog(changeLog);
+            Rule rule = rules.create(Rule.allow(), InsertPosition.FIXED);
+            changeLog.append(RuleType.RULE, EventType.CREATED, Set.of(rule.getId()));
+            writer.onRuleEvent(RuleEvent.created(rule));
+            writer.onRuleEvent(RuleEvent.updated(rule));
+            for (int i = 0; i < 100 && !Files.exists(file); i++) {
+                Thread.sleep(50);
+            }
+            RulesetSnapshot saved = RulesetSnapshot.load(file).orElseThrow();
+            assertThat(saved.getRules()).containsExactly(rule);
+            assertThat(saved.getSequence()).isEqualTo(changeLog.lastSequence());
+        }
+    }
+}
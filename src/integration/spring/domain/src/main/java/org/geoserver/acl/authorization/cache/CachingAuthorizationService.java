@@ -25,6 +25,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
@@ -56,16 +57,46 @@ public class CachingAuthorizationService implements AuthorizationService {
         return ruleAccessCache.get(request);
     }
 
+    @Override
+    public CompletableFuture<AccessInfo> getAccessInfoAsync(AccessRequest request) {
+        AccessInfo cached = ruleAccessCache.getIfPresent(request);
+        if (null != cached) return CompletableFuture.completedFuture(cached);
+        return delegate.getAccessInfoAsync(request)
+                .thenApply(
+                        accessInfo -> {
+                            ruleAccessCache.put(request, accessInfo);
+                            return accessInfo;
+                        });
+    }
+
     @Override
     public AdminAccessInfo getAdminAuthorization(AdminAccessRequest request) {
         return adminRuleAccessCache.get(request);
     }
 
+    @Override
+    public CompletableFuture<AdminAccessInfo> getAdminAuthorizationAsync(
+            AdminAccessRequest request) {
+        AdminAccessInfo cached = adminRuleAccessCache.getIfPresent(request);
+        if (null != cached) return CompletableFuture.completedFuture(cached);
+        return delegate.getAdminAuthorizationAsync(request)
+                .thenApply(
+                        adminAccessInfo -> {
+                            adminRuleAccessCache.put(request, adminAccessInfo);
+                            return adminAccessInfo;
+                        });
+    }
+
     @Override
     public List<Rule> getMatchingRules(AccessRequest request) {
         return delegate.getMatchingRules(request);
     }
 
+    @Override
+    public CompletableFuture<List<Rule>> getMatchingRulesAsync(AccessRequest request) {
+        return delegate.getMatchingRulesAsync(request);
+    }
+
     @Async
     @EventListener(RuleEvent.class)
     public void onRuleEvent(RuleEvent event) {
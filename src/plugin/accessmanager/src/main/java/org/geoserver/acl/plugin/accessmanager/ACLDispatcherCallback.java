@@ -149,8 +149,8 @@ public class ACLDispatcherCallback extends AbstractDispatcherCallback {
 
         // get the request object
         GetLegendGraphicRequest getLegend = (GetLegendGraphicRequest) operation.getParameters()[0];
-        for (int i = 0; i < layers.size(); i++) {
-            LayerInfo layer = layers.get(i);
+        List<AccessRequest> ruleFilters = new ArrayList<>(layers.size());
+        for (LayerInfo layer : layers) {
             ResourceInfo resource = layer.getResource();
 
             // get the rule, it contains default and allowed styles
@@ -165,7 +165,13 @@ public class ACLDispatcherCallback extends AbstractDispatcherCallback {
                             .build();
 
             LOGGER.log(Level.FINE, "Getting access limits for getLegendGraphic", ruleFilter);
-            AccessInfo grant = aclService.getAccessInfo(ruleFilter);
+            ruleFilters.add(ruleFilter);
+        }
+        // request them all at once rather than waiting for each layer before the next
+        List<AccessInfo> grants = aclService.getAccessInfos(ruleFilters);
+
+        for (int i = 0; i < layers.size(); i++) {
+            AccessInfo grant = grants.get(i);
 
             // get the requested style
             String styleName = styles.get(i);
@@ -213,8 +219,8 @@ public class ACLDispatcherCallback extends AbstractDispatcherCallback {
 
         // apply the override/security check for each layer in the request
         List<MapLayerInfo> layers = getMap.getLayers();
-        for (int i = 0; i < layers.size(); i++) {
-            MapLayerInfo layer = layers.get(i);
+        List<AccessRequest> ruleFilters = new ArrayList<>(layers.size());
+        for (MapLayerInfo layer : layers) {
             ResourceInfo info = null;
             if (layer.getType() == MapLayerInfo.TYPE_VECTOR
                     || layer.getType() == MapLayerInfo.TYPE_RASTER) {
@@ -250,8 +256,13 @@ public class ACLDispatcherCallback extends AbstractDispatcherCallback {
                                 .build();
             }
             LOGGER.log(Level.FINE, "Getting access limits for getMap", ruleFilter);
+            ruleFilters.add(ruleFilter);
+        }
+        // request them all at once rather than waiting for each layer before the next
+        List<AccessInfo> rules = aclService.getAccessInfos(ruleFilters);
 
-            AccessInfo rule = aclService.getAccessInfo(ruleFilter);
+        for (int i = 0; i < layers.size(); i++) {
+            AccessInfo rule = rules.get(i);
 
             // get the requested style name
             String styleName = styleNameList.get(i);
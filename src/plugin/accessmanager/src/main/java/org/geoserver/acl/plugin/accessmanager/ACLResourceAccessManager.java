@@ -485,10 +485,10 @@ public class ACLResourceAccessManager implements ResourceAccessManager, Extensio
         } else {
             CoordinateReferenceSystem crs = GeomHelper.getCRSFromInfo(info);
 
-            intersectsArea = GeomHelper.toJTS(accessInfo.getArea());
+            intersectsArea = GeomHelper.toJTS(accessInfo.getAreaWkb());
             intersectsArea = GeomHelper.reprojectGeometry(intersectsArea, crs);
 
-            clipArea = GeomHelper.toJTS(accessInfo.getClipArea());
+            clipArea = GeomHelper.toJTS(accessInfo.getClipAreaWkb());
             clipArea = GeomHelper.reprojectGeometry(clipArea, crs);
         }
         CatalogMode catalogMode = getCatalogMode(accessInfo, resultLimits);
@@ -25,8 +25,12 @@ import org.locationtech.jts.geom.Geometry;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -137,13 +141,13 @@ class ContainerLimitResolver {
     ProcessingResult resolveResourceInGroupLimits() {
         Map<String, AccessInfo> publishedAccessByRole = new HashMap<>();
         Collection<? extends GrantedAuthority> authorities = authentication.getAuthorities();
-        for (GrantedAuthority authority : authorities) {
-            AccessRequest filter = ruleFilterByRole(authority, workspace, layer, callerIp);
-            if (filter == null) continue;
-            AccessInfo accessInfo = ruleService.getAccessInfo(filter);
-            if (accessInfo != null && !isDeny(accessInfo))
-                publishedAccessByRole.put(authority.getAuthority(), accessInfo);
-        }
+        Map<String, AccessInfo> accessByRole =
+                resolveAccessByRole(List.of(new LayerName(workspace, layer)), authorities).get(0);
+        accessByRole.forEach(
+                (role, accessInfo) -> {
+                    if (accessInfo != null && !isDeny(accessInfo))
+                        publishedAccessByRole.put(role, accessInfo);
+                });
         // retrieve the AccessInfo grouped by role
         ListMultimap<String, AccessInfo> groupsByRoleAccess = collectContainersAccessInfoByRole();
         // first we restrict the access
@@ -303,8 +307,8 @@ class ContainerLimitResolver {
             AccessInfo resAccessInfo,
             List<AccessInfo> groupsAccessInfo,
             ListMultimap<RestrictionType, ProcessingResult> multiMap) {
-        Geometry resIntersectArea = GeomHelper.toJTS(resAccessInfo.getArea());
-        Geometry resClipArea = GeomHelper.toJTS(resAccessInfo.getClipArea());
+        Geometry resIntersectArea = GeomHelper.toJTS(resAccessInfo.getAreaWkb());
+        Geometry resClipArea = GeomHelper.toJTS(resAccessInfo.getClipAreaWkb());
         CatalogMode catalogMode = resAccessInfo.getCatalogMode();
         boolean groupOnIntersect = false;
         boolean groupOnClip = false;
@@ -315,8 +319,8 @@ class ContainerLimitResolver {
             for (int i = 0; i < groupsAccessInfo.size(); i++) {
                 AccessInfo accessInfo = groupsAccessInfo.get(i);
                 catalogMode = AccessInfoUtils.getStricter(catalogMode, accessInfo.getCatalogMode());
-                org.geolatte.geom.Geometry<?> allowedArea = accessInfo.getArea();
-                org.geolatte.geom.Geometry<?> clipAllowedArea = accessInfo.getClipArea();
+                byte[] allowedArea = accessInfo.getAreaWkb();
+                byte[] clipAllowedArea = accessInfo.getClipAreaWkb();
                 if (!groupOnIntersect) groupOnIntersect = allowedArea != null;
                 if (!groupOnClip) groupOnClip = clipAllowedArea != null;
                 Geometry area = GeomHelper.toJTS(allowedArea);
@@ -374,26 +378,19 @@ class ContainerLimitResolver {
             Collection<LayerGroupContainmentCache.LayerGroupSummary> summaries,
             Collection<? extends GrantedAuthority> authorities,
             ListMultimap<String, AccessInfo> groupAccessInfoByRole) {
+        List<LayerName> layers = new ArrayList<>();
         for (LayerGroupContainmentCache.LayerGroupSummary summary : summaries) {
             LayerGroupInfo.Mode mode = summary.getMode();
             if (!mode.equals(LayerGroupInfo.Mode.OPAQUE_CONTAINER)) {
-                String layer = summary.getName();
-                String workspace = summary.getWorkspace();
-                // temporary map to do additional checks before adding access info
-                // to multimap.
-                Map<String, AccessInfo> map = new HashMap<>(authorities.size());
-                for (GrantedAuthority authority : authorities) {
-                    AccessRequest filter = ruleFilterByRole(authority, workspace, layer, callerIp);
-                    if (filter == null) continue;
-                    AccessInfo accessInfo = ruleService.getAccessInfo(filter);
-                    if (!isDeny(accessInfo)) {
-                        map.put(authority.getAuthority(), accessInfo);
-                    }
-                }
-
-                map.keySet().forEach(k -> groupAccessInfoByRole.put(k, map.get(k)));
+                layers.add(new LayerName(summary.getWorkspace(), summary.getName()));
             }
         }
+        for (Map<String, AccessInfo> accessByRole : resolveAccessByRole(layers, authorities)) {
+            accessByRole.forEach(
+                    (role, accessInfo) -> {
+                        if (!isDeny(accessInfo)) groupAccessInfoByRole.put(role, accessInfo);
+                    });
+        }
     }
 
     // collects group AccessInfo by Role (when layer group is requested)
@@ -401,58 +398,94 @@ class ContainerLimitResolver {
             List<LayerGroupInfo> groupList,
             Authentication user,
             ListMultimap<String, AccessInfo> groupAccessInfoByRole) {
+        List<LayerName> groups = new ArrayList<>();
         for (LayerGroupInfo group : groupList) {
             String[] nameParts = group.prefixedName().split(":");
-            String layer = null;
-            String workspace = null;
             if (nameParts.length == 1) {
-                layer = nameParts[0];
+                groups.add(new LayerName(null, nameParts[0]));
             } else {
-                workspace = nameParts[0];
-                layer = nameParts[1];
-            }
-            if (!isUserAllowed(layer, workspace)) {
-                addAccessInfoByRole(groupAccessInfoByRole, user.getAuthorities(), layer, workspace);
+                groups.add(new LayerName(nameParts[0], nameParts[1]));
             }
         }
+        List<LayerName> restricted = new ArrayList<>();
+        List<Boolean> allowed = areUserAllowed(groups);
+        for (int i = 0; i < groups.size(); i++) {
+            if (!allowed.get(i)) restricted.add(groups.get(i));
+        }
+        for (Map<String, AccessInfo> accessByRole :
+                resolveAccessByRole(restricted, user.getAuthorities())) {
+            // we have at least one allow. No limits will be taken in consideration.
+            accessByRole.forEach(groupAccessInfoByRole::put);
+        }
     }
 
-    private boolean isUserAllowed(String layer, String workspace) {
-        if (!configuration.isUseRolesToFilter() || configuration.getAcceptedRoles().isEmpty()) {
-            // if this query result in allowing the user no need to go on with the
-            // limit enlargement/restriction for this group.
+    /**
+     * @return for each layer group, whether the user is allowed to access it entirely
+     */
+    private List<Boolean> areUserAllowed(List<LayerName> groups) {
+        if (configuration.isUseRolesToFilter() && !configuration.getAcceptedRoles().isEmpty()) {
+            return Collections.nCopies(groups.size(), Boolean.FALSE);
+        }
+        // if this query result in allowing the user no need to go on with the
+        // limit enlargement/restriction for this group.
+        List<AccessRequest> filters = new ArrayList<>(groups.size());
+        for (LayerName group : groups) {
             AccessRequestBuilder builder = new AccessRequestBuilder(configuration);
-            AccessRequest filter =
+            filters.add(
                     builder.user(authentication)
                             .ipAddress(callerIp)
-                            .workspace(workspace)
-                            .layer(layer)
+                            .workspace(group.workspace)
+                            .layer(group.layer)
                             .request(Dispatcher.REQUEST.get())
-                            .build();
-            AccessInfo accessInfo = ruleService.getAccessInfo(filter);
-            LOGGER.log(
-                    Level.FINE,
-                    () ->
-                            "User allowed for the entire layer group. No limit processing is needed.");
-            return isAllow(accessInfo)
-                    && accessInfo.getArea() == null
-                    && accessInfo.getClipArea() == null;
+                            .build());
         }
-        return false;
+        List<Boolean> allowed = new ArrayList<>(groups.size());
+        for (AccessInfo accessInfo : ruleService.getAccessInfos(filters)) {
+            boolean userAllowed =
+                    isAllow(accessInfo)
+                            && accessInfo.getArea() == null
+                            && accessInfo.getClipArea() == null;
+            if (userAllowed) {
+                LOGGER.log(
+                        Level.FINE,
+                        () ->
+                                "User allowed for the entire layer group. No limit processing is needed.");
+            }
+            allowed.add(userAllowed);
+        }
+        return allowed;
     }
 
-    private void addAccessInfoByRole(
-            ListMultimap<String, AccessInfo> multimap,
-            Collection<? extends GrantedAuthority> authorities,
-            String layer,
-            String workspace) {
-        for (GrantedAuthority authority : authorities) {
-            AccessRequest filter = ruleFilterByRole(authority, workspace, layer, callerIp);
-            if (filter == null) continue;
-            AccessInfo accessInfo = ruleService.getAccessInfo(filter);
-            // we have at least one allow. No limits will be taken in consideration.
-            multimap.put(authority.getAuthority(), accessInfo);
+    /**
+     * Resolves the access info of each role for each layer, requesting them all at once instead of
+     * one after the other.
+     *
+     * @return for each layer, the access info by role name, without the roles filtered out by the
+     *     configuration
+     */
+    private List<Map<String, AccessInfo>> resolveAccessByRole(
+            List<LayerName> layers, Collection<? extends GrantedAuthority> authorities) {
+        List<AccessRequest> filters = new ArrayList<>();
+        List<List<String>> rolesByLayer = new ArrayList<>(layers.size());
+        for (LayerName published : layers) {
+            List<String> roles = new ArrayList<>();
+            for (GrantedAuthority authority : authorities) {
+                AccessRequest filter =
+                        ruleFilterByRole(authority, published.workspace, published.layer, callerIp);
+                if (filter == null) continue;
+                filters.add(filter);
+                roles.add(authority.getAuthority());
+            }
+            rolesByLayer.add(roles);
         }
+        Iterator<AccessInfo> accessInfos = ruleService.getAccessInfos(filters).iterator();
+        List<Map<String, AccessInfo>> result = new ArrayList<>(layers.size());
+        for (List<String> roles : rolesByLayer) {
+            Map<String, AccessInfo> accessByRole = new LinkedHashMap<>();
+            roles.forEach(role -> accessByRole.put(role, accessInfos.next()));
+            result.add(accessByRole);
+        }
+        return result;
     }
 
     private boolean isAllow(AccessInfo accessInfo) {
@@ -463,6 +496,17 @@ class ContainerLimitResolver {
         return accessInfo != null && accessInfo.getGrant().equals(GrantType.DENY);
     }
 
+    /** Workspace and name of a layer or layer group */
+    private static class LayerName {
+        private final String workspace;
+        private final String layer;
+
+        LayerName(String workspace, String layer) {
+            this.workspace = workspace;
+            this.layer = layer;
+        }
+    }
+
     /** Data class meant to return a result for the whole limit resolution. */
     static class ProcessingResult {
         private Geometry intersectArea;
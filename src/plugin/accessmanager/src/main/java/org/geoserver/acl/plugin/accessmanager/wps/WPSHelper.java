@@ -24,6 +24,8 @@ import org.springframework.beans.factory.NoSuchBeanDefinitionException;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
 
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
@@ -82,14 +84,19 @@ public class WPSHelper implements ApplicationContextAware {
 
         List<AccessInfo> procAccessInfo = new LinkedList<>();
 
+        // request them all at once rather than waiting for each before the next
+        List<AccessRequest> requests = new ArrayList<>(procNames.size());
         for (String procName : procNames) {
             LOGGER.fine("Retrieving AccessInfo for proc " + procName);
-            AccessRequest request = accessRequest.withSubfield(procName);
+            requests.add(accessRequest.withSubfield(procName));
+        }
+        Iterator<AccessInfo> accessInfos = aclAuthService.getAccessInfos(requests).iterator();
 
-            AccessInfo accessInfo = aclAuthService.getAccessInfo(request);
+        for (String procName : procNames) {
+            AccessInfo accessInfo = accessInfos.next();
             if (accessInfo.getGrant() == GrantType.DENY) {
                 // shortcut: if at least one process is not allowed for current resource, do not
-                // evaluate the other procs
+                // consider the other procs
                 LOGGER.fine("Process " + procName + " not allowed to operate on layer");
                 return new WPSAccessInfo(AccessInfo.DENY_ALL, null, null);
             }
@@ -124,8 +131,8 @@ public class WPSHelper implements ApplicationContextAware {
                 return new WPSAccessInfo(AccessInfo.DENY_ALL); // shortcut
             }
 
-            Geometry area = GeomHelper.toJTS(accessInfo.getArea());
-            Geometry clip = GeomHelper.toJTS(accessInfo.getClipArea());
+            Geometry area = GeomHelper.toJTS(accessInfo.getAreaWkb());
+            Geometry clip = GeomHelper.toJTS(accessInfo.getClipAreaWkb());
 
             if (ret == null) { // get first entry as base entry
                 ret = accessInfo;
@@ -6,6 +6,7 @@
  */
 package org.geoserver.acl.plugin.support;
 
+import org.geoserver.acl.domain.rules.LazyGeometry;
 import org.geoserver.catalog.CatalogInfo;
 import org.geoserver.catalog.LayerGroupInfo;
 import org.geoserver.catalog.LayerInfo;
@@ -64,6 +65,11 @@ public class GeomHelper {
         return geolatteGeom == null ? null : org.geolatte.geom.jts.JTS.to(geolatteGeom);
     }
 
+    /** Decodes the (E)WKB straight to JTS, without going through geolatte */
+    public static Geometry toJTS(byte[] wkb) {
+        return wkb == null ? null : LazyGeometry.fromWkb(wkb).toJTS();
+    }
+
     /**
      * Reproject and intersects two geometries.
      *
@@ -0,0 +1,356 @@
+/* (c) 2023  Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.acl.plugin.client;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+import org.geoserver.acl.api.client.integration.RuleChangeFeedClient;
+import org.geoserver.acl.api.client.integration.RuleChangeFeedClient.Changes;
+import org.geoserver.acl.api.client.integration.RuleChangeFeedClient.ChangesGoneException;
+import org.geoserver.acl.authorization.AccessInfo;
+import org.geoserver.acl.authorization.AccessRequest;
+import org.geoserver.acl.authorization.AdminAccessInfo;
+import org.geoserver.acl.authorization.AdminAccessRequest;
+import org.geoserver.acl.authorization.AuthorizationService;
+import org.geoserver.acl.authorization.AuthorizationServiceImpl;
+import org.geoserver.acl.domain.adminrules.AdminRuleAdminServiceImpl;
+import org.geoserver.acl.domain.adminrules.AdminRuleEvent;
+import org.geoserver.acl.domain.adminrules.AdminRuleRepository;
+import org.geoserver.acl.domain.rules.Rule;
+import org.geoserver.acl.domain.rules.RuleAdminServiceImpl;
+import org.geoserver.acl.domain.rules.RuleChange;
+import org.geoserver.acl.domain.rules.RuleChange.RuleType;
+import org.geoserver.acl.domain.rules.RuleEvent;
+import org.geoserver.acl.domain.rules.RuleRepository;
+import org.geoserver.acl.integration.memory.MemoryAdminRuleRepository;
+import org.geoserver.acl.integration.memory.MemoryRuleRepository;
+import org.geoserver.acl.integration.memory.RulesetSnapshot;
+
+import java.io.Closeable;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Local copy of the rules and admin rules of a remote ACL service, for GeoServer to evaluate the
+ * access requests in process, without a round trip to the service.
+ *
+ * <p>The replica is loaded with a bulk download of the rule sets, and kept current by a background
+ * thread following the service's {@code /rules/changes} feed with long-polling requests. The rules
+ * referred to by each batch of changes are fetched again in bulk, with their layer details, and
+ * applied in a single write to the replica, and the whole rule sets reloaded if the feed can't be
+ * followed anymore. While the service can't be reached, or the rule sets are being reloaded, the
+ * replica keeps serving the last known rules, see {@link #getLastSync()} and {@link
+ * #isReloadNeeded()}.
+ *
+ * <p>With a {@link #setSnapshotFile snapshot file}, the replica is saved to it after loading and
+ * every {@link #getSnapshotInterval() snapshotInterval} while it changes, and restored from it at
+ * startup, to serve the access requests right away and catch up from the snapshot's change sequence
+ * instead of downloading the whole rule sets again.
+ *
+ * <p>{@link #getAuthorizationService()} evaluates the access requests against the replica, and
+ * fails with an {@link IllegalStateException} until the first load succeeded.
+ *
+ * @since 1.0
+ */
+@Slf4j
+public class RulesetReplica implements Closeable {
+
+    private final RuleRepository sourceRules;
+    private final AdminRuleRepository sourceAdminRules;
+    private final RuleChangeFeedClient changeFeed;
+
+    private final MemoryRuleRepository rules = new MemoryRuleRepository();
+    private final MemoryAdminRuleRepository adminRules = new MemoryAdminRuleRepository();
+    private final AuthorizationService localService;
+    private final @Getter AuthorizationService authorizationService;
+
+    /** How long each request to the changes feed waits for a change */
+    private @Getter Duration pollWait = Duration.ofSeconds(20);
+
+    /** Delay before retrying after a failed request */
+    private @Getter Duration retryDelay = Duration.ofSeconds(5);
+
+    /** Maximum number of changes requested at once */
+    private @Getter int batchSize = 1000;
+
+    /** Optional file to restore the replica from at startup, and to save it to */
+    private @Getter Path snapshotFile;
+
+    /** Minimum time between two saves of the {@link #snapshotFile} */
+    private @Getter Duration snapshotInterval = Duration.ofMinutes(1);
+
+    /** Time the replica was last saved to the {@link #snapshotFile} */
+    private Instant lastSnapshot = Instant.EPOCH;
+
+    /** Sequence number of the last applied change, negative until loaded */
+    private volatile long sequence = -1;
+
+    /** Whether the changes after {@link #sequence} are gone and the rule sets must be reloaded */
+    private volatile boolean reloadNeeded;
+
+    /** Time of the last successful request to the service, {@code null} until loaded */
+    private volatile @Getter Instant lastSync;
+
+    private volatile boolean running;
+    private Thread follower;
+
+    public RulesetReplica(
+            @NonNull RuleRepository sourceRules,
+            @NonNull AdminRuleRepository sourceAdminRules,
+            @NonNull RuleChangeFeedClient changeFeed) {
+        this.sourceRules = sourceRules;
+        this.sourceAdminRules = sourceAdminRules;
+        this.changeFeed = changeFeed;
+        this.localService =
+                new AuthorizationServiceImpl(
+                        new AdminRuleAdminServiceImpl(adminRules), new RuleAdminServiceImpl(rules));
+        this.authorizationService = new LoadedAuthorizationService();
+    }
+
+    public void setPollWait(@NonNull Duration pollWait) {
+        this.pollWait = pollWait;
+    }
+
+    public void setRetryDelay(@NonNull Duration retryDelay) {
+        this.retryDelay = retryDelay;
+    }
+
+    public void setBatchSize(int batchSize) {
+        if (batchSize < 1) throw new IllegalArgumentException("batchSize must be > 0");
+        this.batchSize = batchSize;
+    }
+
+    public void setSnapshotFile(Path snapshotFile) {
+        this.snapshotFile = snapshotFile;
+    }
+
+    public void setSnapshotInterval(@NonNull Duration snapshotInterval) {
+        this.snapshotInterval = snapshotInterval;
+    }
+
+    /**
+     * Restores the rule sets from the snapshot file, or loads them from the service, and starts
+     * following the changes feed in the background. A failed load is logged and retried by the
+     * background thread, so that GeoServer can start while the ACL service is down.
+     */
+    public synchronized void start() {
+        if (running) return;
+        running = true;
+        if (!restoreSnapshot()) {
+            try {
+                load();
+            } catch (RuntimeException e) {
+                log.error("Error loading the ACL rules, will retry in {}", retryDelay, e);
+            }
+        }
+        follower = new Thread(this::follow, "acl-ruleset-replica");
+        follower.setDaemon(true);
+        follower.start();
+    }
+
+    @Override
+    public synchronized void close() {
+        running = false;
+        if (null != follower) {
+            follower.interrupt();
+            follower = null;
+        }
+    }
+
+    /**
+     * @return whether the rule sets were loaded
+     */
+    public boolean isLoaded() {
+        return sequence >= 0;
+    }
+
+    /**
+     * @return whether the changes feed can't be followed from the replica's sequence anymore, and
+     *     the rule sets are to be reloaded. The replica keeps serving the rules it has meanwhile.
+     */
+    public boolean isReloadNeeded() {
+        return reloadNeeded;
+    }
+
+    /**
+     * @return the sequence number of the last applied change, negative if not loaded yet
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    private void follow() {
+        while (running) {
+            try {
+                sync();
+            } catch (RuntimeException e) {
+                if (!running) break;
+                log.warn(
+                        "Error synchronizing the ACL rules, retrying in {}: {}",
+                        retryDelay,
+                        e.getMessage());
+                sleep(retryDelay);
+            }
+        }
+    }
+
+    /**
+     * Loads the rule sets if not loaded yet or {@link #isReloadNeeded() reload is needed}, or
+     * applies the next changes otherwise
+     */
+    void sync() {
+        if (!isLoaded() || reloadNeeded) {
+            load();
+            return;
+        }
+        try {
+            poll();
+        } catch (ChangesGoneException gone) {
+            log.info("ACL rule changes after {} are gone, reloading the rules", sequence);
+            reloadNeeded = true;
+        }
+    }
+
+    /**
+     * Replaces the replica contents by the current remote rule sets. They're downloaded before the
+     * replica is touched, which keeps serving its current rules if the download fails.
+     */
+    void load() {
+        // taken before the download, changes made meanwhile are replayed by the next poll
+        final long latest = changeFeed.lastSequence();
+        RulesetSnapshot snapshot = RulesetSnapshot.of(sourceRules, sourceAdminRules, latest);
+        restore(snapshot);
+        reloadNeeded = false;
+        lastSync = Instant.now();
+        log.info(
+                "Loaded {} ACL rules and {} admin rules, at change {}",
+                snapshot.getRules().size(),
+                snapshot.getAdminRules().size(),
+                latest);
+        saveSnapshot(snapshot);
+    }
+
+    /**
+     * Restores the replica from the {@link #snapshotFile}, if there's one, to be followed from the
+     * snapshot's change sequence. The service is not contacted, if the changes since the snapshot
+     * are gone the rule sets are reloaded by the background thread.
+     *
+     * @return whether the replica was restored
+     */
+    boolean restoreSnapshot() {
+        if (null == snapshotFile) return false;
+        try {
+            Optional<RulesetSnapshot> saved = RulesetSnapshot.load(snapshotFile);
+            if (saved.isEmpty()) return false;
+            RulesetSnapshot snapshot = saved.get();
+            restore(snapshot);
+            lastSync = snapshot.getTimestamp();
+            log.info(
+                    "Restored {} ACL rules and {} admin rules from {}, at change {}",
+                    snapshot.getRules().size(),
+                    snapshot.getAdminRules().size(),
+                    snapshotFile,
+                    snapshot.getSequence());
+            return true;
+        } catch (RuntimeException e) {
+            log.warn("Error restoring the ACL rules from {}: {}", snapshotFile, e.getMessage());
+            return false;
+        }
+    }
+
+    private void restore(RulesetSnapshot snapshot) {
+        rules.restore(snapshot);
+        adminRules.restore(snapshot);
+        sequence = snapshot.getSequence();
+    }
+
+    private void saveSnapshot(RulesetSnapshot snapshot) {
+        if (null == snapshotFile) return;
+        try {
+            snapshot.save(snapshotFile);
+            lastSnapshot = Instant.now();
+        } catch (RuntimeException e) {
+            log.warn("Error saving the ACL rules to {}: {}", snapshotFile, e.getMessage());
+        }
+    }
+
+    /** Applies the changes made after the last applied one, waiting up to pollWait for them */
+    void poll() {
+        final int wait = (int) Math.min(60, pollWait.toSeconds());
+        Changes changes = changeFeed.findSince(sequence, batchSize, wait);
+        apply(changes.getChanges());
+        sequence = changes.getSequence();
+        lastSync = Instant.now();
+        if (null != snapshotFile
+                && !changes.getChanges().isEmpty()
+                && lastSnapshot.plus(snapshotInterval).isBefore(lastSync)) {
+            // the replica changes only in this thread, the snapshot is consistent with sequence
+            saveSnapshot(RulesetSnapshot.of(rules, adminRules, sequence));
+        }
+    }
+
+    private void apply(List<RuleChange> changes) {
+        if (changes.isEmpty()) return;
+        Set<String> ruleIds = new HashSet<>();
+        Set<String> adminRuleIds = new HashSet<>();
+        for (RuleChange change : changes) {
+            Set<String> target = change.getRuleType() == RuleType.RULE ? ruleIds : adminRuleIds;
+            target.addAll(change.getRuleIds());
+        }
+        if (!ruleIds.isEmpty()) {
+            rules.replicate(RuleEvent.updated(ruleIds), sourceRules);
+        }
+        if (!adminRuleIds.isEmpty()) {
+            adminRules.replicate(AdminRuleEvent.updated(adminRuleIds), sourceAdminRules);
+        }
+        log.debug(
+                "Applied {} ACL rule changes, {} rules and {} admin rules refreshed",
+                changes.size(),
+                ruleIds.size(),
+                adminRuleIds.size());
+    }
+
+    private void sleep(Duration delay) {
+        try {
+            Thread.sleep(delay.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    /** Delegates to the local service once the replica is loaded */
+    private class LoadedAuthorizationService implements AuthorizationService {
+
+        private AuthorizationService service() {
+            if (!isLoaded()) {
+                throw new IllegalStateException("The ACL rules have not been loaded yet");
+            }
+            return localService;
+        }
+
+        @Override
+        public AccessInfo getAccessInfo(AccessRequest request) {
+            return service().getAccessInfo(request);
+        }
+
+        @Override
+        public AdminAccessInfo getAdminAuthorization(AdminAccessRequest request) {
+            return service().getAdminAuthorization(request);
+        }
+
+        @Override
+        public List<Rule> getMatchingRules(AccessRequest request) {
+            return service().getMatchingRules(request);
+        }
+    }
+}
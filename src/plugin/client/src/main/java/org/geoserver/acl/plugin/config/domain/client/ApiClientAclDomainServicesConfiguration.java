@@ -11,6 +11,8 @@ import org.geoserver.acl.api.client.AuthorizationApi;
 import org.geoserver.acl.api.client.RulesApi;
 import org.geoserver.acl.api.client.config.ApiClientConfiguration;
 import org.geoserver.acl.api.client.config.ApiClientProperties;
+import org.geoserver.acl.api.client.config.ApiClientProperties.CircuitBreakerProperties;
+import org.geoserver.acl.api.client.config.ApiClientProperties.LoadBalancerProperties;
 import org.geoserver.acl.api.client.config.AuthorizationServiceClientAdaptorConfiguration;
 import org.geoserver.acl.api.client.config.RepositoryClientAdaptorsConfiguration;
 import org.geoserver.acl.authorization.AuthorizationService;
@@ -21,6 +23,10 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
 import org.springframework.core.env.Environment;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+import java.time.format.DateTimeParseException;
 
 /**
  * {@link Configuration @Configuration} to contribute a GeoSever ACL {@link AuthorizationService}
@@ -34,7 +40,9 @@ import org.springframework.core.env.Environment;
  *
  * <p>{@link RuleAdminServiceConfiguration}, {@link AdminRuleAdminServiceConfiguration}, and {@link
  * AuthorizationServiceClientAdaptorConfiguration} provide the domain services that expect the
- * repositories provided by {@code RepositoryClientAdaptorsConfiguration} as collaborators.
+ * repositories provided by {@code RepositoryClientAdaptorsConfiguration} as collaborators. {@link
+ * ReplicatedAuthorizationServiceConfiguration} replaces the latter by a local evaluation of the
+ * access requests if so configured.
  *
  * <p>The net effect of this {@code @Configuration} class is the {@link ApplicationContext} is set
  * up with GeoServer ACL domain services for managing the ACL rules and admin rules, as well as to
@@ -49,8 +57,8 @@ import org.springframework.core.env.Environment;
     ApiClientConfiguration.class, RepositoryClientAdaptorsConfiguration.class,
     // services from geofence-domain-spring-integration
     RuleAdminServiceConfiguration.class, AdminRuleAdminServiceConfiguration.class,
-    // AuthorizationService using the OpenAPI client backed rule services
-    AuthorizationServiceClientAdaptorConfiguration.class
+    // AuthorizationService delegating to the remote service, or evaluating on a local replica
+    ReplicatedAuthorizationServiceConfiguration.class
 })
 @Slf4j
 public class ApiClientAclDomainServicesConfiguration {
@@ -61,6 +69,8 @@ public class ApiClientAclDomainServicesConfiguration {
         String username = env.getProperty("geoserver.acl.client.username");
         String password = env.getProperty("geoserver.acl.client.password");
         boolean debug = env.getProperty("geoserver.acl.client.debug", Boolean.class, false);
+        boolean preferSmile =
+                env.getProperty("geoserver.acl.client.preferSmile", Boolean.class, true);
 
         log.info("GeoServer Acess Control List server URL: " + basePath);
         ApiClientProperties configProps = new ApiClientProperties();
@@ -68,7 +78,115 @@ public class ApiClientAclDomainServicesConfiguration {
         configProps.setUsername(username);
         configProps.setPassword(password);
         configProps.setDebug(debug);
+        configProps.setPreferSmile(preferSmile);
+
+        configProps.setMaxConnections(
+                env.getProperty(
+                        "geoserver.acl.client.maxConnections",
+                        Integer.class,
+                        configProps.getMaxConnections()));
+        configProps.setMaxConnectionsPerRoute(
+                env.getProperty(
+                        "geoserver.acl.client.maxConnectionsPerRoute",
+                        Integer.class,
+                        configProps.getMaxConnectionsPerRoute()));
+        configProps.setConnectTimeout(
+                duration(env, "connectTimeout", configProps.getConnectTimeout()));
+        configProps.setReadTimeout(duration(env, "readTimeout", configProps.getReadTimeout()));
+        configProps.setConnectionRequestTimeout(
+                duration(
+                        env,
+                        "connectionRequestTimeout",
+                        configProps.getConnectionRequestTimeout()));
+        configProps.setKeepAlive(duration(env, "keepAlive", configProps.getKeepAlive()));
+        configProps.setBufferResponses(
+                env.getProperty("geoserver.acl.client.bufferResponses", Boolean.class, false));
+
+        configProps.setAsyncThreads(
+                env.getProperty(
+                        "geoserver.acl.client.asyncThreads",
+                        Integer.class,
+                        configProps.getAsyncThreads()));
+        configProps.setAsyncQueueCapacity(
+                env.getProperty(
+                        "geoserver.acl.client.asyncQueueCapacity",
+                        Integer.class,
+                        configProps.getAsyncQueueCapacity()));
+        configProps.setPageSize(
+                env.getProperty(
+                        "geoserver.acl.client.pageSize", Integer.class, configProps.getPageSize()));
+        configProps.setPrefetchPages(
+                env.getProperty(
+                        "geoserver.acl.client.prefetchPages",
+                        Boolean.class,
+                        configProps.isPrefetchPages()));
+
+        configProps.setHedgeDelay(duration(env, "hedgeDelay", configProps.getHedgeDelay()));
+        configProps.setMaxHedgePercentage(
+                env.getProperty(
+                        "geoserver.acl.client.maxHedgePercentage",
+                        Integer.class,
+                        configProps.getMaxHedgePercentage()));
+        LoadBalancerProperties loadBalancer = configProps.getLoadBalancer();
+        loadBalancer.setFailureThreshold(
+                env.getProperty(
+                        "geoserver.acl.client.loadBalancer.failureThreshold",
+                        Integer.class,
+                        loadBalancer.getFailureThreshold()));
+        loadBalancer.setEjectDuration(
+                duration(env, "loadBalancer.ejectDuration", loadBalancer.getEjectDuration()));
+
+        CircuitBreakerProperties circuitBreaker = configProps.getCircuitBreaker();
+        circuitBreaker.setEnabled(
+                env.getProperty(
+                        "geoserver.acl.client.circuitBreaker.enabled",
+                        Boolean.class,
+                        circuitBreaker.isEnabled()));
+        circuitBreaker.setFailureThreshold(
+                env.getProperty(
+                        "geoserver.acl.client.circuitBreaker.failureThreshold",
+                        Integer.class,
+                        circuitBreaker.getFailureThreshold()));
+        circuitBreaker.setSlowCallThreshold(
+                duration(
+                        env,
+                        "circuitBreaker.slowCallThreshold",
+                        circuitBreaker.getSlowCallThreshold()));
+        circuitBreaker.setOpenDuration(
+                duration(env, "circuitBreaker.openDuration", circuitBreaker.getOpenDuration()));
+        circuitBreaker.setMaxStaleness(
+                duration(env, "circuitBreaker.maxStaleness", circuitBreaker.getMaxStaleness()));
+        circuitBreaker.setMaxCachedDecisions(
+                env.getProperty(
+                        "geoserver.acl.client.circuitBreaker.maxCachedDecisions",
+                        Long.class,
+                        circuitBreaker.getMaxCachedDecisions()));
+        circuitBreaker.setFailClosed(
+                env.getProperty(
+                        "geoserver.acl.client.circuitBreaker.failClosed",
+                        Boolean.class,
+                        circuitBreaker.isFailClosed()));
 
         return configProps;
     }
+
+    /**
+     * Reads a {@code geoserver.acl.client.*} duration, either as milliseconds or in ISO-8601 format
+     * (e.g. {@code PT30S})
+     */
+    static Duration duration(Environment env, String name, Duration defaultValue) {
+        String key = "geoserver.acl.client." + name;
+        String value = env.getProperty(key);
+        if (!StringUtils.hasText(value)) return defaultValue;
+        value = value.trim();
+        try {
+            return value.matches("\\d+")
+                    ? Duration.ofMillis(Long.parseLong(value))
+                    : Duration.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(
+                    "Invalid duration for " + key + ", expected milliseconds or ISO-8601: " + value,
+                    e);
+        }
+    }
 }
@@ -0,0 +1,106 @@
+/* (c) 2023  Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.acl.plugin.config.domain.client;
+
+import org.geoserver.acl.api.client.config.AuthorizationServiceClientAdaptorConfiguration;
+import org.geoserver.acl.api.client.integration.RuleChangeFeedClient;
+import org.geoserver.acl.authorization.AuthorizationService;
+import org.geoserver.acl.domain.adminrules.AdminRuleRepository;
+import org.geoserver.acl.domain.rules.RuleRepository;
+import org.geoserver.acl.plugin.client.RulesetReplica;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Condition;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.env.Environment;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+import org.springframework.util.StringUtils;
+
+import java.nio.file.Path;
+
+/**
+ * Contributes an {@link AuthorizationService} that evaluates the access requests against a local
+ * {@link RulesetReplica} of the remote rules, when the {@code geoserver.acl.client.replica.enabled}
+ * config property is {@code true}. Otherwise every request is delegated to the remote service, as
+ * configured by {@link AuthorizationServiceClientAdaptorConfiguration}.
+ *
+ * <p>The rules are still administered through the remote service.
+ *
+ * <p>Config properties:
+ *
+ * <ul>
+ *   <li>{@code geoserver.acl.client.replica.enabled}: whether to evaluate locally, defaults to
+ *       {@code false}
+ *   <li>{@code geoserver.acl.client.replica.pollWait}: how long each request to the changes feed
+ *       waits for a change, shorter than {@code geoserver.acl.client.readTimeout}. Defaults to 20
+ *       seconds
+ *   <li>{@code geoserver.acl.client.replica.retryDelay}: delay before retrying after the service
+ *       couldn't be reached, defaults to 5 seconds
+ *   <li>{@code geoserver.acl.client.replica.snapshotFile}: optional file the replica is saved to,
+ *       and restored from at startup to serve requests before catching up with the service
+ *   <li>{@code geoserver.acl.client.replica.snapshotInterval}: minimum time between two saves of
+ *       the snapshot file, defaults to 1 minute
+ * </ul>
+ *
+ * @see ApiClientAclDomainServicesConfiguration
+ */
+@Configuration
+@Conditional(ReplicatedAuthorizationServiceConfiguration.Enabled.class)
+public class ReplicatedAuthorizationServiceConfiguration {
+
+    static final String ENABLED_PROPERTY = "geoserver.acl.client.replica.enabled";
+
+    @Bean(initMethod = "start", destroyMethod = "close")
+    public RulesetReplica aclRulesetReplica(
+            @Qualifier("aclRuleRepositoryClientAdaptor") RuleRepository rules,
+            @Qualifier("aclAdminRuleRepositoryClientAdaptor") AdminRuleRepository adminRules,
+            RuleChangeFeedClient changeFeed,
+            Environment env) {
+
+        RulesetReplica replica = new RulesetReplica(rules, adminRules, changeFeed);
+        replica.setPollWait(
+                ApiClientAclDomainServicesConfiguration.duration(
+                        env, "replica.pollWait", replica.getPollWait()));
+        replica.setRetryDelay(
+                ApiClientAclDomainServicesConfiguration.duration(
+                        env, "replica.retryDelay", replica.getRetryDelay()));
+        String snapshotFile = env.getProperty("geoserver.acl.client.replica.snapshotFile");
+        if (StringUtils.hasText(snapshotFile)) {
+            replica.setSnapshotFile(Path.of(snapshotFile));
+        }
+        replica.setSnapshotInterval(
+                ApiClientAclDomainServicesConfiguration.duration(
+                        env, "replica.snapshotInterval", replica.getSnapshotInterval()));
+        return replica;
+    }
+
+    @Bean
+    public AuthorizationService aclReplicatedAuthorizationService(RulesetReplica replica) {
+        return replica.getAuthorizationService();
+    }
+
+    static class Enabled implements Condition {
+        @Override
+        public boolean matches(ConditionContext context, AnnotatedTypeMetadata metadata) {
+            return context.getEnvironment().getProperty(ENABLED_PROPERTY, Boolean.class, false);
+        }
+    }
+
+    /** Delegates the access requests to the remote service unless the replica is enabled */
+    @Configuration
+    @Conditional(Disabled.class)
+    @Import(AuthorizationServiceClientAdaptorConfiguration.class)
+    static class Remote {}
+
+    static class Disabled implements Condition {
+        @Override
+        public boolean matches(ConditionContext context, AnnotatedTypeMetadata metadata) {
+            return !new Enabled().matches(context, metadata);
+        }
+    }
+}
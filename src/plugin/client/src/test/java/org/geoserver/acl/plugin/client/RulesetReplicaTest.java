@@ -0,0 +1,168 @@
+/* (c) 2023  Open Source Geospatial Foundation - all rights reserved
+ * This code is licensed under the GPL 2.0 license, available at the root
+ * application directory.
+ */
+package org.geoserver.acl.plugin.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.geoserver.acl.api.client.integration.RuleChangeFeedClient;
+import org.geoserver.acl.api.client.integration.RuleChangeFeedClient.Changes;
+import org.geoserver.acl.api.client.integration.RuleChangeFeedClient.ChangesGoneException;
+import org.geoserver.acl.authorization.AccessRequest;
+import org.geoserver.acl.authorization.AuthorizationService;
+import org.geoserver.acl.domain.rules.GrantType;
+import org.geoserver.acl.domain.rules.InsertPosition;
+import org.geoserver.acl.domain.rules.Rule;
+import org.geoserver.acl.domain.rules.RuleChange;
+import org.geoserver.acl.domain.rules.RuleChange.RuleType;
+import org.geoserver.acl.domain.rules.RuleEvent.EventType;
+import org.geoserver.acl.integration.memory.MemoryAdminRuleRepository;
+import org.geoserver.acl.integration.memory.MemoryRuleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+
+class RulesetReplicaTest {
+
+    private MemoryRuleRepository remoteRules;
+    private RuleChangeFeedClient changeFeed;
+    private RulesetReplica replica;
+
+    private AccessRequest request =
+            AccessRequest.builder().service("WMS").workspace("ws").layer("l1").build();
+
+    @BeforeEach
+    void setUp() {
+        remoteRules = new MemoryRuleRepository();
+        changeFeed = mock(RuleChangeFeedClient.class);
+        replica = new RulesetReplica(remoteRules, new MemoryAdminRuleRepository(), changeFeed);
+    }
+
+    @Test
+    void notLoaded() {
+        AuthorizationService service = replica.getAuthorizationService();
+        assertThat(replica.isLoaded()).isFalse();
+        assertThatThrownBy(() -> service.getMatchingRules(request))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void load() {
+        Rule rule = remoteRules.create(Rule.allow().withLayer("l1"), InsertPosition.FROM_START);
+        when(changeFeed.lastSequence()).thenReturn(10L);
+
+        replica.load();
+
+        assertThat(replica.isLoaded()).isTrue();
+        assertThat(replica.getSequence()).isEqualTo(10L);
+        assertThat(replica.getLastSync()).isNotNull();
+        assertThat(replica.getAuthorizationService().getMatchingRules(request))
+                .containsExactly(rule);
+    }
+
+    @Test
+    void pollAppliesChanges() {
+        Rule rule = remoteRules.create(Rule.allow().withLayer("l1"), InsertPosition.FROM_START);
+        when(changeFeed.lastSequence()).thenReturn(10L);
+        replica.load();
+
+        Rule added = remoteRules.create(Rule.deny().withLayer("l1"), InsertPosition.FROM_END);
+        remoteRules.deleteById(rule.getId());
+        when(changeFeed.findSince(anyLong(), anyInt(), anyInt()))
+                .thenReturn(
+                        new Changes(
+                                12L,
+                                List.of(
+                                        change(11, EventType.CREATED, added.getId()),
+                                        change(12, EventType.DELETED, rule.getId()))));
+        replica.poll();
+
+        assertThat(replica.getSequence()).isEqualTo(12L);
+        assertThat(replica.getAuthorizationService().getMatchingRules(request))
+                .containsExactly(added);
+    }
+
+    @Test
+    void changesGone() {
+        when(changeFeed.lastSequence()).thenReturn(10L);
+        replica.load();
+        when(changeFeed.findSince(anyLong(), anyInt(), anyInt()))
+                .thenThrow(new ChangesGoneException(100L));
+
+        assertThatThrownBy(replica::poll).isInstanceOf(ChangesGoneException.class);
+        // the replica keeps serving the rules it has until reloaded
+        assertThat(replica.getAuthorizationService().getMatchingRules(request)).isEmpty();
+    }
+
+    @Test
+    void keepsServingUntilReloadedAfterChangesGone() {
+        Rule rule = remoteRules.create(Rule.allow().withLayer("l1"), InsertPosition.FROM_START);
+        when(changeFeed.lastSequence()).thenReturn(10L);
+        replica.sync();
+        when(changeFeed.findSince(anyLong(), anyInt(), anyInt()))
+                .thenThrow(new ChangesGoneException(100L));
+
+        replica.sync();
+        assertThat(replica.isReloadNeeded()).isTrue();
+        assertThat(replica.isLoaded()).isTrue();
+        assertThat(replica.getSequence()).isEqualTo(10L);
+        AuthorizationService service = replica.getAuthorizationService();
+        assertThat(service.getMatchingRules(request)).containsExactly(rule);
+
+        // the service is down, the reload fails and the current rules are still served
+        when(changeFeed.lastSequence()).thenThrow(new ResourceAccessException("down"));
+        assertThatThrownBy(replica::sync).isInstanceOf(ResourceAccessException.class);
+        assertThat(replica.isReloadNeeded()).isTrue();
+        assertThat(service.getMatchingRules(request)).containsExactly(rule);
+        assertThat(service.getAccessInfo(request).getGrant()).isEqualTo(GrantType.ALLOW);
+
+        // back up, reloaded
+        Rule added = remoteRules.create(Rule.deny().withLayer("l1"), InsertPosition.FROM_END);
+        doReturn(200L).when(changeFeed).lastSequence();
+        replica.sync();
+        assertThat(replica.isReloadNeeded()).isFalse();
+        assertThat(replica.getSequence()).isEqualTo(200L);
+        assertThat(service.getMatchingRules(request)).containsExactly(rule, added);
+    }
+
+    @Test
+    void restoresFromTheSnapshotFile(@TempDir Path directory) {
+        Rule rule = remoteRules.create(Rule.allow().withLayer("l1"), InsertPosition.FROM_START);
+        when(changeFeed.lastSequence()).thenReturn(10L);
+        Path file = directory.resolve("replica.bin");
+        replica.setSnapshotFile(file);
+        assertThat(replica.restoreSnapshot()).isFalse();
+        replica.load();
+        assertThat(file).exists();
+
+        RulesetReplica restarted =
+                new RulesetReplica(remoteRules, new MemoryAdminRuleRepository(), changeFeed);
+        restarted.setSnapshotFile(file);
+        assertThat(restarted.restoreSnapshot()).isTrue();
+
+        // resumes from the snapshot's sequence without reloading
+        verify(changeFeed, times(1)).lastSequence();
+        assertThat(restarted.getSequence()).isEqualTo(10L);
+        assertThat(restarted.getAuthorizationService().getMatchingRules(request))
+                .containsExactly(rule);
+    }
+
+    private RuleChange change(long sequence, EventType type, String ruleId) {
+        return new RuleChange(sequence, RuleType.RULE, type, Set.of(ruleId), Instant.now());
+    }
+}
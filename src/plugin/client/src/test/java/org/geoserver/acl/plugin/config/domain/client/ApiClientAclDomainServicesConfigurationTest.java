@@ -2,13 +2,19 @@ package org.geoserver.acl.plugin.config.domain.client;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import org.geoserver.acl.api.client.config.ApiClientConnectionPool;
+import org.geoserver.acl.api.client.config.ApiClientProperties;
 import org.geoserver.acl.api.client.integration.AuthorizationServiceClientAdaptor;
+import org.geoserver.acl.api.client.integration.CircuitBreaker;
+import org.geoserver.acl.api.client.integration.CircuitBreakingAuthorizationService;
 import org.geoserver.acl.authorization.AuthorizationService;
 import org.geoserver.acl.domain.adminrules.AdminRuleAdminService;
 import org.geoserver.acl.domain.rules.RuleAdminService;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.runner.ApplicationContextRunner;
 
+import java.time.Duration;
+
 class ApiClientAclDomainServicesConfigurationTest {
 
     ApplicationContextRunner runner =
@@ -39,8 +45,68 @@ class ApiClientAclDomainServicesConfigurationTest {
                             assertThat(context).hasSingleBean(RuleAdminService.class);
                             assertThat(context).hasSingleBean(AdminRuleAdminService.class);
                             assertThat(context).hasSingleBean(AuthorizationService.class);
+                            assertThat(context)
+                                    .hasSingleBean(CircuitBreakingAuthorizationService.class);
+                        });
+    }
+
+    @Test
+    void testCircuitBreakerConfigProperties() {
+        runner.withPropertyValues(
+                        "geoserver.acl.client.basePath=http://localhost:8181/acl/api",
+                        "geoserver.acl.client.circuitBreaker.failureThreshold=3",
+                        "geoserver.acl.client.circuitBreaker.openDuration=PT30S",
+                        "geoserver.acl.client.circuitBreaker.maxStaleness=60000",
+                        "geoserver.acl.client.circuitBreaker.failClosed=false")
+                .run(
+                        context -> {
+                            assertThat(context).hasNotFailed();
+                            CircuitBreakingAuthorizationService service =
+                                    context.getBean(CircuitBreakingAuthorizationService.class);
+                            assertThat(service.getMaxStaleness()).isEqualTo(Duration.ofMinutes(1));
+                            assertThat(service.isFailClosed()).isFalse();
+                            CircuitBreaker circuitBreaker = service.getCircuitBreaker();
+                            assertThat(circuitBreaker.getFailureThreshold()).isEqualTo(3);
+                            assertThat(circuitBreaker.getOpenDuration())
+                                    .isEqualTo(Duration.ofSeconds(30));
+                        });
+    }
+
+    @Test
+    void testCircuitBreakerDisabled() {
+        runner.withPropertyValues(
+                        "geoserver.acl.client.basePath=http://localhost:8181/acl/api",
+                        "geoserver.acl.client.circuitBreaker.enabled=false")
+                .run(
+                        context -> {
+                            assertThat(context).hasNotFailed();
+                            assertThat(context).hasSingleBean(AuthorizationService.class);
                             assertThat(context)
                                     .hasSingleBean(AuthorizationServiceClientAdaptor.class);
                         });
     }
+
+    @Test
+    void testConnectionPoolConfigProperties() {
+        runner.withPropertyValues(
+                        "geoserver.acl.client.basePath=http://localhost:8181/acl/api",
+                        "geoserver.acl.client.maxConnections=32",
+                        "geoserver.acl.client.maxConnectionsPerRoute=16",
+                        "geoserver.acl.client.connectTimeout=2500",
+                        "geoserver.acl.client.readTimeout=PT10S",
+                        "geoserver.acl.client.bufferResponses=true")
+                .run(
+                        context -> {
+                            assertThat(context).hasNotFailed();
+                            ApiClientProperties props = context.getBean(ApiClientProperties.class);
+                            assertThat(props.getMaxConnectionsPerRoute()).isEqualTo(16);
+                            assertThat(props.getConnectTimeout())
+                                    .isEqualTo(Duration.ofMillis(2500));
+                            assertThat(props.getReadTimeout()).isEqualTo(Duration.ofSeconds(10));
+                            assertThat(props.getKeepAlive()).isEqualTo(Duration.ofSeconds(60));
+                            assertThat(props.isBufferResponses()).isTrue();
+                            assertThat(context.getBean(ApiClientConnectionPool.class).getMax())
+                                    .isEqualTo(32);
+                        });
+    }
 }
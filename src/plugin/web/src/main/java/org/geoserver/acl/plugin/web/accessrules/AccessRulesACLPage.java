@@ -79,7 +79,8 @@ public class AccessRulesACLPage extends GeoServerSecuredPage {
                 });
         panel.setOnEdit(
                 rule -> {
-                    DataAccessRuleEditModel editModel = new DataAccessRuleEditModel(rule);
+                    MutableRule complete = dataProvider.load(rule);
+                    DataAccessRuleEditModel editModel = new DataAccessRuleEditModel(complete);
                     setResponsePage(new DataAccessRuleEditPage(editModel));
                 });
         return panel;
@@ -6,8 +6,10 @@
  */
 package org.geoserver.acl.plugin.web.accessrules.model;
 
+import org.geoserver.acl.domain.filter.RuleQuery;
 import org.geoserver.acl.domain.rules.Rule;
 import org.geoserver.acl.domain.rules.RuleAdminService;
+import org.geoserver.acl.domain.rules.RuleFilter;
 import org.geoserver.acl.domain.rules.RuleIdentifierConflictException;
 import org.geoserver.acl.plugin.web.components.RulesDataProvider;
 import org.geoserver.acl.plugin.web.components.RulesTablePanel;
@@ -16,6 +18,7 @@ import org.geoserver.web.GeoServerApplication;
 import org.springframework.dao.DuplicateKeyException;
 
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -37,6 +40,8 @@ public class DataAccessRulesDataProvider extends RulesDataProvider<MutableRule>
     public static final Property<MutableRule> ADDRESS_RANGE = RuleBeanProperty.of("addressRange");
     public static final Property<MutableRule> BUTTONS = RulesTablePanel.buttons();
 
+    private static final Set<String> TABLE_FIELDS = Set.of("priority", "identifier");
+
     public DataAccessRulesDataProvider() {
         super(MutableRule.class);
     }
@@ -67,9 +72,21 @@ public class DataAccessRulesDataProvider extends RulesDataProvider<MutableRule>
         adminService().delete(rule.getId());
     }
 
+    /**
+     * Loads the rules with only the properties the table shows, leaving out their limits' allowed
+     * area geometries. Use {@link #load(MutableRule)} to get the complete rule.
+     */
     @Override
     protected List<MutableRule> doReload() {
-        return adminService().getAll().map(MutableRule::new).collect(Collectors.toList());
+        RuleQuery<RuleFilter> query = RuleQuery.<RuleFilter>of().setFields(TABLE_FIELDS);
+        return adminService().getAll(query).map(MutableRule::new).collect(Collectors.toList());
+    }
+
+    /**
+     * @return the complete rule of a table row
+     */
+    public MutableRule load(MutableRule rule) {
+        return new MutableRule(adminService().get(rule.getId()).orElseThrow());
     }
 
     @Override
@@ -82,8 +99,9 @@ public class DataAccessRulesDataProvider extends RulesDataProvider<MutableRule>
 
     @Override
     protected MutableRule update(MutableRule rule) throws DuplicateKeyException {
+        // table rows only have the identifier properties, the priority is all they can change
         Rule bigRule = adminService().get(rule.getId()).orElseThrow();
-        bigRule = rule.toRule(bigRule);
+        bigRule = bigRule.withPriority(rule.getPriority());
         try {
             bigRule = adminService().update(bigRule);
         } catch (RuleIdentifierConflictException e) {